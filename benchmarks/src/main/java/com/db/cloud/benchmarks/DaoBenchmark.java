@@ -0,0 +1,110 @@
+package com.db.cloud.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.db.cloud.benchmarks.model.FlatModel;
+import com.db.cloud.dao.CloudDatastoreDAOImpl;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.testing.InMemoryClientProvider;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+
+/**
+ * This class DaoBenchmark measures DAO operations end to end against
+ * InMemoryDatastore, so results show cost of DAO and mapping without network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+	/**
+	 * This FlatModelDAO class is DAO of benchmark model.
+	 */
+	public static class FlatModelDAO extends CloudDatastoreDAOImpl<FlatModel> {
+		public FlatModelDAO(InMemoryClientProvider clientProvider) {
+			super(FlatModel.class, clientProvider);
+		}
+	}
+
+	private static final int BATCH_SIZE = 100;
+
+	@Param({ "10000" })
+	public int entities;
+
+	private FlatModelDAO dao;
+	private FlatModel[] batch;
+
+	@Setup
+	public void setup() {
+		dao = new FlatModelDAO(new InMemoryClientProvider());
+		FlatModel[] models = new FlatModel[entities];
+		for (int i = 0; i < entities; i++) {
+			models[i] = FlatModel.sample(i + 1);
+		}
+		dao.bulkUpsert(models);
+		batch = new FlatModel[BATCH_SIZE];
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			batch[i] = FlatModel.sample(i + 1);
+		}
+	}
+
+	@Benchmark
+	public FlatModel findById() {
+		return dao.findById(randomId());
+	}
+
+	@Benchmark
+	public Object findByIds() {
+		Long[] ids = new Long[BATCH_SIZE];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = randomId();
+		}
+		return dao.findByIds(ids);
+	}
+
+	@Benchmark
+	public Object getByFields() {
+		return dao.getByFields(PropertyFilter.eq("quantity", randomId() % 1000));
+	}
+
+	@Benchmark
+	public Long add() {
+		FlatModel model = FlatModel.sample(0);
+		model.setId(null);
+		Long id = dao.add(model);
+		dao.delete(id);
+		return id;
+	}
+
+	@Benchmark
+	public FlatModel update() {
+		FlatModel model = FlatModel.sample(randomId());
+		dao.update(model);
+		return model;
+	}
+
+	@Benchmark
+	public BulkResult bulkUpsert() {
+		return dao.bulkUpsert(batch);
+	}
+
+	private long randomId() {
+		return ThreadLocalRandom.current().nextLong(1, entities + 1);
+	}
+}
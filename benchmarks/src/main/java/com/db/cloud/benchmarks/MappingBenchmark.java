@@ -0,0 +1,69 @@
+package com.db.cloud.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.db.cloud.benchmarks.model.FlatModel;
+import com.db.cloud.benchmarks.model.JsonModel;
+import com.db.cloud.benchmarks.model.ListModel;
+import com.db.cloud.testing.InMemoryDatastore;
+import com.db.cloud.util.CloudDatastoreRefUtil;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.KeyFactory;
+
+/**
+ * This class MappingBenchmark measures conversion of model in to entity and of
+ * entity in to model by CloudDatastoreRefUtil for each benchmark model shape.
+ * Run with GC profiler to see allocation per conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+	@Param({ "flat", "list", "json" })
+	public String shape;
+
+	private final CloudDatastoreRefUtil reflectionUtil = new CloudDatastoreRefUtil();
+	private KeyFactory keyFactory;
+	private Class<?> modelClassType;
+	private Object model;
+	private Entity entity;
+
+	@Setup
+	public void setup() {
+		if ("flat".equals(shape))
+			model = FlatModel.sample(42);
+		else if ("list".equals(shape))
+			model = ListModel.sample(42);
+		else
+			model = JsonModel.sample(42);
+		modelClassType = model.getClass();
+		keyFactory = new KeyFactory(InMemoryDatastore.PROJECT_ID).setKind(modelClassType.getSimpleName());
+		entity = (Entity) reflectionUtil.setModelToEntityBuilder(keyFactory, model, false).build();
+	}
+
+	@Benchmark
+	public Object encode() {
+		return reflectionUtil.setModelToEntityBuilder(keyFactory, model, false).build();
+	}
+
+	@Benchmark
+	public Object decode() {
+		return reflectionUtil.setEntityToModel(modelClassType, entity);
+	}
+}
@@ -0,0 +1,75 @@
+package com.db.cloud.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.db.cloud.converter.CloudDatastoreTypeConverter;
+import com.google.cloud.Timestamp;
+import com.google.cloud.datastore.Value;
+
+/**
+ * This class TypeConverterBenchmark measures list and timestamp conversions of
+ * CloudDatastoreTypeConverter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeConverterBenchmark {
+
+	@Param({ "10", "100" })
+	public int listSize;
+
+	private final CloudDatastoreTypeConverter converter = new CloudDatastoreTypeConverter();
+	private List<String> strings;
+	private List<Value<String>> values;
+	private Date date;
+	private Timestamp timestamp;
+
+	@Setup
+	public void setup() {
+		strings = new ArrayList<>();
+		for (int i = 0; i < listSize; i++) {
+			strings.add("value-" + i);
+		}
+		values = converter.javaCollectionToCloudList(strings);
+		date = new Date(1544659200000L);
+		timestamp = converter.javaDateToCloudTimestamp(date);
+	}
+
+	@Benchmark
+	public Object encodeList() {
+		return converter.javaCollectionToCloudList(strings);
+	}
+
+	@Benchmark
+	public Object decodeList() {
+		return converter.cloudListToJavaList(values);
+	}
+
+	@Benchmark
+	public Object encodeDate() {
+		return converter.javaDateToCloudTimestamp(date);
+	}
+
+	@Benchmark
+	public Object decodeDate() {
+		return converter.cloudTimestampToJavaDate(timestamp);
+	}
+}
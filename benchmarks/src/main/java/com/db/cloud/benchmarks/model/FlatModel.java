@@ -0,0 +1,102 @@
+package com.db.cloud.benchmarks.model;
+
+import java.util.Date;
+
+/**
+ * This class FlatModel is benchmark model holding wrapper type properties
+ * only.
+ */
+public class FlatModel {
+
+	private Long id;
+	private String name;
+	private String email;
+	private Integer quantity;
+	private Long amount;
+	private Double price;
+	private Boolean active;
+	private Date createdAt;
+
+	/**
+	 * This sample method returns model filled with values derived from seed.
+	 *
+	 * @param long seed - Value seed.
+	 * @return FlatModel
+	 */
+	public static FlatModel sample(long seed) {
+		FlatModel model = new FlatModel();
+		model.setId(seed);
+		model.setName("name-" + seed);
+		model.setEmail("user" + seed + "@example.com");
+		model.setQuantity((int) (seed % 1000));
+		model.setAmount(seed * 31);
+		model.setPrice(seed / 7.0);
+		model.setActive(seed % 2 == 0);
+		model.setCreatedAt(new Date(1544659200000L + seed));
+		return model;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+
+	public Long getAmount() {
+		return amount;
+	}
+
+	public void setAmount(Long amount) {
+		this.amount = amount;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		this.createdAt = createdAt;
+	}
+}
@@ -0,0 +1,152 @@
+package com.db.cloud.benchmarks.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.db.cloud.custom.annotation.JsonStringToObject;
+import com.db.cloud.custom.annotation.JsonToListCustomObject;
+import com.db.cloud.custom.annotation.JsonToListObject;
+import com.db.cloud.custom.annotation.JsonToMapObject;
+import com.db.cloud.custom.annotation.ListCustomObjectToJson;
+import com.db.cloud.custom.annotation.ListObjectToJson;
+import com.db.cloud.custom.annotation.MapObjectToJson;
+import com.db.cloud.custom.annotation.ObjectToJsonString;
+import com.db.cloud.marker.MarkerModel;
+
+/**
+ * This class JsonModel is benchmark model holding properties stored as json
+ * strings through custom annotations, including MarkerModel objects.
+ */
+public class JsonModel {
+
+	/**
+	 * This Address class is MarkerModel object stored inside JsonModel.
+	 */
+	public static class Address implements MarkerModel {
+		private String street;
+		private String city;
+		private Integer zip;
+
+		public String getStreet() {
+			return street;
+		}
+
+		public void setStreet(String street) {
+			this.street = street;
+		}
+
+		public String getCity() {
+			return city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+
+		public Integer getZip() {
+			return zip;
+		}
+
+		public void setZip(Integer zip) {
+			this.zip = zip;
+		}
+	}
+
+	private Long id;
+	private String name;
+	private Address address;
+	private List<Address> previousAddresses;
+	private List<String> aliases;
+	private Map<String, String> attributes;
+
+	/**
+	 * This sample method returns model filled with values derived from seed.
+	 *
+	 * @param long seed - Value seed.
+	 * @return JsonModel
+	 */
+	public static JsonModel sample(long seed) {
+		JsonModel model = new JsonModel();
+		model.setId(seed);
+		model.setName("name-" + seed);
+		model.setAddress(address(seed));
+		List<Address> previousAddresses = new ArrayList<>();
+		List<String> aliases = new ArrayList<>();
+		Map<String, String> attributes = new HashMap<>();
+		for (int i = 0; i < 5; i++) {
+			previousAddresses.add(address(seed + i + 1));
+			aliases.add("alias-" + (seed + i));
+			attributes.put("key-" + i, "value-" + (seed + i));
+		}
+		model.setPreviousAddresses(previousAddresses);
+		model.setAliases(aliases);
+		model.setAttributes(attributes);
+		return model;
+	}
+
+	private static Address address(long seed) {
+		Address address = new Address();
+		address.setStreet(seed + " Main Street");
+		address.setCity("city-" + seed % 100);
+		address.setZip((int) (10000 + seed % 90000));
+		return address;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	@ObjectToJsonString
+	public Address getAddress() {
+		return address;
+	}
+
+	@JsonStringToObject
+	public void setAddress(Address address) {
+		this.address = address;
+	}
+
+	@ListCustomObjectToJson
+	public List<Address> getPreviousAddresses() {
+		return previousAddresses;
+	}
+
+	@JsonToListCustomObject
+	public void setPreviousAddresses(List<Address> previousAddresses) {
+		this.previousAddresses = previousAddresses;
+	}
+
+	@ListObjectToJson
+	public List<String> getAliases() {
+		return aliases;
+	}
+
+	@JsonToListObject
+	public void setAliases(List<String> aliases) {
+		this.aliases = aliases;
+	}
+
+	@MapObjectToJson
+	public Map<String, String> getAttributes() {
+		return attributes;
+	}
+
+	@JsonToMapObject
+	public void setAttributes(Map<String, String> attributes) {
+		this.attributes = attributes;
+	}
+}
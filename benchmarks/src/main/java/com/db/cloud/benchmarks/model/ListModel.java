@@ -0,0 +1,74 @@
+package com.db.cloud.benchmarks.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class ListModel is benchmark model holding list properties stored as
+ * data store list values.
+ */
+public class ListModel {
+
+	/**
+	 * This LIST_SIZE is number of elements of every list of sample model.
+	 */
+	public static final int LIST_SIZE = 20;
+
+	private Long id;
+	private String name;
+	private List<String> tags;
+	private List<Long> scores;
+
+	/**
+	 * This sample method returns model filled with values derived from seed.
+	 *
+	 * @param long seed - Value seed.
+	 * @return ListModel
+	 */
+	public static ListModel sample(long seed) {
+		ListModel model = new ListModel();
+		model.setId(seed);
+		model.setName("name-" + seed);
+		List<String> tags = new ArrayList<>();
+		List<Long> scores = new ArrayList<>();
+		for (int i = 0; i < LIST_SIZE; i++) {
+			tags.add("tag-" + (seed + i));
+			scores.add(seed * i);
+		}
+		model.setTags(tags);
+		model.setScores(scores);
+		return model;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<String> tags) {
+		this.tags = tags;
+	}
+
+	public List<Long> getScores() {
+		return scores;
+	}
+
+	public void setScores(List<Long> scores) {
+		this.scores = scores;
+	}
+}
@@ -0,0 +1,509 @@
+package com.db.cloud.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * This annotation processor EntityMapperProcessor generates EntityMapper for
+ * every model class annotated with GenerateEntityMapper. Generated mapper
+ * converts data store entity in to model and vice versa by direct getter and
+ * setter calls and honours custom annotations of com.db.cloud.custom.annotation
+ * package same way as CloudDatastoreRefUtil. Property types which can't be
+ * stored are reported as compile errors.
+ */
+public class EntityMapperProcessor extends AbstractProcessor {
+
+	private static final String ANNOTATION_PACKAGE = "com.db.cloud.custom.annotation.";
+	private static final String GENERATE_ENTITY_MAPPER = ANNOTATION_PACKAGE + "GenerateEntityMapper";
+	private static final String CLOUD_INSERT_IGNORE = ANNOTATION_PACKAGE + "CloudInsertIgnore";
+	private static final String JSON_STRING_TO_OBJECT = ANNOTATION_PACKAGE + "JsonStringToObject";
+	private static final String JSON_TO_LIST_CUSTOM_OBJECT = ANNOTATION_PACKAGE + "JsonToListCustomObject";
+	private static final String JSON_TO_LIST_OBJECT = ANNOTATION_PACKAGE + "JsonToListObject";
+	private static final String JSON_TO_MAP_OBJECT = ANNOTATION_PACKAGE + "JsonToMapObject";
+	private static final String LIST_CUSTOM_OBJECT_TO_JSON = ANNOTATION_PACKAGE + "ListCustomObjectToJson";
+	private static final String LIST_OBJECT_TO_JSON = ANNOTATION_PACKAGE + "ListObjectToJson";
+	private static final String MAP_OBJECT_TO_JSON = ANNOTATION_PACKAGE + "MapObjectToJson";
+	private static final String OBJECT_TO_JSON_STRING = ANNOTATION_PACKAGE + "ObjectToJsonString";
+	private static final String MARKER_MODEL = "com.db.cloud.marker.MarkerModel";
+	private static final String MAPPER_SUFFIX = "_EntityMapper";
+
+	private static final String STRING_TYPE = "java.lang.String";
+	private static final String INTEGER_TYPE = "java.lang.Integer";
+	private static final String LONG_TYPE = "java.lang.Long";
+	private static final String BOOLEAN_TYPE = "java.lang.Boolean";
+	private static final String DOUBLE_TYPE = "java.lang.Double";
+	private static final String COLLECTION_TYPE = "java.util.Collection";
+	private static final String LIST_TYPE = "java.util.List";
+	private static final String MAP_TYPE = "java.util.Map";
+	private static final String JAVA_UTIL_DATE = "java.util.Date";
+
+	/**
+	 * This Property class holds getter, setter and resolved codecs of one model
+	 * property.
+	 */
+	private static class Property {
+		String name;
+		ExecutableElement getter;
+		ExecutableElement setter;
+		TypeMirror type;
+		String readCodec;
+		String jsonReadCodec;
+		String jsonReadType;
+		String writeCodec;
+		boolean readable;
+		boolean writable;
+	}
+
+	private Elements elements;
+	private Types types;
+	private Messager messager;
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(GENERATE_ENTITY_MAPPER);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		elements = processingEnv.getElementUtils();
+		types = processingEnv.getTypeUtils();
+		messager = processingEnv.getMessager();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() != ElementKind.CLASS) {
+					messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateEntityMapper is allowed on classes only",
+							element);
+					continue;
+				}
+				generateMapper((TypeElement) element);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This generateMapper method validates model class and writes its entity
+	 * mapper source file.
+	 */
+	private void generateMapper(TypeElement model) {
+		if (!validateModel(model))
+			return;
+		Map<String, Property> properties = collectProperties(model);
+		boolean valid = true;
+		for (Property property : properties.values()) {
+			valid &= resolveCodecs(model, property);
+		}
+		if (!valid)
+			return;
+
+		PackageElement packageElement = elements.getPackageOf(model);
+		String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+		String binaryName = elements.getBinaryName(model).toString();
+		String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		String mapperSimpleName = simpleBinaryName.replace('$', '_') + MAPPER_SUFFIX;
+		String mapperName = packageName.isEmpty() ? mapperSimpleName : packageName + "." + mapperSimpleName;
+
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(mapperName, model);
+			try (Writer writer = file.openWriter()) {
+				writer.write(renderMapper(packageName, mapperSimpleName, model, properties));
+			}
+		} catch (IOException e) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Unable to write entity mapper : " + e.getMessage(), model);
+		}
+	}
+
+	private boolean validateModel(TypeElement model) {
+		boolean valid = true;
+		if (model.getModifiers().contains(Modifier.ABSTRACT)) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Entity model must not be abstract", model);
+			valid = false;
+		}
+		if (model.getModifiers().contains(Modifier.PRIVATE)
+				|| (model.getNestingKind() == NestingKind.MEMBER && !model.getModifiers().contains(Modifier.STATIC))
+				|| model.getNestingKind() == NestingKind.LOCAL || model.getNestingKind() == NestingKind.ANONYMOUS) {
+			messager.printMessage(Diagnostic.Kind.ERROR,
+					"Entity model must be top level or static nested class visible in its package", model);
+			valid = false;
+		}
+		boolean hasDefaultConstructor = false;
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(model.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))
+				hasDefaultConstructor = true;
+		}
+		if (!hasDefaultConstructor) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Entity model must have public no argument constructor",
+					model);
+			valid = false;
+		}
+		ExecutableElement getId = null;
+		for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(model))) {
+			if (method.getSimpleName().contentEquals("getId") && method.getParameters().isEmpty()
+					&& method.getModifiers().contains(Modifier.PUBLIC)
+					&& !method.getModifiers().contains(Modifier.STATIC))
+				getId = method;
+		}
+		if (getId == null || !LONG_TYPE.equals(typeName(getId.getReturnType()))) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "Entity model must have public java.lang.Long getId()",
+					model);
+			valid = false;
+		}
+		return valid;
+	}
+
+	/**
+	 * This collectProperties method finds bean properties of model same way as
+	 * java.beans.Introspector, sorted by property name.
+	 */
+	private Map<String, Property> collectProperties(TypeElement model) {
+		Map<String, Property> properties = new TreeMap<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(model))) {
+			Set<Modifier> modifiers = method.getModifiers();
+			if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC))
+				continue;
+			if (((TypeElement) method.getEnclosingElement()).getQualifiedName().contentEquals("java.lang.Object"))
+				continue;
+			String methodName = method.getSimpleName().toString();
+			List<?> parameters = method.getParameters();
+			TypeMirror returnType = method.getReturnType();
+			if (parameters.isEmpty() && returnType.getKind() != TypeKind.VOID) {
+				String name = null;
+				if (methodName.startsWith("get") && methodName.length() > 3)
+					name = decapitalize(methodName.substring(3));
+				else if (methodName.startsWith("is") && methodName.length() > 2
+						&& returnType.getKind() == TypeKind.BOOLEAN)
+					name = decapitalize(methodName.substring(2));
+				if (name != null)
+					property(properties, name).getter = method;
+			} else if (parameters.size() == 1 && returnType.getKind() == TypeKind.VOID && methodName.startsWith("set")
+					&& methodName.length() > 3) {
+				property(properties, decapitalize(methodName.substring(3))).setter = method;
+			}
+		}
+		for (Property property : properties.values()) {
+			TypeMirror getterType = property.getter != null ? property.getter.getReturnType() : null;
+			TypeMirror setterType = property.setter != null ? property.setter.getParameters().get(0).asType()
+					: null;
+			if (getterType != null && setterType != null
+					&& !types.isSameType(types.erasure(getterType), types.erasure(setterType))) {
+				// java.beans.Introspector keeps getter only when types differ
+				property.setter = null;
+			}
+			property.type = getterType != null ? getterType : setterType;
+		}
+		return properties;
+	}
+
+	private Property property(Map<String, Property> properties, String name) {
+		Property property = properties.get(name);
+		if (property == null) {
+			property = new Property();
+			property.name = name;
+			properties.put(name, property);
+		}
+		return property;
+	}
+
+	/**
+	 * This resolveCodecs method chooses read and write codec of property from its
+	 * type and annotations and reports unsupported properties.
+	 */
+	private boolean resolveCodecs(TypeElement model, Property property) {
+		String typeName = typeName(property.type);
+		boolean isId = "id".equals(property.name);
+		property.readable = property.setter != null && !isAnnotated(property.setter, CLOUD_INSERT_IGNORE);
+		property.writable = property.getter != null && !isAnnotated(property.getter, CLOUD_INSERT_IGNORE);
+		boolean valid = true;
+
+		if (property.readable) {
+			if (isId) {
+				property.readCodec = "ID";
+				if (!LONG_TYPE.equals(typeName))
+					valid = error(property.setter, "Entity key property id must be java.lang.Long");
+			} else {
+				property.readCodec = readCodec(typeName, property.setter);
+				if (!STRING_TYPE.equals(typeName))
+					property.jsonReadCodec = jsonReadCodec(property.setter);
+				if (property.jsonReadCodec != null) {
+					property.jsonReadType = jsonReadType(property);
+					if (property.jsonReadType == null)
+						valid = error(property.setter,
+								"Unsupported json property type " + property.type + " for " + property.name);
+				} else if ("NONE".equals(property.readCodec) || "VALUE_LIST".equals(property.readCodec)) {
+					valid = error(property.setter, "Unsupported property type " + property.type + " for "
+							+ property.name + ", add json annotation or @CloudInsertIgnore");
+				}
+			}
+		}
+
+		if (property.writable) {
+			property.writeCodec = writeCodec(typeName, property.getter);
+			if ("NONE".equals(property.writeCodec)) {
+				valid = error(property.getter, "Unsupported property type " + property.type + " for "
+						+ property.name + ", add json annotation or @CloudInsertIgnore");
+			} else if ("JSON_MARKER_OBJECT".equals(property.writeCodec)) {
+				TypeElement marker = elements.getTypeElement(MARKER_MODEL);
+				if (marker == null
+						|| !types.isAssignable(types.erasure(property.type), types.erasure(marker.asType())))
+					valid = error(property.getter,
+							"@ObjectToJsonString property " + property.name + " must implement " + MARKER_MODEL);
+			}
+		}
+		return valid;
+	}
+
+	private String readCodec(String typeName, ExecutableElement setter) {
+		switch (typeName) {
+		case LONG_TYPE:
+			return "LONG";
+		case INTEGER_TYPE:
+			return "INTEGER";
+		case DOUBLE_TYPE:
+			return "DOUBLE";
+		case STRING_TYPE:
+			return "STRING";
+		case BOOLEAN_TYPE:
+			return "BOOLEAN";
+		case JAVA_UTIL_DATE:
+			return "DATE";
+		case LIST_TYPE:
+		case COLLECTION_TYPE:
+			String element = lastTypeArgument(setter.getParameters().get(0).asType());
+			if (STRING_TYPE.equals(element))
+				return "STRING_LIST";
+			if (LONG_TYPE.equals(element))
+				return "LONG_LIST";
+			return "VALUE_LIST";
+		default:
+			return "NONE";
+		}
+	}
+
+	private String jsonReadCodec(ExecutableElement setter) {
+		if (isAnnotated(setter, JSON_TO_LIST_OBJECT) || isAnnotated(setter, JSON_TO_LIST_CUSTOM_OBJECT))
+			return "JSON_LIST";
+		if (isAnnotated(setter, JSON_STRING_TO_OBJECT))
+			return "JSON_OBJECT";
+		if (isAnnotated(setter, JSON_TO_MAP_OBJECT))
+			return "JSON_MAP";
+		return null;
+	}
+
+	/**
+	 * This jsonReadType method returns java expression of gson target type or
+	 * null if property type is not supported.
+	 */
+	private String jsonReadType(Property property) {
+		TypeMirror type = property.setter.getParameters().get(0).asType();
+		switch (property.jsonReadCodec) {
+		case "JSON_LIST":
+			String element = lastTypeArgument(type);
+			if (element == null)
+				return null;
+			return "new TypeToken<java.util.List<" + element + ">>() {\n\t\t\t}.getType()";
+		case "JSON_OBJECT":
+			return types.erasure(type).toString() + ".class";
+		case "JSON_MAP":
+			List<? extends TypeMirror> arguments = type.getKind() == TypeKind.DECLARED
+					? ((DeclaredType) type).getTypeArguments()
+					: Collections.<TypeMirror>emptyList();
+			if (arguments.size() < 2)
+				return null;
+			String key = typeName(arguments.get(0));
+			String value = typeName(arguments.get(1));
+			if (STRING_TYPE.equals(key) && STRING_TYPE.equals(value))
+				return "new TypeToken<java.util.Map<java.lang.String, java.lang.String>>() {\n\t\t\t}.getType()";
+			if (LONG_TYPE.equals(key) && LONG_TYPE.equals(value))
+				return "new TypeToken<java.util.Map<java.lang.Long, java.lang.Long>>() {\n\t\t\t}.getType()";
+			return null;
+		default:
+			return null;
+		}
+	}
+
+	private String writeCodec(String typeName, ExecutableElement getter) {
+		switch (typeName) {
+		case STRING_TYPE:
+			return "STRING";
+		case JAVA_UTIL_DATE:
+			return "DATE";
+		case LONG_TYPE:
+			return "LONG";
+		case INTEGER_TYPE:
+			return "INTEGER";
+		case BOOLEAN_TYPE:
+			return "BOOLEAN";
+		case DOUBLE_TYPE:
+			return "DOUBLE";
+		case COLLECTION_TYPE:
+		case LIST_TYPE:
+			if (isAnnotated(getter, LIST_OBJECT_TO_JSON))
+				return "JSON";
+			if (isAnnotated(getter, LIST_CUSTOM_OBJECT_TO_JSON))
+				return "JSON_MARKER_LIST";
+			String element = lastTypeArgument(getter.getReturnType());
+			if (STRING_TYPE.equals(element))
+				return "STRING_LIST";
+			if (LONG_TYPE.equals(element))
+				return "LONG_LIST";
+			return "NONE";
+		case MAP_TYPE:
+			if (isAnnotated(getter, MAP_OBJECT_TO_JSON))
+				return "JSON";
+		default:
+			if (isAnnotated(getter, OBJECT_TO_JSON_STRING))
+				return "JSON_MARKER_OBJECT";
+			return "NONE";
+		}
+	}
+
+	/**
+	 * This renderMapper method returns source code of generated mapper.
+	 */
+	private String renderMapper(String packageName, String mapperSimpleName, TypeElement model,
+			Map<String, Property> properties) {
+		String modelName = model.getQualifiedName().toString();
+		StringBuilder fields = new StringBuilder();
+		StringBuilder toModel = new StringBuilder();
+		StringBuilder toEntity = new StringBuilder();
+		int typeIndex = 0;
+		for (Property property : properties.values()) {
+			String setterName = property.setter != null ? property.setter.getSimpleName().toString() : null;
+			if (property.readable) {
+				if ("ID".equals(property.readCodec)) {
+					toModel.append("\t\tif (entity.getKey() instanceof Key) {\n")
+							.append("\t\t\tLong id = ((Key) entity.getKey()).getId();\n")
+							.append("\t\t\tif (id != null)\n").append("\t\t\t\tmodel.").append(setterName)
+							.append("(id);\n").append("\t\t}\n");
+				} else {
+					String jsonType = "null";
+					if (property.jsonReadType != null) {
+						jsonType = "JSON_" + (typeIndex++);
+						fields.append("\tprivate static final TypeAdapter<Object> ").append(jsonType)
+								.append(" = CloudDatastoreGson\n\t\t\t.adapterFor(").append(property.jsonReadType)
+								.append(");\n");
+					}
+					toModel.append("\t\tvalue = CODEC.read(entity, \"").append(property.name)
+							.append("\", ReadCodec.").append(property.readCodec).append(", ")
+							.append(property.jsonReadCodec != null ? "ReadCodec." + property.jsonReadCodec : "null")
+							.append(", ").append(jsonType).append(", \"").append(typeName(property.type))
+							.append("\");\n").append("\t\tif (value != null)\n").append("\t\t\tmodel.")
+							.append(setterName).append("((").append(property.type.toString()).append(") value);\n");
+				}
+			}
+			if (property.writable) {
+				String read = "model." + property.getter.getSimpleName() + "()";
+				if ("id".equals(property.name)) {
+					toEntity.append("\t\tif (isUserGenKey && isAddOperation)\n").append("\t\t\tCODEC.write(builder, \"id\", WriteCodec.")
+							.append(property.writeCodec).append(", kindId);\n");
+				} else {
+					toEntity.append("\t\tCODEC.write(builder, \"").append(property.name).append("\", WriteCodec.")
+							.append(property.writeCodec).append(", ").append(read).append(");\n");
+				}
+			}
+		}
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty())
+			source.append("package ").append(packageName).append(";\n\n");
+		source.append("import com.db.cloud.mapper.EntityMapper;\n")
+				.append("import com.db.cloud.util.CloudDatastoreGson;\n")
+				.append("import com.db.cloud.util.EntityValueCodec;\n")
+				.append("import com.db.cloud.util.PropertyMapping.ReadCodec;\n")
+				.append("import com.db.cloud.util.PropertyMapping.WriteCodec;\n")
+				.append("import com.google.cloud.datastore.BaseEntity;\n")
+				.append("import com.google.cloud.datastore.Entity;\n")
+				.append("import com.google.cloud.datastore.Key;\n")
+				.append("import com.google.cloud.datastore.KeyFactory;\n")
+				.append("import com.google.gson.TypeAdapter;\n")
+				.append("import com.google.gson.reflect.TypeToken;\n\n");
+		source.append("/**\n * Entity mapper of ").append(modelName)
+				.append(" generated by EntityMapperProcessor. Do not edit.\n */\n");
+		source.append("public final class ").append(mapperSimpleName).append(" implements EntityMapper<")
+				.append(modelName).append("> {\n\n");
+		source.append("\tprivate static final EntityValueCodec CODEC = new EntityValueCodec();\n");
+		source.append(fields).append("\n");
+		source.append("\t@SuppressWarnings(\"unchecked\")\n\t@Override\n\tpublic ").append(modelName)
+				.append(" toModel(BaseEntity<?> entity) {\n").append("\t\t").append(modelName)
+				.append(" model = new ").append(modelName).append("();\n").append("\t\tObject value;\n")
+				.append(toModel).append("\t\treturn model;\n\t}\n\n");
+		source.append("\t@SuppressWarnings(\"rawtypes\")\n\t@Override\n\tpublic BaseEntity.Builder toEntityBuilder(KeyFactory keyFactory, ")
+				.append(modelName).append(" model, boolean isAddOperation) {\n")
+				.append("\t\tLong kindId = model.getId();\n").append("\t\tboolean isUserGenKey = kindId != null;\n")
+				.append("\t\tBaseEntity.Builder builder;\n").append("\t\tif (isAddOperation && !isUserGenKey)\n")
+				.append("\t\t\tbuilder = Entity.newBuilder(keyFactory.newKey());\n").append("\t\telse\n")
+				.append("\t\t\tbuilder = Entity.newBuilder(keyFactory.newKey(kindId));\n").append(toEntity)
+				.append("\t\treturn builder;\n\t}\n}\n");
+		return source.toString();
+	}
+
+	private boolean isAnnotated(ExecutableElement method, String annotationName) {
+		for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+					.contentEquals(annotationName))
+				return true;
+		}
+		return false;
+	}
+
+	private String typeName(TypeMirror type) {
+		if (type.getKind() == TypeKind.DECLARED)
+			return elements.getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+		return types.erasure(type).toString();
+	}
+
+	private String lastTypeArgument(TypeMirror type) {
+		if (type.getKind() != TypeKind.DECLARED)
+			return null;
+		List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+		if (arguments.isEmpty() || arguments.get(arguments.size() - 1).getKind() != TypeKind.DECLARED)
+			return null;
+		return typeName(arguments.get(arguments.size() - 1)).replace('$', '.');
+	}
+
+	private boolean error(Element element, String message) {
+		messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+		return false;
+	}
+
+	/**
+	 * This decapitalize method converts accessor suffix in to property name same
+	 * way as java.beans.Introspector.
+	 */
+	private static String decapitalize(String name) {
+		if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0)))
+			return name;
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+	}
+}
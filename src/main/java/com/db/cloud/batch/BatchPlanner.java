@@ -0,0 +1,69 @@
+package com.db.cloud.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This utility class BatchPlanner splits bulk mutation in to chunks which stay
+ * within data store per commit mutation count and request size limits.
+ */
+public final class BatchPlanner {
+
+	/**
+	 * This MAX_MUTATIONS_PER_COMMIT is maximum number of mutations data store
+	 * accepts in one commit.
+	 */
+	public static final int MAX_MUTATIONS_PER_COMMIT = 500;
+
+	/**
+	 * This MAX_REQUEST_BYTES is maximum size of one data store commit request.
+	 */
+	public static final long MAX_REQUEST_BYTES = 10L * 1024 * 1024;
+
+	private BatchPlanner() {
+	}
+
+	/**
+	 * This plan method splits items in to consecutive chunks. Chunk is closed
+	 * when adding next item would exceed maxMutations items or maxBytes bytes.
+	 * Item bigger than maxBytes gets chunk of its own.
+	 *
+	 * @param int[] sizes - Estimated size of every item in bytes.
+	 * @param       int maxMutations - Maximum items per chunk.
+	 * @param       long maxBytes - Maximum bytes per chunk.
+	 * @return List<int[]> - Chunks as {start, end} index pairs, end exclusive.
+	 */
+	public static List<int[]> plan(int[] sizes, int maxMutations, long maxBytes) {
+		List<int[]> chunks = new ArrayList<>();
+		int start = 0;
+		long bytes = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			int count = i - start;
+			if (count > 0 && (count >= maxMutations || bytes + sizes[i] > maxBytes)) {
+				chunks.add(new int[] { start, i });
+				start = i;
+				bytes = 0;
+			}
+			bytes += sizes[i];
+		}
+		if (start < sizes.length)
+			chunks.add(new int[] { start, sizes.length });
+		return chunks;
+	}
+
+	/**
+	 * This plan method splits items of equal size in to chunks of at most
+	 * maxMutations items.
+	 *
+	 * @param int count - Number of items.
+	 * @param     int maxMutations - Maximum items per chunk.
+	 * @return List<int[]> - Chunks as {start, end} index pairs, end exclusive.
+	 */
+	public static List<int[]> plan(int count, int maxMutations) {
+		List<int[]> chunks = new ArrayList<>();
+		for (int start = 0; start < count; start += maxMutations) {
+			chunks.add(new int[] { start, Math.min(start + maxMutations, count) });
+		}
+		return chunks;
+	}
+}
@@ -0,0 +1,107 @@
+package com.db.cloud.batch;
+
+import java.util.List;
+
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.Blob;
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.PathElement;
+import com.google.cloud.datastore.Value;
+
+/**
+ * This utility class EntitySizeEstimator estimates serialized size of data store
+ * entity without building its protocol buffer. Estimate is slightly above real
+ * size, so batch planned by it stays within data store request size limit.
+ */
+public final class EntitySizeEstimator {
+
+	/**
+	 * This FIELD_OVERHEAD covers tag and length bytes of one encoded field.
+	 */
+	private static final int FIELD_OVERHEAD = 6;
+
+	private EntitySizeEstimator() {
+	}
+
+	/**
+	 * This estimate method returns estimated serialized size of passed entity in
+	 * bytes.
+	 *
+	 * @param BaseEntity<?> entity - Data store entity.
+	 * @return int - Estimated size in bytes.
+	 */
+	public static int estimate(BaseEntity<?> entity) {
+		int size = FIELD_OVERHEAD + estimateKey(entity.getKey());
+		for (String name : entity.getNames()) {
+			size += FIELD_OVERHEAD * 2 + utf8Length(name) + estimateValue(entity.getValue(name));
+		}
+		return size;
+	}
+
+	/**
+	 * This estimateKey method returns estimated serialized size of passed key in
+	 * bytes.
+	 *
+	 * @param IncompleteKey key - Data store key.
+	 * @return int - Estimated size in bytes.
+	 */
+	public static int estimateKey(IncompleteKey key) {
+		if (key == null)
+			return 0;
+		int size = FIELD_OVERHEAD * 2 + utf8Length(key.getProjectId()) + utf8Length(key.getNamespace());
+		for (PathElement element : key.getAncestors()) {
+			size += estimatePathElement(element.getKind(), element.getName());
+		}
+		String name = key instanceof Key ? ((Key) key).getName() : null;
+		size += estimatePathElement(key.getKind(), name);
+		return size;
+	}
+
+	private static int estimatePathElement(String kind, String name) {
+		return FIELD_OVERHEAD * 2 + utf8Length(kind) + (name != null ? utf8Length(name) : 10);
+	}
+
+	private static int estimateValue(Value<?> value) {
+		switch (value.getType()) {
+		case STRING:
+			return FIELD_OVERHEAD + utf8Length((String) value.get());
+		case LIST:
+			int size = FIELD_OVERHEAD;
+			for (Object element : (List<?>) value.get()) {
+				size += FIELD_OVERHEAD + estimateValue((Value<?>) element);
+			}
+			return size;
+		case ENTITY:
+			return FIELD_OVERHEAD + estimate((FullEntity<?>) value.get());
+		case KEY:
+			return FIELD_OVERHEAD + estimateKey((Key) value.get());
+		case BLOB:
+			return FIELD_OVERHEAD + ((Blob) value.get()).getLength();
+		case RAW_VALUE:
+			return FIELD_OVERHEAD + 64;
+		default:
+			return FIELD_OVERHEAD + 12;
+		}
+	}
+
+	private static int utf8Length(String text) {
+		if (text == null)
+			return 0;
+		int length = 0;
+		for (int i = 0, n = text.length(); i < n; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80)
+				length++;
+			else if (c < 0x800)
+				length += 2;
+			else if (Character.isHighSurrogate(c)) {
+				length += 4;
+				i++;
+			} else
+				length += 3;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,89 @@
+package com.db.cloud.cache;
+
+/**
+ * This class CacheStats is snapshot of entity cache statistics.
+ */
+public class CacheStats {
+	private final long hitCount;
+	private final long missCount;
+	private final long negativeHitCount;
+	private final long evictionCount;
+	private final long rejectionCount;
+	private final long invalidationCount;
+	private final int size;
+
+	public CacheStats(long hitCount, long missCount, long negativeHitCount, long evictionCount, long rejectionCount,
+			long invalidationCount, int size) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.negativeHitCount = negativeHitCount;
+		this.evictionCount = evictionCount;
+		this.rejectionCount = rejectionCount;
+		this.invalidationCount = invalidationCount;
+		this.size = size;
+	}
+
+	/**
+	 * This getHitCount method returns number of lookups answered by cache,
+	 * including negative hits.
+	 *
+	 * @return long
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * This getNegativeHitCount method returns number of lookups answered by
+	 * cached absence of entity.
+	 *
+	 * @return long
+	 */
+	public long getNegativeHitCount() {
+		return negativeHitCount;
+	}
+
+	/**
+	 * This getEvictionCount method returns number of entries removed because of
+	 * size bound or expiry.
+	 *
+	 * @return long
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * This getRejectionCount method returns number of loaded entries not cached
+	 * because they were accessed less often than entry they would replace.
+	 *
+	 * @return long
+	 */
+	public long getRejectionCount() {
+		return rejectionCount;
+	}
+
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 1.0 : (double) hitCount / requests;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount + ", negativeHitCount="
+				+ negativeHitCount + ", evictionCount=" + evictionCount + ", rejectionCount=" + rejectionCount
+				+ ", invalidationCount=" + invalidationCount + ", size=" + size + "]";
+	}
+}
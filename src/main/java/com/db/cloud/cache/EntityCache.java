@@ -0,0 +1,262 @@
+package com.db.cloud.cache;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class EntityCache is bounded cache of entities by data store key. Entry
+ * expires after time to live, missing key may be cached as ABSENT. When cache
+ * is full new entry replaces entry not read since clock hand last passed it
+ * only if its key was accessed more often, so single scan over many keys does
+ * not flush popular entries. Access frequency is estimated by FrequencySketch.
+ *
+ * Entries are held in ConcurrentHashMap, so hit takes no lock. Eviction order
+ * and frequency sketch are guarded by locks of their own; hit records its
+ * access in sketch only when sketch is free, so it never waits.
+ *
+ * Loader takes load token of key before reading data store and passes it to
+ * put. Invalidation of key between them makes put ignore loaded value, so value
+ * read before write never replaces invalidation done after write.
+ */
+public class EntityCache {
+
+	/**
+	 * This ABSENT value is returned by get when key is cached as missing.
+	 */
+	public static final Object ABSENT = new Object();
+
+	private static final int TOKEN_STRIPES = 64;
+
+	/**
+	 * This CacheEntry class holds cached value, its expiry time and whether it
+	 * was read since clock hand last passed it.
+	 */
+	private static final class CacheEntry {
+		private final Long id;
+		private final Object value;
+		private final long expiresAt;
+		private volatile boolean referenced;
+
+		private CacheEntry(Long id, Object value, long expiresAt) {
+			this.id = id;
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return expiresAt - now <= 0;
+		}
+	}
+
+	private final int maximumSize;
+	private final long ttlNanos;
+	private final long negativeTtlNanos;
+	private final ConcurrentHashMap<Long, CacheEntry> entries = new ConcurrentHashMap<>();
+	private final AtomicLongArray tokens = new AtomicLongArray(TOKEN_STRIPES);
+
+	/**
+	 * This clock variable holds entries in insertion order for eviction. Entry
+	 * which was replaced or removed stays in it until clock hand reaches it.
+	 */
+	private final ArrayDeque<CacheEntry> clock = new ArrayDeque<>();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final FrequencySketch sketch;
+	private final ReentrantLock sketchLock = new ReentrantLock();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder negativeHitCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder rejectionCount = new LongAdder();
+	private final LongAdder invalidationCount = new LongAdder();
+
+	/**
+	 * This EntityCache constructor creates empty cache as per passed config.
+	 *
+	 * @param EntityCacheConfig config - Cache options.
+	 */
+	public EntityCache(EntityCacheConfig config) {
+		this.maximumSize = config.getMaximumSize();
+		this.ttlNanos = config.getTtlMillis() * 1000000L;
+		this.negativeTtlNanos = config.getNegativeTtlMillis() * 1000000L;
+		this.sketch = new FrequencySketch(maximumSize);
+	}
+
+	/**
+	 * This get method returns cached value of key, ABSENT when key is cached as
+	 * missing or null when key is not cached.
+	 *
+	 * @param Long id - Data store key.
+	 * @return Object
+	 */
+	public Object get(Long id) {
+		if (sketchLock.tryLock()) {
+			try {
+				sketch.increment(id);
+			} finally {
+				sketchLock.unlock();
+			}
+		}
+		CacheEntry entry = entries.get(id);
+		if (entry != null && entry.isExpired(System.nanoTime())) {
+			if (entries.remove(id, entry))
+				evictionCount.increment();
+			entry = null;
+		}
+		if (entry == null) {
+			missCount.increment();
+			return null;
+		}
+		if (!entry.referenced)
+			entry.referenced = true;
+		hitCount.increment();
+		if (entry.value == ABSENT)
+			negativeHitCount.increment();
+		return entry.value;
+	}
+
+	/**
+	 * This loadToken method returns token which must be taken before key is read
+	 * from data store and passed to put.
+	 *
+	 * @param Long id - Data store key.
+	 * @return long
+	 */
+	public long loadToken(Long id) {
+		return tokens.get(stripe(id));
+	}
+
+	/**
+	 * This put method caches loaded value of key unless key was invalidated
+	 * after token was taken. Null value caches key as missing.
+	 *
+	 * @param Long   id - Data store key.
+	 * @param Object value - Loaded entity or model or null.
+	 * @param        long token - Load token taken before read.
+	 */
+	public void put(Long id, Object value, long token) {
+		if (tokens.get(stripe(id)) != token)
+			return;
+		if (value == null && negativeTtlNanos == 0)
+			return;
+		long expiresAt = System.nanoTime() + (value == null ? negativeTtlNanos : ttlNanos);
+		CacheEntry entry = new CacheEntry(id, value == null ? ABSENT : value, expiresAt);
+		evictionLock.lock();
+		try {
+			if (!entries.containsKey(id) && entries.size() >= maximumSize && !evictFor(id))
+				return;
+			// token is checked again under lock of key, which invalidate takes too
+			if (entries.compute(id, (key, current) -> tokens.get(stripe(id)) == token ? entry : current) != entry)
+				return;
+			clock.addLast(entry);
+			if (clock.size() > 2 * maximumSize + TOKEN_STRIPES)
+				purgeClock();
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * This invalidate method removes key from cache and makes loads started
+	 * before it not cache their value.
+	 *
+	 * @param Long id - Data store key.
+	 */
+	public void invalidate(Long id) {
+		entries.compute(id, (key, current) -> {
+			tokens.incrementAndGet(stripe(id));
+			return null;
+		});
+		invalidationCount.increment();
+	}
+
+	/**
+	 * This invalidateAll method removes all keys from cache.
+	 */
+	public void invalidateAll() {
+		for (int i = 0; i < TOKEN_STRIPES; i++) {
+			tokens.incrementAndGet(i);
+		}
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+			invalidationCount.increment();
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * This stats method returns snapshot of cache statistics.
+	 *
+	 * @return CacheStats
+	 */
+	public CacheStats stats() {
+		return new CacheStats(hitCount.sum(), missCount.sum(), negativeHitCount.sum(), evictionCount.sum(),
+				rejectionCount.sum(), invalidationCount.sum(), entries.size());
+	}
+
+	/**
+	 * This evictFor method moves clock hand to first entry not read since hand
+	 * last passed it and evicts it, unless it is still live and new key was not
+	 * accessed more often. Expired entry is evicted at once. It returns false
+	 * when new key is rejected. Caller holds eviction lock.
+	 */
+	private boolean evictFor(Long id) {
+		long now = System.nanoTime();
+		int remaining = 2 * clock.size();
+		while (!clock.isEmpty() && remaining-- > 0) {
+			CacheEntry candidate = clock.pollFirst();
+			if (entries.get(candidate.id) != candidate)
+				continue;
+			if (!candidate.isExpired(now) && candidate.referenced) {
+				candidate.referenced = false;
+				clock.addLast(candidate);
+				continue;
+			}
+			if (!candidate.isExpired(now) && frequency(id) <= frequency(candidate.id)) {
+				clock.addFirst(candidate);
+				rejectionCount.increment();
+				return false;
+			}
+			if (entries.remove(candidate.id, candidate))
+				evictionCount.increment();
+			return true;
+		}
+		return true;
+	}
+
+	/**
+	 * This purgeClock method drops replaced and removed entries from clock.
+	 * Caller holds eviction lock.
+	 */
+	private void purgeClock() {
+		Iterator<CacheEntry> iterator = clock.iterator();
+		while (iterator.hasNext()) {
+			CacheEntry candidate = iterator.next();
+			if (entries.get(candidate.id) != candidate)
+				iterator.remove();
+		}
+	}
+
+	private int frequency(Long id) {
+		sketchLock.lock();
+		try {
+			return sketch.frequency(id);
+		} finally {
+			sketchLock.unlock();
+		}
+	}
+
+	private static int stripe(Long id) {
+		long hash = id * 0x9e3779b97f4a7c15L;
+		return (int) (hash >>> 58);
+	}
+}
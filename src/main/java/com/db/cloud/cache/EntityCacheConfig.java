@@ -0,0 +1,97 @@
+package com.db.cloud.cache;
+
+/**
+ * This class EntityCacheConfig holds options of per DAO entity cache. Config
+ * must not be changed after it is passed to DAO options.
+ */
+public class EntityCacheConfig {
+
+	/**
+	 * This StoreMode enum tells what is kept in cache. MODEL keeps decoded model,
+	 * so hit costs nothing but every caller gets same model instance and must not
+	 * change it. ENTITY keeps immutable data store entity and decodes new model
+	 * on every hit.
+	 */
+	public enum StoreMode {
+		MODEL, ENTITY
+	}
+
+	private int maximumSize = 10000;
+	private long ttlMillis = 60000;
+	private long negativeTtlMillis = 5000;
+	private StoreMode storeMode = StoreMode.ENTITY;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return EntityCacheConfig
+	 */
+	public static EntityCacheConfig defaults() {
+		return new EntityCacheConfig();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * This setMaximumSize method sets maximum number of cached keys, including
+	 * keys cached as missing.
+	 *
+	 * @param int maximumSize - Maximum entries.
+	 * @return EntityCacheConfig
+	 */
+	public EntityCacheConfig setMaximumSize(int maximumSize) {
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("maximumSize must be positive");
+		this.maximumSize = maximumSize;
+		return this;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * This setTtlMillis method sets time after which cached entity is loaded
+	 * again. It bounds staleness caused by writes of other processes.
+	 *
+	 * @param long ttlMillis - Time to live of entry.
+	 * @return EntityCacheConfig
+	 */
+	public EntityCacheConfig setTtlMillis(long ttlMillis) {
+		if (ttlMillis < 1)
+			throw new IllegalArgumentException("ttlMillis must be positive");
+		this.ttlMillis = ttlMillis;
+		return this;
+	}
+
+	public long getNegativeTtlMillis() {
+		return negativeTtlMillis;
+	}
+
+	/**
+	 * This setNegativeTtlMillis method sets time for which missing key is
+	 * remembered, 0 disables negative caching.
+	 *
+	 * @param long negativeTtlMillis - Time to live of missing key.
+	 * @return EntityCacheConfig
+	 */
+	public EntityCacheConfig setNegativeTtlMillis(long negativeTtlMillis) {
+		if (negativeTtlMillis < 0)
+			throw new IllegalArgumentException("negativeTtlMillis must not be negative");
+		this.negativeTtlMillis = negativeTtlMillis;
+		return this;
+	}
+
+	public StoreMode getStoreMode() {
+		return storeMode;
+	}
+
+	public EntityCacheConfig setStoreMode(StoreMode storeMode) {
+		if (storeMode == null)
+			throw new IllegalArgumentException("storeMode must not be null");
+		this.storeMode = storeMode;
+		return this;
+	}
+}
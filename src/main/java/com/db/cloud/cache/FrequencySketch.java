@@ -0,0 +1,73 @@
+package com.db.cloud.cache;
+
+/**
+ * This class FrequencySketch estimates how often key was accessed recently. It
+ * is count min sketch of four rows of saturating 4 bit counters. All counters
+ * are halved after sample size accesses, so old popularity fades out. Caller
+ * must guard access.
+ */
+class FrequencySketch {
+
+	private static final long[] SEEDS = { 0x97cb3127L, 0xb2d2f3d7L, 0x84c5ed9dL, 0xc9bb0b0fL };
+	private static final int MAX_COUNT = 15;
+
+	private final byte[][] table;
+	private final int mask;
+	private final int sampleSize;
+	private int additions;
+
+	FrequencySketch(int maximumSize) {
+		int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) * 2 - 1);
+		this.table = new byte[SEEDS.length][width];
+		this.mask = width - 1;
+		this.sampleSize = 10 * Math.max(16, maximumSize);
+	}
+
+	/**
+	 * This increment method records one access of key.
+	 *
+	 * @param long key - Accessed key.
+	 */
+	void increment(long key) {
+		boolean added = false;
+		for (int row = 0; row < SEEDS.length; row++) {
+			int index = index(key, row);
+			if (table[row][index] < MAX_COUNT) {
+				table[row][index]++;
+				added = true;
+			}
+		}
+		if (added && ++additions >= sampleSize)
+			reset();
+	}
+
+	/**
+	 * This frequency method returns estimated number of recent accesses of key.
+	 *
+	 * @param long key - Key.
+	 * @return int - Estimated accesses, at most 15.
+	 */
+	int frequency(long key) {
+		int frequency = MAX_COUNT;
+		for (int row = 0; row < SEEDS.length; row++) {
+			frequency = Math.min(frequency, table[row][index(key, row)]);
+		}
+		return frequency;
+	}
+
+	private void reset() {
+		for (byte[] row : table) {
+			for (int i = 0; i < row.length; i++) {
+				row[i] = (byte) (row[i] >>> 1);
+			}
+		}
+		additions /= 2;
+	}
+
+	private int index(long key, int row) {
+		long hash = (key + SEEDS[row]) * 0x9e3779b97f4a7c15L;
+		hash ^= hash >>> 29;
+		hash *= SEEDS[row] | 1;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,49 @@
+package com.db.cloud.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This utility class KindWriteEpochs holds process wide write epoch of every
+ * data store kind. DAO bumps epoch of its kind after every write, so query
+ * result cached under older epoch is known to be stale. Writes of other
+ * processes are not seen and are bounded by query cache time to live.
+ */
+public final class KindWriteEpochs {
+
+	private static final ConcurrentMap<String, AtomicLong> EPOCHS = new ConcurrentHashMap<>();
+
+	private KindWriteEpochs() {
+	}
+
+	/**
+	 * This current method returns current write epoch of kind.
+	 *
+	 * @param String kind - Data store kind.
+	 * @return long
+	 */
+	public static long current(String kind) {
+		return epoch(kind).get();
+	}
+
+	/**
+	 * This bump method starts new write epoch of kind.
+	 *
+	 * @param String kind - Data store kind.
+	 */
+	public static void bump(String kind) {
+		epoch(kind).incrementAndGet();
+	}
+
+	private static AtomicLong epoch(String kind) {
+		AtomicLong epoch = EPOCHS.get(kind);
+		if (epoch == null) {
+			AtomicLong created = new AtomicLong();
+			epoch = EPOCHS.putIfAbsent(kind, created);
+			if (epoch == null)
+				epoch = created;
+		}
+		return epoch;
+	}
+}
@@ -0,0 +1,141 @@
+package com.db.cloud.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class QueryCache is bounded least recently used cache of query results
+ * by query cache key. Result is stored with write epoch of kind taken before
+ * query was run and is returned only while kind is still in same epoch and
+ * time to live has not passed.
+ */
+public class QueryCache {
+
+	/**
+	 * This CachedResult class holds entities or models of query result and
+	 * cursor of next page.
+	 */
+	public static final class CachedResult {
+		private final List<Object> values;
+		private final String cursor;
+		private final long epoch;
+		private final long expiresAt;
+
+		private CachedResult(List<Object> values, String cursor, long epoch, long expiresAt) {
+			this.values = Collections.unmodifiableList(values);
+			this.cursor = cursor;
+			this.epoch = epoch;
+			this.expiresAt = expiresAt;
+		}
+
+		public List<Object> getValues() {
+			return values;
+		}
+
+		public String getCursor() {
+			return cursor;
+		}
+	}
+
+	private final int maximumSize;
+	private final long ttlNanos;
+	private final int maxResultsPerEntry;
+	private final LinkedHashMap<String, CachedResult> entries;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long rejectionCount;
+	private long invalidationCount;
+
+	/**
+	 * This QueryCache constructor creates empty cache as per passed config.
+	 *
+	 * @param QueryCacheConfig config - Cache options.
+	 */
+	public QueryCache(QueryCacheConfig config) {
+		this.maximumSize = config.getMaximumSize();
+		this.ttlNanos = config.getTtlMillis() * 1000000L;
+		this.maxResultsPerEntry = config.getMaxResultsPerEntry();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * This get method returns cached result of query or null when result is not
+	 * cached, expired or was cached in older write epoch.
+	 *
+	 * @param String key - Query cache key.
+	 * @param        long epoch - Current write epoch of kind.
+	 * @return CachedResult
+	 */
+	public synchronized CachedResult get(String key, long epoch) {
+		CachedResult result = entries.get(key);
+		if (result != null && (result.epoch != epoch || result.expiresAt - System.nanoTime() <= 0)) {
+			entries.remove(key);
+			if (result.epoch != epoch)
+				invalidationCount++;
+			else
+				evictionCount++;
+			result = null;
+		}
+		if (result == null) {
+			missCount++;
+			return null;
+		}
+		hitCount++;
+		return result;
+	}
+
+	/**
+	 * This accepts method tells whether result of passed size can be cached.
+	 *
+	 * @param int size - Number of entities.
+	 * @return boolean
+	 */
+	public boolean accepts(int size) {
+		return size <= maxResultsPerEntry;
+	}
+
+	/**
+	 * This put method caches query result taken in passed write epoch.
+	 *
+	 * @param String       key - Query cache key.
+	 * @param List<Object> values - Entities or models of result.
+	 * @param String       cursor - Cursor of next page or null.
+	 * @param              long epoch - Write epoch taken before query was run.
+	 */
+	public synchronized void put(String key, List<Object> values, String cursor, long epoch) {
+		if (!accepts(values.size())) {
+			rejectionCount++;
+			return;
+		}
+		entries.put(key, new CachedResult(values, cursor, epoch, System.nanoTime() + ttlNanos));
+		Iterator<Map.Entry<String, CachedResult>> iterator = entries.entrySet().iterator();
+		while (entries.size() > maximumSize) {
+			iterator.next();
+			iterator.remove();
+			evictionCount++;
+		}
+	}
+
+	/**
+	 * This invalidateAll method removes all cached results.
+	 */
+	public synchronized void invalidateAll() {
+		invalidationCount += entries.size();
+		entries.clear();
+	}
+
+	/**
+	 * This stats method returns snapshot of cache statistics.
+	 *
+	 * @return CacheStats
+	 */
+	public synchronized CacheStats stats() {
+		return new CacheStats(hitCount, missCount, 0, evictionCount, rejectionCount, invalidationCount,
+				entries.size());
+	}
+}
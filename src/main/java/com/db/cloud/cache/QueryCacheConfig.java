@@ -0,0 +1,86 @@
+package com.db.cloud.cache;
+
+/**
+ * This class QueryCacheConfig holds options of per DAO query result cache.
+ * Config must not be changed after it is passed to DAO options.
+ */
+public class QueryCacheConfig {
+
+	private int maximumSize = 1000;
+	private long ttlMillis = 10000;
+	private int maxResultsPerEntry = 1000;
+	private EntityCacheConfig.StoreMode storeMode = EntityCacheConfig.StoreMode.ENTITY;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return QueryCacheConfig
+	 */
+	public static QueryCacheConfig defaults() {
+		return new QueryCacheConfig();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * This setMaximumSize method sets maximum number of cached query results.
+	 *
+	 * @param int maximumSize - Maximum entries.
+	 * @return QueryCacheConfig
+	 */
+	public QueryCacheConfig setMaximumSize(int maximumSize) {
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("maximumSize must be positive");
+		this.maximumSize = maximumSize;
+		return this;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * This setTtlMillis method sets time after which cached result is queried
+	 * again. It bounds staleness caused by writes of other processes.
+	 *
+	 * @param long ttlMillis - Time to live of entry.
+	 * @return QueryCacheConfig
+	 */
+	public QueryCacheConfig setTtlMillis(long ttlMillis) {
+		if (ttlMillis < 1)
+			throw new IllegalArgumentException("ttlMillis must be positive");
+		this.ttlMillis = ttlMillis;
+		return this;
+	}
+
+	public int getMaxResultsPerEntry() {
+		return maxResultsPerEntry;
+	}
+
+	/**
+	 * This setMaxResultsPerEntry method sets maximum number of entities of
+	 * cached query result. Bigger results are not cached.
+	 *
+	 * @param int maxResultsPerEntry - Maximum entities per result.
+	 * @return QueryCacheConfig
+	 */
+	public QueryCacheConfig setMaxResultsPerEntry(int maxResultsPerEntry) {
+		if (maxResultsPerEntry < 1)
+			throw new IllegalArgumentException("maxResultsPerEntry must be positive");
+		this.maxResultsPerEntry = maxResultsPerEntry;
+		return this;
+	}
+
+	public EntityCacheConfig.StoreMode getStoreMode() {
+		return storeMode;
+	}
+
+	public QueryCacheConfig setStoreMode(EntityCacheConfig.StoreMode storeMode) {
+		if (storeMode == null)
+			throw new IllegalArgumentException("storeMode must not be null");
+		this.storeMode = storeMode;
+		return this;
+	}
+}
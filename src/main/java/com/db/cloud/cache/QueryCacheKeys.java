@@ -0,0 +1,54 @@
+package com.db.cloud.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.cloud.datastore.StructuredQuery.Filter;
+
+/**
+ * This utility class QueryCacheKeys builds query cache key from query shape.
+ * Filters passed to DAO are combined by AND, so they are sorted by their
+ * string form and same filters passed in any order give same key.
+ */
+public final class QueryCacheKeys {
+
+	private QueryCacheKeys() {
+	}
+
+	/**
+	 * This of method returns cache key of query.
+	 *
+	 * @param String  kind - Data store kind.
+	 * @param String  operation - DAO operation, queries of different operations
+	 *                never share key.
+	 * @param Filter  firstFilter - First filter or null.
+	 * @param         Filter[] remainingFilters - Remaining filters or null.
+	 * @param String  orderBy - Order property or null.
+	 * @param         boolean isAscending - Order direction.
+	 * @param Integer limit - Limit or null.
+	 * @param String  cursor - Start cursor or null.
+	 * @return String
+	 */
+	public static String of(String kind, String operation, Filter firstFilter, Filter[] remainingFilters,
+			String orderBy, boolean isAscending, Integer limit, String cursor) {
+		List<String> filters = new ArrayList<>();
+		if (firstFilter != null)
+			filters.add(String.valueOf(firstFilter));
+		if (remainingFilters != null) {
+			for (Filter filter : remainingFilters) {
+				filters.add(String.valueOf(filter));
+			}
+		}
+		Collections.sort(filters);
+		StringBuilder key = new StringBuilder(kind).append('|').append(operation).append("|filters=")
+				.append(filters);
+		if (orderBy != null && !orderBy.equals(""))
+			key.append("|order=").append(orderBy).append(isAscending ? " ASC" : " DESC");
+		if (limit != null)
+			key.append("|limit=").append(limit);
+		if (cursor != null && !cursor.equals(""))
+			key.append("|cursor=").append(cursor);
+		return key.toString();
+	}
+}
@@ -0,0 +1,24 @@
+package com.db.cloud.client;
+
+import com.google.cloud.datastore.Datastore;
+
+/**
+ * This interface CloudDatastoreClientProvider supplies the data store service
+ * used by all DAO operations. Implementations must be thread safe so that one
+ * provider can be shared across DAO instances and request threads.
+ */
+public interface CloudDatastoreClientProvider extends AutoCloseable {
+
+	/**
+	 * This getDatastore method returns shared data store service instance.
+	 *
+	 * @return Datastore - Data store service
+	 */
+	Datastore getDatastore();
+
+	/**
+	 * This close method releases data store service held by this provider.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,94 @@
+package com.db.cloud.client;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.google.cloud.datastore.Datastore;
+import com.google.cloud.datastore.DatastoreOptions;
+
+/**
+ * This class DefaultCloudDatastoreClientProvider lazily creates one data store
+ * service from supplied (or default) DatastoreOptions and shares it across all
+ * DAO instances. Service is created only once and safely published through
+ * volatile field, so per call overhead is a single volatile read.
+ */
+public class DefaultCloudDatastoreClientProvider implements CloudDatastoreClientProvider {
+
+	/**
+	 * This holder lazily creates process wide provider backed by default data
+	 * store options.
+	 */
+	private static class InstanceHolder {
+		private static final DefaultCloudDatastoreClientProvider INSTANCE = new DefaultCloudDatastoreClientProvider(
+				null);
+	}
+
+	/**
+	 * This options variable holds data store options used for creating service.
+	 * Null means DatastoreOptions default instance.
+	 */
+	private final DatastoreOptions options;
+
+	/**
+	 * This datastore variable holds data store service once created.
+	 */
+	private volatile Datastore datastore;
+
+	/**
+	 * This DefaultCloudDatastoreClientProvider constructor stores options used
+	 * for creating data store service on first use.
+	 *
+	 * @param DatastoreOptions options - Data store options, null for default
+	 *                         instance.
+	 */
+	public DefaultCloudDatastoreClientProvider(DatastoreOptions options) {
+		this.options = options;
+	}
+
+	/**
+	 * This getInstance method returns process wide provider backed by default
+	 * data store options.
+	 *
+	 * @return DefaultCloudDatastoreClientProvider
+	 */
+	public static DefaultCloudDatastoreClientProvider getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * This getDatastore method returns data store service, creating it on first
+	 * call.
+	 *
+	 * @return Datastore - Data store service
+	 */
+	@Override
+	public Datastore getDatastore() {
+		Datastore result = datastore;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			result = datastore;
+			if (result == null) {
+				try {
+					DatastoreOptions datastoreOptions = options != null ? options
+							: DatastoreOptions.getDefaultInstance();
+					result = datastoreOptions.getService();
+				} catch (Exception e) {
+					throw new CloudDatastoreDAOException("DATA STORE INITIALIZATION EXCEPTION : " + e.getMessage(),
+							e);
+				}
+				datastore = result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This close method drops shared data store service. Next call of
+	 * getDatastore creates new service.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			datastore = null;
+		}
+	}
+}
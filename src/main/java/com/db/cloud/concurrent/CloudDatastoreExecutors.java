@@ -0,0 +1,80 @@
+package com.db.cloud.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This utility class CloudDatastoreExecutors creates bounded executors used for
+ * running data store operations off caller thread. Bounded queue makes sure
+ * that burst of requests is rejected instead of piling up in memory.
+ */
+public final class CloudDatastoreExecutors {
+
+	/**
+	 * This DEFAULT_THREADS is number of threads of shared executor.
+	 */
+	public static final int DEFAULT_THREADS = 16;
+
+	/**
+	 * This DEFAULT_QUEUE_CAPACITY is wait queue size of shared executor.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * This holder lazily creates process wide shared executor.
+	 */
+	private static class SharedHolder {
+		private static final ExecutorService SHARED = newBoundedExecutor("cloud-datastore", DEFAULT_THREADS,
+				DEFAULT_QUEUE_CAPACITY);
+	}
+
+	private CloudDatastoreExecutors() {
+	}
+
+	/**
+	 * This shared method returns process wide bounded executor with daemon
+	 * threads.
+	 *
+	 * @return ExecutorService
+	 */
+	public static ExecutorService shared() {
+		return SharedHolder.SHARED;
+	}
+
+	/**
+	 * This newBoundedExecutor method creates fixed size executor with bounded
+	 * wait queue and daemon threads. Task submitted to full executor is rejected
+	 * with RejectedExecutionException.
+	 *
+	 * @param String name - Thread name prefix.
+	 * @param        int threads - Number of threads.
+	 * @param        int queueCapacity - Maximum number of waiting tasks.
+	 * @return ExecutorService
+	 */
+	public static ExecutorService newBoundedExecutor(String name, int threads, int queueCapacity) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), newThreadFactory(name),
+				new ThreadPoolExecutor.AbortPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * This newThreadFactory method creates factory of named daemon threads.
+	 *
+	 * @param String name - Thread name prefix.
+	 * @return ThreadFactory
+	 */
+	public static ThreadFactory newThreadFactory(String name) {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
@@ -0,0 +1,104 @@
+package com.db.cloud.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * This utility class ParallelChunks runs independent chunks of one bulk data
+ * store operation concurrently with bounded parallelism. Caller thread works on
+ * chunks too, so single chunk operation never leaves caller thread, and
+ * operation still completes when executor rejects work. Caller waits only for
+ * chunks which other threads already took, never for helper which has not
+ * started, so calls made from threads of same executor do not deadlock when
+ * it is saturated.
+ */
+public final class ParallelChunks {
+
+	private ParallelChunks() {
+	}
+
+	/**
+	 * This invokeAll method runs passed chunks with at most parallelism chunks in
+	 * flight and returns their results in chunk order. First failure is rethrown
+	 * after all started chunks finished. Helper which starts after caller took
+	 * all chunks ends at once.
+	 *
+	 * @param        List<Supplier<R>> chunks - Chunk operations.
+	 * @param        Executor executor - Executor for additional workers.
+	 * @param        int parallelism - Maximum number of concurrently running
+	 *               chunks.
+	 * @return List<R> - Chunk results in chunk order.
+	 */
+	public static <R> List<R> invokeAll(List<Supplier<R>> chunks, Executor executor, int parallelism) {
+		int size = chunks.size();
+		if (size == 0)
+			return new ArrayList<>();
+		if (size == 1)
+			return new ArrayList<>(Arrays.asList(chunks.get(0).get()));
+
+		AtomicInteger next = new AtomicInteger();
+		AtomicReferenceArray<R> results = new AtomicReferenceArray<>(size);
+		AtomicReferenceArray<Throwable> failures = new AtomicReferenceArray<>(size);
+		CountDownLatch finished = new CountDownLatch(size);
+		Runnable worker = () -> {
+			int index;
+			while ((index = next.getAndIncrement()) < size) {
+				try {
+					results.set(index, chunks.get(index).get());
+				} catch (RuntimeException | Error e) {
+					failures.set(index, e);
+				} finally {
+					finished.countDown();
+				}
+			}
+		};
+
+		int workers = Math.max(1, Math.min(parallelism, size));
+		for (int i = 1; i < workers; i++) {
+			try {
+				executor.execute(worker);
+			} catch (RejectedExecutionException e) {
+				break;
+			}
+		}
+		worker.run();
+		// every chunk is taken by now, so only running chunks are awaited
+		awaitUninterruptibly(finished);
+
+		List<R> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Throwable failure = failures.get(i);
+			if (failure instanceof Error)
+				throw (Error) failure;
+			if (failure != null)
+				throw (RuntimeException) failure;
+			list.add(results.get(i));
+		}
+		return list;
+	}
+
+	/**
+	 * This awaitUninterruptibly method waits for latch and keeps interrupt of
+	 * caller, as chunks which are running can not be abandoned.
+	 */
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+}
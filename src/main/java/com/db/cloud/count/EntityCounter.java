@@ -0,0 +1,147 @@
+package com.db.cloud.count;
+
+import com.db.cloud.client.CloudDatastoreClientProvider;
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+import com.google.datastore.v1.QueryResultBatch;
+
+/**
+ * This class EntityCounter counts entities of one data store kind. Exact count
+ * runs keys only query with offset and adds skipped results of every batch,
+ * continuing at skipped cursor until data store reports no more results, so
+ * no key is sent back. Approximate count reads built in kind statistics which
+ * data store refreshes about once a day.
+ */
+public class EntityCounter {
+
+	/**
+	 * This interface QueryRunner runs one query of counter, like within
+	 * concurrency limit and retry policy of DAO.
+	 */
+	public interface QueryRunner {
+
+		/**
+		 * This run method runs query and returns its first batch of results.
+		 *
+		 * @param Query<E> query - Count or statistics query.
+		 * @return QueryResults<E>
+		 */
+		<E> QueryResults<E> run(Query<E> query);
+	}
+
+	/**
+	 * This STAT_KIND is data store built in statistics kind of entity counts.
+	 */
+	public static final String STAT_KIND = "__Stat_Kind__";
+
+	/**
+	 * This MAX_EMPTY_BATCHES bounds batches in a row which skipped nothing but
+	 * reported more results, so count never loops without progress.
+	 */
+	private static final int MAX_EMPTY_BATCHES = 3;
+
+	private final CloudDatastoreClientProvider clientProvider;
+	private final String kind;
+	private final QueryRunner runner;
+
+	/**
+	 * This EntityCounter constructor creates counter of passed kind.
+	 *
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 * @param String                       kind - Data store kind.
+	 */
+	public EntityCounter(CloudDatastoreClientProvider clientProvider, String kind) {
+		this(clientProvider, kind, null);
+	}
+
+	/**
+	 * This EntityCounter constructor creates counter of passed kind whose every
+	 * query is run by passed runner.
+	 *
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 * @param String                       kind - Data store kind.
+	 * @param QueryRunner                  runner - Runs every query, null runs
+	 *                                     them on data store directly.
+	 */
+	public EntityCounter(CloudDatastoreClientProvider clientProvider, String kind, QueryRunner runner) {
+		this.clientProvider = clientProvider;
+		this.kind = kind;
+		this.runner = runner;
+	}
+
+	/**
+	 * This count method returns exact number of entities of kind matching all
+	 * passed filters, or all entities when no filter is passed. Cost grows with
+	 * number of counted entities.
+	 *
+	 * @param Filter firstFilter - First filter or null.
+	 * @param        Filter... remainingFilters - Remaining filters.
+	 * @return long
+	 */
+	public long count(Filter firstFilter, Filter... remainingFilters) {
+		KeyQuery.Builder queryBuilder = Query.newKeyQueryBuilder().setKind(kind).setOffset(Integer.MAX_VALUE);
+		if (firstFilter != null) {
+			if (remainingFilters == null || remainingFilters.length == 0)
+				queryBuilder.setFilter(CompositeFilter.and(firstFilter));
+			else
+				queryBuilder.setFilter(CompositeFilter.and(firstFilter, remainingFilters));
+		}
+		long count = 0;
+		int emptyBatches = 0;
+		Cursor cursor = null;
+		while (true) {
+			// results are not iterated, so client does not send next batch itself
+			QueryResults<Key> results = run(queryBuilder.setStartCursor(cursor).build());
+			int skipped = results.getSkippedResults();
+			count += skipped;
+			if (results.getMoreResults() != QueryResultBatch.MoreResultsType.NOT_FINISHED)
+				return count;
+			emptyBatches = skipped == 0 ? emptyBatches + 1 : 0;
+			if (emptyBatches >= MAX_EMPTY_BATCHES)
+				throw new CloudDatastoreDAOException("COUNT EXCEPTION : no progress counting " + kind);
+			cursor = results.getCursorAfter();
+		}
+	}
+
+	/**
+	 * This countApproximate method returns number of entities of kind from data
+	 * store statistics. Statistics lag behind writes by up to a day or two and
+	 * are missing for new kinds, in which case exact count is returned.
+	 *
+	 * @return long
+	 */
+	public long countApproximate() {
+		Long statCount = statisticsCount();
+		return statCount != null ? statCount : count(null);
+	}
+
+	/**
+	 * This statisticsCount method returns entity count of kind from data store
+	 * statistics or null when kind has no statistics yet.
+	 *
+	 * @return Long
+	 */
+	public Long statisticsCount() {
+		Query<Entity> query = Query.newEntityQueryBuilder().setKind(STAT_KIND)
+				.setFilter(PropertyFilter.eq("kind_name", kind)).setLimit(1).build();
+		QueryResults<Entity> results = run(query);
+		if (results == null || !results.hasNext())
+			return null;
+		Entity stat = results.next();
+		return stat.contains("count") ? stat.getLong("count") : null;
+	}
+
+	private <E> QueryResults<E> run(Query<E> query) {
+		return runner != null ? runner.run(query) : clientProvider.getDatastore().run(query);
+	}
+}
@@ -0,0 +1,155 @@
+package com.db.cloud.count;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.db.cloud.client.CloudDatastoreClientProvider;
+import com.google.cloud.datastore.DatastoreReaderWriter;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+
+/**
+ * This class ShardedCounter is counter stored as several shard entities of
+ * kind SHARD_KIND. Every shard is root entity of its own, so increment picks
+ * random shard and concurrent increments rarely touch same entity group.
+ * Value is sum of all shards and is cached for short time. Shards are read by
+ * passed fetcher, so DAO can read them within its retry policy, concurrency
+ * limit and metrics.
+ */
+public class ShardedCounter {
+
+	/**
+	 * This SHARD_KIND is data store kind of counter shards.
+	 */
+	public static final String SHARD_KIND = "ShardedCounterShard";
+
+	private static final String COUNT = "count";
+	private static final String COUNTER = "counter";
+
+	/**
+	 * This CachedValue class holds summed counter value and time its read
+	 * finished.
+	 */
+	private static final class CachedValue {
+		private final long value;
+		private final long readAt;
+
+		private CachedValue(long value, long readAt) {
+			this.value = value;
+			this.readAt = readAt;
+		}
+	}
+
+	private final CloudDatastoreClientProvider clientProvider;
+	private final String name;
+	private final int shards;
+	private final long cacheTtlNanos;
+	private final Function<Key[], List<Entity>> fetcher;
+	private final AtomicReference<CachedValue> cached = new AtomicReference<>();
+
+	/**
+	 * This ShardedCounter constructor creates counter of passed name whose
+	 * shards are fetched from data store directly.
+	 *
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 * @param String                       name - Counter name.
+	 * @param ShardedCounterConfig         config - Counter options.
+	 */
+	public ShardedCounter(CloudDatastoreClientProvider clientProvider, String name, ShardedCounterConfig config) {
+		this(clientProvider, name, config, null);
+	}
+
+	/**
+	 * This ShardedCounter constructor creates counter of passed name whose
+	 * shards are fetched by passed fetcher.
+	 *
+	 * @param CloudDatastoreClientProvider      clientProvider - Shared data store
+	 *                                          service provider.
+	 * @param String                            name - Counter name.
+	 * @param ShardedCounterConfig              config - Counter options.
+	 * @param Function<Key[], List<Entity>>     fetcher - Fetches shards in key
+	 *                                          order, null fetches them from
+	 *                                          data store directly.
+	 */
+	public ShardedCounter(CloudDatastoreClientProvider clientProvider, String name, ShardedCounterConfig config,
+			Function<Key[], List<Entity>> fetcher) {
+		this.clientProvider = clientProvider;
+		this.name = name;
+		this.shards = config.getShards();
+		this.cacheTtlNanos = config.getCacheTtlMillis() * 1000000L;
+		this.fetcher = fetcher;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * This increment method adds delta to random shard as part of passed
+	 * transaction. After transaction is committed caller must call committed.
+	 *
+	 * @param DatastoreReaderWriter transaction - Running transaction.
+	 * @param                       long delta - Value to add, negative to
+	 *                              decrement.
+	 */
+	public void increment(DatastoreReaderWriter transaction, long delta) {
+		Key key = shardKey(ThreadLocalRandom.current().nextInt(shards));
+		Entity shard = transaction.get(key);
+		long count = shard != null && shard.contains(COUNT) ? shard.getLong(COUNT) : 0;
+		transaction.put(Entity.newBuilder(key).set(COUNTER, name).set(COUNT, count + delta).build());
+	}
+
+	/**
+	 * This committed method applies committed delta to cached value read before
+	 * transaction started. Value read after it started may already hold delta,
+	 * so it is dropped instead.
+	 *
+	 * @param long delta - Committed delta.
+	 * @param      long startNanos - System.nanoTime() before transaction
+	 *             started.
+	 */
+	public void committed(long delta, long startNanos) {
+		cached.getAndUpdate(value -> value != null && value.readAt - startNanos < 0
+				? new CachedValue(value.value + delta, value.readAt)
+				: null);
+	}
+
+	/**
+	 * This get method returns counter value. Value cached within time to live
+	 * is returned without reading shards.
+	 *
+	 * @return long
+	 */
+	public long get() {
+		CachedValue value = cached.get();
+		if (value != null && System.nanoTime() - value.readAt < cacheTtlNanos)
+			return value.value;
+		Key[] keys = new Key[shards];
+		for (int i = 0; i < shards; i++) {
+			keys[i] = shardKey(i);
+		}
+		long sum = 0;
+		List<Entity> entities = fetcher != null ? fetcher.apply(keys) : clientProvider.getDatastore().fetch(keys);
+		for (Entity shard : entities) {
+			if (shard != null && shard.contains(COUNT))
+				sum += shard.getLong(COUNT);
+		}
+		if (cacheTtlNanos > 0)
+			cached.set(new CachedValue(sum, System.nanoTime()));
+		return sum;
+	}
+
+	/**
+	 * This invalidate method drops cached value.
+	 */
+	public void invalidate() {
+		cached.set(null);
+	}
+
+	private Key shardKey(int shard) {
+		return clientProvider.getDatastore().newKeyFactory().setKind(SHARD_KIND).newKey(name + "#" + shard);
+	}
+}
@@ -0,0 +1,97 @@
+package com.db.cloud.count;
+
+/**
+ * This class ShardedCounterConfig holds options of sharded counters maintained
+ * by DAO. Config must not be changed after it is passed to DAO options.
+ */
+public class ShardedCounterConfig {
+
+	private int shards = 16;
+	private long cacheTtlMillis = 1000;
+	private boolean kindCounter = true;
+	private int transactionItems = 20;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return ShardedCounterConfig
+	 */
+	public static ShardedCounterConfig defaults() {
+		return new ShardedCounterConfig();
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	/**
+	 * This setShards method sets number of shard entities per counter. More
+	 * shards allow more concurrent writes and make reads slower. Shard count
+	 * may be raised later but not lowered, counts in removed shards would be
+	 * lost.
+	 *
+	 * @param int shards - Shards per counter.
+	 * @return ShardedCounterConfig
+	 */
+	public ShardedCounterConfig setShards(int shards) {
+		if (shards < 1)
+			throw new IllegalArgumentException("shards must be positive");
+		this.shards = shards;
+		return this;
+	}
+
+	public long getCacheTtlMillis() {
+		return cacheTtlMillis;
+	}
+
+	/**
+	 * This setCacheTtlMillis method sets time for which summed counter value is
+	 * reused. Writes of this process are applied to cached value immediately.
+	 *
+	 * @param long cacheTtlMillis - Time to live of cached value, 0 disables
+	 *             cache.
+	 * @return ShardedCounterConfig
+	 */
+	public ShardedCounterConfig setCacheTtlMillis(long cacheTtlMillis) {
+		if (cacheTtlMillis < 0)
+			throw new IllegalArgumentException("cacheTtlMillis must not be negative");
+		this.cacheTtlMillis = cacheTtlMillis;
+		return this;
+	}
+
+	public boolean isKindCounter() {
+		return kindCounter;
+	}
+
+	/**
+	 * This setKindCounter method sets whether DAO maintains counter of all
+	 * entities of its kind, named by kind. It is used by countApproximate.
+	 *
+	 * @param boolean kindCounter - Maintain kind counter.
+	 * @return ShardedCounterConfig
+	 */
+	public ShardedCounterConfig setKindCounter(boolean kindCounter) {
+		this.kindCounter = kindCounter;
+		return this;
+	}
+
+	public int getTransactionItems() {
+		return transactionItems;
+	}
+
+	/**
+	 * This setTransactionItems method sets how many models bulk operation
+	 * writes in one transaction together with one shard of every counter they
+	 * change. Every model is entity group of its own, so models and changed
+	 * counters together must stay within 25 entity groups per transaction.
+	 *
+	 * @param int transactionItems - Models per transaction, 1 to 24.
+	 * @return ShardedCounterConfig
+	 */
+	public ShardedCounterConfig setTransactionItems(int transactionItems) {
+		if (transactionItems < 1 || transactionItems > 24)
+			throw new IllegalArgumentException("transactionItems must be between 1 and 24");
+		this.transactionItems = transactionItems;
+		return this;
+	}
+}
@@ -0,0 +1,14 @@
+package com.db.cloud.custom.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+/**
+ * This GenerateEntityMapper custom annotation marks model class for which entity mapper is generated at compile time by annotation processor of processor module.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})  
+public @interface GenerateEntityMapper {
+
+}
@@ -0,0 +1,368 @@
+package com.db.cloud.dao;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.util.CloudDatastoreRefUtil;
+
+/**
+ * This class BufferedDatastoreWriter queues add, update and delete mutations
+ * and writes them to data store in batches through bulk operations of DAO.
+ * Only last mutation per key is kept, so frequently updated entity is written
+ * once per flush. Buffer is flushed when it holds maximum number of mutations,
+ * after flush interval and on close. Models must not be changed after they are
+ * passed to writer. Failures are reported to failure listener because caller
+ * has already returned when mutation is written.
+ *
+ * Mutations of same key are coalesced as below : add or update after add stays
+ * add of last model, update after update stays update, delete replaces any
+ * mutation, add or update after delete becomes upsert. Add of model without
+ * key is never coalesced.
+ * @param <T> This parameter will have different model objects at run time.
+ */
+public class BufferedDatastoreWriter<T> implements AutoCloseable {
+
+	/**
+	 * This Operation enum tells which data store mutation is sent for buffered
+	 * key.
+	 */
+	public enum Operation {
+		ADD, UPDATE, UPSERT, DELETE
+	}
+
+	/**
+	 * This FailureListener interface is notified of every mutation which could
+	 * not be written.
+	 *
+	 * @param <T> Model type.
+	 */
+	public interface FailureListener<T> {
+		/**
+		 * This onFailure method is called once per failed mutation.
+		 *
+		 * @param Operation        operation - Sent mutation.
+		 * @param Long             id - Key of entity or null for add without key.
+		 * @param T                model - Model or null for delete.
+		 * @param RuntimeException failure - Cause of failure.
+		 */
+		void onFailure(Operation operation, Long id, T model, RuntimeException failure);
+	}
+
+	/**
+	 * This Mutation class holds buffered mutation of one key.
+	 */
+	private static final class Mutation<T> {
+		private final Operation operation;
+		private final Long id;
+		private final T model;
+
+		private Mutation(Operation operation, Long id, T model) {
+			this.operation = operation;
+			this.id = id;
+			this.model = model;
+		}
+	}
+
+	private final CloudDatastoreDAO<T> dao;
+	private final Class<T> modelClassType;
+	private final int maxBufferedMutations;
+	private final FailureListener<T> failureListener;
+	private final CloudDatastoreRefUtil reflectionUtil = new CloudDatastoreRefUtil();
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * This lock guards buffered mutations and closed flag.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * This flushLock makes flushes write one after other, so later mutation of a
+	 * key is never written before earlier one.
+	 */
+	private final Object flushLock = new Object();
+
+	private Map<Long, Mutation<T>> keyedMutations = new LinkedHashMap<>();
+	private List<T> keylessAdds = new ArrayList<>();
+	private boolean closed;
+
+	/**
+	 * This BufferedDatastoreWriter constructor creates writer which reports
+	 * failures to System.err.
+	 *
+	 * @param CloudDatastoreDAO<T> dao - DAO used for writing batches.
+	 * @param Class<T>             modelClassType - Model class.
+	 * @param                      int maxBufferedMutations - Buffer size which
+	 *                             triggers flush.
+	 * @param                      long flushIntervalMillis - Maximum time
+	 *                             mutation stays buffered, 0 disables timed
+	 *                             flush.
+	 */
+	public BufferedDatastoreWriter(CloudDatastoreDAO<T> dao, Class<T> modelClassType, int maxBufferedMutations,
+			long flushIntervalMillis) {
+		this(dao, modelClassType, maxBufferedMutations, flushIntervalMillis, null);
+	}
+
+	/**
+	 * This BufferedDatastoreWriter constructor creates writer with passed
+	 * failure listener.
+	 *
+	 * @param CloudDatastoreDAO<T> dao - DAO used for writing batches.
+	 * @param Class<T>             modelClassType - Model class.
+	 * @param                      int maxBufferedMutations - Buffer size which
+	 *                             triggers flush.
+	 * @param                      long flushIntervalMillis - Maximum time
+	 *                             mutation stays buffered, 0 disables timed
+	 *                             flush.
+	 * @param FailureListener<T>   failureListener - Listener of failed
+	 *                             mutations or null for System.err.
+	 */
+	public BufferedDatastoreWriter(CloudDatastoreDAO<T> dao, Class<T> modelClassType, int maxBufferedMutations,
+			long flushIntervalMillis, FailureListener<T> failureListener) {
+		if (maxBufferedMutations < 1)
+			throw new IllegalArgumentException("maxBufferedMutations must be positive");
+		if (flushIntervalMillis < 0)
+			throw new IllegalArgumentException("flushIntervalMillis must not be negative");
+		this.dao = dao;
+		this.modelClassType = modelClassType;
+		this.maxBufferedMutations = maxBufferedMutations;
+		this.failureListener = failureListener != null ? failureListener
+				: (operation, id, model, failure) -> System.err
+						.println("BUFFERED " + operation + " FAILED : " + id + " : " + failure.getMessage());
+		if (flushIntervalMillis > 0) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(
+					CloudDatastoreExecutors.newThreadFactory("cloud-datastore-writer"));
+			this.scheduler.scheduleWithFixedDelay(this::timedFlush, flushIntervalMillis, flushIntervalMillis,
+					TimeUnit.MILLISECONDS);
+		} else {
+			this.scheduler = null;
+		}
+	}
+
+	/**
+	 * This add method buffers add of model.
+	 *
+	 * @param T t - Generic Type Model object
+	 */
+	public void add(T t) {
+		Long id = reflectionUtil.getKindId(t);
+		if (id == null) {
+			boolean full;
+			synchronized (lock) {
+				ensureOpen();
+				keylessAdds.add(t);
+				full = pendingCount() >= maxBufferedMutations;
+			}
+			if (full)
+				flush();
+			return;
+		}
+		enqueue(Operation.ADD, id, t);
+	}
+
+	/**
+	 * This update method buffers update of model.
+	 *
+	 * @param T t - Generic Type Model object having key
+	 */
+	public void update(T t) {
+		Long id = reflectionUtil.getKindId(t);
+		if (id == null)
+			throw new IllegalArgumentException("Update requires model key");
+		enqueue(Operation.UPDATE, id, t);
+	}
+
+	/**
+	 * This delete method buffers delete of key.
+	 *
+	 * @param Long id - Data store table unique key
+	 */
+	public void delete(Long id) {
+		if (id == null)
+			throw new IllegalArgumentException("Delete requires key");
+		enqueue(Operation.DELETE, id, null);
+	}
+
+	/**
+	 * This getPendingCount method returns number of buffered mutations.
+	 *
+	 * @return int
+	 */
+	public int getPendingCount() {
+		synchronized (lock) {
+			return pendingCount();
+		}
+	}
+
+	/**
+	 * This flush method writes all buffered mutations and returns after they
+	 * were written. Failed mutations are reported to failure listener.
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			Map<Long, Mutation<T>> mutations;
+			List<T> adds;
+			synchronized (lock) {
+				if (pendingCount() == 0)
+					return;
+				mutations = keyedMutations;
+				adds = keylessAdds;
+				keyedMutations = new LinkedHashMap<>();
+				keylessAdds = new ArrayList<>();
+			}
+			write(mutations, adds);
+		}
+	}
+
+	/**
+	 * This close method stops timed flush, writes buffered mutations and rejects
+	 * further mutations.
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closed)
+				return;
+			closed = true;
+		}
+		if (scheduler != null)
+			scheduler.shutdown();
+		flush();
+	}
+
+	private void enqueue(Operation operation, Long id, T model) {
+		boolean full;
+		synchronized (lock) {
+			ensureOpen();
+			Mutation<T> previous = keyedMutations.remove(id);
+			keyedMutations.put(id, new Mutation<>(coalesce(previous, operation), id, model));
+			full = pendingCount() >= maxBufferedMutations;
+		}
+		if (full)
+			flush();
+	}
+
+	/**
+	 * This coalesce method returns mutation which has same effect as previous
+	 * buffered mutation followed by new one.
+	 */
+	private static Operation coalesce(Mutation<?> previous, Operation operation) {
+		if (previous == null || operation == Operation.DELETE)
+			return operation;
+		switch (previous.operation) {
+		case ADD:
+			return Operation.ADD;
+		case UPDATE:
+			return operation == Operation.UPDATE ? Operation.UPDATE : Operation.UPSERT;
+		default:
+			return Operation.UPSERT;
+		}
+	}
+
+	private int pendingCount() {
+		return keyedMutations.size() + keylessAdds.size();
+	}
+
+	private void ensureOpen() {
+		if (closed)
+			throw new IllegalStateException("BufferedDatastoreWriter is closed");
+	}
+
+	private void timedFlush() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			System.err.println(e.getMessage());
+		}
+	}
+
+	/**
+	 * This write method sends buffered mutations grouped by operation.
+	 */
+	private void write(Map<Long, Mutation<T>> mutations, List<T> adds) {
+		List<Mutation<T>> added = new ArrayList<>();
+		List<Mutation<T>> updated = new ArrayList<>();
+		List<Mutation<T>> upserted = new ArrayList<>();
+		List<Mutation<T>> deleted = new ArrayList<>();
+		for (T model : adds) {
+			added.add(new Mutation<>(Operation.ADD, null, model));
+		}
+		for (Mutation<T> mutation : mutations.values()) {
+			switch (mutation.operation) {
+			case ADD:
+				added.add(mutation);
+				break;
+			case UPDATE:
+				updated.add(mutation);
+				break;
+			case UPSERT:
+				upserted.add(mutation);
+				break;
+			default:
+				deleted.add(mutation);
+			}
+		}
+		if (!added.isEmpty())
+			report(added, write(added, dao::bulkAdd));
+		if (!updated.isEmpty())
+			report(updated, write(updated, dao::bulkUpdate));
+		if (!upserted.isEmpty())
+			report(upserted, write(upserted, dao::bulkUpsert));
+		if (!deleted.isEmpty()) {
+			Long[] ids = new Long[deleted.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = deleted.get(i).id;
+			}
+			report(deleted, bulk(deleted, () -> dao.bulkDelete(ids)));
+		}
+	}
+
+	private BulkResult write(List<Mutation<T>> mutations, Function<T[], BulkResult> operation) {
+		@SuppressWarnings("unchecked")
+		T[] models = (T[]) Array.newInstance(modelClassType, mutations.size());
+		for (int i = 0; i < models.length; i++) {
+			models[i] = mutations.get(i).model;
+		}
+		return bulk(mutations, () -> operation.apply(models));
+	}
+
+	/**
+	 * This bulk method runs bulk operation and reports failure of whole
+	 * operation as failure of every mutation.
+	 */
+	private BulkResult bulk(List<Mutation<T>> mutations, Supplier<BulkResult> operation) {
+		try {
+			return operation.get();
+		} catch (RuntimeException e) {
+			BulkResult result = new BulkResult(mutations.size());
+			for (int i = 0; i < mutations.size(); i++) {
+				result.setFailure(i, e);
+			}
+			return result;
+		}
+	}
+
+	private void report(List<Mutation<T>> mutations, BulkResult result) {
+		for (int i = 0; i < mutations.size(); i++) {
+			RuntimeException failure = result.getFailure(i);
+			if (failure == null)
+				continue;
+			Mutation<T> mutation = mutations.get(i);
+			try {
+				failureListener.onFailure(mutation.operation, mutation.id, mutation.model, failure);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
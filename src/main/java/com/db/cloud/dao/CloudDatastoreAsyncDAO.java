@@ -0,0 +1,59 @@
+package com.db.cloud.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.model.Result;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+
+/**
+ * This interface CloudDatastoreAsyncDAO have asynchronous counterpart of cloud
+ * data store common operations. Every operation runs on executor and returns
+ * CompletableFuture, so independent lookups can be fired together and joined.
+ * @param <T> This parameter will have different model objects at run time.
+ */
+public interface CloudDatastoreAsyncDAO<T> {
+
+	CompletableFuture<T> findByIdAsync(Long id);
+
+	CompletableFuture<List<T>> findByIdsAsync(Collection<Long> ids);
+
+	CompletableFuture<Long> addAsync(T t);
+
+	CompletableFuture<Void> updateAsync(T t);
+
+	CompletableFuture<Void> deleteAsync(Long id);
+
+	CompletableFuture<List<T>> getByParamAsync(String column, String value);
+
+	CompletableFuture<List<T>> getByParamAsync(String column, Long value);
+
+	CompletableFuture<T> findUniqueByAsync(Filter filter);
+
+	CompletableFuture<List<T>> findAllAsync(Filter filter);
+
+	CompletableFuture<List<T>> getByFieldsAsync(Filter firstFilter, Filter... remainingFilter);
+
+	CompletableFuture<Void> deleteAsync(Long[] ids);
+
+	CompletableFuture<long[]> findIdsAsync(Filter firstFilter, Filter... remainingFilter);
+
+	CompletableFuture<Long[]> addAsync(T[] t);
+
+	CompletableFuture<Void> updateAsync(T[] t);
+
+	CompletableFuture<BulkResult> bulkAddAsync(T[] t);
+
+	CompletableFuture<BulkResult> bulkUpdateAsync(T[] t);
+
+	CompletableFuture<BulkResult> bulkUpsertAsync(T[] t);
+
+	CompletableFuture<BulkResult> bulkDeleteAsync(Long[] ids);
+
+	CompletableFuture<Result<T>> queryPageAsync(Integer pageSize, String orderBy, boolean isAscending, String cursor,
+			Filter firstFilter, Filter... remainingFilters);
+
+	CompletableFuture<Integer> countEntitiesAsync();
+}
@@ -0,0 +1,190 @@
+package com.db.cloud.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.model.Result;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+
+/**
+ * This class CloudDatastoreAsyncDAOImpl is implementation of asynchronous cloud
+ * data store operations. It runs blocking operations of passed DAO on bounded
+ * executor, so data store call and conversion of entity to model both happen
+ * off caller thread. Operation rejected by full executor completes
+ * exceptionally with RejectedExecutionException.
+ * @param <T> This parameter will have different model objects at run time.
+ */
+public class CloudDatastoreAsyncDAOImpl<T> implements CloudDatastoreAsyncDAO<T> {
+
+	/**
+	 * This dao variable performs blocking data store operations.
+	 */
+	private final CloudDatastoreDAO<T> dao;
+
+	/**
+	 * This executor variable runs data store operations.
+	 */
+	private final Executor executor;
+
+	/**
+	 * This CloudDatastoreAsyncDAOImpl constructor uses process wide shared
+	 * bounded executor.
+	 *
+	 * @param CloudDatastoreDAO<T> dao - Blocking DAO.
+	 */
+	public CloudDatastoreAsyncDAOImpl(CloudDatastoreDAO<T> dao) {
+		this(dao, CloudDatastoreExecutors.shared());
+	}
+
+	/**
+	 * This CloudDatastoreAsyncDAOImpl constructor uses passed executor for
+	 * running data store operations.
+	 *
+	 * @param CloudDatastoreDAO<T> dao - Blocking DAO.
+	 * @param Executor             executor - Executor, preferably bounded, see
+	 *                             CloudDatastoreExecutors.
+	 */
+	public CloudDatastoreAsyncDAOImpl(CloudDatastoreDAO<T> dao, Executor executor) {
+		this.dao = dao;
+		this.executor = executor;
+	}
+
+	/**
+	 * This getDao method returns blocking DAO used by this asynchronous DAO.
+	 *
+	 * @return CloudDatastoreDAO<T>
+	 */
+	public CloudDatastoreDAO<T> getDao() {
+		return dao;
+	}
+
+	/**
+	 * This supply method runs passed operation on executor.
+	 */
+	private <R> CompletableFuture<R> supply(Supplier<R> operation) {
+		try {
+			return CompletableFuture.supplyAsync(operation, executor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<R> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	/**
+	 * This run method runs passed operation on executor.
+	 */
+	private CompletableFuture<Void> run(Runnable operation) {
+		return supply(() -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	@Override
+	public CompletableFuture<T> findByIdAsync(Long id) {
+		return supply(() -> dao.findById(id));
+	}
+
+	@Override
+	public CompletableFuture<List<T>> findByIdsAsync(Collection<Long> ids) {
+		return supply(() -> dao.findByIds(ids));
+	}
+
+	@Override
+	public CompletableFuture<Long> addAsync(T t) {
+		return supply(() -> dao.add(t));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(T t) {
+		return run(() -> dao.update(t));
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteAsync(Long id) {
+		return run(() -> dao.delete(id));
+	}
+
+	@Override
+	public CompletableFuture<List<T>> getByParamAsync(String column, String value) {
+		return supply(() -> dao.getByParam(column, value));
+	}
+
+	@Override
+	public CompletableFuture<List<T>> getByParamAsync(String column, Long value) {
+		return supply(() -> dao.getByParam(column, value));
+	}
+
+	@Override
+	public CompletableFuture<T> findUniqueByAsync(Filter filter) {
+		return supply(() -> dao.findUniqueBy(filter));
+	}
+
+	@Override
+	public CompletableFuture<List<T>> findAllAsync(Filter filter) {
+		return supply(() -> dao.findAll(filter));
+	}
+
+	@Override
+	public CompletableFuture<List<T>> getByFieldsAsync(Filter firstFilter, Filter... remainingFilter) {
+		return supply(() -> dao.getByFields(firstFilter, remainingFilter));
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteAsync(Long[] ids) {
+		return run(() -> dao.delete(ids));
+	}
+
+	@Override
+	public CompletableFuture<long[]> findIdsAsync(Filter firstFilter, Filter... remainingFilter) {
+		return supply(() -> dao.findIds(firstFilter, remainingFilter));
+	}
+
+	@Override
+	public CompletableFuture<Long[]> addAsync(T[] t) {
+		return supply(() -> dao.add(t));
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(T[] t) {
+		return run(() -> dao.update(t));
+	}
+
+	@Override
+	public CompletableFuture<BulkResult> bulkAddAsync(T[] t) {
+		return supply(() -> dao.bulkAdd(t));
+	}
+
+	@Override
+	public CompletableFuture<BulkResult> bulkUpdateAsync(T[] t) {
+		return supply(() -> dao.bulkUpdate(t));
+	}
+
+	@Override
+	public CompletableFuture<BulkResult> bulkUpsertAsync(T[] t) {
+		return supply(() -> dao.bulkUpsert(t));
+	}
+
+	@Override
+	public CompletableFuture<BulkResult> bulkDeleteAsync(Long[] ids) {
+		return supply(() -> dao.bulkDelete(ids));
+	}
+
+	@Override
+	public CompletableFuture<Result<T>> queryPageAsync(Integer pageSize, String orderBy, boolean isAscending,
+			String cursor, Filter firstFilter, Filter... remainingFilters) {
+		return supply(() -> dao.queryPage(pageSize, orderBy, isAscending, cursor, firstFilter, remainingFilters));
+	}
+
+	@Override
+	public CompletableFuture<Integer> countEntitiesAsync() {
+		return supply(() -> dao.countEntities());
+	}
+}
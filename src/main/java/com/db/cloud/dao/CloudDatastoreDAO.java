@@ -1,8 +1,14 @@
 package com.db.cloud.dao;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.model.IdResult;
 import com.db.cloud.model.Result;
 import com.google.cloud.datastore.StructuredQuery.Filter;
 
@@ -19,6 +25,12 @@ public interface CloudDatastoreDAO<T> {
 
 	T findById(Long id);
 
+	List<T> findByIds(Long[] ids);
+
+	List<T> findByIds(Collection<Long> ids);
+
+	Map<Long, T> findByIdsAsMap(Collection<Long> ids);
+
 	Long add(T t);
 
 	void update(T t);
@@ -41,11 +53,41 @@ public interface CloudDatastoreDAO<T> {
 
 	void update(T[] t);
 
+	BulkResult bulkAdd(T[] t);
+
+	BulkResult bulkUpdate(T[] t);
+
+	BulkResult bulkUpsert(T[] t);
+
+	BulkResult bulkDelete(Long[] ids);
+
 	Result<T> queryPage(Integer pageSize, String orderBy, boolean isAscending, String cursor, Filter firstFilter,
 			Filter... remainingFilters);
 
 	Iterator<T> queryIterable(Integer pageSize, String orderBy, boolean isAscending, String cursor, Filter firstFilter,
 			Filter... remainingFilters);
 
+	List<T> getByFieldsProjection(String[] properties, Filter firstFilter, Filter... remainingFilter);
+
+	Result<T> queryPageProjection(String[] properties, Integer pageSize, String orderBy, boolean isAscending,
+			String cursor, Filter firstFilter, Filter... remainingFilters);
+
+	long[] findIds(Filter firstFilter, Filter... remainingFilter);
+
+	IdResult queryIdsPage(Integer pageSize, String orderBy, boolean isAscending, String cursor, Filter firstFilter,
+			Filter... remainingFilters);
+
+	Stream<T> stream(Filter... filters);
+
+	Stream<T> stream(String orderBy, boolean isAscending, Integer limit, Filter... filters);
+
+	long scan(int partitions, Consumer<? super T> consumer);
+
 	int countEntities();
+
+	long count();
+
+	long count(Filter firstFilter, Filter... remainingFilters);
+
+	long countApproximate();
 }
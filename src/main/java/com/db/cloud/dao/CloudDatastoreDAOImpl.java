@@ -2,20 +2,68 @@ package com.db.cloud.dao;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.db.cloud.batch.BatchPlanner;
+import com.db.cloud.batch.EntitySizeEstimator;
+import com.db.cloud.cache.CacheStats;
+import com.db.cloud.cache.EntityCache;
+import com.db.cloud.cache.EntityCacheConfig;
+import com.db.cloud.cache.KindWriteEpochs;
+import com.db.cloud.cache.QueryCache;
+import com.db.cloud.cache.QueryCacheConfig;
+import com.db.cloud.cache.QueryCacheKeys;
+import com.db.cloud.client.CloudDatastoreClientProvider;
+import com.db.cloud.client.DefaultCloudDatastoreClientProvider;
+import com.db.cloud.concurrent.ParallelChunks;
+import com.db.cloud.count.EntityCounter;
+import com.db.cloud.count.ShardedCounter;
+import com.db.cloud.count.ShardedCounterConfig;
+import com.db.cloud.exception.BulkWriteException;
 import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.limit.AdaptiveConcurrencyLimiter;
+import com.db.cloud.limit.KindConcurrencyLimit;
+import com.db.cloud.metrics.DatastoreMetrics;
+import com.db.cloud.metrics.DatastoreRpc;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.model.IdResult;
 import com.db.cloud.model.Result;
+import com.db.cloud.querylog.SlowQueryLog;
+import com.db.cloud.retry.HedgedReader;
+import com.db.cloud.retry.HedgingPolicy;
+import com.db.cloud.retry.Retrier;
+import com.db.cloud.scan.KeyRange;
+import com.db.cloud.scan.KeyRangePartitioner;
 import com.db.cloud.util.CloudDatastoreRefUtil;
+import com.db.cloud.util.ModelMapping;
 import com.google.cloud.datastore.BaseEntity;
 import com.google.cloud.datastore.Cursor;
 import com.google.cloud.datastore.Datastore;
-import com.google.cloud.datastore.DatastoreOptions;
+import com.google.cloud.datastore.DatastoreReaderWriter;
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.Entity.Builder;
+import com.google.cloud.datastore.EntityQuery;
 import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.IncompleteKey;
 import com.google.cloud.datastore.Key;
 import com.google.cloud.datastore.KeyFactory;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.ProjectionEntity;
+import com.google.cloud.datastore.ProjectionEntityQuery;
 import com.google.cloud.datastore.Query;
 import com.google.cloud.datastore.QueryResults;
 import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
@@ -42,14 +90,15 @@ import com.google.datastore.v1.QueryResultBatch;
 public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 
 	/**
-	 * This datastore variable holds data store service.
+	 * This clientProvider variable supplies shared data store service for all
+	 * operations of this DAO.
 	 */
-	private Datastore datastore = null;
+	private final CloudDatastoreClientProvider clientProvider;
 	/**
 	 * This keyFactory variable provides keys functionality for Create, Read, Update
 	 * and Delete operation on data store.
 	 */
-	private KeyFactory keyFactory;
+	private final KeyFactory keyFactory;
 	/**
 	 * This reflectionUtil provides creation of objects at run time by Reflection
 	 * JAVA API. Core functionality includes : 1. Converting Model to Data store
@@ -57,45 +106,430 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * object For Get Operation.
 	 * 
 	 */
-	private CloudDatastoreRefUtil reflectionUtil;
+	private final CloudDatastoreRefUtil reflectionUtil;
 	/**
 	 * This modelClass generates model class types at runtime.
 	 */
-	private Class<?> modelClassType;
+	private final Class<?> modelClassType;
 
 	/**
 	 * This datastoreKind refers to data store table name.
 	 */
-	private String datastoreKind;
+	private final String datastoreKind;
+
+	/**
+	 * This options variable holds tuning options like executor and chunk sizes of
+	 * bulk operations.
+	 */
+	private final CloudDatastoreDAOOptions options;
+
+	/**
+	 * This entityCache variable caches entities or models by key, it is null
+	 * when cache is disabled in options.
+	 */
+	private final EntityCache entityCache;
+
+	/**
+	 * This cacheModels flag tells whether entity cache holds decoded models
+	 * instead of entities.
+	 */
+	private final boolean cacheModels;
+
+	/**
+	 * This queryCache variable caches query results, it is null when cache is
+	 * disabled in options.
+	 */
+	private final QueryCache queryCache;
+
+	/**
+	 * This cacheQueryModels flag tells whether query cache holds decoded models
+	 * instead of entities.
+	 */
+	private final boolean cacheQueryModels;
+
+	/**
+	 * This counterConfig variable holds options of sharded counters, it is null
+	 * when DAO does not maintain counters.
+	 */
+	private final ShardedCounterConfig counterConfig;
+
+	/**
+	 * This counters map holds sharded counters by name.
+	 */
+	private final ConcurrentMap<String, ShardedCounter> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * This metrics variable receives measurements of data store calls and
+	 * mapping. It is called only when metricsEnabled is true.
+	 */
+	private final DatastoreMetrics metrics;
+
+	private final boolean metricsEnabled;
+
+	/**
+	 * This slowQueryLog variable records queries by query shape, it is null
+	 * when log is disabled in options.
+	 */
+	private final SlowQueryLog slowQueryLog;
+
+	/**
+	 * This retrier variable retries failed data store calls, it is null when
+	 * retries are disabled in options.
+	 */
+	private final Retrier retrier;
 
 	/**
-	 * This getDatastoreService method returns instance of data store service.
+	 * This hedgedReader variable hedges slow lookups of findById and findByIds,
+	 * it is null when hedging is disabled in options.
+	 */
+	private final HedgedReader hedgedReader;
+
+	/**
+	 * This concurrencyLimit variable limits concurrent data store calls of kind,
+	 * it is null when concurrency limiter is disabled in options.
+	 */
+	private final KindConcurrencyLimit concurrencyLimit;
+
+	/**
+	 * This getDatastoreService method returns instance of data store service
+	 * shared through client provider.
 	 * 
 	 * @return Datastore
 	 */
 	public Datastore getDatastoreService() {
-		try {
-			datastore = DatastoreOptions.getDefaultInstance().getService();
-			//System.out.println("Recieved datastore service object : "+datastore);
-
-		} catch (Exception e) {
-			System.err.println(
-					"DATA STORE INITIALIZATION EXCEPTION : " + this.getClass().getName() + " : " + e.getMessage());
-		}
-		return datastore;
+		return clientProvider.getDatastore();
 	}
 
 	/**
 	 * This CloudDatastoreDAOImpl constructor instantiate data store services and
-	 * other instance variable with passed parameters.
+	 * other instance variable with passed parameters. It uses process wide
+	 * default client provider.
 	 * 
 	 * @param modelClassType
 	 */
 	protected CloudDatastoreDAOImpl(Class<?> modelClassType) {
+		this(modelClassType, DefaultCloudDatastoreClientProvider.getInstance());
+	}
+
+	/**
+	 * This CloudDatastoreDAOImpl constructor instantiate instance variable with
+	 * passed parameters and uses passed client provider for all data store
+	 * operations.
+	 * 
+	 * @param modelClassType
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 */
+	protected CloudDatastoreDAOImpl(Class<?> modelClassType, CloudDatastoreClientProvider clientProvider) {
+		this(modelClassType, clientProvider, CloudDatastoreDAOOptions.defaults());
+	}
+
+	/**
+	 * This CloudDatastoreDAOImpl constructor instantiate instance variable with
+	 * passed parameters and uses passed client provider and tuning options.
+	 * 
+	 * @param modelClassType
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 * @param CloudDatastoreDAOOptions     options - Tuning options.
+	 */
+	protected CloudDatastoreDAOImpl(Class<?> modelClassType, CloudDatastoreClientProvider clientProvider,
+			CloudDatastoreDAOOptions options) {
+		this.clientProvider = clientProvider;
+		this.options = options;
 		this.datastoreKind = modelClassType.getSimpleName();
 		this.keyFactory = getDatastoreService().newKeyFactory().setKind(datastoreKind);
 		this.modelClassType = modelClassType;
 		this.reflectionUtil = new CloudDatastoreRefUtil();
+		this.counterConfig = options.getShardedCounters();
+		this.metrics = options.getMetrics();
+		this.metricsEnabled = metrics.isEnabled();
+		this.slowQueryLog = options.getSlowQueryLog();
+		this.retrier = options.getRetryPolicy() != null ? new Retrier(options.getRetryPolicy()) : null;
+		HedgingPolicy hedging = options.getHedging();
+		this.hedgedReader = hedging != null ? new HedgedReader(hedging) : null;
+		AdaptiveConcurrencyLimiter limiter = options.getConcurrencyLimiter();
+		this.concurrencyLimit = limiter != null ? limiter.forKind(datastoreKind) : null;
+		EntityCacheConfig cacheConfig = options.getEntityCache();
+		this.entityCache = cacheConfig != null ? new EntityCache(cacheConfig) : null;
+		this.cacheModels = cacheConfig != null && cacheConfig.getStoreMode() == EntityCacheConfig.StoreMode.MODEL;
+		QueryCacheConfig queryCacheConfig = options.getQueryCache();
+		this.queryCache = queryCacheConfig != null ? new QueryCache(queryCacheConfig) : null;
+		this.cacheQueryModels = queryCacheConfig != null
+				&& queryCacheConfig.getStoreMode() == EntityCacheConfig.StoreMode.MODEL;
+	}
+
+	/**
+	 * This getCacheStats method returns statistics of entity cache or null when
+	 * cache is disabled.
+	 * 
+	 * @return CacheStats
+	 */
+	public CacheStats getCacheStats() {
+		return entityCache != null ? entityCache.stats() : null;
+	}
+
+	/**
+	 * This getQueryCacheStats method returns statistics of query cache or null
+	 * when cache is disabled.
+	 * 
+	 * @return CacheStats
+	 */
+	public CacheStats getQueryCacheStats() {
+		return queryCache != null ? queryCache.stats() : null;
+	}
+
+	/**
+	 * This invalidateCache method removes all entries from entity cache and
+	 * query cache. It should be called after entities were changed outside of
+	 * this DAO.
+	 */
+	public void invalidateCache() {
+		if (entityCache != null)
+			entityCache.invalidateAll();
+		if (queryCache != null)
+			queryCache.invalidateAll();
+	}
+
+	/**
+	 * This afterWrite method starts new write epoch of kind, so cached query
+	 * results of kind are not used any more.
+	 */
+	private void afterWrite() {
+		KindWriteEpochs.bump(getDatastoreKind());
+	}
+
+	/**
+	 * This invalidateCached method removes key from entity cache.
+	 */
+	private void invalidateCached(Long id) {
+		if (entityCache != null && id != null)
+			entityCache.invalidate(id);
+	}
+
+	/**
+	 * This toModel method converts entity to model, or returns model, of entity
+	 * cache value.
+	 */
+	@SuppressWarnings("unchecked")
+	private T toModel(String operation, Object cached) {
+		if (cacheModels)
+			return (T) cached;
+		return decode(operation, (Entity) cached);
+	}
+
+	/**
+	 * This rpc method runs idempotent data store call of DAO operation.
+	 */
+	private <R> R rpc(String operation, DatastoreRpc rpc, Supplier<R> call) {
+		return rpc(operation, rpc, true, call);
+	}
+
+	/**
+	 * This rpc method runs data store call of DAO operation. Every call except
+	 * lookup of findById and findByIds, query and count query goes through it,
+	 * they go through lookup, runQuery and runCountQuery. Every attempt runs within concurrency limit
+	 * of kind, rejected call is not retried. Failed call is retried as per
+	 * retry policy, call which is not idempotent only when nothing was written.
+	 */
+	private <R> R rpc(String operation, DatastoreRpc rpc, boolean idempotent, Supplier<R> call) {
+		if (retrier == null)
+			return measured(operation, rpc, call);
+		return retrier.call(idempotent, () -> measured(operation, rpc, call));
+	}
+
+	/**
+	 * This lookup method runs lookup of findById or findByIds. Slow lookup is
+	 * hedged as per hedging policy and failed lookup is retried as per retry
+	 * policy.
+	 */
+	private <R> R lookup(String operation, Supplier<R> call) {
+		Supplier<R> attempt = () -> measured(operation, DatastoreRpc.LOOKUP, call);
+		if (hedgedReader != null) {
+			Supplier<R> measuredCall = attempt;
+			attempt = () -> hedgedReader.read(measuredCall);
+		}
+		return retrier == null ? attempt.get() : retrier.call(true, attempt);
+	}
+
+	/**
+	 * This measured method runs one attempt of data store call within
+	 * concurrency limit of kind. Time spent waiting for limit is not recorded
+	 * as call time.
+	 */
+	private <R> R measured(String operation, DatastoreRpc rpc, Supplier<R> call) {
+		if (concurrencyLimit == null)
+			return timed(operation, rpc, call);
+		return concurrencyLimit.call(rpc, () -> timed(operation, rpc, call));
+	}
+
+	/**
+	 * This timed method runs data store call. Call time and failure are
+	 * recorded when metrics are enabled.
+	 */
+	private <R> R timed(String operation, DatastoreRpc rpc, Supplier<R> call) {
+		if (!metricsEnabled)
+			return call.get();
+		long start = System.nanoTime();
+		R result;
+		try {
+			result = call.get();
+		} catch (RuntimeException | Error e) {
+			metrics.recordRpc(getDatastoreKind(), operation, rpc, System.nanoTime() - start, e);
+			throw e;
+		}
+		metrics.recordRpc(getDatastoreKind(), operation, rpc, System.nanoTime() - start, null);
+		return result;
+	}
+
+	/**
+	 * This runQuery method runs query of DAO operation. Request of first batch
+	 * runs within concurrency limit of kind and its failure is retried as per
+	 * retry policy, later batches are fetched while results are read.
+	 */
+	private <E> QueryResults<E> runQuery(String operation, Query<E> query) {
+		Supplier<QueryResults<E>> attempt = () -> runQueryOnce(operation, query);
+		if (concurrencyLimit != null) {
+			Supplier<QueryResults<E>> unlimited = attempt;
+			attempt = () -> concurrencyLimit.call(DatastoreRpc.QUERY, unlimited);
+		}
+		return retrier == null ? attempt.get() : retrier.call(true, attempt);
+	}
+
+	/**
+	 * This runCountQuery method runs one query of entity count. Every query runs
+	 * within concurrency limit of kind and is measured and retried on its own,
+	 * so count never holds slot across its queries. Its time is not sampled by
+	 * concurrency limit, as it grows with entities skipped rather than load.
+	 */
+	private <E> QueryResults<E> runCountQuery(String operation, Query<E> query) {
+		Supplier<QueryResults<E>> attempt = () -> timed(operation, DatastoreRpc.QUERY,
+				() -> getDatastoreService().run(query));
+		if (concurrencyLimit != null) {
+			Supplier<QueryResults<E>> unlimited = attempt;
+			attempt = () -> concurrencyLimit.call(unlimited);
+		}
+		return retrier == null ? attempt.get() : retrier.call(true, attempt);
+	}
+
+	/**
+	 * This entityCounter method returns counter of kind whose queries run by
+	 * runCountQuery for passed DAO operation.
+	 */
+	private EntityCounter entityCounter(String operation) {
+		return new EntityCounter(clientProvider, datastoreKind, new EntityCounter.QueryRunner() {
+			@Override
+			public <E> QueryResults<E> run(Query<E> query) {
+				return runCountQuery(operation, query);
+			}
+		});
+	}
+
+	/**
+	 * This runQueryOnce method runs query once. When metrics are enabled
+	 * results are wrapped, so fetching of later batches is measured while they
+	 * are read.
+	 */
+	private <E> QueryResults<E> runQueryOnce(String operation, Query<E> query) {
+		if (!metricsEnabled)
+			return getDatastoreService().run(query);
+		long start = System.nanoTime();
+		QueryResults<E> results;
+		try {
+			results = getDatastoreService().run(query);
+		} catch (RuntimeException | Error e) {
+			metrics.recordRpc(getDatastoreKind(), operation, DatastoreRpc.QUERY, System.nanoTime() - start, e);
+			throw e;
+		}
+		if (results == null)
+			return null;
+		return new MeteredQueryResults<>(results, metrics, getDatastoreKind(), operation, System.nanoTime() - start);
+	}
+
+	/**
+	 * This startQuery method starts measuring query execution for slow query
+	 * log, it returns null when log is disabled.
+	 */
+	private SlowQueryLog.Execution startQuery(Query<?> query) {
+		return slowQueryLog != null ? slowQueryLog.start(query) : null;
+	}
+
+	/**
+	 * This decodeResult method converts query result to model and adds
+	 * conversion time to query execution.
+	 */
+	private T decodeResult(String operation, Entity entity, SlowQueryLog.Execution execution) {
+		if (execution == null)
+			return decode(operation, entity);
+		long start = System.nanoTime();
+		T model = decode(operation, entity);
+		execution.mapped(System.nanoTime() - start);
+		return model;
+	}
+
+	/**
+	 * This decode method converts entity to model and records conversion time
+	 * when metrics are enabled.
+	 */
+	@SuppressWarnings("unchecked")
+	private T decode(String operation, Entity entity) {
+		if (!metricsEnabled)
+			return (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
+		long start = System.nanoTime();
+		T model = (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
+		metrics.recordMapping(getDatastoreKind(), operation, System.nanoTime() - start, 1);
+		return model;
+	}
+
+	/**
+	 * This encode method converts model to entity builder and records
+	 * conversion time when metrics are enabled.
+	 */
+	private Object encode(String operation, T model, boolean add) {
+		if (!metricsEnabled)
+			return reflectionUtil.setModelToEntityBuilder(getKeyFactory(), model, add);
+		long start = System.nanoTime();
+		Object builder = reflectionUtil.setModelToEntityBuilder(getKeyFactory(), model, add);
+		metrics.recordMapping(getDatastoreKind(), operation, System.nanoTime() - start, 1);
+		return builder;
+	}
+
+	/**
+	 * This recordRead method records entities returned by lookup, missing
+	 * entities are null and are not counted.
+	 */
+	private void recordRead(String operation, Collection<Entity> entities) {
+		if (!metricsEnabled)
+			return;
+		int count = 0;
+		long bytes = 0;
+		for (Entity entity : entities) {
+			if (entity == null)
+				continue;
+			count++;
+			bytes += EntitySizeEstimator.estimate(entity);
+		}
+		metrics.recordRead(getDatastoreKind(), operation, count, bytes);
+	}
+
+	private void recordWritten(String operation, Collection<? extends BaseEntity<?>> entities) {
+		if (!metricsEnabled)
+			return;
+		long bytes = 0;
+		for (BaseEntity<?> entity : entities) {
+			bytes += EntitySizeEstimator.estimate(entity);
+		}
+		metrics.recordWritten(getDatastoreKind(), operation, entities.size(), bytes);
+	}
+
+	private void recordDeleted(String operation, Collection<Key> keys) {
+		if (!metricsEnabled)
+			return;
+		long bytes = 0;
+		for (Key key : keys) {
+			bytes += EntitySizeEstimator.estimateKey(key);
+		}
+		metrics.recordWritten(getDatastoreKind(), operation, keys.size(), bytes);
 	}
 
 	/**
@@ -132,20 +566,139 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	/**
 	 * This findById method returns generic model object as per passed key
 	 * parameter. It uses utility for converting data store entity to model and set
-	 * the states.
+	 * the states. When entity cache is enabled cached entity is returned and
+	 * loaded entity or its absence is cached.
 	 * 
 	 * @param Long id - Key of data store table
 	 * @return T - Model Object
 	 */
 	public T findById(Long id) {
-		Entity entity = getDatastoreService().get(getKeyFactory().newKey(id));
-		if (entity == null)
+		long token = 0;
+		if (entityCache != null && id != null) {
+			Object cached = entityCache.get(id);
+			if (cached == EntityCache.ABSENT)
+				return null;
+			if (cached != null)
+				return toModel("findById", cached);
+			token = entityCache.loadToken(id);
+		}
+		Entity entity = lookup("findById", () -> getDatastoreService().get(getKeyFactory().newKey(id)));
+		recordRead("findById", Collections.singletonList(entity));
+		if (entity == null) {
+			if (entityCache != null)
+				entityCache.put(id, null, token);
 			return null;
+		}
 
-		Object object = reflectionUtil.setEntityToModel(getModelClassType(), entity);
+		Object object = decode("findById", entity);
+		if (entityCache != null)
+			entityCache.put(id, cacheModels ? object : entity, token);
 		return (T) object;
 	}
 
+	/**
+	 * This findByIds method returns model objects of passed keys in same order as
+	 * keys. Position of missing key or null key holds null. Keys are fetched by
+	 * batch lookups of at most lookup chunk size keys and chunks are fetched
+	 * concurrently. Data store client re-requests deferred keys of a lookup
+	 * itself.
+	 * 
+	 * @param Long[] ids - Keys of data store table
+	 * @return List<T> - Model objects in key order
+	 */
+	@Override
+	public List<T> findByIds(Long[] ids) {
+		if (ids == null)
+			return null;
+		return findByIds(Arrays.asList(ids));
+	}
+
+	/**
+	 * This findByIds method returns model objects of passed keys in same order as
+	 * keys. Position of missing key or null key holds null.
+	 * 
+	 * @param Collection<Long> ids - Keys of data store table
+	 * @return List<T> - Model objects in key order
+	 */
+	@Override
+	public List<T> findByIds(Collection<Long> ids) {
+		if (ids == null)
+			return null;
+		Map<Long, T> models = findByIdsAsMap(ids);
+		List<T> tlist = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			tlist.add(id != null ? models.get(id) : null);
+		}
+		return tlist;
+	}
+
+	/**
+	 * This findByIdsAsMap method returns model objects of passed keys mapped by
+	 * key. Missing keys are not present in map. Cached keys are taken from entity
+	 * cache and only remaining keys are fetched.
+	 * 
+	 * @param Collection<Long> ids - Keys of data store table
+	 * @return Map<Long, T> - Model objects by key
+	 */
+	@Override
+	public Map<Long, T> findByIdsAsMap(Collection<Long> ids) {
+		Map<Long, T> models = new HashMap<>();
+		if (ids == null || ids.isEmpty())
+			return models;
+		Set<Long> uniqueIds = new LinkedHashSet<>();
+		for (Long id : ids) {
+			if (id == null || !uniqueIds.add(id) || entityCache == null)
+				continue;
+			Object cached = entityCache.get(id);
+			if (cached == null)
+				continue;
+			uniqueIds.remove(id);
+			if (cached != EntityCache.ABSENT)
+				models.put(id, toModel("findByIds", cached));
+		}
+		List<Long> idList = new ArrayList<>(uniqueIds);
+		int chunkSize = options.getLookupChunkSize();
+		List<Supplier<Map<Long, T>>> chunks = new ArrayList<>();
+		for (int start = 0; start < idList.size(); start += chunkSize) {
+			List<Long> chunk = idList.subList(start, Math.min(start + chunkSize, idList.size()));
+			chunks.add(() -> fetchChunk(chunk));
+		}
+		for (Map<Long, T> chunkModels : ParallelChunks.invokeAll(chunks, options.getExecutor(),
+				options.getParallelism())) {
+			models.putAll(chunkModels);
+		}
+		return models;
+	}
+
+	/**
+	 * This fetchChunk method fetches one lookup chunk and converts entities to
+	 * models.
+	 */
+	private Map<Long, T> fetchChunk(List<Long> ids) {
+		Key[] keys = new Key[ids.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = getKeyFactory().newKey(ids.get(i));
+		}
+		long[] tokens = new long[keys.length];
+		if (entityCache != null) {
+			for (int i = 0; i < keys.length; i++) {
+				tokens[i] = entityCache.loadToken(ids.get(i));
+			}
+		}
+		List<Entity> entities = lookup("findByIds", () -> getDatastoreService().fetch(keys));
+		recordRead("findByIds", entities);
+		Map<Long, T> models = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			Entity entity = entities.get(i);
+			T model = entity != null ? decode("findByIds", entity) : null;
+			if (model != null)
+				models.put(ids.get(i), model);
+			if (entityCache != null)
+				entityCache.put(ids.get(i), cacheModels ? model : entity, tokens[i]);
+		}
+		return models;
+	}
+
 	@SuppressWarnings("rawtypes")
 	@Override
 	/**
@@ -157,11 +710,25 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @param T t - Generic Type Model object
 	 */
 	public Long add(T t) {
-		Object obj = reflectionUtil.setModelToEntityBuilder(getKeyFactory(), t, true);
+		Object obj = encode("add", t, true);
 		if (obj == null)
 			return null;
 
-		return getDatastoreService().add((FullEntity<?>) ((BaseEntity.Builder) obj).build()).getKey().getId();
+		FullEntity<?> entity = (FullEntity<?>) ((BaseEntity.Builder) obj).build();
+		Long id = entity.getKey() instanceof Key ? ((Key) entity.getKey()).getId() : null;
+		try {
+			if (counterConfig != null) {
+				id = writeCounted(Collections.singletonList(entity), Collections.singletonList(t), WriteMode.ADD,
+						"add").get(0).getId();
+			} else {
+				id = rpc("add", DatastoreRpc.COMMIT, false, () -> getDatastoreService().add(entity)).getKey().getId();
+				recordWritten("add", Collections.singletonList(entity));
+			}
+			return id;
+		} finally {
+			invalidateCached(id);
+			afterWrite();
+		}
 	}
 
 	@Override
@@ -173,10 +740,25 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @param T t - Generic Type Model object
 	 */
 	public void update(T t) {
-		Builder builder = (Builder) reflectionUtil.setModelToEntityBuilder(getKeyFactory(), t, false);
+		Builder builder = (Builder) encode("update", t, false);
 		if (builder == null)
 			return;
-		getDatastoreService().update(builder.build());
+		Entity entity = builder.build();
+		try {
+			if (counterConfig != null) {
+				writeCounted(Collections.singletonList(entity), Collections.singletonList(t), WriteMode.UPDATE,
+						"update");
+			} else {
+				rpc("update", DatastoreRpc.COMMIT, () -> {
+					getDatastoreService().update(entity);
+					return null;
+				});
+				recordWritten("update", Collections.singletonList(entity));
+			}
+		} finally {
+			invalidateCached(entity.getKey().getId());
+			afterWrite();
+		}
 	}
 
 	@Override
@@ -187,7 +769,21 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @param Long id - Data store table unique key
 	 */
 	public void delete(Long id) {
-		getDatastoreService().delete(getKeyFactory().newKey(id));
+		try {
+			if (counterConfig != null) {
+				deleteCounted(Collections.singletonList(getKeyFactory().newKey(id)), "delete");
+			} else {
+				Key key = getKeyFactory().newKey(id);
+				rpc("delete", DatastoreRpc.COMMIT, () -> {
+					getDatastoreService().delete(key);
+					return null;
+				});
+				recordDeleted("delete", Collections.singletonList(key));
+			}
+		} finally {
+			invalidateCached(id);
+			afterWrite();
+		}
 	}
 
 	@Override
@@ -200,20 +796,11 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @param String value - Column matching value
 	 * @return List<T> -List of Model objects
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> getByParam(String column, String value) {
-		List<T> tlist = new ArrayList<>();
+		Filter filter = PropertyFilter.eq(column, value);
 		Query<Entity> query = Query.newEntityQueryBuilder().setKind(getDatastoreKind())
-				.setFilter(CompositeFilter.and(PropertyFilter.eq(column, value))).build();
-		QueryResults<Entity> entities = getDatastoreService().run(query);
-		if (entities == null)
-			return null;
-		while (entities.hasNext()) {
-			Entity entity = entities.next();
-			T object = (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
-			tlist.add(object);
-		}
-		return tlist;
+				.setFilter(CompositeFilter.and(filter)).build();
+		return runListQuery("getByParam", query, listQueryCacheKey(filter));
 	}
 
 	@Override
@@ -226,20 +813,11 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @param Long   value - Column matching value
 	 * @return List<T> -List of Model objects
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> getByParam(String column, Long value) {
-		List<T> tlist = new ArrayList<>();
+		Filter filter = PropertyFilter.eq(column, value);
 		Query<Entity> query = Query.newEntityQueryBuilder().setKind(getDatastoreKind())
-				.setFilter(CompositeFilter.and(PropertyFilter.eq(column, value))).build();
-		QueryResults<Entity> entities = getDatastoreService().run(query);
-		if (entities == null)
-			return null;
-		while (entities.hasNext()) {
-			Entity entity = entities.next();
-			T object = (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
-			tlist.add(object);
-		}
-		return tlist;
+				.setFilter(CompositeFilter.and(filter)).build();
+		return runListQuery("getByParam", query, listQueryCacheKey(filter));
 	}
 
 //	@Override
@@ -297,7 +875,6 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 *               be retrieved.
 	 * @return List<T> -List of Model objects
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> getByFields(Filter firstFilter, Filter... remainingFilter) {
 		if (firstFilter == null)
 			return null;
@@ -310,121 +887,504 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 		}
 		Query<Entity> query = Query.newEntityQueryBuilder().setKind(getDatastoreKind()).setFilter(compositeFilter)
 				.build();
-		query.toString();
-		QueryResults<Entity> entities = getDatastoreService().run(query);
+		return runListQuery("getByFields", query, listQueryCacheKey(firstFilter, remainingFilter));
+	}
+
+	/**
+	 * This listQueryCacheKey method returns query cache key of filter query or
+	 * null when query cache is disabled.
+	 */
+	private String listQueryCacheKey(Filter firstFilter, Filter... remainingFilters) {
+		if (queryCache == null)
+			return null;
+		return QueryCacheKeys.of(getDatastoreKind(), "list", firstFilter, remainingFilters, null, true, null, null);
+	}
+
+	/**
+	 * This runListQuery method runs query and converts all entities to models.
+	 * When cache key is passed result is taken from or stored in query cache.
+	 */
+	private List<T> runListQuery(String operation, Query<Entity> query, String cacheKey) {
+		long epoch = 0;
+		if (cacheKey != null) {
+			epoch = KindWriteEpochs.current(getDatastoreKind());
+			QueryCache.CachedResult cached = queryCache.get(cacheKey, epoch);
+			if (cached != null)
+				return toQueryModels(operation, cached.getValues());
+		}
+		SlowQueryLog.Execution execution = startQuery(query);
+		QueryResults<Entity> entities = runQuery(operation, query);
 		if (entities == null)
 			return null;
 		List<T> tlist = new ArrayList<>();
+		List<Object> cachedValues = readQueryResults(operation, entities, tlist, cacheKey != null, execution);
+		if (execution != null)
+			execution.finish(tlist.size());
+		if (cachedValues != null)
+			queryCache.put(cacheKey, cachedValues, null, epoch);
+		return tlist;
+	}
+
+	/**
+	 * This readQueryResults method converts entities of query results to models
+	 * in to passed list. When caching it returns cached form of results, or null
+	 * when results do not fit in query cache entry.
+	 */
+	private List<Object> readQueryResults(String operation, QueryResults<Entity> entities, List<T> tlist,
+			boolean caching, SlowQueryLog.Execution execution) {
+		List<Object> cachedValues = caching ? new ArrayList<>() : null;
 		while (entities.hasNext()) {
 			Entity entity = entities.next();
-			T object = (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
+			T object = decodeResult(operation, entity, execution);
 			tlist.add(object);
+			if (cachedValues != null && queryCache.accepts(tlist.size()))
+				cachedValues.add(cacheQueryModels ? object : entity);
+			else
+				cachedValues = null;
+		}
+		return cachedValues;
+	}
+
+	/**
+	 * This toQueryModels method returns new list of models of cached query
+	 * result.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> toQueryModels(String operation, List<Object> cachedValues) {
+		List<T> tlist = new ArrayList<>(cachedValues.size());
+		for (Object value : cachedValues) {
+			tlist.add(cacheQueryModels ? (T) value : decode(operation, (Entity) value));
 		}
 		return tlist;
 	}
 
 	/**
 	 * This method deletes multiple entities from data store table on the basis of
-	 * array of key id parameters passed.
+	 * array of key id parameters passed. Keys are deleted by chunks of at most
+	 * mutation chunk size keys, chunks are committed independently and
+	 * concurrently, so delete is not atomic when keys do not fit in one chunk.
+	 * When no chunk was committed first failure is thrown, when some chunks were
+	 * committed and others failed BulkWriteException holding outcome of every key
+	 * is thrown.
 	 * 
 	 * @param Long id - Data store table unique key
 	 */
 	@Override
 	public void delete(Long[] ids) {
-
-		if (ids == null || ids.length == 0)
-			return;
-
-		List<Key> keys = new ArrayList<>();
-		for (Long id : ids) {
-			if (id != null)
-				keys.add(getKeyFactory().newKey(id));
-		}
-
-		if (keys.isEmpty())
-			return;
-		Key[] keysArray = null;
-		if (keys.size() > 0) {
-			keysArray = keys.toArray(new Key[keys.size()]);
-			getDatastoreService().delete(keysArray);
-		}
+		checkBulkResult("delete", bulkDelete(ids));
 	}
 
 	/**
 	 * This add method performs two functionality. It uses utility for converting
 	 * model to data store entity and set the states. 1. If client has generated key
 	 * then same key is used in data store table as a key. 2 If client has not
-	 * generated key then new key is generated by this add method.
+	 * generated key then new key is generated by this add method. Entities are
+	 * added by chunks planned by BatchPlanner, chunks are committed independently
+	 * and concurrently, so add is not atomic when entities do not fit in one
+	 * chunk. When no chunk was committed first failure is thrown, when some
+	 * chunks were committed and others failed BulkWriteException holding keys of
+	 * added models is thrown.
 	 * 
 	 * @param T t - Generic Type Model object
 	 */
 	@Override
 	public Long[] add(T[] t) {
+		BulkResult result = bulkAdd(t);
+		checkBulkResult("add", result);
+		Long[] ids = result.getSuccessIds();
+		return ids.length > 0 ? ids : null;
+	}
 
-		if (t == null || t.length == 0)
-			return null;
+	@Override
+	/**
+	 * This update method updates model object coming in generic type t as a
+	 * parameter in data store table. It uses utility for converting model to data
+	 * store entity and set the states. Entities are updated by chunks planned by
+	 * BatchPlanner, chunks are committed independently and concurrently, so
+	 * update is not atomic when entities do not fit in one chunk. When no chunk
+	 * was committed first failure is thrown, when some chunks were committed and
+	 * others failed BulkWriteException holding outcome of every model is thrown.
+	 * 
+	 * @param T t - Generic Type Model object
+	 */
+	public void update(T[] t) {
+		checkBulkResult("update", bulkUpdate(t));
+	}
+
+	/**
+	 * This checkBulkResult method throws failure of bulk operation done for
+	 * array method. First failure is thrown as is when nothing was written, so
+	 * caller may repeat whole operation, otherwise failure is wrapped with result
+	 * holding items which were written.
+	 */
+	private void checkBulkResult(String operation, BulkResult result) {
+		RuntimeException failure = result.getFirstFailure();
+		if (failure == null)
+			return;
+		if (result.getSuccessCount() == 0)
+			throw failure;
+		throw new BulkWriteException("PARTIAL " + operation.toUpperCase() + " EXCEPTION : " + result.getFailureCount()
+				+ " OF " + result.size() + " FAILED : " + failure, result);
+	}
+
+	/**
+	 * This bulkAdd method adds model objects and returns outcome of every model
+	 * instead of failing whole operation. Entities are split by mutation count
+	 * and estimated entity size and chunks are committed concurrently. Failure of
+	 * chunk is reported for every model of that chunk.
+	 * 
+	 * @param T[] t - Generic Type Model objects
+	 * @return BulkResult - Key or failure of every model in model order
+	 */
+	@Override
+	public BulkResult bulkAdd(T[] t) {
+		return bulkWrite(t, WriteMode.ADD);
+	}
+
+	/**
+	 * This bulkUpdate method updates model objects and returns outcome of every
+	 * model instead of failing whole operation. Entities are split by mutation
+	 * count and estimated entity size and chunks are committed concurrently.
+	 * Failure of chunk is reported for every model of that chunk.
+	 * 
+	 * @param T[] t - Generic Type Model objects
+	 * @return BulkResult - Key or failure of every model in model order
+	 */
+	@Override
+	public BulkResult bulkUpdate(T[] t) {
+		return bulkWrite(t, WriteMode.UPDATE);
+	}
 
-		List<Long> ids = new ArrayList<>();
-		List<FullEntity<?>> fullEntities = new ArrayList<>();
+	/**
+	 * This bulkUpsert method adds or replaces model objects by their keys and
+	 * returns outcome of every model. Model without key is reported as failure.
+	 * Entities are split by mutation count and estimated entity size and chunks
+	 * are committed concurrently.
+	 * 
+	 * @param T[] t - Generic Type Model objects having keys
+	 * @return BulkResult - Key or failure of every model in model order
+	 */
+	@Override
+	public BulkResult bulkUpsert(T[] t) {
+		return bulkWrite(t, WriteMode.UPSERT);
+	}
+
+	/**
+	 * This bulkDelete method deletes entities of passed keys and returns outcome
+	 * of every key instead of failing whole operation. Keys are split by mutation
+	 * count and chunks are committed concurrently.
+	 * 
+	 * @param Long[] ids - Data store table unique keys
+	 * @return BulkResult - Key or failure of every key in key order
+	 */
+	@Override
+	public BulkResult bulkDelete(Long[] ids) {
+		BulkResult result = new BulkResult(ids == null ? 0 : ids.length);
+		if (ids == null || ids.length == 0)
+			return result;
+		List<Integer> positions = new ArrayList<>();
+		List<Key> keys = new ArrayList<>();
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == null)
+				continue;
+			positions.add(i);
+			keys.add(getKeyFactory().newKey(ids[i]));
+		}
+		List<Supplier<Void>> chunks = new ArrayList<>();
+		for (int[] range : BatchPlanner.plan(keys.size(), mutationChunkSize())) {
+			List<Integer> chunkPositions = positions.subList(range[0], range[1]);
+			List<Key> chunkKeys = keys.subList(range[0], range[1]);
+			chunks.add(() -> {
+				try {
+					if (counterConfig != null) {
+						deleteCounted(chunkKeys, "bulkDelete");
+					} else {
+						rpc("bulkDelete", DatastoreRpc.COMMIT, () -> {
+							getDatastoreService().delete(chunkKeys.toArray(new Key[chunkKeys.size()]));
+							return null;
+						});
+						recordDeleted("bulkDelete", chunkKeys);
+					}
+					for (int i = 0; i < chunkKeys.size(); i++) {
+						result.setId(chunkPositions.get(i), chunkKeys.get(i).getId());
+					}
+				} catch (RuntimeException e) {
+					setChunkFailure(result, chunkPositions, e);
+				}
+				return null;
+			});
+		}
+		ParallelChunks.invokeAll(chunks, options.getExecutor(), options.getParallelism());
+		for (Key key : keys) {
+			invalidateCached(key.getId());
+		}
+		if (!keys.isEmpty())
+			afterWrite();
+		return result;
+	}
 
-		for (T x : t) {
-			if (x == null)
+	/**
+	 * This bulkWrite method converts models to entities, plans chunks by
+	 * mutation count and estimated entity size and commits chunks concurrently.
+	 * Model which fails conversion is reported as failure and not written.
+	 */
+	@SuppressWarnings("rawtypes")
+	private BulkResult bulkWrite(T[] t, WriteMode mode) {
+		BulkResult result = new BulkResult(t == null ? 0 : t.length);
+		if (t == null || t.length == 0)
+			return result;
+		List<Integer> positions = new ArrayList<>();
+		List<FullEntity<?>> entities = new ArrayList<>();
+		for (int i = 0; i < t.length; i++) {
+			if (t[i] == null)
 				continue;
-			Object obj = reflectionUtil.setModelToEntityBuilder(getKeyFactory(), x, true);
-			if (obj == null)
+			FullEntity<?> entity;
+			try {
+				if (mode == WriteMode.UPSERT && reflectionUtil.getKindId(t[i]) == null) {
+					result.setFailure(i, new CloudDatastoreDAOException("Upsert requires model key"));
+					continue;
+				}
+				Object obj = encode(mode.operation, t[i], mode == WriteMode.ADD);
+				if (obj == null)
+					continue;
+				entity = (FullEntity<?>) ((BaseEntity.Builder) obj).build();
+			} catch (RuntimeException e) {
+				result.setFailure(i, e);
 				continue;
-			fullEntities.add((FullEntity<?>) ((BaseEntity.Builder) obj).build());
+			}
+			positions.add(i);
+			entities.add(entity);
 		}
-		if (fullEntities.isEmpty())
-			return null;
+		int[] sizes = new int[entities.size()];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = EntitySizeEstimator.estimate(entities.get(i));
+		}
+		List<Supplier<Void>> chunks = new ArrayList<>();
+		for (int[] range : BatchPlanner.plan(sizes, mutationChunkSize(), options.getMaxCommitBytes())) {
+			List<Integer> chunkPositions = positions.subList(range[0], range[1]);
+			List<FullEntity<?>> chunkEntities = entities.subList(range[0], range[1]);
+			chunks.add(() -> {
+				try {
+					writeChunk(chunkEntities, chunkPositions, t, mode, result);
+				} catch (RuntimeException e) {
+					setChunkFailure(result, chunkPositions, e);
+				}
+				return null;
+			});
+		}
+		ParallelChunks.invokeAll(chunks, options.getExecutor(), options.getParallelism());
+		if (entityCache != null) {
+			for (FullEntity<?> entity : entities) {
+				if (entity.getKey() instanceof Key)
+					invalidateCached(((Key) entity.getKey()).getId());
+			}
+			for (int i = 0; i < result.size(); i++) {
+				invalidateCached(result.getId(i));
+			}
+		}
+		if (!entities.isEmpty())
+			afterWrite();
+		return result;
+	}
 
-		FullEntity<?>[] fullEntityArray = fullEntities.toArray(new FullEntity[fullEntities.size()]);
-		List<Entity> entities = getDatastoreService().add(fullEntityArray);
-		if (entities == null || entities.isEmpty())
-			return null;
+	/**
+	 * This mutationChunkSize method returns entities per bulk chunk, which is
+	 * at most transaction items when chunk is written in counter transaction.
+	 */
+	private int mutationChunkSize() {
+		if (counterConfig == null)
+			return options.getMutationChunkSize();
+		return Math.min(options.getMutationChunkSize(), counterConfig.getTransactionItems());
+	}
 
-		for (Entity entity : entities) {
-			ids.add(entity.getKey().getId());
+	/**
+	 * This writeChunk method commits one chunk of entities and records keys of
+	 * written entities. When counters are maintained chunk is written in one
+	 * counter transaction.
+	 */
+	private void writeChunk(List<FullEntity<?>> entities, List<Integer> positions, T[] models, WriteMode mode,
+			BulkResult result) {
+		if (counterConfig != null) {
+			List<T> chunkModels = new ArrayList<>(positions.size());
+			for (Integer position : positions) {
+				chunkModels.add(models[position]);
+			}
+			List<Key> keys = writeCounted(entities, chunkModels, mode, mode.operation);
+			for (int i = 0; i < keys.size(); i++) {
+				result.setId(positions.get(i), keys.get(i).getId());
+			}
+			return;
 		}
-
-		Long[] longArray = null;
-		if (ids.size() > 0) {
-			longArray = new Long[ids.size()];
-			longArray = ids.toArray(longArray);
+		if (mode == WriteMode.ADD) {
+			List<Entity> written = rpc(mode.operation, DatastoreRpc.COMMIT, false,
+					() -> getDatastoreService().add(entities.toArray(new FullEntity[entities.size()])));
+			recordWritten(mode.operation, entities);
+			for (int i = 0; i < written.size(); i++) {
+				result.setId(positions.get(i), written.get(i).getKey().getId());
+			}
+			return;
+		}
+		Entity[] entityArray = entities.toArray(new Entity[entities.size()]);
+		rpc(mode.operation, DatastoreRpc.COMMIT, () -> {
+			if (mode == WriteMode.UPSERT)
+				getDatastoreService().put(entityArray);
+			else
+				getDatastoreService().update(entityArray);
+			return null;
+		});
+		recordWritten(mode.operation, entities);
+		for (int i = 0; i < entityArray.length; i++) {
+			result.setId(positions.get(i), entityArray[i].getKey().getId());
 		}
-		return longArray;
 	}
 
-	@Override
 	/**
-	 * This update method updates model object coming in generic type t as a
-	 * parameter in data store table. It uses utility for converting model to data
-	 * store entity and set the states.
+	 * This counterNames method returns names of sharded counters which passed
+	 * model is counted in, like "orders-of-merchant-" + merchantId. Counters are
+	 * maintained only when sharded counters are enabled in options. Default
+	 * implementation returns no counter, DAO overrides it to maintain its own
+	 * counters.
 	 * 
-	 * @param T t - Generic Type Model object
+	 * @param T model - Model being added, updated or deleted.
+	 * @return Collection<String> - Counter names
 	 */
-	public void update(T[] t) {
+	protected Collection<String> counterNames(T model) {
+		return Collections.emptyList();
+	}
 
-		if (t == null || t.length == 0)
-			return;
-		List<Entity> entityList = new ArrayList<>();
-		for (T x : t) {
-			if (x == null)
-				continue;
-			Builder builder = (Builder) (reflectionUtil.setModelToEntityBuilder(getKeyFactory(), x, false));
-			if (builder != null) {
-				entityList.add(builder.build());
-			}
+	/**
+	 * This getCounter method returns value of sharded counter. Counter counts
+	 * only entities written through DAO since counters were enabled.
+	 * 
+	 * @param String name - Counter name.
+	 * @return long - Counter value
+	 */
+	public long getCounter(String name) {
+		return counter(name).get();
+	}
+
+	private ShardedCounter counter(String name) {
+		if (counterConfig == null)
+			throw new IllegalStateException("Sharded counters are not enabled for " + getDatastoreKind());
+		return counters.computeIfAbsent(name, counterName -> new ShardedCounter(clientProvider, counterName,
+				counterConfig, keys -> lookup("getCounter", () -> getDatastoreService().fetch(keys))));
+	}
+
+	/**
+	 * This writeCounted method adds, updates or upserts entities and changes
+	 * their counters in one transaction. Counters of replaced entities are
+	 * decremented and counters of new models are incremented, deltas of all
+	 * entities are summed so every counter is incremented once. Keys of new
+	 * entities are allocated by one call before transaction.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Key> writeCounted(List<FullEntity<?>> entities, List<T> models, WriteMode mode, String operation) {
+		List<IncompleteKey> incompleteKeys = new ArrayList<>();
+		for (FullEntity<?> entity : entities) {
+			if (!(entity.getKey() instanceof Key))
+				incompleteKeys.add(entity.getKey());
 		}
+		Iterator<Key> allocated = incompleteKeys.isEmpty() ? Collections.<Key>emptyIterator()
+				: rpc(operation, DatastoreRpc.ALLOCATE_IDS, () -> getDatastoreService()
+						.allocateId(incompleteKeys.toArray(new IncompleteKey[incompleteKeys.size()]))).iterator();
+		List<Key> keys = new ArrayList<>(entities.size());
+		Entity[] keyedEntities = new Entity[entities.size()];
+		for (int i = 0; i < keyedEntities.length; i++) {
+			FullEntity<?> entity = entities.get(i);
+			Key key = entity.getKey() instanceof Key ? (Key) entity.getKey() : allocated.next();
+			keys.add(key);
+			keyedEntities[i] = Entity.newBuilder(key, entity).build();
+		}
+		long start = System.nanoTime();
+		Map<String, Long> deltas = rpc(operation, DatastoreRpc.TRANSACTION, false,
+				() -> getDatastoreService().runInTransaction(transaction -> {
+					Map<String, Long> transactionDeltas = new HashMap<>();
+					if (mode != WriteMode.ADD) {
+						for (Entity existing : transaction.fetch(keys.toArray(new Key[keys.size()]))) {
+							if (existing != null)
+								addCounterDeltas(transactionDeltas,
+										(T) reflectionUtil.setEntityToModel(getModelClassType(), existing), -1);
+						}
+					}
+					for (T model : models) {
+						addCounterDeltas(transactionDeltas, model, 1);
+					}
+					if (mode == WriteMode.ADD)
+						transaction.add(keyedEntities);
+					else if (mode == WriteMode.UPDATE)
+						transaction.update(keyedEntities);
+					else
+						transaction.put(keyedEntities);
+					incrementCounters(transaction, transactionDeltas);
+					return transactionDeltas;
+				}));
+		recordWritten(operation, Arrays.asList(keyedEntities));
+		committedCounters(deltas, start);
+		return keys;
+	}
+
+	/**
+	 * This deleteCounted method deletes entities and decrements their counters
+	 * in one transaction, every counter once by summed delta. Missing entity
+	 * changes no counter.
+	 */
+	@SuppressWarnings("unchecked")
+	private void deleteCounted(List<Key> keys, String operation) {
+		Key[] keyArray = keys.toArray(new Key[keys.size()]);
+		long start = System.nanoTime();
+		Map<String, Long> deltas = rpc(operation, DatastoreRpc.TRANSACTION, false,
+				() -> getDatastoreService().runInTransaction(transaction -> {
+					Map<String, Long> transactionDeltas = new HashMap<>();
+					List<Key> existingKeys = new ArrayList<>();
+					for (Entity existing : transaction.fetch(keyArray)) {
+						if (existing == null)
+							continue;
+						existingKeys.add(existing.getKey());
+						addCounterDeltas(transactionDeltas,
+								(T) reflectionUtil.setEntityToModel(getModelClassType(), existing), -1);
+					}
+					if (existingKeys.isEmpty())
+						return transactionDeltas;
+					transaction.delete(existingKeys.toArray(new Key[existingKeys.size()]));
+					incrementCounters(transaction, transactionDeltas);
+					return transactionDeltas;
+				}));
+		recordDeleted(operation, keys);
+		committedCounters(deltas, start);
+	}
 
-		if (entityList.isEmpty()) {
+	private void addCounterDeltas(Map<String, Long> deltas, T model, long delta) {
+		if (model == null)
 			return;
+		if (counterConfig.isKindCounter())
+			deltas.merge(getDatastoreKind(), delta, Long::sum);
+		for (String name : counterNames(model)) {
+			deltas.merge(name, delta, Long::sum);
 		}
+	}
 
-		Entity[] entityArray = new Entity[entityList.size()];
-		entityArray = entityList.toArray(entityArray);
-		getDatastoreService().update(entityArray);
+	private void incrementCounters(DatastoreReaderWriter transaction, Map<String, Long> deltas) {
+		for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+			if (delta.getValue() != 0)
+				counter(delta.getKey()).increment(transaction, delta.getValue());
+		}
+	}
 
+	private void committedCounters(Map<String, Long> deltas, long startNanos) {
+		for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+			if (delta.getValue() != 0)
+				counter(delta.getKey()).committed(delta.getValue(), startNanos);
+		}
+	}
+
+	/**
+	 * This setChunkFailure method records failure of chunk for every item of
+	 * chunk.
+	 */
+	private void setChunkFailure(BulkResult result, List<Integer> positions, RuntimeException failure) {
+		for (Integer position : positions) {
+			result.setFailure(position, failure);
+		}
 	}
 
 	/**
@@ -446,7 +1406,6 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	 * @return Result<T> - It returns list of specified model type and reference of
 	 *         cursor for querying next time in case of pagination.
 	 */
-	@SuppressWarnings("unchecked")
 	public Result<T> queryPage(Integer pageSize, String orderBy, boolean isAscending, String cursor, Filter firstFilter,
 			Filter... remainingFilters) {
 
@@ -481,21 +1440,37 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 		}
 		queryBuilder = queryBuilder.setStartCursor(startCursor);
 
+		// serve page from query cache
+		String cacheKey = null;
+		long epoch = 0;
+		if (queryCache != null) {
+			cacheKey = QueryCacheKeys.of(getDatastoreKind(), "page", firstFilter, remainingFilters, orderBy,
+					isAscending, pageSize, cursor);
+			epoch = KindWriteEpochs.current(getDatastoreKind());
+			QueryCache.CachedResult cached = queryCache.get(cacheKey, epoch);
+			if (cached != null)
+				return new Result<T>(toQueryModels("queryPage", cached.getValues()), cached.getCursor());
+		}
+
 		// run query
-		QueryResults<Entity> entities = getDatastoreService().run(queryBuilder.build());
+		EntityQuery query = queryBuilder.build();
+		SlowQueryLog.Execution execution = startQuery(query);
+		QueryResults<Entity> entities = runQuery("queryPage", query);
 		if (entities == null)
 			return null;
 		List<T> tlist = new ArrayList<>();
-		while (entities.hasNext()) {
-			Entity entity = entities.next();
-			T object = (T) reflectionUtil.setEntityToModel(getModelClassType(), entity);
-			tlist.add(object);
-		}
+		List<Object> cachedValues = readQueryResults("queryPage", entities, tlist, cacheKey != null, execution);
+		if (execution != null)
+			execution.finish(tlist.size());
 
 		// get results
 		Cursor nextCursor = entities.getCursorAfter();
-		if (nextCursor != null && tlist.size() == pageSize) {
-			String cursorString = nextCursor.toUrlSafe();
+		String cursorString = null;
+		if (nextCursor != null && tlist.size() == pageSize)
+			cursorString = nextCursor.toUrlSafe();
+		if (cachedValues != null)
+			queryCache.put(cacheKey, cachedValues, cursorString, epoch);
+		if (cursorString != null) {
 			return new Result<T>(tlist, cursorString);
 		} else {
 			return new Result<T>(tlist);
@@ -503,6 +1478,197 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 
 	}
 
+	/**
+	 * This getByFieldsProjection method returns List of partially filled model
+	 * objects on the basis of filters passed. Only passed properties are read
+	 * from data store by projection query and set in models together with key,
+	 * other properties keep default value. Projected properties must be indexed
+	 * and must not be used in equality filter.
+	 * 
+	 * @param String[] properties - Names of model properties to be read.
+	 * @param Filter   firstFilter - Single filter Conditions basis rows will be
+	 *                 retrieved.
+	 * @param          Filter... remainingFilter - Multiple Conditions basis rows
+	 *                 will be retrieved.
+	 * @return List<T> -List of partially filled Model objects
+	 */
+	@Override
+	public List<T> getByFieldsProjection(String[] properties, Filter firstFilter, Filter... remainingFilter) {
+		ProjectionEntityQuery.Builder queryBuilder = newProjectionQueryBuilder(properties);
+		if (firstFilter != null)
+			queryBuilder.setFilter(and(firstFilter, remainingFilter));
+		QueryResults<ProjectionEntity> entities = runQuery("getByFieldsProjection", queryBuilder.build());
+		if (entities == null)
+			return null;
+		List<T> tlist = new ArrayList<>();
+		while (entities.hasNext()) {
+			tlist.add(toProjectedModel("getByFieldsProjection", entities.next(), properties));
+		}
+		return tlist;
+	}
+
+	/**
+	 * This queryPageProjection method returns page of partially filled model
+	 * objects like queryPage, but only passed properties are read from data
+	 * store by projection query. Order property must be one of projected
+	 * properties.
+	 * 
+	 * @param String[] properties - Names of model properties to be read.
+	 * @param Integer  pageSize - This parameter is for pagination. It gives
+	 *                 records as per limit passed.
+	 * @param String   orderBy - This parameter specifies column name for which
+	 *                 ordering will be done.
+	 * @param          boolean isAscending - This parameter specifies ascending or
+	 *                 descending ordering.
+	 * @param String   cursor - This parameter sets the start cursor point.
+	 * @param Filter   firstFilter - This parameter specifies filter criteria
+	 *                 based which result is required.
+	 * @param          Filter... remainingFilters - This parameter specifies
+	 *                 filter criteria based which result is required.
+	 * @return Result<T> - It returns list of partially filled models and
+	 *         reference of cursor for querying next time in case of pagination.
+	 */
+	@Override
+	public Result<T> queryPageProjection(String[] properties, Integer pageSize, String orderBy, boolean isAscending,
+			String cursor, Filter firstFilter, Filter... remainingFilters) {
+		ProjectionEntityQuery.Builder queryBuilder = newProjectionQueryBuilder(properties);
+		if (pageSize != null)
+			queryBuilder.setLimit(pageSize);
+		if (orderBy != null && !orderBy.equals(""))
+			queryBuilder.setOrderBy(isAscending ? OrderBy.asc(orderBy) : OrderBy.desc(orderBy));
+		if (firstFilter != null)
+			queryBuilder.setFilter(and(firstFilter, remainingFilters));
+		if (cursor != null && !cursor.equals(""))
+			queryBuilder.setStartCursor(Cursor.fromUrlSafe(cursor));
+		QueryResults<ProjectionEntity> entities = runQuery("queryPageProjection", queryBuilder.build());
+		if (entities == null)
+			return null;
+		List<T> tlist = new ArrayList<>();
+		while (entities.hasNext()) {
+			tlist.add(toProjectedModel("queryPageProjection", entities.next(), properties));
+		}
+		Cursor nextCursor = entities.getCursorAfter();
+		if (nextCursor != null && pageSize != null && tlist.size() == pageSize)
+			return new Result<T>(tlist, nextCursor.toUrlSafe());
+		return new Result<T>(tlist);
+	}
+
+	/**
+	 * This newProjectionQueryBuilder method creates projection query builder of
+	 * passed model properties. Unknown property is rejected before query is
+	 * sent.
+	 */
+	private ProjectionEntityQuery.Builder newProjectionQueryBuilder(String[] properties) {
+		if (properties == null || properties.length == 0)
+			throw new IllegalArgumentException("At least one projected property is required");
+		ModelMapping mapping = ModelMapping.of(getModelClassType());
+		for (String property : properties) {
+			if (mapping.findProperty(property) == null)
+				throw new IllegalArgumentException(
+						"Unknown property " + property + " of " + getModelClassType().getName());
+		}
+		return Query.newProjectionEntityQueryBuilder().setKind(getDatastoreKind()).setProjection(properties[0],
+				Arrays.copyOfRange(properties, 1, properties.length));
+	}
+
+	/**
+	 * This and method combines passed filters by AND.
+	 */
+	private static CompositeFilter and(Filter firstFilter, Filter... remainingFilters) {
+		if (remainingFilters == null || remainingFilters.length == 0)
+			return CompositeFilter.and(firstFilter);
+		return CompositeFilter.and(firstFilter, remainingFilters);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T toProjectedModel(String operation, ProjectionEntity entity, String[] properties) {
+		if (!metricsEnabled)
+			return (T) reflectionUtil.setProjectionToModel(getModelClassType(), entity, properties);
+		long start = System.nanoTime();
+		T model = (T) reflectionUtil.setProjectionToModel(getModelClassType(), entity, properties);
+		metrics.recordMapping(getDatastoreKind(), operation, System.nanoTime() - start, 1);
+		return model;
+	}
+
+	/**
+	 * This findIds method returns keys of entities matching all passed filters.
+	 * It runs keys only query, so no entity is sent or converted.
+	 * 
+	 * @param Filter firstFilter - Single filter Conditions basis keys will be
+	 *               retrieved.
+	 * @param        Filter... remainingFilter - Multiple Conditions basis keys
+	 *               will be retrieved.
+	 * @return long[] - Keys of matching entities
+	 */
+	@Override
+	public long[] findIds(Filter firstFilter, Filter... remainingFilter) {
+		KeyQuery.Builder queryBuilder = Query.newKeyQueryBuilder().setKind(getDatastoreKind());
+		if (firstFilter != null)
+			queryBuilder.setFilter(and(firstFilter, remainingFilter));
+		QueryResults<Key> keys = runQuery("findIds", queryBuilder.build());
+		if (keys == null)
+			return null;
+		return readIds(keys);
+	}
+
+	/**
+	 * This queryIdsPage method returns page of keys like queryPage returns page
+	 * of models. It runs keys only query, so no entity is sent or converted.
+	 * 
+	 * @param Integer pageSize - This parameter is for pagination. It gives keys as
+	 *                per limit passed.
+	 * @param String  orderBy - This parameter specifies column name for which
+	 *                ordering will be done.
+	 * @param         boolean isAscending - This parameter specifies ascending or
+	 *                descending ordering.
+	 * @param String  cursor - This parameter sets the start cursor point.
+	 * @param Filter  firstFilter - This parameter specifies filter criteria based
+	 *                which result is required.
+	 * @param         Filter... remainingFilters - This parameter specifies filter
+	 *                criteria based which result is required.
+	 * @return IdResult - It returns keys and reference of cursor for querying
+	 *         next time in case of pagination.
+	 */
+	@Override
+	public IdResult queryIdsPage(Integer pageSize, String orderBy, boolean isAscending, String cursor,
+			Filter firstFilter, Filter... remainingFilters) {
+		KeyQuery.Builder queryBuilder = Query.newKeyQueryBuilder().setKind(getDatastoreKind());
+		if (pageSize != null)
+			queryBuilder.setLimit(pageSize);
+		if (orderBy != null && !orderBy.equals(""))
+			queryBuilder.setOrderBy(isAscending ? OrderBy.asc(orderBy) : OrderBy.desc(orderBy));
+		if (firstFilter != null)
+			queryBuilder.setFilter(and(firstFilter, remainingFilters));
+		if (cursor != null && !cursor.equals(""))
+			queryBuilder.setStartCursor(Cursor.fromUrlSafe(cursor));
+		QueryResults<Key> keys = runQuery("queryIdsPage", queryBuilder.build());
+		if (keys == null)
+			return null;
+		long[] ids = readIds(keys);
+		Cursor nextCursor = keys.getCursorAfter();
+		if (nextCursor != null && pageSize != null && ids.length == pageSize)
+			return new IdResult(ids, nextCursor.toUrlSafe());
+		return new IdResult(ids);
+	}
+
+	/**
+	 * This readIds method reads numeric ids of all query keys. Keys having name
+	 * instead of id are skipped.
+	 */
+	private static long[] readIds(QueryResults<Key> keys) {
+		long[] ids = new long[64];
+		int size = 0;
+		while (keys.hasNext()) {
+			Long id = keys.next().getId();
+			if (id == null)
+				continue;
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = id;
+		}
+		return Arrays.copyOf(ids, size);
+	}
+
 	/**
 	 * This queryIterable method returns ResultIterator object of model type T sent
 	 * on the basis of parameters sent.
@@ -557,27 +1723,197 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 		queryBuilder = queryBuilder.setStartCursor(startCursor);
 
 		// run query
-		QueryResults<Entity> entities = getDatastoreService().run(queryBuilder.build());
+		EntityQuery query = queryBuilder.build();
+		SlowQueryLog.Execution execution = startQuery(query);
+		QueryResults<Entity> entities = runQuery("queryIterable", query);
 		if (entities == null)
 			return null;
 
-		return new ResultIterator<T>(entities);
+		return new ResultIterator<T>(entities, execution);
 
 	}
 
 	/**
-	 * This method returns total entities available in data store kind.
+	 * This stream method returns lazy stream of model objects matching all
+	 * passed filters, or all entities of kind when no filter is passed.
+	 * 
+	 * @param Filter... filters - Conditions basis rows will be retrieved.
+	 * @return Stream<T> - Stream of Model objects
+	 */
+	@Override
+	public Stream<T> stream(Filter... filters) {
+		return stream(null, true, null, filters);
+	}
+
+	/**
+	 * This stream method returns lazy stream of model objects matching all
+	 * passed filters. Results are read by batch queries of stream batch size
+	 * continuing at cursor of previous batch. Next batch is read on executor
+	 * while caller works on current one and entities are converted to models
+	 * only when taken from stream. Stream should be closed when it is not read
+	 * till end, closing cancels batch being read.
+	 * 
+	 * @param String  orderBy - This parameter specifies column name for which
+	 *                ordering will be done or null.
+	 * @param         boolean isAscending - This parameter specifies ascending or
+	 *                descending ordering.
+	 * @param Integer limit - Maximum number of results or null.
+	 * @param         Filter... filters - Conditions basis rows will be
+	 *                retrieved.
+	 * @return Stream<T> - Stream of Model objects
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Stream<T> stream(String orderBy, boolean isAscending, Integer limit, Filter... filters) {
+		EntityQuery.Builder queryBuilder = Query.newEntityQueryBuilder().setKind(getDatastoreKind());
+		if (orderBy != null && !orderBy.equals(""))
+			queryBuilder.setOrderBy(isAscending ? OrderBy.asc(orderBy) : OrderBy.desc(orderBy));
+		if (filters != null && filters.length > 0)
+			queryBuilder.setFilter(CompositeFilter.and(filters[0], Arrays.copyOfRange(filters, 1, filters.length)));
+		EntityQuery query = queryBuilder.build();
+		QueryBatchSpliterator<Entity, T> spliterator = new QueryBatchSpliterator<>(
+				(cursor, size) -> loadBatch("stream", query.toBuilder().setStartCursor(cursor).setLimit(size).build()),
+				limit, options.getStreamBatchSize(), entity -> decode("stream", entity), options.getExecutor());
+		return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+	}
+
+	/**
+	 * This scan method passes every entity of kind as model to consumer. Kind is
+	 * split into passed number of key ranges which are read concurrently on
+	 * executor, so consumer is called from several threads at once and must be
+	 * thread safe. Models come in key order within range but ranges are
+	 * interleaved. First failure is thrown after all ranges stopped.
+	 * 
+	 * @param int         partitions - Number of key ranges read concurrently.
+	 * @param Consumer<T> consumer - Receives every model.
+	 * @return long - Number of models passed to consumer
+	 */
+	@Override
+	public long scan(int partitions, Consumer<? super T> consumer) {
+		List<KeyRange> ranges = rpc("scan", DatastoreRpc.QUERY,
+				() -> KeyRangePartitioner.split(getDatastoreService(), getDatastoreKind(), partitions));
+		List<Supplier<Long>> scans = new ArrayList<>();
+		for (KeyRange range : ranges) {
+			scans.add(() -> scan(range, consumer));
+		}
+		long count = 0;
+		for (Long scanned : ParallelChunks.invokeAll(scans, options.getExecutor(), ranges.size())) {
+			count += scanned;
+		}
+		return count;
+	}
+
+	/**
+	 * This scan method reads one key range by batch queries on calling thread.
+	 * Worker already runs on executor, so next batch is not prefetched there.
+	 */
+	@SuppressWarnings("unchecked")
+	private long scan(KeyRange range, Consumer<? super T> consumer) {
+		EntityQuery.Builder queryBuilder = Query.newEntityQueryBuilder().setKind(getDatastoreKind());
+		if (range.toFilter() != null)
+			queryBuilder.setFilter(range.toFilter());
+		EntityQuery query = queryBuilder.build();
+		QueryBatchSpliterator<Entity, T> spliterator = new QueryBatchSpliterator<>(
+				(cursor, size) -> loadBatch("scan", query.toBuilder().setStartCursor(cursor).setLimit(size).build()),
+				null, options.getStreamBatchSize(), entity -> decode("scan", entity), Runnable::run);
+		long[] count = new long[1];
+		spliterator.forEachRemaining(model -> {
+			consumer.accept(model);
+			count[0]++;
+		});
+		return count[0];
+	}
+
+	/**
+	 * This loadBatch method runs batch query and reads all its results.
+	 */
+	private <E> QueryBatchSpliterator.Batch<E> loadBatch(String operation, Query<E> query) {
+		QueryResults<E> results = runQuery(operation, query);
+		List<E> batch = new ArrayList<>();
+		while (results.hasNext()) {
+			batch.add(results.next());
+		}
+		return new QueryBatchSpliterator.Batch<>(batch, results.getCursorAfter());
+	}
+
+	/**
+	 * This method returns total entities available in data store kind. Count
+	 * bigger than Integer.MAX_VALUE is returned as Integer.MAX_VALUE, use count
+	 * for exact value.
 	 * 
 	 * @return
 	 */
 	public int countEntities() {
-		int numberOfEntities = 0;
-		Query<Key> query = Query.newKeyQueryBuilder().setKind(getDatastoreKind()).setOffset(Integer.MAX_VALUE).build();
-		QueryResults<Key> result = getDatastoreService().run(query);
-		if (!result.hasNext()) {
-			numberOfEntities = result.getSkippedResults();
+		return (int) Math.min(count(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * This count method returns exact number of entities of data store kind. It
+	 * pages through skipped results of keys only query, so no key is sent back,
+	 * but cost still grows with kind size.
+	 * 
+	 * @return long - Number of entities
+	 */
+	@Override
+	public long count() {
+		SlowQueryLog.Execution execution = slowQueryLog != null ? slowQueryLog.startCount(getDatastoreKind(), null)
+				: null;
+		long count = entityCounter("count").count(null);
+		if (execution != null)
+			execution.finish(count);
+		return count;
+	}
+
+	/**
+	 * This count method returns exact number of entities matching all passed
+	 * filters.
+	 * 
+	 * @param Filter firstFilter - Single filter Conditions basis rows will be
+	 *               counted.
+	 * @param        Filter... remainingFilters - Multiple Conditions basis rows
+	 *               will be counted.
+	 * @return long - Number of matching entities
+	 */
+	@Override
+	public long count(Filter firstFilter, Filter... remainingFilters) {
+		SlowQueryLog.Execution execution = slowQueryLog != null && firstFilter != null
+				? slowQueryLog.startCount(getDatastoreKind(), and(firstFilter, remainingFilters))
+				: null;
+		long count = entityCounter("count").count(firstFilter, remainingFilters);
+		if (execution != null)
+			execution.finish(count);
+		return count;
+	}
+
+	/**
+	 * This countApproximate method returns number of entities of data store kind
+	 * from kind counter when DAO maintains it, otherwise from data store
+	 * statistics, which may lag behind writes by a day. Exact count is returned
+	 * when kind has no statistics yet.
+	 * 
+	 * @return long - Approximate number of entities
+	 */
+	@Override
+	public long countApproximate() {
+		if (counterConfig != null && counterConfig.isKindCounter())
+			return getCounter(getDatastoreKind());
+		return entityCounter("countApproximate").countApproximate();
+	}
+
+	/**
+	 * This WriteMode enum tells which data store mutation bulk write sends.
+	 */
+	private enum WriteMode {
+		ADD("bulkAdd"), UPDATE("bulkUpdate"), UPSERT("bulkUpsert");
+
+		/**
+		 * This operation variable holds name of bulk operation used in metrics.
+		 */
+		private final String operation;
+
+		WriteMode(String operation) {
+			this.operation = operation;
 		}
-		return numberOfEntities;
 	}
 
 	/**
@@ -589,19 +1925,40 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 	@SuppressWarnings("unchecked")
 	protected class ResultIterator<T> implements QueryResults<T> {
 		private final QueryResults<Entity> iterator;
+		private final SlowQueryLog.Execution execution;
+		private long rows;
+		private boolean finished;
 
 		protected ResultIterator(QueryResults<Entity> iterator) {
+			this(iterator, null);
+		}
+
+		/**
+		 * This ResultIterator constructor creates iterator which finishes passed
+		 * query execution of slow query log when results are exhausted.
+		 */
+		private ResultIterator(QueryResults<Entity> iterator, SlowQueryLog.Execution execution) {
 			this.iterator = iterator;
+			this.execution = execution;
 		}
 
 		@Override
 		public boolean hasNext() {
-			return this.iterator.hasNext();
+			boolean hasNext = this.iterator.hasNext();
+			if (!hasNext && execution != null && !finished) {
+				finished = true;
+				execution.finish(rows);
+			}
+			return hasNext;
 		}
 
 		@Override
 		public T next() {
-			return (T) reflectionUtil.setEntityToModel(getModelClassType(), this.iterator.next());
+			Entity entity = this.iterator.next();
+			if (execution == null)
+				return (T) decode("queryIterable", entity);
+			rows++;
+			return (T) decodeResult("queryIterable", entity, execution);
 		}
 
 		@Override
@@ -616,12 +1973,12 @@ public abstract class CloudDatastoreDAOImpl<T> implements CloudDatastoreDAO<T> {
 
 		@Override
 		public int getSkippedResults() {
-			return this.getSkippedResults();
+			return this.iterator.getSkippedResults();
 		}
 
 		@Override
 		public QueryResultBatch.MoreResultsType getMoreResults() {
-			return this.getMoreResults();
+			return this.iterator.getMoreResults();
 		}
 
 	}
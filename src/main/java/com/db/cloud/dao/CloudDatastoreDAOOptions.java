@@ -0,0 +1,309 @@
+package com.db.cloud.dao;
+
+import java.util.concurrent.Executor;
+
+import com.db.cloud.batch.BatchPlanner;
+import com.db.cloud.cache.EntityCacheConfig;
+import com.db.cloud.cache.QueryCacheConfig;
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.count.ShardedCounterConfig;
+import com.db.cloud.limit.AdaptiveConcurrencyLimiter;
+import com.db.cloud.metrics.DatastoreMetrics;
+import com.db.cloud.metrics.NoopDatastoreMetrics;
+import com.db.cloud.querylog.SlowQueryLog;
+import com.db.cloud.retry.HedgingPolicy;
+import com.db.cloud.retry.RetryPolicy;
+
+/**
+ * This class CloudDatastoreDAOOptions holds tuning options of
+ * CloudDatastoreDAOImpl. Options must not be changed after they are passed to
+ * DAO constructor.
+ */
+public class CloudDatastoreDAOOptions {
+
+	/**
+	 * This MAX_LOOKUP_KEYS is maximum number of keys data store accepts in one
+	 * lookup request.
+	 */
+	public static final int MAX_LOOKUP_KEYS = 1000;
+
+	private Executor executor = CloudDatastoreExecutors.shared();
+	private int lookupChunkSize = MAX_LOOKUP_KEYS;
+	private int parallelism = 8;
+	private int mutationChunkSize = BatchPlanner.MAX_MUTATIONS_PER_COMMIT;
+	private long maxCommitBytes = 8L * 1024 * 1024;
+	private EntityCacheConfig entityCache;
+	private QueryCacheConfig queryCache;
+	private int streamBatchSize = 500;
+	private ShardedCounterConfig shardedCounters;
+	private DatastoreMetrics metrics = NoopDatastoreMetrics.INSTANCE;
+	private SlowQueryLog slowQueryLog;
+	private RetryPolicy retryPolicy;
+	private HedgingPolicy hedging;
+	private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	/**
+	 * This defaults method returns options with default values.
+	 *
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public static CloudDatastoreDAOOptions defaults() {
+		return new CloudDatastoreDAOOptions();
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * This setExecutor method sets executor used for running chunks of bulk
+	 * operations concurrently.
+	 *
+	 * @param Executor executor - Executor, preferably bounded.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setExecutor(Executor executor) {
+		if (executor == null)
+			throw new IllegalArgumentException("executor must not be null");
+		this.executor = executor;
+		return this;
+	}
+
+	public int getLookupChunkSize() {
+		return lookupChunkSize;
+	}
+
+	/**
+	 * This setLookupChunkSize method sets number of keys fetched by one lookup
+	 * request. Value is capped by MAX_LOOKUP_KEYS.
+	 *
+	 * @param int lookupChunkSize - Keys per lookup request.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setLookupChunkSize(int lookupChunkSize) {
+		if (lookupChunkSize < 1)
+			throw new IllegalArgumentException("lookupChunkSize must be positive");
+		this.lookupChunkSize = Math.min(lookupChunkSize, MAX_LOOKUP_KEYS);
+		return this;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * This setParallelism method sets maximum number of chunks of one bulk
+	 * operation sent concurrently.
+	 *
+	 * @param int parallelism - Concurrent chunks per operation.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public int getMutationChunkSize() {
+		return mutationChunkSize;
+	}
+
+	/**
+	 * This setMutationChunkSize method sets maximum number of mutations sent by
+	 * one commit of bulk add, update or delete. Value is capped by
+	 * BatchPlanner.MAX_MUTATIONS_PER_COMMIT.
+	 *
+	 * @param int mutationChunkSize - Mutations per commit.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setMutationChunkSize(int mutationChunkSize) {
+		if (mutationChunkSize < 1)
+			throw new IllegalArgumentException("mutationChunkSize must be positive");
+		this.mutationChunkSize = Math.min(mutationChunkSize, BatchPlanner.MAX_MUTATIONS_PER_COMMIT);
+		return this;
+	}
+
+	public long getMaxCommitBytes() {
+		return maxCommitBytes;
+	}
+
+	/**
+	 * This setMaxCommitBytes method sets maximum estimated size of entities sent
+	 * by one commit of bulk add or update. Value is capped by
+	 * BatchPlanner.MAX_REQUEST_BYTES, default leaves room for request overhead.
+	 *
+	 * @param long maxCommitBytes - Entity bytes per commit.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setMaxCommitBytes(long maxCommitBytes) {
+		if (maxCommitBytes < 1)
+			throw new IllegalArgumentException("maxCommitBytes must be positive");
+		this.maxCommitBytes = Math.min(maxCommitBytes, BatchPlanner.MAX_REQUEST_BYTES);
+		return this;
+	}
+
+	public EntityCacheConfig getEntityCache() {
+		return entityCache;
+	}
+
+	/**
+	 * This setEntityCache method enables cache of entities by key in front of
+	 * findById and findByIds. Every DAO gets its own cache. Null disables cache,
+	 * which is default.
+	 *
+	 * @param EntityCacheConfig entityCache - Cache options or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setEntityCache(EntityCacheConfig entityCache) {
+		this.entityCache = entityCache;
+		return this;
+	}
+
+	public QueryCacheConfig getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * This setQueryCache method enables cache of results of getByParam,
+	 * getByFields, findAll, findUniqueBy and queryPage. Cached results of kind
+	 * are dropped by every write of kind made through DAO in this process. Null
+	 * disables cache, which is default.
+	 *
+	 * @param QueryCacheConfig queryCache - Cache options or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setQueryCache(QueryCacheConfig queryCache) {
+		this.queryCache = queryCache;
+		return this;
+	}
+
+	public int getStreamBatchSize() {
+		return streamBatchSize;
+	}
+
+	/**
+	 * This setStreamBatchSize method sets number of results read by one batch
+	 * query of stream. Next batch is read while current one is consumed, so
+	 * stream holds at most two batches in memory.
+	 *
+	 * @param int streamBatchSize - Results per batch query.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setStreamBatchSize(int streamBatchSize) {
+		if (streamBatchSize < 1)
+			throw new IllegalArgumentException("streamBatchSize must be positive");
+		this.streamBatchSize = streamBatchSize;
+		return this;
+	}
+
+	public ShardedCounterConfig getShardedCounters() {
+		return shardedCounters;
+	}
+
+	/**
+	 * This setShardedCounters method makes DAO maintain sharded counters. Every
+	 * add, update and delete then runs in transaction which also changes
+	 * counters of written model, and bulk operations write models one by one.
+	 * Null disables counters, which is default.
+	 *
+	 * @param ShardedCounterConfig shardedCounters - Counter options or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setShardedCounters(ShardedCounterConfig shardedCounters) {
+		this.shardedCounters = shardedCounters;
+		return this;
+	}
+
+	public DatastoreMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * This setMetrics method sets receiver of latency, entity count and error
+	 * measurements of every DAO operation. Default NoopDatastoreMetrics
+	 * measures nothing.
+	 *
+	 * @param DatastoreMetrics metrics - Metrics, like InMemoryDatastoreMetrics.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setMetrics(DatastoreMetrics metrics) {
+		if (metrics == null)
+			throw new IllegalArgumentException("metrics must not be null");
+		this.metrics = metrics;
+		return this;
+	}
+
+	public SlowQueryLog getSlowQueryLog() {
+		return slowQueryLog;
+	}
+
+	/**
+	 * This setSlowQueryLog method makes DAO record every query of getByParam,
+	 * getByFields, queryPage, queryIterable and count in passed log by query
+	 * shape. Queries served from query cache are not recorded. Null disables
+	 * log, which is default.
+	 *
+	 * @param SlowQueryLog slowQueryLog - Log, may be shared by DAOs, or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setSlowQueryLog(SlowQueryLog slowQueryLog) {
+		this.slowQueryLog = slowQueryLog;
+		return this;
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * This setRetryPolicy method makes DAO retry data store calls failed with
+	 * transient error, like UNAVAILABLE. Add and transactions are retried only
+	 * on ABORTED, query only while first batch is requested. Null disables
+	 * retries of DAO, which is default; data store client still applies its
+	 * own retry settings.
+	 *
+	 * @param RetryPolicy retryPolicy - Retry options or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		return this;
+	}
+
+	public HedgingPolicy getHedging() {
+		return hedging;
+	}
+
+	/**
+	 * This setHedging method makes DAO send lookup of findById and findByIds
+	 * again when it has not answered within observed latency percentile of
+	 * recent lookups. Null disables hedging, which is default.
+	 *
+	 * @param HedgingPolicy hedging - Hedging options or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setHedging(HedgingPolicy hedging) {
+		this.hedging = hedging;
+		return this;
+	}
+
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	/**
+	 * This setConcurrencyLimiter method makes every data store call of DAO run
+	 * within adaptive concurrency limit of its kind. Call over limit waits in
+	 * bounded queue and is rejected with ConcurrencyLimitExceededException when
+	 * queue is full or wait is too long. Share one limiter among DAOs of process.
+	 * Null disables limit, which is default.
+	 *
+	 * @param AdaptiveConcurrencyLimiter concurrencyLimiter - Limiter or null.
+	 * @return CloudDatastoreDAOOptions
+	 */
+	public CloudDatastoreDAOOptions setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+		return this;
+	}
+}
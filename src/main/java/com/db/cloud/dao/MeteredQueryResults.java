@@ -0,0 +1,114 @@
+package com.db.cloud.dao;
+
+import com.db.cloud.batch.EntitySizeEstimator;
+import com.db.cloud.metrics.DatastoreMetrics;
+import com.db.cloud.metrics.DatastoreRpc;
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.QueryResults;
+import com.google.datastore.v1.QueryResultBatch;
+
+/**
+ * This class MeteredQueryResults measures query results while caller reads
+ * them. Data store client fetches later batches inside hasNext, so time spent
+ * in hasNext and next is added to time of run and recorded as one query call
+ * when results are exhausted or fail. Time caller spends between them, like
+ * converting entities to models, is not included. Results which are not read
+ * till end are not recorded.
+ * @param <E> Data store result type, like entity or key.
+ */
+class MeteredQueryResults<E> implements QueryResults<E> {
+
+	private final QueryResults<E> results;
+	private final DatastoreMetrics metrics;
+	private final String kind;
+	private final String operation;
+	private long nanos;
+	private int count;
+	private long bytes;
+	private boolean recorded;
+
+	/**
+	 * This MeteredQueryResults constructor wraps results returned by run.
+	 *
+	 * @param QueryResults<E>  results - Results of run.
+	 * @param DatastoreMetrics metrics - Receives measurements.
+	 * @param String           kind - Data store kind.
+	 * @param String           operation - DAO operation.
+	 * @param                  long runNanos - Time spent in run.
+	 */
+	MeteredQueryResults(QueryResults<E> results, DatastoreMetrics metrics, String kind, String operation,
+			long runNanos) {
+		this.results = results;
+		this.metrics = metrics;
+		this.kind = kind;
+		this.operation = operation;
+		this.nanos = runNanos;
+	}
+
+	@Override
+	public boolean hasNext() {
+		long start = System.nanoTime();
+		boolean hasNext;
+		try {
+			hasNext = results.hasNext();
+		} catch (RuntimeException | Error e) {
+			nanos += System.nanoTime() - start;
+			record(e);
+			throw e;
+		}
+		nanos += System.nanoTime() - start;
+		if (!hasNext)
+			record(null);
+		return hasNext;
+	}
+
+	@Override
+	public E next() {
+		long start = System.nanoTime();
+		E result;
+		try {
+			result = results.next();
+		} catch (RuntimeException | Error e) {
+			nanos += System.nanoTime() - start;
+			record(e);
+			throw e;
+		}
+		nanos += System.nanoTime() - start;
+		count++;
+		if (result instanceof BaseEntity)
+			bytes += EntitySizeEstimator.estimate((BaseEntity<?>) result);
+		else if (result instanceof IncompleteKey)
+			bytes += EntitySizeEstimator.estimateKey((IncompleteKey) result);
+		return result;
+	}
+
+	@Override
+	public Class<?> getResultClass() {
+		return results.getResultClass();
+	}
+
+	@Override
+	public Cursor getCursorAfter() {
+		return results.getCursorAfter();
+	}
+
+	@Override
+	public int getSkippedResults() {
+		return results.getSkippedResults();
+	}
+
+	@Override
+	public QueryResultBatch.MoreResultsType getMoreResults() {
+		return results.getMoreResults();
+	}
+
+	private void record(Throwable error) {
+		if (recorded)
+			return;
+		recorded = true;
+		metrics.recordRpc(kind, operation, DatastoreRpc.QUERY, nanos, error);
+		metrics.recordRead(kind, operation, count, bytes);
+	}
+}
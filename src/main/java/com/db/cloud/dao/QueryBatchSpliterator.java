@@ -0,0 +1,207 @@
+package com.db.cloud.dao;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.google.cloud.datastore.Cursor;
+
+/**
+ * This class QueryBatchSpliterator reads query results batch by batch, where
+ * every batch is separate query started at cursor of previous batch. First
+ * batch is read when stream is first used. While caller works on a batch, next
+ * batch is read on executor, and results are converted only when caller takes
+ * them. Caller reads next batch itself when executor has not started it yet,
+ * so it never waits for task queued behind its own thread. Closing spliterator
+ * cancels batch being read.
+ * @param <E> Data store result type, like entity or key.
+ * @param <T> Result type returned to caller.
+ */
+class QueryBatchSpliterator<E, T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+	/**
+	 * This Batch class holds results of one batch query and cursor after them.
+	 *
+	 * @param <E> Data store result type.
+	 */
+	static final class Batch<E> {
+		private final List<E> results;
+		private final Cursor cursorAfter;
+
+		Batch(List<E> results, Cursor cursorAfter) {
+			this.results = results;
+			this.cursorAfter = cursorAfter;
+		}
+	}
+
+	/**
+	 * This Load class reads one batch at most once, on whichever thread claims
+	 * it first: executor thread running prefetch or caller needing the batch.
+	 *
+	 * @param <E> Data store result type.
+	 */
+	private static final class Load<E> implements Runnable {
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		private final CompletableFuture<Batch<E>> result = new CompletableFuture<>();
+		private final Supplier<Batch<E>> reader;
+
+		Load(Supplier<Batch<E>> reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public void run() {
+			if (!claimed.compareAndSet(false, true))
+				return;
+			try {
+				result.complete(reader.get());
+			} catch (RuntimeException | Error e) {
+				result.completeExceptionally(e);
+			}
+		}
+
+		/**
+		 * This cancel method keeps batch from being read when nobody claimed it
+		 * yet and ends waiting for it.
+		 */
+		void cancel() {
+			claimed.set(true);
+			result.cancel(false);
+		}
+	}
+
+	private final BiFunction<Cursor, Integer, Batch<E>> loader;
+	private final Function<E, T> mapper;
+	private final Executor executor;
+	private final int batchSize;
+
+	/**
+	 * This remaining variable holds number of results not requested yet, -1
+	 * when query has no limit.
+	 */
+	private long remaining;
+	private Iterator<E> current = Collections.emptyIterator();
+	private Load<E> next;
+	private int nextSize;
+	private boolean started;
+	private volatile boolean closed;
+
+	/**
+	 * This QueryBatchSpliterator constructor creates spliterator which reads
+	 * nothing until it is used.
+	 *
+	 * @param BiFunction<Cursor, Integer, Batch<E>> loader - Reads batch of at
+	 *                                              most passed size starting at
+	 *                                              passed cursor, null cursor
+	 *                                              is start of query.
+	 * @param Integer                               limit - Maximum results or
+	 *                                              null.
+	 * @param                                       int batchSize - Results per
+	 *                                              batch query.
+	 * @param Function<E, T>                        mapper - Converts result.
+	 * @param Executor                              executor - Runs prefetch of
+	 *                                              next batch.
+	 */
+	QueryBatchSpliterator(BiFunction<Cursor, Integer, Batch<E>> loader, Integer limit, int batchSize,
+			Function<E, T> mapper, Executor executor) {
+		super(limit != null ? limit : Long.MAX_VALUE, Spliterator.ORDERED);
+		this.loader = loader;
+		this.mapper = mapper;
+		this.executor = executor;
+		this.batchSize = batchSize;
+		this.remaining = limit != null ? Math.max(0, limit) : -1;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (!started) {
+			started = true;
+			if (remaining != 0)
+				next = load(null, false);
+		}
+		while (!closed) {
+			if (current.hasNext()) {
+				action.accept(mapper.apply(current.next()));
+				return true;
+			}
+			if (next == null)
+				return false;
+			int size = nextSize;
+			Batch<E> batch = await(next);
+			next = null;
+			current = batch.results.iterator();
+			if (batch.results.size() == size && remaining != 0 && batch.cursorAfter != null)
+				next = load(batch.cursorAfter, true);
+		}
+		return false;
+	}
+
+	/**
+	 * This close method cancels batch being read and ends iteration.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		Load<E> pending = next;
+		if (pending != null)
+			pending.cancel();
+		next = null;
+		current = Collections.emptyIterator();
+	}
+
+	/**
+	 * This load method starts reading of next batch, on executor when prefetch
+	 * is requested and executor accepts it, otherwise on caller thread.
+	 */
+	private Load<E> load(Cursor cursor, boolean prefetch) {
+		int size = remaining < 0 ? batchSize : (int) Math.min(batchSize, remaining);
+		if (remaining > 0)
+			remaining -= size;
+		nextSize = size;
+		Load<E> load = new Load<>(() -> loader.apply(cursor, size));
+		if (prefetch) {
+			try {
+				executor.execute(load);
+				return load;
+			} catch (RejectedExecutionException e) {
+				// executor is full, read batch on caller thread
+			}
+		}
+		load.run();
+		return load;
+	}
+
+	/**
+	 * This await method returns batch of passed load. Batch which executor has
+	 * not started yet is read on caller thread, so only batch being read by
+	 * other thread is waited for.
+	 */
+	private Batch<E> await(Load<E> load) {
+		load.run();
+		try {
+			return load.result.join();
+		} catch (CancellationException e) {
+			return new Batch<>(Collections.<E>emptyList(), null);
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new CloudDatastoreDAOException("QUERY BATCH EXCEPTION : " + cause, cause);
+		}
+	}
+}
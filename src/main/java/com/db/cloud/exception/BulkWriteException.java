@@ -0,0 +1,41 @@
+package com.db.cloud.exception;
+
+import com.db.cloud.model.BulkResult;
+
+/**
+ * This class BulkWriteException is thrown by add, update or delete of array
+ * when some chunks were committed and others failed. Committed chunks are not
+ * rolled back, result holds key or failure of every item so caller can find
+ * which items were written and repeat only failed ones.
+ */
+public class BulkWriteException extends CloudDatastoreDAOException {
+	private static final long serialVersionUID = 1l;
+	public final static int ERROR_CODE = 1003;
+
+	/**
+	 * This refers to key or failure of every item of failed operation.
+	 */
+	private final transient BulkResult result;
+
+	/**
+	 * This BulkWriteException constructor passes exception message and first item
+	 * failure as cause to super class and keeps result of every item.
+	 *
+	 * @param String     msg - Exception message
+	 * @param BulkResult result - Key or failure of every item
+	 */
+	public BulkWriteException(String msg, BulkResult result) {
+		super(msg, result.getFirstFailure());
+		this.result = result;
+	}
+
+	@Override
+	public int getErrorCode() {
+		return ERROR_CODE;
+	}
+
+	public BulkResult getResult() {
+		return result;
+	}
+
+}
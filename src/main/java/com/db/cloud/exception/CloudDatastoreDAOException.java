@@ -40,6 +40,17 @@ public class CloudDatastoreDAOException extends RuntimeException {
 		this.errorCode = errorCode;
 	}
 
+	/**
+	 * This CloudDatastoreDAOException constructor passes exception message and
+	 * root cause to super class.
+	 *
+	 * @param String    msg - Exception message
+	 * @param Throwable cause - Root cause
+	 */
+	public CloudDatastoreDAOException(String msg, Throwable cause) {
+		super(msg, cause);
+	}
+
 	public int getErrorCode() {
 		return errorCode;
 	}
@@ -0,0 +1,45 @@
+package com.db.cloud.exception;
+
+/**
+ * This class ConcurrencyLimitExceededException is thrown when data store call
+ * is rejected by concurrency limit of its kind, because wait queue was full or
+ * no call finished within maximum wait. Rejected call was not sent to data
+ * store, so it may be repeated later.
+ */
+public class ConcurrencyLimitExceededException extends CloudDatastoreDAOException {
+	private static final long serialVersionUID = 1l;
+	public final static int ERROR_CODE = 1002;
+
+	/**
+	 * This refers to kind whose limit rejected call.
+	 */
+	private final String kind;
+
+	/**
+	 * This refers to concurrency limit of kind when call was rejected.
+	 */
+	private final int limit;
+
+	/**
+	 * This ConcurrencyLimitExceededException constructor passes exception message
+	 * and error code to super class.
+	 *
+	 * @param String msg - Exception message
+	 * @param        String kind - Kind of rejected call
+	 * @param        int limit - Concurrency limit of kind
+	 */
+	public ConcurrencyLimitExceededException(String msg, String kind, int limit) {
+		super(msg, ERROR_CODE);
+		this.kind = kind;
+		this.limit = limit;
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.db.cloud.export;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * This class ExportCheckpoint records progress of export : cursor after last
+ * exported entity, length of file holding exported entities and their count.
+ * Checkpoint is written to temporary file which then replaces checkpoint file,
+ * so interrupted write never leaves broken checkpoint.
+ */
+public class ExportCheckpoint {
+
+	private static final String KIND = "kind";
+	private static final String CURSOR = "cursor";
+	private static final String OFFSET = "offset";
+	private static final String COUNT = "count";
+
+	private final String kind;
+	private final String cursor;
+	private final long offset;
+	private final long count;
+
+	/**
+	 * This ExportCheckpoint constructor creates checkpoint of passed progress.
+	 *
+	 * @param String kind - Exported data store kind.
+	 * @param String cursor - Url safe cursor after last exported entity.
+	 * @param        long offset - File length after last exported entity.
+	 * @param        long count - Number of exported entities.
+	 */
+	public ExportCheckpoint(String kind, String cursor, long offset, long count) {
+		this.kind = kind;
+		this.cursor = cursor;
+		this.offset = offset;
+		this.count = count;
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * This read method returns checkpoint stored in passed file, or null when
+	 * file does not exist.
+	 *
+	 * @param Path file - Checkpoint file.
+	 * @return ExportCheckpoint
+	 * @throws IOException
+	 */
+	public static ExportCheckpoint read(Path file) throws IOException {
+		if (!Files.exists(file))
+			return null;
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(file)) {
+			properties.load(in);
+		}
+		return new ExportCheckpoint(properties.getProperty(KIND), properties.getProperty(CURSOR),
+				Long.parseLong(properties.getProperty(OFFSET)), Long.parseLong(properties.getProperty(COUNT)));
+	}
+
+	/**
+	 * This write method stores checkpoint in passed file.
+	 *
+	 * @param Path file - Checkpoint file.
+	 * @throws IOException
+	 */
+	public void write(Path file) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(KIND, kind);
+		properties.setProperty(CURSOR, cursor);
+		properties.setProperty(OFFSET, Long.toString(offset));
+		properties.setProperty(COUNT, Long.toString(count));
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(temporary)) {
+			properties.store(out, null);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	@Override
+	public String toString() {
+		return "ExportCheckpoint [kind=" + kind + ", cursor=" + cursor + ", offset=" + offset + ", count=" + count
+				+ "]";
+	}
+}
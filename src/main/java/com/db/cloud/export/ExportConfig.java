@@ -0,0 +1,121 @@
+package com.db.cloud.export;
+
+/**
+ * This class ExportConfig holds options of NdjsonExporter. Config must not be
+ * changed after it is passed to exporter.
+ */
+public class ExportConfig {
+
+	/**
+	 * This Compression enum tells how exported file is compressed.
+	 */
+	public enum Compression {
+		NONE, GZIP
+	}
+
+	private Compression compression = Compression.GZIP;
+	private int batchSize = 500;
+	private int bufferSize = 64 * 1024;
+	private int checkpointEntities = 10000;
+	private long checkpointIntervalMillis = 30000;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return ExportConfig
+	 */
+	public static ExportConfig defaults() {
+		return new ExportConfig();
+	}
+
+	public Compression getCompression() {
+		return compression;
+	}
+
+	/**
+	 * This setCompression method sets compression of exported file. Gzip file
+	 * is written as one gzip member per checkpoint, which gzip readers and
+	 * GZIPInputStream read as one stream.
+	 *
+	 * @param Compression compression - File compression.
+	 * @return ExportConfig
+	 */
+	public ExportConfig setCompression(Compression compression) {
+		if (compression == null)
+			throw new IllegalArgumentException("compression must not be null");
+		this.compression = compression;
+		return this;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * This setBatchSize method sets number of entities read by one batch query.
+	 *
+	 * @param int batchSize - Entities per batch query.
+	 * @return ExportConfig
+	 */
+	public ExportConfig setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("batchSize must be positive");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * This setBufferSize method sets size of write buffer in front of file
+	 * channel and of compressor buffer.
+	 *
+	 * @param int bufferSize - Buffer size in bytes.
+	 * @return ExportConfig
+	 */
+	public ExportConfig setBufferSize(int bufferSize) {
+		if (bufferSize < 512)
+			throw new IllegalArgumentException("bufferSize must be at least 512");
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	public int getCheckpointEntities() {
+		return checkpointEntities;
+	}
+
+	/**
+	 * This setCheckpointEntities method sets number of exported entities after
+	 * which file is flushed and checkpoint is recorded.
+	 *
+	 * @param int checkpointEntities - Entities per checkpoint.
+	 * @return ExportConfig
+	 */
+	public ExportConfig setCheckpointEntities(int checkpointEntities) {
+		if (checkpointEntities < 1)
+			throw new IllegalArgumentException("checkpointEntities must be positive");
+		this.checkpointEntities = checkpointEntities;
+		return this;
+	}
+
+	public long getCheckpointIntervalMillis() {
+		return checkpointIntervalMillis;
+	}
+
+	/**
+	 * This setCheckpointIntervalMillis method sets maximum time between
+	 * checkpoints, so slow export loses little work when interrupted.
+	 *
+	 * @param long checkpointIntervalMillis - Time between checkpoints, 0 records
+	 *             checkpoints by entity count only.
+	 * @return ExportConfig
+	 */
+	public ExportConfig setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+		if (checkpointIntervalMillis < 0)
+			throw new IllegalArgumentException("checkpointIntervalMillis must not be negative");
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+		return this;
+	}
+}
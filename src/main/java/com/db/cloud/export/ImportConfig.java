@@ -0,0 +1,158 @@
+package com.db.cloud.export;
+
+/**
+ * This class ImportConfig holds options of NdjsonImporter. Config must not be
+ * changed after it is passed to importer.
+ */
+public class ImportConfig {
+
+	/**
+	 * This Mode enum tells which bulk operation of DAO writes imported models.
+	 */
+	public enum Mode {
+		ADD, UPSERT
+	}
+
+	private ExportConfig.Compression compression = ExportConfig.Compression.GZIP;
+	private Mode mode = Mode.UPSERT;
+	private int batchSize = 500;
+	private int decoderThreads = 2;
+	private int writerThreads = 4;
+	private int queueCapacity = 1000;
+	private int maxReportedFailures = 1000;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return ImportConfig
+	 */
+	public static ImportConfig defaults() {
+		return new ImportConfig();
+	}
+
+	public ExportConfig.Compression getCompression() {
+		return compression;
+	}
+
+	/**
+	 * This setCompression method sets compression of imported file.
+	 *
+	 * @param Compression compression - File compression.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setCompression(ExportConfig.Compression compression) {
+		if (compression == null)
+			throw new IllegalArgumentException("compression must not be null");
+		this.compression = compression;
+		return this;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * This setMode method sets bulk operation used for writing models. Upsert,
+	 * which is default, makes import of same lines again harmless, so import
+	 * may resume before last committed offset.
+	 *
+	 * @param Mode mode - Write operation.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setMode(Mode mode) {
+		if (mode == null)
+			throw new IllegalArgumentException("mode must not be null");
+		this.mode = mode;
+		return this;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * This setBatchSize method sets number of models written by one bulk
+	 * operation.
+	 *
+	 * @param int batchSize - Models per bulk operation.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("batchSize must be positive");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	public int getDecoderThreads() {
+		return decoderThreads;
+	}
+
+	/**
+	 * This setDecoderThreads method sets number of threads converting lines in
+	 * to models.
+	 *
+	 * @param int decoderThreads - Decoding threads.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setDecoderThreads(int decoderThreads) {
+		if (decoderThreads < 1)
+			throw new IllegalArgumentException("decoderThreads must be positive");
+		this.decoderThreads = decoderThreads;
+		return this;
+	}
+
+	public int getWriterThreads() {
+		return writerThreads;
+	}
+
+	/**
+	 * This setWriterThreads method sets number of bulk operations in flight.
+	 *
+	 * @param int writerThreads - Writing threads.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setWriterThreads(int writerThreads) {
+		if (writerThreads < 1)
+			throw new IllegalArgumentException("writerThreads must be positive");
+		this.writerThreads = writerThreads;
+		return this;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * This setQueueCapacity method sets number of read lines waiting for
+	 * decoding. Reading blocks when queue is full, so slow writes slow down
+	 * reading instead of filling memory.
+	 *
+	 * @param int queueCapacity - Lines waiting for decoding.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setQueueCapacity(int queueCapacity) {
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException("queueCapacity must be positive");
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+
+	public int getMaxReportedFailures() {
+		return maxReportedFailures;
+	}
+
+	/**
+	 * This setMaxReportedFailures method sets number of failed lines kept in
+	 * import result, further failures are only counted.
+	 *
+	 * @param int maxReportedFailures - Failed lines kept.
+	 * @return ImportConfig
+	 */
+	public ImportConfig setMaxReportedFailures(int maxReportedFailures) {
+		if (maxReportedFailures < 0)
+			throw new IllegalArgumentException("maxReportedFailures must not be negative");
+		this.maxReportedFailures = maxReportedFailures;
+		return this;
+	}
+}
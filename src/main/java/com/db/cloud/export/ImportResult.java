@@ -0,0 +1,115 @@
+package com.db.cloud.export;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class ImportResult holds outcome of NdjsonImporter run : counts of
+ * read, imported and failed lines, failed lines with their cause, elapsed time
+ * and committed offset. Every line before committed offset was imported or
+ * reported as failed, so import may resume there.
+ */
+public class ImportResult {
+
+	/**
+	 * This LineFailure class holds line which could not be imported.
+	 */
+	public static class LineFailure {
+		private final long offset;
+		private final String line;
+		private final RuntimeException failure;
+
+		public LineFailure(long offset, String line, RuntimeException failure) {
+			this.offset = offset;
+			this.line = line;
+			this.failure = failure;
+		}
+
+		/**
+		 * This getOffset method returns offset of line start in uncompressed
+		 * file.
+		 *
+		 * @return long
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		public String getLine() {
+			return line;
+		}
+
+		public RuntimeException getFailure() {
+			return failure;
+		}
+	}
+
+	private final long linesRead;
+	private final long imported;
+	private final long failed;
+	private final List<LineFailure> failures;
+	private final long committedOffset;
+	private final long elapsedNanos;
+
+	public ImportResult(long linesRead, long imported, long failed, List<LineFailure> failures,
+			long committedOffset, long elapsedNanos) {
+		this.linesRead = linesRead;
+		this.imported = imported;
+		this.failed = failed;
+		this.failures = Collections.unmodifiableList(failures);
+		this.committedOffset = committedOffset;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getLinesRead() {
+		return linesRead;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * This getFailures method returns failed lines in order they failed, at
+	 * most maximum reported failures of config.
+	 *
+	 * @return List<LineFailure>
+	 */
+	public List<LineFailure> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * This getCommittedOffset method returns offset in uncompressed file up to
+	 * which every line was handled, which is file end when import completed.
+	 *
+	 * @return long
+	 */
+	public long getCommittedOffset() {
+		return committedOffset;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * This getThroughput method returns imported models per second.
+	 *
+	 * @return double
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : imported * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportResult [linesRead=" + linesRead + ", imported=" + imported + ", failed=" + failed
+				+ ", committedOffset=" + committedOffset + ", throughput=" + String.format("%.1f", getThroughput())
+				+ "/s]";
+	}
+}
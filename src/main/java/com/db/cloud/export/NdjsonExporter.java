@@ -0,0 +1,178 @@
+package com.db.cloud.export;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+import com.db.cloud.client.CloudDatastoreClientProvider;
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.util.CloudDatastoreGson;
+import com.db.cloud.util.CloudDatastoreRefUtil;
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.EntityQuery;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+
+/**
+ * This class NdjsonExporter writes every entity of model kind to file as one
+ * json line per entity. Entity is converted to model by CloudDatastoreRefUtil
+ * and model to json by CloudDatastoreGson, so lines hold same values DAO
+ * returns. Entities are read by batch queries and written one by one, so
+ * memory use does not grow with kind size.
+ *
+ * File is flushed periodically and checkpoint file next to it records cursor
+ * after last written entity and file length at that point. Export started
+ * again with existing checkpoint truncates file to recorded length and
+ * continues at recorded cursor. Checkpoint is deleted when export completes.
+ * @param <T> This parameter will have different model objects at run time.
+ */
+public class NdjsonExporter<T> {
+
+	/**
+	 * This CHECKPOINT_SUFFIX is appended to export file name to get checkpoint
+	 * file name.
+	 */
+	public static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+	private final CloudDatastoreClientProvider clientProvider;
+	private final Class<T> modelClassType;
+	private final String datastoreKind;
+	private final ExportConfig config;
+	private final CloudDatastoreRefUtil reflectionUtil = new CloudDatastoreRefUtil();
+
+	/**
+	 * This NdjsonExporter constructor creates exporter of passed model kind.
+	 *
+	 * @param CloudDatastoreClientProvider clientProvider - Shared data store
+	 *                                     service provider.
+	 * @param Class<T>                     modelClassType - Model class, its
+	 *                                     simple name is data store kind.
+	 * @param ExportConfig                 config - Export options.
+	 */
+	public NdjsonExporter(CloudDatastoreClientProvider clientProvider, Class<T> modelClassType,
+			ExportConfig config) {
+		this.clientProvider = clientProvider;
+		this.modelClassType = modelClassType;
+		this.datastoreKind = modelClassType.getSimpleName();
+		this.config = config;
+	}
+
+	/**
+	 * This checkpointFile method returns checkpoint file of passed export file.
+	 *
+	 * @param Path file - Export file.
+	 * @return Path
+	 */
+	public static Path checkpointFile(Path file) {
+		return file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+	}
+
+	/**
+	 * This export method writes all entities of kind to passed file, resuming
+	 * at checkpoint when one exists, and returns number of entities in file.
+	 *
+	 * @param Path file - Export file.
+	 * @return long
+	 */
+	public long export(Path file) {
+		Path checkpointFile = checkpointFile(file);
+		try {
+			ExportCheckpoint checkpoint = ExportCheckpoint.read(checkpointFile);
+			if (checkpoint != null && !datastoreKind.equals(checkpoint.getKind()))
+				throw new CloudDatastoreDAOException(
+						"EXPORT CHECKPOINT OF KIND " + checkpoint.getKind() + " FOUND FOR " + datastoreKind);
+			long count = export(file, checkpointFile, checkpoint);
+			Files.deleteIfExists(checkpointFile);
+			return count;
+		} catch (IOException e) {
+			throw new CloudDatastoreDAOException("EXPORT EXCEPTION : " + e.getMessage(), e);
+		}
+	}
+
+	private long export(Path file, Path checkpointFile, ExportCheckpoint checkpoint) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			long offset = checkpoint != null ? checkpoint.getOffset() : 0;
+			if (channel.size() < offset)
+				throw new CloudDatastoreDAOException("EXPORT FILE " + file + " IS SHORTER THAN CHECKPOINT");
+			channel.truncate(offset);
+			channel.position(offset);
+			Cursor cursor = checkpoint != null ? Cursor.fromUrlSafe(checkpoint.getCursor()) : null;
+			long count = checkpoint != null ? checkpoint.getCount() : 0;
+
+			OutputStream fileOut = new BufferedOutputStream(Channels.newOutputStream(channel), config.getBufferSize());
+			Writer writer = openSegment(fileOut);
+			EntityQuery query = Query.newEntityQueryBuilder().setKind(datastoreKind).build();
+			int sinceCheckpoint = 0;
+			long checkpointAt = System.nanoTime();
+			while (true) {
+				QueryResults<Entity> results = clientProvider.getDatastore()
+						.run(query.toBuilder().setStartCursor(cursor).setLimit(config.getBatchSize()).build());
+				int batchCount = 0;
+				while (results.hasNext()) {
+					writer.write(CloudDatastoreGson
+							.toJson(reflectionUtil.setEntityToModel(modelClassType, results.next())));
+					writer.write('\n');
+					cursor = results.getCursorAfter();
+					batchCount++;
+					count++;
+					if (++sinceCheckpoint >= config.getCheckpointEntities() || (config.getCheckpointIntervalMillis() > 0
+							&& System.nanoTime() - checkpointAt >= config.getCheckpointIntervalMillis() * 1000000L)) {
+						closeSegment(writer, fileOut, channel);
+						new ExportCheckpoint(datastoreKind, cursor.toUrlSafe(), channel.position(), count)
+								.write(checkpointFile);
+						writer = openSegment(fileOut);
+						sinceCheckpoint = 0;
+						checkpointAt = System.nanoTime();
+					}
+				}
+				if (batchCount < config.getBatchSize())
+					break;
+			}
+			closeSegment(writer, fileOut, channel);
+			return count;
+		}
+	}
+
+	/**
+	 * This openSegment method starts part of file written between two
+	 * checkpoints, new gzip member when file is compressed.
+	 */
+	private Writer openSegment(OutputStream fileOut) throws IOException {
+		OutputStream out = new FilterOutputStream(fileOut) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				// segment end must not close file
+				flush();
+			}
+		};
+		if (config.getCompression() == ExportConfig.Compression.GZIP)
+			out = new GZIPOutputStream(out, config.getBufferSize());
+		return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * This closeSegment method ends segment and forces file content to disk, so
+	 * file length is safe to record in checkpoint.
+	 */
+	private static void closeSegment(Writer writer, OutputStream fileOut, FileChannel channel) throws IOException {
+		writer.close();
+		fileOut.flush();
+		channel.force(false);
+	}
+}
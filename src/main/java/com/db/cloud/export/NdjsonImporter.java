@@ -0,0 +1,426 @@
+package com.db.cloud.export;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.dao.CloudDatastoreDAO;
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.util.CloudDatastoreGson;
+import com.google.gson.TypeAdapter;
+
+/**
+ * This class NdjsonImporter writes models read from file of json lines, like
+ * one written by NdjsonExporter, through bulk operations of DAO. Import runs
+ * as pipeline : caller thread reads lines, decoder threads convert lines in to
+ * models and collect them in batches, writer threads write batches. Stages are
+ * connected by bounded queues, so slow data store makes reading wait instead of
+ * filling memory, and several batches are written at once. Stage which fails
+ * with unexpected exception or error ends whole pipeline : other stages stop
+ * waiting on queues and import fails with that exception.
+ *
+ * Line which can not be decoded or written is reported as failed and import
+ * goes on. Result holds committed offset up to which every line was handled,
+ * import of same file resumes there.
+ * @param <T> This parameter will have different model objects at run time.
+ */
+public class NdjsonImporter<T> {
+
+	/**
+	 * This Line class holds bytes of read line and its place in file.
+	 */
+	private static final class Line {
+		private final long sequence;
+		private final long offset;
+		private final long endOffset;
+		private final byte[] bytes;
+
+		private Line(long sequence, long offset, long endOffset, byte[] bytes) {
+			this.sequence = sequence;
+			this.offset = offset;
+			this.endOffset = endOffset;
+			this.bytes = bytes;
+		}
+
+		private String text() {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * This Decoded class holds model decoded from line.
+	 */
+	private static final class Decoded<T> {
+		private final Line line;
+		private final T model;
+
+		private Decoded(Line line, T model) {
+			this.line = line;
+			this.model = model;
+		}
+	}
+
+	/**
+	 * This Progress class counts handled lines and moves committed offset once
+	 * all lines before it were handled, as lines finish out of order.
+	 */
+	private static final class Progress {
+		private final int maxReportedFailures;
+		private final TreeMap<Long, Long> handled = new TreeMap<>();
+		private final List<ImportResult.LineFailure> failures = new ArrayList<>();
+		private long nextSequence;
+		private long committedOffset;
+		private long imported;
+		private long failed;
+
+		private Progress(long startOffset, int maxReportedFailures) {
+			this.committedOffset = startOffset;
+			this.maxReportedFailures = maxReportedFailures;
+		}
+
+		private synchronized void skipped(Line line) {
+			handled(line);
+		}
+
+		private synchronized void imported(Line line) {
+			imported++;
+			handled(line);
+		}
+
+		private synchronized void failed(Line line, RuntimeException failure) {
+			failed++;
+			if (failures.size() < maxReportedFailures)
+				failures.add(new ImportResult.LineFailure(line.offset, line.text(), failure));
+			handled(line);
+		}
+
+		private void handled(Line line) {
+			if (line.sequence != nextSequence) {
+				handled.put(line.sequence, line.endOffset);
+				return;
+			}
+			committedOffset = line.endOffset;
+			nextSequence++;
+			Long endOffset;
+			while ((endOffset = handled.remove(nextSequence)) != null) {
+				committedOffset = endOffset;
+				nextSequence++;
+			}
+		}
+
+		private synchronized ImportResult result(long linesRead, long elapsedNanos) {
+			return new ImportResult(linesRead, imported, failed, new ArrayList<>(failures), committedOffset,
+					elapsedNanos);
+		}
+	}
+
+	private static final Line END = new Line(-1, -1, -1, new byte[0]);
+
+	/**
+	 * This QUEUE_WAIT_MILLIS is how long stage waits on queue before it checks
+	 * whether other stage failed.
+	 */
+	private static final long QUEUE_WAIT_MILLIS = 100;
+
+	private final CloudDatastoreDAO<T> dao;
+	private final Class<T> modelClassType;
+	private final ImportConfig config;
+	private final TypeAdapter<Object> adapter;
+
+	/**
+	 * This NdjsonImporter constructor creates importer writing through passed
+	 * DAO.
+	 *
+	 * @param CloudDatastoreDAO<T> dao - DAO used for writing batches.
+	 * @param Class<T>             modelClassType - Model class.
+	 * @param ImportConfig         config - Import options.
+	 */
+	public NdjsonImporter(CloudDatastoreDAO<T> dao, Class<T> modelClassType, ImportConfig config) {
+		this.dao = dao;
+		this.modelClassType = modelClassType;
+		this.config = config;
+		this.adapter = CloudDatastoreGson.runtimeAdapter(modelClassType);
+	}
+
+	/**
+	 * This importFile method imports all lines of passed file.
+	 *
+	 * @param Path file - Imported file.
+	 * @return ImportResult
+	 */
+	public ImportResult importFile(Path file) {
+		return importFile(file, 0);
+	}
+
+	/**
+	 * This importFile method imports lines of passed file starting at passed
+	 * offset, which is committed offset of earlier import or 0.
+	 *
+	 * @param Path file - Imported file.
+	 * @param      long startOffset - Offset in uncompressed file.
+	 * @return ImportResult
+	 */
+	public ImportResult importFile(Path file, long startOffset) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			InputStream in;
+			if (config.getCompression() == ExportConfig.Compression.GZIP) {
+				in = new GZIPInputStream(Channels.newInputStream(channel), 64 * 1024);
+				skip(in, startOffset);
+			} else {
+				channel.position(startOffset);
+				in = Channels.newInputStream(channel);
+			}
+			return importStream(in, startOffset);
+		} catch (IOException e) {
+			throw new CloudDatastoreDAOException("IMPORT EXCEPTION : " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * This importStream method imports all lines of passed uncompressed stream.
+	 * Stream is not closed.
+	 *
+	 * @param InputStream in - Uncompressed json lines.
+	 * @param             long startOffset - Offset of stream start in file,
+	 *                    reported offsets start there.
+	 * @return ImportResult
+	 */
+	public ImportResult importStream(InputStream in, long startOffset) {
+		long startedAt = System.nanoTime();
+		Progress progress = new Progress(startOffset, config.getMaxReportedFailures());
+		BlockingQueue<Line> lines = new ArrayBlockingQueue<>(config.getQueueCapacity());
+		BlockingQueue<List<Decoded<T>>> batches = new ArrayBlockingQueue<>(config.getWriterThreads());
+		List<Decoded<T>> endBatch = new ArrayList<>();
+		AtomicInteger runningDecoders = new AtomicInteger(config.getDecoderThreads());
+		AtomicReference<Throwable> stageFailure = new AtomicReference<>();
+		ExecutorService workers = Executors.newFixedThreadPool(config.getDecoderThreads() + config.getWriterThreads(),
+				CloudDatastoreExecutors.newThreadFactory("cloud-datastore-import"));
+		List<Future<?>> stages = new ArrayList<>();
+		for (int i = 0; i < config.getDecoderThreads(); i++) {
+			stages.add(workers.submit(() -> decode(lines, batches, endBatch, runningDecoders, progress, stageFailure)));
+		}
+		for (int i = 0; i < config.getWriterThreads(); i++) {
+			stages.add(workers.submit(() -> write(batches, endBatch, progress, stageFailure)));
+		}
+		workers.shutdown();
+
+		long linesRead = 0;
+		try {
+			IOException readFailure = null;
+			try {
+				BufferedInputStream input = new BufferedInputStream(in, 64 * 1024);
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				long offset = startOffset;
+				Line line;
+				while ((line = readLine(input, buffer, linesRead, offset)) != null) {
+					if (!offer(lines, line, stageFailure))
+						break;
+					linesRead++;
+					offset = line.endOffset;
+				}
+			} catch (IOException e) {
+				readFailure = e;
+			} finally {
+				for (int i = 0; i < config.getDecoderThreads(); i++) {
+					if (!offer(lines, END, stageFailure))
+						break;
+				}
+			}
+			for (Future<?> stage : stages) {
+				stage.get();
+			}
+			if (readFailure != null)
+				throw new CloudDatastoreDAOException("IMPORT EXCEPTION : " + readFailure.getMessage()
+						+ " : " + progress.result(linesRead, System.nanoTime() - startedAt), readFailure);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			workers.shutdownNow();
+			throw new CloudDatastoreDAOException("IMPORT INTERRUPTED : " + progress.result(linesRead,
+					System.nanoTime() - startedAt), e);
+		} catch (ExecutionException e) {
+			workers.shutdownNow();
+			throw new CloudDatastoreDAOException("IMPORT EXCEPTION : " + e.getCause(), e.getCause());
+		}
+		return progress.result(linesRead, System.nanoTime() - startedAt);
+	}
+
+	/**
+	 * This decode method converts lines in to models and hands full batches to
+	 * writers. Last decoder to finish tells writers to stop. Unexpected failure
+	 * is recorded as stage failure, which ends other stages too.
+	 */
+	private Void decode(BlockingQueue<Line> lines, BlockingQueue<List<Decoded<T>>> batches,
+			List<Decoded<T>> endBatch, AtomicInteger runningDecoders, Progress progress,
+			AtomicReference<Throwable> stageFailure) throws InterruptedException {
+		try {
+			decodeLines(lines, batches, endBatch, runningDecoders, progress, stageFailure);
+			return null;
+		} catch (Throwable e) {
+			stageFailure.compareAndSet(null, e);
+			throw e;
+		}
+	}
+
+	private void decodeLines(BlockingQueue<Line> lines, BlockingQueue<List<Decoded<T>>> batches,
+			List<Decoded<T>> endBatch, AtomicInteger runningDecoders, Progress progress,
+			AtomicReference<Throwable> stageFailure) throws InterruptedException {
+		List<Decoded<T>> batch = new ArrayList<>(config.getBatchSize());
+		Line line;
+		while ((line = poll(lines, stageFailure)) != END) {
+			if (line == null)
+				return;
+			T model;
+			try {
+				model = modelClassType.cast(CloudDatastoreGson.fromJson(adapter, line.text()));
+			} catch (RuntimeException e) {
+				progress.failed(line, e);
+				continue;
+			}
+			if (model == null) {
+				progress.skipped(line);
+				continue;
+			}
+			batch.add(new Decoded<>(line, model));
+			if (batch.size() >= config.getBatchSize()) {
+				if (!offer(batches, batch, stageFailure))
+					return;
+				batch = new ArrayList<>(config.getBatchSize());
+			}
+		}
+		if (!batch.isEmpty() && !offer(batches, batch, stageFailure))
+			return;
+		if (runningDecoders.decrementAndGet() == 0) {
+			for (int i = 0; i < config.getWriterThreads(); i++) {
+				if (!offer(batches, endBatch, stageFailure))
+					return;
+			}
+		}
+	}
+
+	/**
+	 * This write method writes batches through bulk operation of DAO.
+	 * Unexpected failure is recorded as stage failure, which ends other stages
+	 * too.
+	 */
+	private Void write(BlockingQueue<List<Decoded<T>>> batches, List<Decoded<T>> endBatch, Progress progress,
+			AtomicReference<Throwable> stageFailure) throws InterruptedException {
+		try {
+			writeBatches(batches, endBatch, progress, stageFailure);
+			return null;
+		} catch (Throwable e) {
+			stageFailure.compareAndSet(null, e);
+			throw e;
+		}
+	}
+
+	private void writeBatches(BlockingQueue<List<Decoded<T>>> batches, List<Decoded<T>> endBatch,
+			Progress progress, AtomicReference<Throwable> stageFailure) throws InterruptedException {
+		List<Decoded<T>> batch;
+		while ((batch = poll(batches, stageFailure)) != endBatch) {
+			if (batch == null)
+				return;
+			@SuppressWarnings("unchecked")
+			T[] models = (T[]) Array.newInstance(modelClassType, batch.size());
+			for (int i = 0; i < models.length; i++) {
+				models[i] = batch.get(i).model;
+			}
+			BulkResult result = null;
+			RuntimeException batchFailure = null;
+			try {
+				result = config.getMode() == ImportConfig.Mode.ADD ? dao.bulkAdd(models) : dao.bulkUpsert(models);
+			} catch (RuntimeException e) {
+				batchFailure = e;
+			}
+			for (int i = 0; i < models.length; i++) {
+				RuntimeException failure = result != null ? result.getFailure(i) : batchFailure;
+				if (failure == null)
+					progress.imported(batch.get(i).line);
+				else
+					progress.failed(batch.get(i).line, failure);
+			}
+		}
+	}
+
+	/**
+	 * This offer method puts element in to queue, waiting while queue is full.
+	 * It returns false without putting it when some stage failed meanwhile.
+	 */
+	private static <E> boolean offer(BlockingQueue<E> queue, E element, AtomicReference<Throwable> stageFailure)
+			throws InterruptedException {
+		while (!queue.offer(element, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (stageFailure.get() != null)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * This poll method takes element from queue, waiting while queue is empty.
+	 * It returns null when some stage failed meanwhile.
+	 */
+	private static <E> E poll(BlockingQueue<E> queue, AtomicReference<Throwable> stageFailure)
+			throws InterruptedException {
+		E element;
+		while ((element = queue.poll(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+			if (stageFailure.get() != null)
+				return null;
+		}
+		return element;
+	}
+
+	/**
+	 * This readLine method reads bytes till line end, or returns null at end of
+	 * stream.
+	 */
+	private static Line readLine(InputStream in, ByteArrayOutputStream buffer, long sequence, long offset)
+			throws IOException {
+		buffer.reset();
+		int b;
+		long read = 0;
+		while ((b = in.read()) != -1) {
+			read++;
+			if (b == '\n')
+				break;
+			buffer.write(b);
+		}
+		if (read == 0)
+			return null;
+		return new Line(sequence, offset, offset + read, buffer.toByteArray());
+	}
+
+	private static void skip(InputStream in, long bytes) throws IOException {
+		long remaining = bytes;
+		while (remaining > 0) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0) {
+				if (in.read() == -1)
+					throw new EOFException("Start offset " + bytes + " is beyond end of file");
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.db.cloud.limit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class AdaptiveConcurrencyLimiter holds adaptive concurrency limit of
+ * every kind. Every data store call of DAO using limiter runs within limit of
+ * its kind, so overload of data store queues and rejects calls in process
+ * instead of collapsing latency and raising contention errors. One limiter
+ * should be shared by all DAOs of process, so DAOs of same kind share limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private final ConcurrencyLimitConfig config;
+	private final ConcurrentMap<String, KindConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+	/**
+	 * This AdaptiveConcurrencyLimiter constructor creates limiter whose kinds
+	 * start at initial limit of config.
+	 *
+	 * @param ConcurrencyLimitConfig config - Limit options.
+	 */
+	public AdaptiveConcurrencyLimiter(ConcurrencyLimitConfig config) {
+		if (config == null)
+			throw new IllegalArgumentException("config must not be null");
+		if (config.getMinLimit() > config.getMaxLimit())
+			throw new IllegalArgumentException("minLimit must not be above maxLimit");
+		this.config = config;
+	}
+
+	/**
+	 * This forKind method returns limit of kind, creating it on first use.
+	 *
+	 * @param String kind - Data store kind.
+	 * @return KindConcurrencyLimit
+	 */
+	public KindConcurrencyLimit forKind(String kind) {
+		return limits.computeIfAbsent(kind, name -> new KindConcurrencyLimit(name, config));
+	}
+
+	/**
+	 * This getAll method returns limits of all kinds used so far.
+	 *
+	 * @return Collection<KindConcurrencyLimit>
+	 */
+	public Collection<KindConcurrencyLimit> getAll() {
+		return Collections.unmodifiableCollection(limits.values());
+	}
+
+	/**
+	 * This report method returns one line per kind with its limit, calls in
+	 * flight and queued, rejections and latency.
+	 *
+	 * @return String
+	 */
+	public String report() {
+		List<KindConcurrencyLimit> all = new ArrayList<>(limits.values());
+		all.sort(Comparator.comparing(KindConcurrencyLimit::getKind));
+		StringBuilder report = new StringBuilder();
+		for (KindConcurrencyLimit limit : all) {
+			report.append(limit).append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,202 @@
+package com.db.cloud.limit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * This class ConcurrencyLimitConfig holds options of adaptive concurrency
+ * limits of data store calls. Limit of every kind grows by one per limit
+ * successful calls while it is used, and is multiplied by backoff ratio when
+ * call fails with overload error or average latency of recent calls exceeds
+ * latency tolerance times long term average latency. Config must not be
+ * changed after limiter is created.
+ */
+public class ConcurrencyLimitConfig {
+
+	private int initialLimit = 20;
+	private int minLimit = 1;
+	private int maxLimit = 500;
+	private int maxQueueSize = 100;
+	private long maxWaitMillis = 100;
+	private double backoffRatio = 0.9;
+	private double latencyTolerance = 2;
+	private int windowSamples = 250;
+	private Set<String> overloadErrors = new LinkedHashSet<>(
+			Arrays.asList("UNAVAILABLE", "DEADLINE_EXCEEDED", "ABORTED", "RESOURCE_EXHAUSTED"));
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return ConcurrencyLimitConfig
+	 */
+	public static ConcurrencyLimitConfig defaults() {
+		return new ConcurrencyLimitConfig();
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	/**
+	 * This setInitialLimit method sets number of concurrent calls of kind allowed
+	 * before limit is adapted.
+	 *
+	 * @param int initialLimit - Starting limit.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setInitialLimit(int initialLimit) {
+		if (initialLimit < 1)
+			throw new IllegalArgumentException("initialLimit must be positive");
+		this.initialLimit = initialLimit;
+		return this;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	/**
+	 * This setMinLimit method sets lowest limit reached by backoff.
+	 *
+	 * @param int minLimit - Minimum limit.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setMinLimit(int minLimit) {
+		if (minLimit < 1)
+			throw new IllegalArgumentException("minLimit must be positive");
+		this.minLimit = minLimit;
+		return this;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * This setMaxLimit method sets highest limit reached by growth.
+	 *
+	 * @param int maxLimit - Maximum limit.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setMaxLimit(int maxLimit) {
+		if (maxLimit < 1)
+			throw new IllegalArgumentException("maxLimit must be positive");
+		this.maxLimit = maxLimit;
+		return this;
+	}
+
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	/**
+	 * This setMaxQueueSize method sets number of calls of kind which may wait
+	 * for free slot. Call arriving at full queue is rejected at once.
+	 *
+	 * @param int maxQueueSize - Waiting calls, 0 rejects every call over limit.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setMaxQueueSize(int maxQueueSize) {
+		if (maxQueueSize < 0)
+			throw new IllegalArgumentException("maxQueueSize must not be negative");
+		this.maxQueueSize = maxQueueSize;
+		return this;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * This setMaxWaitMillis method sets how long queued call waits for free slot
+	 * before it is rejected.
+	 *
+	 * @param long maxWaitMillis - Maximum wait.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setMaxWaitMillis(long maxWaitMillis) {
+		if (maxWaitMillis < 0)
+			throw new IllegalArgumentException("maxWaitMillis must not be negative");
+		this.maxWaitMillis = maxWaitMillis;
+		return this;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	/**
+	 * This setBackoffRatio method sets multiplier of limit on overload. Limit is
+	 * reduced at most once per round trip, so burst of failures of calls sent
+	 * together reduces it once.
+	 *
+	 * @param double backoffRatio - Ratio between 0.5 and 1.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setBackoffRatio(double backoffRatio) {
+		if (backoffRatio < 0.5 || backoffRatio >= 1)
+			throw new IllegalArgumentException("backoffRatio must be at least 0.5 and below 1");
+		this.backoffRatio = backoffRatio;
+		return this;
+	}
+
+	public double getLatencyTolerance() {
+		return latencyTolerance;
+	}
+
+	/**
+	 * This setLatencyTolerance method sets how many times long term average
+	 * latency average latency of recent calls may reach before it counts as
+	 * overload, because calls queue up in data store. Both averages are kept per
+	 * type of data store call.
+	 *
+	 * @param double latencyTolerance - Multiple of long term latency, above 1.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setLatencyTolerance(double latencyTolerance) {
+		if (latencyTolerance <= 1)
+			throw new IllegalArgumentException("latencyTolerance must be above 1");
+		this.latencyTolerance = latencyTolerance;
+		return this;
+	}
+
+	public int getWindowSamples() {
+		return windowSamples;
+	}
+
+	/**
+	 * This setWindowSamples method sets number of successful calls of one type
+	 * averaged by long term latency, so it follows changing latency of data
+	 * store slowly.
+	 *
+	 * @param int windowSamples - Calls of long term average.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setWindowSamples(int windowSamples) {
+		if (windowSamples < 1)
+			throw new IllegalArgumentException("windowSamples must be positive");
+		this.windowSamples = windowSamples;
+		return this;
+	}
+
+	public Set<String> getOverloadErrors() {
+		return Collections.unmodifiableSet(overloadErrors);
+	}
+
+	/**
+	 * This setOverloadErrors method sets reasons of DatastoreException which
+	 * reduce limit, like UNAVAILABLE or ABORTED. Other failures do not change
+	 * limit.
+	 *
+	 * @param String... reasons - Overload error reasons.
+	 * @return ConcurrencyLimitConfig
+	 */
+	public ConcurrencyLimitConfig setOverloadErrors(String... reasons) {
+		if (reasons == null)
+			throw new IllegalArgumentException("reasons must not be null");
+		this.overloadErrors = new LinkedHashSet<>(Arrays.asList(reasons));
+		return this;
+	}
+}
@@ -0,0 +1,323 @@
+package com.db.cloud.limit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.exception.ConcurrencyLimitExceededException;
+import com.db.cloud.metrics.DatastoreRpc;
+import com.google.cloud.datastore.DatastoreException;
+
+/**
+ * This class KindConcurrencyLimit limits concurrent data store calls of one
+ * kind. Limit grows additively while calls succeed and recent latency stays
+ * within tolerance of long term latency, and shrinks multiplicatively on
+ * overload error or latency above it (AIMD). Latency is averaged separately
+ * per type of data store call, so slow queries are not compared with fast
+ * lookups. Calls over limit wait in bounded queue for maximum wait, then they
+ * are rejected with ConcurrencyLimitExceededException.
+ */
+public class KindConcurrencyLimit {
+
+	/**
+	 * This SHORT_SAMPLES is number of calls averaged by recent latency.
+	 */
+	private static final int SHORT_SAMPLES = 10;
+
+	private enum Outcome {
+		SUCCESS, OVERLOAD, FAILURE
+	}
+
+	/**
+	 * This Latency class holds recent and long term average call time of one
+	 * type of data store call.
+	 */
+	private static final class Latency {
+		private double shortNanos;
+		private double longNanos;
+		private long samples;
+	}
+
+	private final String kind;
+	private final ConcurrencyLimitConfig config;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+	private double limit;
+	private int inFlight;
+	private int waiting;
+	private final Map<DatastoreRpc, Latency> latencies = new EnumMap<>(DatastoreRpc.class);
+
+	/**
+	 * This lastDecreaseNanos variable holds time of last backoff. Only failure
+	 * of call started after it reduces limit again.
+	 */
+	private long lastDecreaseNanos = System.nanoTime();
+	private long calls;
+	private long rejected;
+	private long decreases;
+
+	KindConcurrencyLimit(String kind, ConcurrencyLimitConfig config) {
+		this.kind = kind;
+		this.config = config;
+		this.limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), config.getInitialLimit()));
+	}
+
+	/**
+	 * This call method runs data store call within limit. Call time is compared
+	 * with average time of calls of same type, it and outcome adapt limit.
+	 * Failure of call is thrown unchanged.
+	 *
+	 * @param DatastoreRpc rpc - Type of data store call.
+	 * @param Supplier     call - Data store call.
+	 * @return R - Result of call
+	 */
+	public <R> R call(DatastoreRpc rpc, Supplier<R> call) {
+		acquire();
+		long start = System.nanoTime();
+		R result;
+		try {
+			result = call.get();
+		} catch (RuntimeException e) {
+			release(rpc, start, isOverload(e) ? Outcome.OVERLOAD : Outcome.FAILURE);
+			throw e;
+		} catch (Error e) {
+			release(rpc, start, Outcome.FAILURE);
+			throw e;
+		}
+		release(rpc, start, Outcome.SUCCESS);
+		return result;
+	}
+
+	/**
+	 * This call method runs data store call within limit without sampling its
+	 * time, for call whose time depends on work done rather than load, like
+	 * count query skipping many entities. Only outcome adapts limit.
+	 *
+	 * @param Supplier call - Data store call.
+	 * @return R - Result of call
+	 */
+	public <R> R call(Supplier<R> call) {
+		return call(null, call);
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	/**
+	 * This getLimit method returns current number of concurrent calls allowed.
+	 *
+	 * @return int
+	 */
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getQueued() {
+		lock.lock();
+		try {
+			return waiting;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This getCallCount method returns number of calls let through.
+	 *
+	 * @return long
+	 */
+	public long getCallCount() {
+		lock.lock();
+		try {
+			return calls;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This getRejectedCount method returns number of calls rejected.
+	 *
+	 * @return long
+	 */
+	public long getRejectedCount() {
+		lock.lock();
+		try {
+			return rejected;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This getDecreaseCount method returns number of times limit was reduced.
+	 *
+	 * @return long
+	 */
+	public long getDecreaseCount() {
+		lock.lock();
+		try {
+			return decreases;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This getLatencyMillis method returns long term average latency of passed
+	 * type of call against which recent latency is compared, 0 when no call of
+	 * the type was sampled.
+	 *
+	 * @param DatastoreRpc rpc - Type of data store call.
+	 * @return double
+	 */
+	public double getLatencyMillis(DatastoreRpc rpc) {
+		lock.lock();
+		try {
+			Latency latency = latencies.get(rpc);
+			return latency != null ? latency.longNanos / 1e6 : 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		lock.lock();
+		try {
+			StringBuilder text = new StringBuilder(String.format(
+					"%s limit=%d inFlight=%d queued=%d calls=%d rejected=%d decreases=%d", kind, (int) limit,
+					inFlight, waiting, calls, rejected, decreases));
+			for (Map.Entry<DatastoreRpc, Latency> entry : latencies.entrySet()) {
+				text.append(String.format(" %s recent=%.3fms longTerm=%.3fms", entry.getKey(),
+						entry.getValue().shortNanos / 1e6, entry.getValue().longNanos / 1e6));
+			}
+			return text.toString();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This acquire method takes slot, waiting in queue when limit is reached.
+	 * Calls in queue are served before newly arriving calls.
+	 */
+	private void acquire() {
+		lock.lock();
+		try {
+			if (waiting == 0 && inFlight < (int) limit) {
+				inFlight++;
+				calls++;
+				return;
+			}
+			if (waiting >= config.getMaxQueueSize())
+				throw reject("WAIT QUEUE FULL");
+			long remaining = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+			waiting++;
+			try {
+				while (inFlight >= (int) limit) {
+					if (remaining <= 0)
+						throw reject("NO SLOT WITHIN " + config.getMaxWaitMillis() + " MS");
+					remaining = available.awaitNanos(remaining);
+				}
+			} catch (InterruptedException e) {
+				if (waiting > 1 && inFlight < (int) limit)
+					available.signal();
+				Thread.currentThread().interrupt();
+				throw new CloudDatastoreDAOException("CONCURRENCY LIMIT WAIT INTERRUPTED : " + e, e);
+			} finally {
+				waiting--;
+			}
+			inFlight++;
+			calls++;
+			if (waiting > 0 && inFlight < (int) limit)
+				available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This release method frees slot and adapts limit to outcome of call.
+	 * Failure which is not overload, like invalid argument, leaves limit as it
+	 * is. Latency of successful call is checked only against calls of same type
+	 * and only when type is passed.
+	 */
+	private void release(DatastoreRpc rpc, long start, Outcome outcome) {
+		long now = System.nanoTime();
+		long nanos = now - start;
+		lock.lock();
+		try {
+			int concurrency = inFlight--;
+			if (outcome == Outcome.OVERLOAD) {
+				decrease(start, now);
+			} else if (outcome == Outcome.SUCCESS) {
+				Latency latency = rpc != null ? sample(rpc, nanos) : null;
+				if (latency != null && latency.samples >= SHORT_SAMPLES
+						&& latency.shortNanos > latency.longNanos * config.getLatencyTolerance())
+					decrease(start, now);
+				else if (concurrency * 2 >= limit)
+					limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+			}
+			if (waiting > 0 && inFlight < (int) limit)
+				available.signal();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This decrease method reduces limit when call started after last backoff,
+	 * so calls which were sent before limit was reduced do not reduce it again.
+	 */
+	private void decrease(long start, long now) {
+		if (start - lastDecreaseNanos < 0)
+			return;
+		limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+		lastDecreaseNanos = now;
+		decreases++;
+	}
+
+	/**
+	 * This sample method adds call time to recent and long term average of its
+	 * type of call. Long term average is plain mean until window is filled,
+	 * then moving average.
+	 */
+	private Latency sample(DatastoreRpc rpc, long nanos) {
+		Latency latency = latencies.computeIfAbsent(rpc, key -> new Latency());
+		latency.samples++;
+		latency.shortNanos += (nanos - latency.shortNanos) / Math.min(latency.samples, SHORT_SAMPLES);
+		latency.longNanos += (nanos - latency.longNanos) / Math.min(latency.samples, config.getWindowSamples());
+		return latency;
+	}
+
+	private ConcurrencyLimitExceededException reject(String reason) {
+		rejected++;
+		return new ConcurrencyLimitExceededException("CONCURRENCY LIMIT EXCEEDED FOR " + kind + " : " + reason
+				+ ", LIMIT " + (int) limit + ", IN FLIGHT " + inFlight, kind, (int) limit);
+	}
+
+	private boolean isOverload(RuntimeException e) {
+		return e instanceof DatastoreException
+				&& config.getOverloadErrors().contains(((DatastoreException) e).getReason());
+	}
+}
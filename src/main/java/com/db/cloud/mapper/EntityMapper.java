@@ -0,0 +1,35 @@
+package com.db.cloud.mapper;
+
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.KeyFactory;
+
+/**
+ * This interface EntityMapper converts data store entity in to model object and
+ * model object in to data store entity builder without reflection. Mappers are
+ * generated at compile time for model classes annotated with
+ * GenerateEntityMapper and picked up by CloudDatastoreRefUtil.
+ * @param <T> Model class type.
+ */
+public interface EntityMapper<T> {
+
+	/**
+	 * This toModel method converts cloud data store entity to model object.
+	 *
+	 * @param BaseEntity<?> entity - Cloud data store entity.
+	 * @return T - Model object after filling entity values.
+	 */
+	T toModel(BaseEntity<?> entity);
+
+	/**
+	 * This toEntityBuilder method creates data store entity builder by model for
+	 * add and update operation.
+	 *
+	 * @param KeyFactory keyFactory - Data store class used for creating builder.
+	 * @param T          model - Model object.
+	 * @param            boolean isAddOperation - This flag describes operation for
+	 *                   Add and update.
+	 * @return BaseEntity.Builder - Entity builder having model values.
+	 */
+	@SuppressWarnings("rawtypes")
+	BaseEntity.Builder toEntityBuilder(KeyFactory keyFactory, T model, boolean isAddOperation);
+}
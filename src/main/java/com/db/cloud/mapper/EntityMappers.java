@@ -0,0 +1,74 @@
+package com.db.cloud.mapper;
+
+import java.util.Optional;
+
+/**
+ * This class EntityMappers finds entity mapper generated at compile time for
+ * model class. Generated mapper lives in model package and is named after model
+ * class with '$' replaced by '_' and suffix _EntityMapper. Lookup result is
+ * cached per model class.
+ */
+public final class EntityMappers {
+
+	/**
+	 * This suffix is appended to model class name for generated mapper name.
+	 */
+	public static final String MAPPER_SUFFIX = "_EntityMapper";
+
+	/**
+	 * This MAPPERS value caches lookup result per model class, empty for model
+	 * classes without generated mapper.
+	 */
+	private static final ClassValue<Optional<EntityMapper<?>>> MAPPERS = new ClassValue<Optional<EntityMapper<?>>>() {
+		@Override
+		protected Optional<EntityMapper<?>> computeValue(Class<?> modelClassType) {
+			return Optional.ofNullable(load(modelClassType));
+		}
+	};
+
+	private EntityMappers() {
+	}
+
+	/**
+	 * This find method returns generated mapper of passed model class or null if
+	 * model has no generated mapper.
+	 *
+	 * @param Class<T> modelClassType - Model class type.
+	 * @return EntityMapper<T> - Generated mapper or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> EntityMapper<T> find(Class<T> modelClassType) {
+		return (EntityMapper<T>) MAPPERS.get(modelClassType).orElse(null);
+	}
+
+	/**
+	 * This mapperClassName method returns generated mapper class name of passed
+	 * model class.
+	 *
+	 * @param Class<?> modelClassType - Model class type.
+	 * @return String - Binary name of generated mapper class.
+	 */
+	public static String mapperClassName(Class<?> modelClassType) {
+		return modelClassType.getName().replace('$', '_') + MAPPER_SUFFIX;
+	}
+
+	/**
+	 * This load method creates generated mapper of model class, it returns null
+	 * when there is none or it can not be created.
+	 */
+	private static EntityMapper<?> load(Class<?> modelClassType) {
+		try {
+			Class<?> mapperClass = Class.forName(mapperClassName(modelClassType), true,
+					modelClassType.getClassLoader());
+			if (!EntityMapper.class.isAssignableFrom(mapperClass))
+				return null;
+			return (EntityMapper<?>) mapperClass.getConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException | LinkageError e) {
+			System.err.println("ENTITY MAPPER INITIALIZATION EXCEPTION : " + modelClassType.getName() + " : "
+					+ e.getMessage());
+			return null;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.db.cloud.metrics;
+
+import com.google.cloud.datastore.DatastoreException;
+
+/**
+ * This interface DatastoreMetrics receives measurements of DAO operations.
+ * Every measurement is tagged by data store kind and DAO operation, like
+ * "findById" or "bulkUpsert". Time spent waiting for data store and time spent
+ * converting entities and models are recorded separately, so slow operation can
+ * be attributed to one of them.
+ *
+ * Methods are called on threads running DAO operations and must be thread safe
+ * and fast. DAO asks isEnabled once when it is created and takes no time
+ * measurement at all when it returns false.
+ */
+public interface DatastoreMetrics {
+
+	/**
+	 * This isEnabled method tells whether DAO should measure operations.
+	 *
+	 * @return boolean
+	 */
+	boolean isEnabled();
+
+	/**
+	 * This recordRpc method records one data store call. Query is recorded once
+	 * when all its results were read and its time covers every batch fetched.
+	 *
+	 * @param String       kind - Data store kind.
+	 * @param String       operation - DAO operation.
+	 * @param DatastoreRpc rpc - Kind of call.
+	 * @param              long nanos - Time spent in call.
+	 * @param Throwable    error - Failure of call or null.
+	 */
+	void recordRpc(String kind, String operation, DatastoreRpc rpc, long nanos, Throwable error);
+
+	/**
+	 * This recordMapping method records conversion between entity and model.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param String operation - DAO operation.
+	 * @param        long nanos - Time spent in conversion.
+	 * @param        int entities - Number of converted entities.
+	 */
+	void recordMapping(String kind, String operation, long nanos, int entities);
+
+	/**
+	 * This recordRead method records entities or keys returned by data store.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param String operation - DAO operation.
+	 * @param        int entities - Number of returned entities.
+	 * @param        long bytes - Estimated size of returned entities.
+	 */
+	void recordRead(String kind, String operation, int entities, long bytes);
+
+	/**
+	 * This recordWritten method records entities or keys written to data store.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param String operation - DAO operation.
+	 * @param        int entities - Number of written entities.
+	 * @param        long bytes - Estimated size of written entities.
+	 */
+	void recordWritten(String kind, String operation, int entities, long bytes);
+
+	/**
+	 * This errorType method returns short name of failure used as error tag,
+	 * like "DatastoreException.UNAVAILABLE" or "IllegalArgumentException".
+	 *
+	 * @param Throwable error - Failure.
+	 * @return String
+	 */
+	static String errorType(Throwable error) {
+		String type = error.getClass().getSimpleName();
+		if (error instanceof DatastoreException) {
+			String reason = ((DatastoreException) error).getReason();
+			return type + "." + (reason != null ? reason : String.valueOf(((DatastoreException) error).getCode()));
+		}
+		return type;
+	}
+}
@@ -0,0 +1,9 @@
+package com.db.cloud.metrics;
+
+/**
+ * This DatastoreRpc enum tells which kind of data store call was timed.
+ * TRANSACTION covers all calls of transaction from begin till commit.
+ */
+public enum DatastoreRpc {
+	LOOKUP, QUERY, COMMIT, ALLOCATE_IDS, TRANSACTION
+}
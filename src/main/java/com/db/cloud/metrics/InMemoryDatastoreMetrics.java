@@ -0,0 +1,99 @@
+package com.db.cloud.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class InMemoryDatastoreMetrics keeps measurements of DAO operations in
+ * memory, one OperationMetrics per kind and operation. It is useful for tests,
+ * benchmarks and applications without metrics library. One instance may be
+ * shared by options of several DAOs.
+ */
+public class InMemoryDatastoreMetrics implements DatastoreMetrics {
+
+	private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public void recordRpc(String kind, String operation, DatastoreRpc rpc, long nanos, Throwable error) {
+		operation(kind, operation).recordRpc(nanos, error);
+	}
+
+	@Override
+	public void recordMapping(String kind, String operation, long nanos, int entities) {
+		operation(kind, operation).recordMapping(nanos, entities);
+	}
+
+	@Override
+	public void recordRead(String kind, String operation, int entities, long bytes) {
+		operation(kind, operation).recordRead(entities, bytes);
+	}
+
+	@Override
+	public void recordWritten(String kind, String operation, int entities, long bytes) {
+		operation(kind, operation).recordWritten(entities, bytes);
+	}
+
+	/**
+	 * This get method returns measurements of operation of kind or null when
+	 * nothing was recorded for them.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param String operation - DAO operation.
+	 * @return OperationMetrics
+	 */
+	public OperationMetrics get(String kind, String operation) {
+		return operations.get(key(kind, operation));
+	}
+
+	/**
+	 * This getAll method returns measurements of all recorded operations sorted
+	 * by kind and operation.
+	 *
+	 * @return List<OperationMetrics>
+	 */
+	public List<OperationMetrics> getAll() {
+		List<OperationMetrics> all = new ArrayList<>(operations.values());
+		all.sort(Comparator.comparing(OperationMetrics::getKind).thenComparing(OperationMetrics::getOperation));
+		return all;
+	}
+
+	/**
+	 * This report method returns one line summary of every recorded operation.
+	 *
+	 * @return String
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for (OperationMetrics metrics : getAll()) {
+			report.append(metrics).append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+
+	/**
+	 * This clear method removes all measurements.
+	 */
+	public void clear() {
+		operations.clear();
+	}
+
+	private OperationMetrics operation(String kind, String operation) {
+		String key = key(kind, operation);
+		OperationMetrics metrics = operations.get(key);
+		if (metrics == null)
+			metrics = operations.computeIfAbsent(key, k -> new OperationMetrics(kind, operation));
+		return metrics;
+	}
+
+	private static String key(String kind, String operation) {
+		return kind + '.' + operation;
+	}
+}
@@ -0,0 +1,111 @@
+package com.db.cloud.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * This class MicrometerDatastoreMetrics publishes measurements of DAO
+ * operations to Micrometer registry, from where they reach Prometheus,
+ * StatsD, CloudWatch or any other supported backend. Micrometer is optional
+ * dependency of this library, application using this class must have
+ * micrometer-core on its class path.
+ *
+ * Meters below are tagged by kind and operation :
+ * clouddatastore.rpc timer, also tagged by rpc and error, with p50, p99 and
+ * p999; clouddatastore.mapping timer; clouddatastore.entities.read and
+ * clouddatastore.entities.written counters; clouddatastore.bytes.read and
+ * clouddatastore.bytes.written counters.
+ */
+public class MicrometerDatastoreMetrics implements DatastoreMetrics {
+
+	private static final String NO_ERROR = "none";
+
+	private final MeterRegistry registry;
+	private final String prefix;
+	private final double[] percentiles;
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * This MicrometerDatastoreMetrics constructor creates metrics publishing
+	 * p50, p99 and p999 of timers to passed registry.
+	 *
+	 * @param MeterRegistry registry - Micrometer registry.
+	 */
+	public MicrometerDatastoreMetrics(MeterRegistry registry) {
+		this(registry, "clouddatastore", 0.5, 0.99, 0.999);
+	}
+
+	/**
+	 * This MicrometerDatastoreMetrics constructor creates metrics with passed
+	 * meter name prefix and published percentiles.
+	 *
+	 * @param MeterRegistry registry - Micrometer registry.
+	 * @param String        prefix - Prefix of meter names.
+	 * @param               double... percentiles - Published percentiles, like
+	 *                      0.99.
+	 */
+	public MicrometerDatastoreMetrics(MeterRegistry registry, String prefix, double... percentiles) {
+		if (registry == null)
+			throw new IllegalArgumentException("registry must not be null");
+		if (prefix == null || prefix.isEmpty())
+			throw new IllegalArgumentException("prefix must not be empty");
+		this.registry = registry;
+		this.prefix = prefix;
+		this.percentiles = percentiles != null ? percentiles.clone() : new double[0];
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public void recordRpc(String kind, String operation, DatastoreRpc rpc, long nanos, Throwable error) {
+		String errorType = error != null ? DatastoreMetrics.errorType(error) : NO_ERROR;
+		String key = "rpc|" + kind + '|' + operation + '|' + rpc + '|' + errorType;
+		Timer timer = timers.get(key);
+		if (timer == null)
+			timer = timers.computeIfAbsent(key,
+					k -> Timer.builder(prefix + ".rpc").tag("kind", kind).tag("operation", operation)
+							.tag("rpc", rpc.name()).tag("error", errorType).publishPercentiles(percentiles)
+							.register(registry));
+		timer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordMapping(String kind, String operation, long nanos, int entities) {
+		String key = "mapping|" + kind + '|' + operation;
+		Timer timer = timers.get(key);
+		if (timer == null)
+			timer = timers.computeIfAbsent(key, k -> Timer.builder(prefix + ".mapping").tag("kind", kind)
+					.tag("operation", operation).publishPercentiles(percentiles).register(registry));
+		timer.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordRead(String kind, String operation, int entities, long bytes) {
+		counter("entities.read", null, kind, operation).increment(entities);
+		counter("bytes.read", "bytes", kind, operation).increment(bytes);
+	}
+
+	@Override
+	public void recordWritten(String kind, String operation, int entities, long bytes) {
+		counter("entities.written", null, kind, operation).increment(entities);
+		counter("bytes.written", "bytes", kind, operation).increment(bytes);
+	}
+
+	private Counter counter(String name, String baseUnit, String kind, String operation) {
+		String key = name + '|' + kind + '|' + operation;
+		Counter counter = counters.get(key);
+		if (counter == null)
+			counter = counters.computeIfAbsent(key, k -> Counter.builder(prefix + "." + name).baseUnit(baseUnit)
+					.tag("kind", kind).tag("operation", operation).register(registry));
+		return counter;
+	}
+}
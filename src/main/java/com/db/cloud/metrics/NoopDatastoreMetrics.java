@@ -0,0 +1,37 @@
+package com.db.cloud.metrics;
+
+/**
+ * This class NoopDatastoreMetrics is default metrics of DAO. It is disabled,
+ * so DAO does not even read clock.
+ */
+public final class NoopDatastoreMetrics implements DatastoreMetrics {
+
+	/**
+	 * This INSTANCE is shared no-op metrics.
+	 */
+	public static final NoopDatastoreMetrics INSTANCE = new NoopDatastoreMetrics();
+
+	private NoopDatastoreMetrics() {
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+
+	@Override
+	public void recordRpc(String kind, String operation, DatastoreRpc rpc, long nanos, Throwable error) {
+	}
+
+	@Override
+	public void recordMapping(String kind, String operation, long nanos, int entities) {
+	}
+
+	@Override
+	public void recordRead(String kind, String operation, int entities, long bytes) {
+	}
+
+	@Override
+	public void recordWritten(String kind, String operation, int entities, long bytes) {
+	}
+}
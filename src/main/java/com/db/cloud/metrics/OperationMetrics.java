@@ -0,0 +1,129 @@
+package com.db.cloud.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class OperationMetrics holds measurements of one DAO operation of one
+ * kind recorded by InMemoryDatastoreMetrics. Values are live and may change
+ * while they are read.
+ */
+public class OperationMetrics {
+
+	private final String kind;
+	private final String operation;
+	private final LatencyHistogram rpcLatency = new LatencyHistogram();
+	private final LatencyHistogram mappingLatency = new LatencyHistogram();
+	private final LongAdder mappedEntities = new LongAdder();
+	private final LongAdder entitiesRead = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder entitiesWritten = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+	OperationMetrics(String kind, String operation) {
+		this.kind = kind;
+		this.operation = operation;
+	}
+
+	void recordRpc(long nanos, Throwable error) {
+		rpcLatency.record(nanos);
+		if (error != null)
+			errors.computeIfAbsent(DatastoreMetrics.errorType(error), type -> new LongAdder()).increment();
+	}
+
+	void recordMapping(long nanos, int entities) {
+		mappingLatency.record(nanos);
+		mappedEntities.add(entities);
+	}
+
+	void recordRead(int entities, long bytes) {
+		entitiesRead.add(entities);
+		bytesRead.add(bytes);
+	}
+
+	void recordWritten(int entities, long bytes) {
+		entitiesWritten.add(entities);
+		bytesWritten.add(bytes);
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	/**
+	 * This getRpcLatency method returns histogram of data store call times in
+	 * nanoseconds.
+	 *
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram getRpcLatency() {
+		return rpcLatency;
+	}
+
+	/**
+	 * This getMappingLatency method returns histogram of entity and model
+	 * conversion times in nanoseconds.
+	 *
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram getMappingLatency() {
+		return mappingLatency;
+	}
+
+	public long getMappedEntities() {
+		return mappedEntities.sum();
+	}
+
+	public long getEntitiesRead() {
+		return entitiesRead.sum();
+	}
+
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	public long getEntitiesWritten() {
+		return entitiesWritten.sum();
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/**
+	 * This getErrors method returns number of failed data store calls by error
+	 * type.
+	 *
+	 * @return Map<String, Long>
+	 */
+	public Map<String, Long> getErrors() {
+		Map<String, Long> counts = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> error : errors.entrySet()) {
+			counts.put(error.getKey(), error.getValue().sum());
+		}
+		return counts;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s.%s rpc[n=%d p50=%.3fms p99=%.3fms p999=%.3fms] mapping[n=%d p50=%.3fms p99=%.3fms p999=%.3fms]"
+						+ " read=%d/%dB written=%d/%dB errors=%s",
+				kind, operation, rpcLatency.getCount(), millis(rpcLatency, 50), millis(rpcLatency, 99),
+				millis(rpcLatency, 99.9), mappingLatency.getCount(), millis(mappingLatency, 50),
+				millis(mappingLatency, 99), millis(mappingLatency, 99.9), getEntitiesRead(), getBytesRead(),
+				getEntitiesWritten(), getBytesWritten(), getErrors());
+	}
+
+	private static double millis(LatencyHistogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1e6;
+	}
+}
@@ -0,0 +1,105 @@
+package com.db.cloud.model;
+
+/**
+ * This class BulkResult holds outcome of every item of bulk add, update or
+ * delete operation. Item position in result is same as in request. Item which
+ * was null or could not be converted to entity is skipped and has neither id nor
+ * failure.
+ */
+public class BulkResult {
+	private final Long[] ids;
+	private final RuntimeException[] failures;
+
+	public BulkResult(int size) {
+		this.ids = new Long[size];
+		this.failures = new RuntimeException[size];
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	public void setId(int index, Long id) {
+		ids[index] = id;
+	}
+
+	public void setFailure(int index, RuntimeException failure) {
+		failures[index] = failure;
+	}
+
+	/**
+	 * This getId method returns data store key of item or null if item failed or
+	 * was skipped.
+	 *
+	 * @param int index - Item position.
+	 * @return Long
+	 */
+	public Long getId(int index) {
+		return failures[index] == null ? ids[index] : null;
+	}
+
+	/**
+	 * This getFailure method returns exception of chunk which item belonged to
+	 * or null.
+	 *
+	 * @param int index - Item position.
+	 * @return RuntimeException
+	 */
+	public RuntimeException getFailure(int index) {
+		return failures[index];
+	}
+
+	public boolean isSuccess(int index) {
+		return failures[index] == null && ids[index] != null;
+	}
+
+	public int getSuccessCount() {
+		int count = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (isSuccess(i))
+				count++;
+		}
+		return count;
+	}
+
+	public int getFailureCount() {
+		int count = 0;
+		for (RuntimeException failure : failures) {
+			if (failure != null)
+				count++;
+		}
+		return count;
+	}
+
+	public boolean hasFailures() {
+		return getFailureCount() > 0;
+	}
+
+	/**
+	 * This getFirstFailure method returns first item failure or null.
+	 *
+	 * @return RuntimeException
+	 */
+	public RuntimeException getFirstFailure() {
+		for (RuntimeException failure : failures) {
+			if (failure != null)
+				return failure;
+		}
+		return null;
+	}
+
+	/**
+	 * This getSuccessIds method returns keys of successful items in item order.
+	 *
+	 * @return Long[]
+	 */
+	public Long[] getSuccessIds() {
+		Long[] result = new Long[getSuccessCount()];
+		int index = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (isSuccess(i))
+				result[index++] = ids[i];
+		}
+		return result;
+	}
+}
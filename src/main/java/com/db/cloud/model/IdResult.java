@@ -0,0 +1,20 @@
+package com.db.cloud.model;
+
+/**
+ * This class IdResult holds keys of one page of keys only query and cursor
+ * for querying next page.
+ */
+public class IdResult {
+	public String cursor;
+	public long[] ids;
+
+	public IdResult(long[] ids, String cursor) {
+		this.ids = ids;
+		this.cursor = cursor;
+	}
+
+	public IdResult(long[] ids) {
+		this.ids = ids;
+		this.cursor = null;
+	}
+}
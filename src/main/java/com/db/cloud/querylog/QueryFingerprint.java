@@ -0,0 +1,116 @@
+package com.db.cloud.querylog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.db.cloud.util.FilterIntrospector;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.ProjectionEntityQuery;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.StructuredQuery;
+import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+import com.google.cloud.datastore.StructuredQuery.OrderBy;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+
+/**
+ * This utility class QueryFingerprint describes shape of query in GQL like
+ * form, for example "SELECT * FROM Order WHERE status = ? AND total >= ? ORDER
+ * BY total DESC LIMIT 20". Compared values and cursors are left out, so all
+ * executions of one query shape share fingerprint. Filters combined by AND are
+ * sorted, so their order does not matter.
+ */
+public final class QueryFingerprint {
+
+	private QueryFingerprint() {
+	}
+
+	/**
+	 * This of method returns fingerprint of query. Query which is not
+	 * structured query, like GQL query, has fingerprint "GQL".
+	 *
+	 * @param Query<?> query - Data store query.
+	 * @return String
+	 */
+	public static String of(Query<?> query) {
+		if (!(query instanceof StructuredQuery))
+			return "GQL";
+		StructuredQuery<?> structuredQuery = (StructuredQuery<?>) query;
+		StringBuilder fingerprint = new StringBuilder("SELECT ");
+		if (structuredQuery instanceof KeyQuery)
+			fingerprint.append("__key__");
+		else if (structuredQuery instanceof ProjectionEntityQuery)
+			fingerprint.append(String.join(", ", structuredQuery.getProjection()));
+		else
+			fingerprint.append('*');
+		appendFrom(fingerprint, structuredQuery.getKind(), structuredQuery.getFilter());
+		if (!structuredQuery.getDistinctOn().isEmpty())
+			fingerprint.append(" DISTINCT ON ").append(String.join(", ", structuredQuery.getDistinctOn()));
+		List<OrderBy> orders = structuredQuery.getOrderBy();
+		for (int i = 0; i < orders.size(); i++) {
+			fingerprint.append(i == 0 ? " ORDER BY " : ", ").append(orders.get(i).getProperty()).append(' ')
+					.append(orders.get(i).getDirection() == OrderBy.Direction.ASCENDING ? "ASC" : "DESC");
+		}
+		if (structuredQuery.getLimit() != null)
+			fingerprint.append(" LIMIT ").append(structuredQuery.getLimit());
+		if (structuredQuery.getOffset() > 0)
+			fingerprint.append(" OFFSET ?");
+		return fingerprint.toString();
+	}
+
+	/**
+	 * This count method returns fingerprint of counting entities of kind
+	 * matching filter.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param Filter filter - Filter or null.
+	 * @return String
+	 */
+	public static String count(String kind, Filter filter) {
+		StringBuilder fingerprint = new StringBuilder("SELECT COUNT(*)");
+		appendFrom(fingerprint, kind, filter);
+		return fingerprint.toString();
+	}
+
+	private static void appendFrom(StringBuilder fingerprint, String kind, Filter filter) {
+		fingerprint.append(" FROM ").append(kind != null ? kind : "__kindless__");
+		if (filter != null)
+			fingerprint.append(" WHERE ").append(filter(filter));
+	}
+
+	private static String filter(Filter filter) {
+		if (filter instanceof PropertyFilter) {
+			PropertyFilter propertyFilter = (PropertyFilter) filter;
+			return FilterIntrospector.getProperty(propertyFilter) + " "
+					+ operator(FilterIntrospector.getOperator(propertyFilter)) + " ?";
+		}
+		if (filter instanceof CompositeFilter) {
+			CompositeFilter compositeFilter = (CompositeFilter) filter;
+			List<String> parts = new ArrayList<>();
+			for (Filter part : FilterIntrospector.getFilters(compositeFilter)) {
+				parts.add(filter(part));
+			}
+			Collections.sort(parts);
+			return String.join(" " + FilterIntrospector.getOperator(compositeFilter) + " ", parts);
+		}
+		return filter.getClass().getSimpleName();
+	}
+
+	private static String operator(String operator) {
+		switch (operator) {
+		case "EQUAL":
+			return "=";
+		case "LESS_THAN":
+			return "<";
+		case "LESS_THAN_OR_EQUAL":
+			return "<=";
+		case "GREATER_THAN":
+			return ">";
+		case "GREATER_THAN_OR_EQUAL":
+			return ">=";
+		default:
+			return operator;
+		}
+	}
+}
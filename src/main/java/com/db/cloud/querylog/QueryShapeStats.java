@@ -0,0 +1,114 @@
+package com.db.cloud.querylog;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.db.cloud.metrics.LatencyHistogram;
+
+/**
+ * This class QueryShapeStats holds statistics of executions of one query shape
+ * in one window of SlowQueryLog. Values are live and may change while they are
+ * read.
+ */
+public class QueryShapeStats {
+
+	private final String fingerprint;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAccumulator maxRows = new LongAccumulator(Long::max, 0);
+	private final LongAdder mappedRows = new LongAdder();
+	private final LongAdder mappingNanos = new LongAdder();
+	private final LongAdder slowCount = new LongAdder();
+
+	QueryShapeStats(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+
+	void record(long nanos, long rowCount, long mappedRowCount, long mappedNanos, boolean slow) {
+		latency.record(nanos);
+		totalNanos.add(nanos);
+		rows.add(rowCount);
+		maxRows.accumulate(rowCount);
+		mappedRows.add(mappedRowCount);
+		mappingNanos.add(mappedNanos);
+		if (slow)
+			slowCount.increment();
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	public long getCount() {
+		return latency.getCount();
+	}
+
+	/**
+	 * This getLatency method returns histogram of execution times in
+	 * nanoseconds.
+	 *
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * This getTotalNanos method returns time spent in all executions, which is
+	 * what the shape cost.
+	 *
+	 * @return long
+	 */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	public long getRows() {
+		return rows.sum();
+	}
+
+	public long getMaxRows() {
+		return maxRows.get();
+	}
+
+	/**
+	 * This getRowsPerCall method returns average number of results of one
+	 * execution.
+	 *
+	 * @return double
+	 */
+	public double getRowsPerCall() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) rows.sum() / count;
+	}
+
+	public long getMappingNanos() {
+		return mappingNanos.sum();
+	}
+
+	/**
+	 * This getMappedRowsPerSecond method returns number of entities converted
+	 * to models per second of mapping time, 0 when nothing was mapped.
+	 *
+	 * @return double
+	 */
+	public double getMappedRowsPerSecond() {
+		long nanos = mappingNanos.sum();
+		return nanos == 0 ? 0 : mappedRows.sum() * 1e9 / nanos;
+	}
+
+	public long getSlowCount() {
+		return slowCount.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"count=%d total=%.1fms p50=%.3fms p99=%.3fms p999=%.3fms rows/call=%.1f maxRows=%d"
+						+ " mapped/s=%.0f slow=%d : %s",
+				getCount(), getTotalNanos() / 1e6, latency.getValueAtPercentile(50) / 1e6,
+				latency.getValueAtPercentile(99) / 1e6, latency.getValueAtPercentile(99.9) / 1e6, getRowsPerCall(),
+				getMaxRows(), getMappedRowsPerSecond(), getSlowCount(), fingerprint);
+	}
+}
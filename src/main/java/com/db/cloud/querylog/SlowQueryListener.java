@@ -0,0 +1,20 @@
+package com.db.cloud.querylog;
+
+/**
+ * This interface SlowQueryListener is notified of every query execution which
+ * took longer than threshold of SlowQueryLog.
+ */
+@FunctionalInterface
+public interface SlowQueryListener {
+
+	/**
+	 * This onSlowQuery method is called on thread which ran query, after its
+	 * results were read.
+	 *
+	 * @param String fingerprint - Query shape.
+	 * @param        long nanos - Time of execution including mapping.
+	 * @param        long mappingNanos - Time spent converting entities to models.
+	 * @param        long rows - Number of returned results.
+	 */
+	void onSlowQuery(String fingerprint, long nanos, long mappingNanos, long rows);
+}
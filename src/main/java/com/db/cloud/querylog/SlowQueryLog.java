@@ -0,0 +1,229 @@
+package com.db.cloud.querylog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+
+/**
+ * This class SlowQueryLog keeps statistics of query executions by query shape
+ * and reports executions slower than threshold to listener. Statistics are
+ * kept per window, when window ends it becomes previous window and new window
+ * starts empty, so statistics show recent cost of every shape. One log may be
+ * shared by options of several DAOs.
+ */
+public class SlowQueryLog {
+
+	/**
+	 * This OTHER fingerprint collects executions of shapes which did not fit in
+	 * window having maximum number of fingerprints.
+	 */
+	public static final String OTHER = "OTHER";
+
+	/**
+	 * This Execution class measures one query execution. It is started before
+	 * query is sent and finished after its results were read.
+	 */
+	public static final class Execution {
+		private final SlowQueryLog log;
+		private final String fingerprint;
+		private final long start = System.nanoTime();
+		private long mappingNanos;
+		private long mappedRows;
+
+		private Execution(SlowQueryLog log, String fingerprint) {
+			this.log = log;
+			this.fingerprint = fingerprint;
+		}
+
+		/**
+		 * This mapped method adds conversion of one result to model.
+		 *
+		 * @param long nanos - Time of conversion.
+		 */
+		public void mapped(long nanos) {
+			mappingNanos += nanos;
+			mappedRows++;
+		}
+
+		/**
+		 * This finish method records execution.
+		 *
+		 * @param long rows - Number of returned results.
+		 */
+		public void finish(long rows) {
+			log.record(fingerprint, System.nanoTime() - start, rows, mappedRows, mappingNanos);
+		}
+	}
+
+	/**
+	 * This Window class holds statistics of shapes recorded in one window.
+	 */
+	private static final class Window {
+		private final long start;
+		private final ConcurrentMap<String, QueryShapeStats> shapes = new ConcurrentHashMap<>();
+
+		private Window(long start) {
+			this.start = start;
+		}
+	}
+
+	private final long thresholdNanos;
+	private final int maxFingerprints;
+	private final long windowNanos;
+	private final SlowQueryListener listener;
+	private volatile Window current = new Window(System.nanoTime());
+	private volatile Window previous;
+
+	/**
+	 * This SlowQueryLog constructor creates empty log as per passed config.
+	 *
+	 * @param SlowQueryLogConfig config - Log options.
+	 */
+	public SlowQueryLog(SlowQueryLogConfig config) {
+		this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getThresholdMillis());
+		this.maxFingerprints = config.getMaxFingerprints();
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getWindowMillis());
+		this.listener = config.getListener() != null ? config.getListener()
+				: (fingerprint, nanos, mappingNanos, rows) -> System.err.println(String.format(
+						"SLOW QUERY : %.1f ms (mapping %.1f ms) : %d rows : %s", nanos / 1e6, mappingNanos / 1e6,
+						rows, fingerprint));
+	}
+
+	/**
+	 * This start method starts measuring execution of query.
+	 *
+	 * @param Query<?> query - Query about to be sent.
+	 * @return Execution
+	 */
+	public Execution start(Query<?> query) {
+		return new Execution(this, QueryFingerprint.of(query));
+	}
+
+	/**
+	 * This startCount method starts measuring count of entities.
+	 *
+	 * @param String kind - Data store kind.
+	 * @param Filter filter - Filter or null.
+	 * @return Execution
+	 */
+	public Execution startCount(String kind, Filter filter) {
+		return new Execution(this, QueryFingerprint.count(kind, filter));
+	}
+
+	/**
+	 * This record method adds execution of query shape to statistics and
+	 * passes it to listener when it is slow.
+	 *
+	 * @param String fingerprint - Query shape.
+	 * @param        long nanos - Time of execution including mapping.
+	 * @param        long rows - Number of returned results.
+	 * @param        long mappedRows - Number of results converted to models.
+	 * @param        long mappingNanos - Time spent converting results.
+	 */
+	public void record(String fingerprint, long nanos, long rows, long mappedRows, long mappingNanos) {
+		boolean slow = nanos > thresholdNanos;
+		shape(window(), fingerprint).record(nanos, rows, mappedRows, mappingNanos, slow);
+		if (!slow)
+			return;
+		try {
+			listener.onSlowQuery(fingerprint, nanos, mappingNanos, rows);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This getStats method returns statistics of current window sorted by total
+	 * execution time, most expensive shape first.
+	 *
+	 * @return List<QueryShapeStats>
+	 */
+	public List<QueryShapeStats> getStats() {
+		return sorted(window());
+	}
+
+	/**
+	 * This getPreviousStats method returns statistics of last complete window
+	 * sorted like getStats, empty list before first window ended.
+	 *
+	 * @return List<QueryShapeStats>
+	 */
+	public List<QueryShapeStats> getPreviousStats() {
+		window();
+		Window last = previous;
+		return last != null ? sorted(last) : Collections.<QueryShapeStats>emptyList();
+	}
+
+	/**
+	 * This top method returns passed number of shapes of current window which
+	 * cost most execution time.
+	 *
+	 * @param int n - Number of shapes.
+	 * @return List<QueryShapeStats>
+	 */
+	public List<QueryShapeStats> top(int n) {
+		List<QueryShapeStats> stats = getStats();
+		return stats.size() > n ? new ArrayList<>(stats.subList(0, n)) : stats;
+	}
+
+	/**
+	 * This report method returns one line per shape of current window, most
+	 * expensive shape first.
+	 *
+	 * @return String
+	 */
+	public String report() {
+		StringBuilder report = new StringBuilder();
+		for (QueryShapeStats stats : getStats()) {
+			report.append(stats).append(System.lineSeparator());
+		}
+		return report.toString();
+	}
+
+	/**
+	 * This clear method removes statistics of current and previous window.
+	 */
+	public synchronized void clear() {
+		current = new Window(System.nanoTime());
+		previous = null;
+	}
+
+	/**
+	 * This window method returns current window, ending it first when its time
+	 * is over.
+	 */
+	private Window window() {
+		Window window = current;
+		if (windowNanos == 0 || System.nanoTime() - window.start < windowNanos)
+			return window;
+		synchronized (this) {
+			if (current == window) {
+				previous = window;
+				current = new Window(System.nanoTime());
+			}
+			return current;
+		}
+	}
+
+	private QueryShapeStats shape(Window window, String fingerprint) {
+		QueryShapeStats stats = window.shapes.get(fingerprint);
+		if (stats != null)
+			return stats;
+		if (window.shapes.size() >= maxFingerprints)
+			fingerprint = OTHER;
+		return window.shapes.computeIfAbsent(fingerprint, QueryShapeStats::new);
+	}
+
+	private static List<QueryShapeStats> sorted(Window window) {
+		List<QueryShapeStats> stats = new ArrayList<>(window.shapes.values());
+		stats.sort(Comparator.comparingLong(QueryShapeStats::getTotalNanos).reversed());
+		return stats;
+	}
+}
@@ -0,0 +1,93 @@
+package com.db.cloud.querylog;
+
+/**
+ * This class SlowQueryLogConfig holds options of SlowQueryLog. Config must not
+ * be changed after it is passed to SlowQueryLog.
+ */
+public class SlowQueryLogConfig {
+
+	private long thresholdMillis = 100;
+	private int maxFingerprints = 1000;
+	private long windowMillis = 10 * 60 * 1000L;
+	private SlowQueryListener listener;
+
+	/**
+	 * This defaults method returns config with default values.
+	 *
+	 * @return SlowQueryLogConfig
+	 */
+	public static SlowQueryLogConfig defaults() {
+		return new SlowQueryLogConfig();
+	}
+
+	public long getThresholdMillis() {
+		return thresholdMillis;
+	}
+
+	/**
+	 * This setThresholdMillis method sets execution time above which query is
+	 * passed to listener.
+	 *
+	 * @param long thresholdMillis - Slow query threshold, 0 logs every query.
+	 * @return SlowQueryLogConfig
+	 */
+	public SlowQueryLogConfig setThresholdMillis(long thresholdMillis) {
+		if (thresholdMillis < 0)
+			throw new IllegalArgumentException("thresholdMillis must not be negative");
+		this.thresholdMillis = thresholdMillis;
+		return this;
+	}
+
+	public int getMaxFingerprints() {
+		return maxFingerprints;
+	}
+
+	/**
+	 * This setMaxFingerprints method sets maximum number of query shapes having
+	 * own statistics in one window. Executions of further shapes are counted
+	 * under SlowQueryLog.OTHER.
+	 *
+	 * @param int maxFingerprints - Query shapes per window.
+	 * @return SlowQueryLogConfig
+	 */
+	public SlowQueryLogConfig setMaxFingerprints(int maxFingerprints) {
+		if (maxFingerprints < 1)
+			throw new IllegalArgumentException("maxFingerprints must be positive");
+		this.maxFingerprints = maxFingerprints;
+		return this;
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * This setWindowMillis method sets length of statistics window. When window
+	 * ends its statistics become previous window and new window starts empty.
+	 *
+	 * @param long windowMillis - Window length, 0 keeps statistics forever.
+	 * @return SlowQueryLogConfig
+	 */
+	public SlowQueryLogConfig setWindowMillis(long windowMillis) {
+		if (windowMillis < 0)
+			throw new IllegalArgumentException("windowMillis must not be negative");
+		this.windowMillis = windowMillis;
+		return this;
+	}
+
+	public SlowQueryListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * This setListener method sets receiver of slow queries. Null prints them
+	 * to System.err, which is default.
+	 *
+	 * @param SlowQueryListener listener - Listener or null.
+	 * @return SlowQueryLogConfig
+	 */
+	public SlowQueryLogConfig setListener(SlowQueryListener listener) {
+		this.listener = listener;
+		return this;
+	}
+}
@@ -0,0 +1,193 @@
+package com.db.cloud.retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.metrics.LatencyHistogram;
+
+/**
+ * This class HedgedReader runs lookups as per HedgingPolicy. Lookup is sent
+ * on hedging thread and caller waits for it until hedge delay, then same
+ * lookup is sent again when hedge budget allows and first answer is returned.
+ * Lookup which is overtaken is not cancelled, its answer is dropped. Failure
+ * is thrown only when every sent lookup failed.
+ *
+ * Hedge delay is percentile of lookup times of last window. Lookups of warmup
+ * run on caller thread without hedge.
+ */
+public class HedgedReader {
+
+	private final HedgingPolicy policy;
+	private final RetryBudget budget;
+	private final ThreadPoolExecutor executor;
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+	private volatile LatencyHistogram window = new LatencyHistogram();
+
+	/**
+	 * This delayNanos variable holds current hedge delay, -1 during warmup.
+	 */
+	private volatile long delayNanos = -1;
+
+	/**
+	 * This HedgedReader constructor creates reader with own hedging threads,
+	 * which are started on demand and stop when idle.
+	 *
+	 * @param HedgingPolicy policy - Hedging options.
+	 */
+	public HedgedReader(HedgingPolicy policy) {
+		this.policy = policy;
+		this.budget = new RetryBudget(policy.getBudgetRatio(), policy.getBudgetMaxTokens());
+		this.executor = new ThreadPoolExecutor(0, policy.getMaxThreads(), 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), CloudDatastoreExecutors.newThreadFactory("cloud-datastore-hedge"),
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * This read method runs lookup, hedging it when it is slow.
+	 *
+	 * @param Supplier read - Lookup.
+	 * @return R - Result of first lookup which answered
+	 */
+	public <R> R read(Supplier<R> read) {
+		budget.deposit();
+		long delay = delayNanos;
+		if (delay < 0)
+			return timed(read);
+		CompletableFuture<R> result = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(1);
+		AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+		if (!start(read, result, pending, firstFailure, false))
+			return timed(read);
+		try {
+			return result.get(delay, TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			// first lookup is slow, hedge it
+		} catch (ExecutionException | InterruptedException e) {
+			throw unwrap(e);
+		}
+		if (budget.tryWithdraw()) {
+			pending.incrementAndGet();
+			if (start(read, result, pending, firstFailure, true)) {
+				hedges.increment();
+			} else if (pending.decrementAndGet() == 0) {
+				result.completeExceptionally(firstFailure.get());
+			}
+		}
+		try {
+			return result.get();
+		} catch (ExecutionException | InterruptedException e) {
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * This getDelayMillis method returns current hedge delay, -1 during warmup.
+	 *
+	 * @return double
+	 */
+	public double getDelayMillis() {
+		long delay = delayNanos;
+		return delay < 0 ? -1 : delay / 1e6;
+	}
+
+	/**
+	 * This getHedgeCount method returns number of hedges sent.
+	 *
+	 * @return long
+	 */
+	public long getHedgeCount() {
+		return hedges.sum();
+	}
+
+	/**
+	 * This getHedgeWinCount method returns number of hedges which answered
+	 * before lookup they hedged.
+	 *
+	 * @return long
+	 */
+	public long getHedgeWinCount() {
+		return hedgeWins.sum();
+	}
+
+	/**
+	 * This start method sends lookup on hedging thread, it returns false when
+	 * no thread is free.
+	 */
+	private <R> boolean start(Supplier<R> read, CompletableFuture<R> result, AtomicInteger pending,
+			AtomicReference<Throwable> firstFailure, boolean hedge) {
+		try {
+			executor.execute(() -> {
+				try {
+					R value = timed(read);
+					if (result.complete(value) && hedge)
+						hedgeWins.increment();
+				} catch (RuntimeException | Error e) {
+					firstFailure.compareAndSet(null, e);
+					if (pending.decrementAndGet() == 0)
+						result.completeExceptionally(firstFailure.get());
+				}
+			});
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * This timed method runs lookup and adds its time to window when it
+	 * succeeded.
+	 */
+	private <R> R timed(Supplier<R> read) {
+		long start = System.nanoTime();
+		R value = read.get();
+		observe(System.nanoTime() - start);
+		return value;
+	}
+
+	private void observe(long nanos) {
+		LatencyHistogram current = window;
+		current.record(nanos);
+		long count = current.getCount();
+		if (delayNanos < 0 && count >= policy.getWarmupSamples())
+			publish(current);
+		if (count < policy.getWindowSamples())
+			return;
+		synchronized (this) {
+			if (window != current)
+				return;
+			publish(current);
+			window = new LatencyHistogram();
+		}
+	}
+
+	private void publish(LatencyHistogram histogram) {
+		long delay = histogram.getValueAtPercentile(policy.getPercentile());
+		delayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(policy.getMinDelayMillis()),
+				Math.min(delay, TimeUnit.MILLISECONDS.toNanos(policy.getMaxDelayMillis())));
+	}
+
+	private static RuntimeException unwrap(Exception e) {
+		if (e instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+			return new CloudDatastoreDAOException("HEDGED READ INTERRUPTED : " + e, e);
+		}
+		Throwable cause = e.getCause();
+		if (cause instanceof RuntimeException)
+			return (RuntimeException) cause;
+		if (cause instanceof Error)
+			throw (Error) cause;
+		return new CloudDatastoreDAOException("HEDGED READ EXCEPTION : " + cause, cause);
+	}
+}
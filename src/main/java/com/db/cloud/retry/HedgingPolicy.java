@@ -0,0 +1,172 @@
+package com.db.cloud.retry;
+
+/**
+ * This class HedgingPolicy holds options of hedged reads of findById and
+ * findByIds. When lookup has not answered within observed latency percentile
+ * of recent lookups, same lookup is sent again and first answer is used.
+ * Policy must not be changed after it is passed to DAO options.
+ */
+public class HedgingPolicy {
+
+	private double percentile = 95;
+	private long minDelayMillis = 1;
+	private long maxDelayMillis = 1000;
+	private int warmupSamples = 50;
+	private int windowSamples = 1000;
+	private double budgetRatio = 0.1;
+	private int budgetMaxTokens = 10;
+	private int maxThreads = 64;
+
+	/**
+	 * This defaults method returns policy with default values.
+	 *
+	 * @return HedgingPolicy
+	 */
+	public static HedgingPolicy defaults() {
+		return new HedgingPolicy();
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	/**
+	 * This setPercentile method sets latency percentile of recent lookups after
+	 * which hedge is sent.
+	 *
+	 * @param double percentile - Percent between 50 and 100, like 95.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setPercentile(double percentile) {
+		if (percentile < 50 || percentile > 100)
+			throw new IllegalArgumentException("percentile must be between 50 and 100");
+		this.percentile = percentile;
+		return this;
+	}
+
+	public long getMinDelayMillis() {
+		return minDelayMillis;
+	}
+
+	/**
+	 * This setMinDelayMillis method sets shortest wait before hedge is sent.
+	 *
+	 * @param long minDelayMillis - Minimum hedge delay.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setMinDelayMillis(long minDelayMillis) {
+		if (minDelayMillis < 0)
+			throw new IllegalArgumentException("minDelayMillis must not be negative");
+		this.minDelayMillis = minDelayMillis;
+		return this;
+	}
+
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	/**
+	 * This setMaxDelayMillis method sets longest wait before hedge is sent.
+	 *
+	 * @param long maxDelayMillis - Maximum hedge delay.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setMaxDelayMillis(long maxDelayMillis) {
+		if (maxDelayMillis < 0)
+			throw new IllegalArgumentException("maxDelayMillis must not be negative");
+		this.maxDelayMillis = maxDelayMillis;
+		return this;
+	}
+
+	public int getWarmupSamples() {
+		return warmupSamples;
+	}
+
+	/**
+	 * This setWarmupSamples method sets number of lookups measured before
+	 * first hedge is sent.
+	 *
+	 * @param int warmupSamples - Lookups before hedging starts.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setWarmupSamples(int warmupSamples) {
+		if (warmupSamples < 1)
+			throw new IllegalArgumentException("warmupSamples must be positive");
+		this.warmupSamples = warmupSamples;
+		return this;
+	}
+
+	public int getWindowSamples() {
+		return windowSamples;
+	}
+
+	/**
+	 * This setWindowSamples method sets number of lookups after which hedge
+	 * delay is computed again from lookups of that window only, so delay
+	 * follows changing latency.
+	 *
+	 * @param int windowSamples - Lookups per window.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setWindowSamples(int windowSamples) {
+		if (windowSamples < 1)
+			throw new IllegalArgumentException("windowSamples must be positive");
+		this.windowSamples = windowSamples;
+		return this;
+	}
+
+	public double getBudgetRatio() {
+		return budgetRatio;
+	}
+
+	/**
+	 * This setBudgetRatio method sets number of hedges earned by one lookup,
+	 * so hedges add at most that share of lookups once burst tokens are used.
+	 *
+	 * @param double budgetRatio - Hedges per lookup.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setBudgetRatio(double budgetRatio) {
+		if (budgetRatio < 0)
+			throw new IllegalArgumentException("budgetRatio must not be negative");
+		this.budgetRatio = budgetRatio;
+		return this;
+	}
+
+	public int getBudgetMaxTokens() {
+		return budgetMaxTokens;
+	}
+
+	/**
+	 * This setBudgetMaxTokens method sets number of hedges which may be sent in
+	 * burst.
+	 *
+	 * @param int budgetMaxTokens - Burst hedges.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setBudgetMaxTokens(int budgetMaxTokens) {
+		if (budgetMaxTokens < 0)
+			throw new IllegalArgumentException("budgetMaxTokens must not be negative");
+		this.budgetMaxTokens = budgetMaxTokens;
+		return this;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * This setMaxThreads method sets maximum number of lookups of one DAO
+	 * running on hedging threads at once. Lookup which finds no free thread is
+	 * read on caller thread without hedge.
+	 *
+	 * @param int maxThreads - Hedging threads.
+	 * @return HedgingPolicy
+	 */
+	public HedgingPolicy setMaxThreads(int maxThreads) {
+		if (maxThreads < 1)
+			throw new IllegalArgumentException("maxThreads must be positive");
+		this.maxThreads = maxThreads;
+		return this;
+	}
+}
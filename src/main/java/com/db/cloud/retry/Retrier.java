@@ -0,0 +1,136 @@
+package com.db.cloud.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.google.cloud.datastore.DatastoreException;
+
+/**
+ * This class Retrier runs data store calls as per RetryPolicy. One retrier is
+ * created per DAO and its retry budget is shared by all calls of DAO.
+ */
+public class Retrier {
+
+	/**
+	 * This DEADLINE_EXCEEDED_CODE is code of DatastoreException thrown when
+	 * deadline of call passed before retry.
+	 */
+	public static final int DEADLINE_EXCEEDED_CODE = 4;
+
+	private static final String ABORTED = "ABORTED";
+
+	private final RetryPolicy policy;
+	private final RetryBudget budget;
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder budgetExhausted = new LongAdder();
+
+	/**
+	 * This Retrier constructor creates retrier with full retry budget.
+	 *
+	 * @param RetryPolicy policy - Retry options.
+	 */
+	public Retrier(RetryPolicy policy) {
+		this.policy = policy;
+		this.budget = new RetryBudget(policy.getBudgetRatio(), policy.getBudgetMaxTokens());
+	}
+
+	/**
+	 * This call method runs call and retries it while it fails with retryable
+	 * error. Last failure is thrown when call is not retried any more, or
+	 * DatastoreException DEADLINE_EXCEEDED with last failure as cause when
+	 * deadline passed first.
+	 *
+	 * @param          boolean idempotent - Whether call may be repeated after
+	 *                 it was possibly applied, false for add and transaction.
+	 * @param Supplier call - Data store call.
+	 * @return R - Result of call
+	 */
+	public <R> R call(boolean idempotent, Supplier<R> call) {
+		budget.deposit();
+		long start = System.nanoTime();
+		long deadline = TimeUnit.MILLISECONDS.toNanos(policy.getDeadlineMillis());
+		double backoffBound = TimeUnit.MILLISECONDS.toNanos(policy.getInitialBackoffMillis());
+		for (int attempt = 1;; attempt++) {
+			RuntimeException failure;
+			try {
+				return call.get();
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			if (attempt >= policy.getMaxAttempts() || !isRetryable(failure, idempotent))
+				throw failure;
+			long backoff = (long) (ThreadLocalRandom.current().nextDouble()
+					* Math.min(backoffBound, TimeUnit.MILLISECONDS.toNanos(policy.getMaxBackoffMillis())));
+			if (deadline > 0) {
+				long remaining = deadline - (System.nanoTime() - start);
+				if (remaining <= 0)
+					throw new DatastoreException(DEADLINE_EXCEEDED_CODE,
+							"DEADLINE EXCEEDED AFTER " + attempt + " ATTEMPTS : " + failure.getMessage(),
+							"DEADLINE_EXCEEDED", failure);
+				backoff = Math.min(backoff, remaining);
+			}
+			if (!budget.tryWithdraw()) {
+				budgetExhausted.increment();
+				throw failure;
+			}
+			retries.increment();
+			sleep(backoff, failure);
+			backoffBound *= policy.getBackoffMultiplier();
+		}
+	}
+
+	/**
+	 * This isRetryable method tells whether failure may be retried. Failure of
+	 * idempotent call is retried when its reason is retryable, or when it has
+	 * no reason and data store client marked it retryable, like broken
+	 * connection. Failure of other call is retried only on ABORTED.
+	 *
+	 * @param Throwable failure - Failure of call.
+	 * @param           boolean idempotent - Whether call is idempotent.
+	 * @return boolean
+	 */
+	public boolean isRetryable(Throwable failure, boolean idempotent) {
+		if (!(failure instanceof DatastoreException))
+			return false;
+		DatastoreException exception = (DatastoreException) failure;
+		String reason = exception.getReason();
+		if (!idempotent)
+			return ABORTED.equals(reason) && policy.getRetryableErrors().contains(ABORTED);
+		if (reason == null)
+			return exception.isRetryable();
+		return policy.getRetryableErrors().contains(reason);
+	}
+
+	/**
+	 * This getRetryCount method returns number of retries made.
+	 *
+	 * @return long
+	 */
+	public long getRetryCount() {
+		return retries.sum();
+	}
+
+	/**
+	 * This getBudgetExhaustedCount method returns number of retries not made
+	 * because retry budget was empty.
+	 *
+	 * @return long
+	 */
+	public long getBudgetExhaustedCount() {
+		return budgetExhausted.sum();
+	}
+
+	private static void sleep(long nanos, RuntimeException failure) {
+		if (nanos <= 0)
+			return;
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure.addSuppressed(e);
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.db.cloud.retry;
+
+/**
+ * This class RetryBudget is token bucket limiting extra requests, like retries
+ * or hedged reads, to share of normal requests. Every request deposits ratio
+ * tokens up to maximum, every extra request takes one token. Bucket starts
+ * full.
+ */
+class RetryBudget {
+
+	private final double ratio;
+	private final double maxTokens;
+	private double tokens;
+
+	RetryBudget(double ratio, int maxTokens) {
+		this.ratio = ratio;
+		this.maxTokens = maxTokens;
+		this.tokens = maxTokens;
+	}
+
+	synchronized void deposit() {
+		tokens = Math.min(maxTokens, tokens + ratio);
+	}
+
+	synchronized boolean tryWithdraw() {
+		if (tokens < 1)
+			return false;
+		tokens -= 1;
+		return true;
+	}
+}
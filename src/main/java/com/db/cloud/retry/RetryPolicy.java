@@ -0,0 +1,183 @@
+package com.db.cloud.retry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * This class RetryPolicy holds options of retries of data store calls made by
+ * DAO. Failed call is retried after jittered exponential backoff when it
+ * failed with retryable error, its attempts and deadline are not used up and
+ * retry budget has a token. Policy must not be changed after it is passed to
+ * DAO options.
+ */
+public class RetryPolicy {
+
+	private int maxAttempts = 4;
+	private long initialBackoffMillis = 50;
+	private long maxBackoffMillis = 2000;
+	private double backoffMultiplier = 2;
+	private long deadlineMillis;
+	private double budgetRatio = 0.1;
+	private int budgetMaxTokens = 20;
+	private Set<String> retryableErrors = new LinkedHashSet<>(
+			Arrays.asList("UNAVAILABLE", "DEADLINE_EXCEEDED", "ABORTED"));
+
+	/**
+	 * This defaults method returns policy with default values.
+	 *
+	 * @return RetryPolicy
+	 */
+	public static RetryPolicy defaults() {
+		return new RetryPolicy();
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * This setMaxAttempts method sets maximum number of attempts of one call,
+	 * first attempt included.
+	 *
+	 * @param int maxAttempts - Attempts per call, 1 disables retries.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1)
+			throw new IllegalArgumentException("maxAttempts must be positive");
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	public long getInitialBackoffMillis() {
+		return initialBackoffMillis;
+	}
+
+	/**
+	 * This setInitialBackoffMillis method sets upper bound of wait before first
+	 * retry. Wait is random between 0 and bound, bound grows by backoff
+	 * multiplier with every retry.
+	 *
+	 * @param long initialBackoffMillis - First backoff bound.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setInitialBackoffMillis(long initialBackoffMillis) {
+		if (initialBackoffMillis < 0)
+			throw new IllegalArgumentException("initialBackoffMillis must not be negative");
+		this.initialBackoffMillis = initialBackoffMillis;
+		return this;
+	}
+
+	public long getMaxBackoffMillis() {
+		return maxBackoffMillis;
+	}
+
+	/**
+	 * This setMaxBackoffMillis method sets maximum bound of wait before retry.
+	 *
+	 * @param long maxBackoffMillis - Maximum backoff bound.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setMaxBackoffMillis(long maxBackoffMillis) {
+		if (maxBackoffMillis < 0)
+			throw new IllegalArgumentException("maxBackoffMillis must not be negative");
+		this.maxBackoffMillis = maxBackoffMillis;
+		return this;
+	}
+
+	public double getBackoffMultiplier() {
+		return backoffMultiplier;
+	}
+
+	/**
+	 * This setBackoffMultiplier method sets growth of backoff bound between
+	 * retries.
+	 *
+	 * @param double backoffMultiplier - Multiplier, at least 1.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+		if (backoffMultiplier < 1)
+			throw new IllegalArgumentException("backoffMultiplier must be at least 1");
+		this.backoffMultiplier = backoffMultiplier;
+		return this;
+	}
+
+	public long getDeadlineMillis() {
+		return deadlineMillis;
+	}
+
+	/**
+	 * This setDeadlineMillis method sets time after start of call when no
+	 * further attempt is started. Backoff is cut to remaining time. Running
+	 * attempt is not interrupted, its own timeout is set by retry settings of
+	 * data store client.
+	 *
+	 * @param long deadlineMillis - Deadline of call, 0 for no deadline.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setDeadlineMillis(long deadlineMillis) {
+		if (deadlineMillis < 0)
+			throw new IllegalArgumentException("deadlineMillis must not be negative");
+		this.deadlineMillis = deadlineMillis;
+		return this;
+	}
+
+	public double getBudgetRatio() {
+		return budgetRatio;
+	}
+
+	/**
+	 * This setBudgetRatio method sets number of retries earned by one call.
+	 * Default 0.1 lets retries add at most about 10% of calls once burst
+	 * tokens are used, so retries do not multiply load of failing data store.
+	 *
+	 * @param double budgetRatio - Retries per call.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setBudgetRatio(double budgetRatio) {
+		if (budgetRatio < 0)
+			throw new IllegalArgumentException("budgetRatio must not be negative");
+		this.budgetRatio = budgetRatio;
+		return this;
+	}
+
+	public int getBudgetMaxTokens() {
+		return budgetMaxTokens;
+	}
+
+	/**
+	 * This setBudgetMaxTokens method sets number of retries which may be made
+	 * in burst, budget starts full.
+	 *
+	 * @param int budgetMaxTokens - Burst retries.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setBudgetMaxTokens(int budgetMaxTokens) {
+		if (budgetMaxTokens < 0)
+			throw new IllegalArgumentException("budgetMaxTokens must not be negative");
+		this.budgetMaxTokens = budgetMaxTokens;
+		return this;
+	}
+
+	public Set<String> getRetryableErrors() {
+		return Collections.unmodifiableSet(retryableErrors);
+	}
+
+	/**
+	 * This setRetryableErrors method sets reasons of DatastoreException which
+	 * are retried, like UNAVAILABLE. Call which is not idempotent, like add or
+	 * transaction, is retried only on ABORTED, which tells nothing was written.
+	 *
+	 * @param String... reasons - Retryable error reasons.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setRetryableErrors(String... reasons) {
+		if (reasons == null)
+			throw new IllegalArgumentException("reasons must not be null");
+		this.retryableErrors = new LinkedHashSet<>(Arrays.asList(reasons));
+		return this;
+	}
+}
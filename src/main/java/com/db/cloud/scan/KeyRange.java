@@ -0,0 +1,62 @@
+package com.db.cloud.scan;
+
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+
+/**
+ * This class KeyRange is range of data store keys in key order, start key
+ * included and end key excluded. Null start is start of kind and null end is
+ * end of kind.
+ */
+public class KeyRange {
+
+	/**
+	 * This KEY_PROPERTY is name data store uses for key in filters and orders.
+	 */
+	public static final String KEY_PROPERTY = "__key__";
+
+	private final Key start;
+	private final Key end;
+
+	/**
+	 * This KeyRange constructor creates range between passed keys.
+	 *
+	 * @param Key start - First key of range or null.
+	 * @param Key end - Key after range or null.
+	 */
+	public KeyRange(Key start, Key end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	public Key getStart() {
+		return start;
+	}
+
+	public Key getEnd() {
+		return end;
+	}
+
+	/**
+	 * This toFilter method returns filter matching keys of range, or null when
+	 * range is whole kind.
+	 *
+	 * @return Filter
+	 */
+	public Filter toFilter() {
+		if (start == null && end == null)
+			return null;
+		if (start == null)
+			return PropertyFilter.lt(KEY_PROPERTY, end);
+		if (end == null)
+			return PropertyFilter.ge(KEY_PROPERTY, start);
+		return CompositeFilter.and(PropertyFilter.ge(KEY_PROPERTY, start), PropertyFilter.lt(KEY_PROPERTY, end));
+	}
+
+	@Override
+	public String toString() {
+		return "KeyRange [start=" + start + ", end=" + end + "]";
+	}
+}
@@ -0,0 +1,129 @@
+package com.db.cloud.scan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.cloud.datastore.Datastore;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.PathElement;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+import com.google.cloud.datastore.StructuredQuery.OrderBy;
+
+/**
+ * This utility class KeyRangePartitioner splits data store kind into disjoint
+ * key ranges of about same size. Data store gives every entity hidden random
+ * scatter property, so keys ordered by it are random sample of kind. Sample of
+ * OVERSAMPLING keys per range is read, sorted in key order and every
+ * OVERSAMPLING-th key becomes boundary of ranges.
+ */
+public final class KeyRangePartitioner {
+
+	/**
+	 * This SCATTER_PROPERTY is hidden random property data store keeps for
+	 * splitting queries.
+	 */
+	public static final String SCATTER_PROPERTY = "__scatter__";
+
+	/**
+	 * This OVERSAMPLING is number of sampled keys per range, more samples give
+	 * ranges of closer size.
+	 */
+	public static final int OVERSAMPLING = 32;
+
+	/**
+	 * This KEY_ORDER comparator orders keys same as data store does : path
+	 * element by path element, by kind, then numeric ids before names.
+	 */
+	public static final Comparator<Key> KEY_ORDER = KeyRangePartitioner::compareKeys;
+
+	private KeyRangePartitioner() {
+	}
+
+	/**
+	 * This split method returns at most passed number of disjoint key ranges
+	 * which together cover whole kind, in key order. Fewer ranges are returned
+	 * when kind is too small to split.
+	 *
+	 * @param Datastore datastore - Data store service.
+	 * @param String    kind - Data store kind.
+	 * @param           int partitions - Wanted number of ranges.
+	 * @return List<KeyRange>
+	 */
+	public static List<KeyRange> split(Datastore datastore, String kind, int partitions) {
+		if (partitions < 1)
+			throw new IllegalArgumentException("partitions must be positive");
+		List<KeyRange> ranges = new ArrayList<>();
+		if (partitions == 1) {
+			ranges.add(new KeyRange(null, null));
+			return ranges;
+		}
+		KeyQuery query = Query.newKeyQueryBuilder().setKind(kind).setOrderBy(OrderBy.asc(SCATTER_PROPERTY))
+				.setLimit((partitions - 1) * OVERSAMPLING).build();
+		QueryResults<Key> results = datastore.run(query);
+		List<Key> sample = new ArrayList<>();
+		while (results.hasNext()) {
+			sample.add(results.next());
+		}
+		Collections.sort(sample, KEY_ORDER);
+		Key start = null;
+		for (Key boundary : boundaries(sample, partitions)) {
+			ranges.add(new KeyRange(start, boundary));
+			start = boundary;
+		}
+		ranges.add(new KeyRange(start, null));
+		return ranges;
+	}
+
+	/**
+	 * This boundaries method picks evenly spaced distinct keys of sorted sample
+	 * which split it into passed number of parts.
+	 */
+	static List<Key> boundaries(List<Key> sortedSample, int partitions) {
+		List<Key> boundaries = new ArrayList<>();
+		int size = sortedSample.size();
+		if (size == 0)
+			return boundaries;
+		for (int i = 1; i < partitions; i++) {
+			Key key = sortedSample.get((int) ((long) i * size / partitions));
+			if (boundaries.isEmpty() || compareKeys(boundaries.get(boundaries.size() - 1), key) < 0)
+				boundaries.add(key);
+		}
+		return boundaries;
+	}
+
+	private static int compareKeys(Key first, Key second) {
+		List<PathElement> firstPath = path(first);
+		List<PathElement> secondPath = path(second);
+		int length = Math.min(firstPath.size(), secondPath.size());
+		for (int i = 0; i < length; i++) {
+			int result = compareElements(firstPath.get(i), secondPath.get(i));
+			if (result != 0)
+				return result;
+		}
+		return Integer.compare(firstPath.size(), secondPath.size());
+	}
+
+	private static int compareElements(PathElement first, PathElement second) {
+		int result = first.getKind().compareTo(second.getKind());
+		if (result != 0)
+			return result;
+		if (first.hasId() && second.hasId())
+			return Long.compare(first.getId(), second.getId());
+		if (first.hasId())
+			return -1;
+		if (second.hasId())
+			return 1;
+		return first.getName().compareTo(second.getName());
+	}
+
+	private static List<PathElement> path(Key key) {
+		List<PathElement> path = new ArrayList<>(key.getAncestors());
+		path.add(key.hasId() ? PathElement.of(key.getKind(), key.getId())
+				: PathElement.of(key.getKind(), key.getName()));
+		return path;
+	}
+}
@@ -0,0 +1,57 @@
+package com.db.cloud.testing;
+
+import com.db.cloud.client.CloudDatastoreClientProvider;
+import com.google.cloud.datastore.Datastore;
+
+/**
+ * This class InMemoryClientProvider provides InMemoryDatastore to DAOs, so
+ * they run without data store service.
+ */
+public class InMemoryClientProvider implements CloudDatastoreClientProvider {
+
+	private final InMemoryDatastore datastore;
+
+	/**
+	 * This InMemoryClientProvider constructor creates provider of new empty
+	 * data store.
+	 */
+	public InMemoryClientProvider() {
+		this(new InMemoryDatastore());
+	}
+
+	/**
+	 * This InMemoryClientProvider constructor creates provider of new empty
+	 * data store simulating latency and failures as per passed config.
+	 *
+	 * @param InMemoryDatastoreConfig config - Simulation options.
+	 */
+	public InMemoryClientProvider(InMemoryDatastoreConfig config) {
+		this(new InMemoryDatastore(config));
+	}
+
+	/**
+	 * This InMemoryClientProvider constructor creates provider of passed data
+	 * store.
+	 *
+	 * @param InMemoryDatastore datastore - Data store shared by DAOs.
+	 */
+	public InMemoryClientProvider(InMemoryDatastore datastore) {
+		this.datastore = datastore;
+	}
+
+	@Override
+	public Datastore getDatastore() {
+		return datastore;
+	}
+
+	public InMemoryDatastore getInMemoryDatastore() {
+		return datastore;
+	}
+
+	/**
+	 * This close method keeps stored entities, so DAOs created later see them.
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,567 @@
+package com.db.cloud.testing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.db.cloud.testing.InMemoryDatastoreConfig.Operation;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.datastore.Batch;
+import com.google.cloud.datastore.Datastore;
+import com.google.cloud.datastore.DatastoreException;
+import com.google.cloud.datastore.DatastoreOptions;
+import com.google.cloud.datastore.DatastoreReaderWriter;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.FullEntity;
+import com.google.cloud.datastore.IncompleteKey;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyFactory;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+import com.google.cloud.datastore.ReadOption;
+import com.google.cloud.datastore.StructuredQuery;
+import com.google.cloud.datastore.Transaction;
+import com.google.datastore.v1.TransactionOptions;
+
+/**
+ * This class InMemoryDatastore is Datastore kept in memory of this process,
+ * for benchmarks and tests which must not depend on network or emulator.
+ * Lookups, writes, id allocation and runInTransaction behave like data store :
+ * add fails for existing key, update fails for missing key and transaction
+ * applies its writes together when callable returns. Allocated ids follow
+ * highest stored id, so they never hit entity stored with own id. Structured
+ * queries support filters, orders, cursors, offset and limit as evaluated by
+ * QueryEvaluator. Batches, explicit transactions, projection and GQL queries
+ * are not supported.
+ *
+ * Transactions are optimistic : callable runs without lock and commit fails
+ * with ABORTED when entity read or written by it was changed meanwhile, then
+ * callable is run again like data store client does. Config adds latency per
+ * call and random UNAVAILABLE, ABORTED and partial batch failures.
+ */
+public class InMemoryDatastore implements Datastore {
+
+	/**
+	 * This PROJECT_ID is project of keys created by newKeyFactory.
+	 */
+	public static final String PROJECT_ID = "in-memory-project";
+
+	/**
+	 * This MAX_TRANSACTION_ATTEMPTS is number of times runInTransaction runs
+	 * callable whose commit was aborted.
+	 */
+	public static final int MAX_TRANSACTION_ATTEMPTS = 5;
+
+	private static final int UNKNOWN = 2;
+	private static final int INVALID_ARGUMENT = 3;
+	private static final int NOT_FOUND = 5;
+	private static final int ALREADY_EXISTS = 6;
+	private static final int ABORTED = 10;
+	private static final int UNAVAILABLE = 14;
+
+	private final DatastoreOptions options = DatastoreOptions.newBuilder().setProjectId(PROJECT_ID)
+			.setCredentials(NoCredentials.getInstance()).build();
+	private final InMemoryDatastoreConfig config;
+	private final Random random;
+	private final Map<String, TreeMap<Key, Entity>> kinds = new HashMap<>();
+	private final Map<Key, Long> versions = new HashMap<>();
+	private final Map<Operation, AtomicLong> callCounts = new EnumMap<>(Operation.class);
+	private final AtomicLong nextId = new AtomicLong(1);
+	private long version;
+
+	/**
+	 * This TransactionView class reads through data store and keeps writes of
+	 * transaction until it is committed. Key mapped to null is deleted. Version
+	 * of every read or written key is remembered for conflict check.
+	 */
+	private final class TransactionView implements DatastoreReaderWriter {
+		private final Map<Key, Entity> writes = new LinkedHashMap<>();
+		private final Map<Key, Long> seenVersions = new HashMap<>();
+
+		@Override
+		public Entity get(Key key) {
+			simulate(Operation.LOOKUP);
+			return read(key);
+		}
+
+		@Override
+		public Iterator<Entity> get(Key... keys) {
+			return fetch(keys).iterator();
+		}
+
+		@Override
+		public List<Entity> fetch(Key... keys) {
+			simulate(Operation.LOOKUP);
+			List<Entity> entities = new ArrayList<>(keys.length);
+			for (Key key : keys) {
+				entities.add(read(key));
+			}
+			return entities;
+		}
+
+		@Override
+		public <T> QueryResults<T> run(Query<T> query) {
+			return InMemoryDatastore.this.run(query);
+		}
+
+		@Override
+		public Entity add(FullEntity<?> entity) {
+			Entity complete = complete(entity);
+			if (read(complete.getKey()) != null)
+				throw alreadyExists(complete.getKey());
+			writes.put(complete.getKey(), complete);
+			return complete;
+		}
+
+		@Override
+		public List<Entity> add(FullEntity<?>... entities) {
+			List<Entity> added = new ArrayList<>(entities.length);
+			for (FullEntity<?> entity : entities) {
+				added.add(add(entity));
+			}
+			return added;
+		}
+
+		@Override
+		public void update(Entity... entities) {
+			for (Entity entity : entities) {
+				if (read(entity.getKey()) == null)
+					throw notFound(entity.getKey());
+				writes.put(entity.getKey(), entity);
+			}
+		}
+
+		@Override
+		public Entity put(FullEntity<?> entity) {
+			Entity complete = complete(entity);
+			see(complete.getKey());
+			writes.put(complete.getKey(), complete);
+			return complete;
+		}
+
+		@Override
+		public List<Entity> put(FullEntity<?>... entities) {
+			List<Entity> written = new ArrayList<>(entities.length);
+			for (FullEntity<?> entity : entities) {
+				written.add(put(entity));
+			}
+			return written;
+		}
+
+		@Override
+		public void delete(Key... keys) {
+			for (Key key : keys) {
+				see(key);
+				writes.put(key, null);
+			}
+		}
+
+		private Entity read(Key key) {
+			if (writes.containsKey(key))
+				return writes.get(key);
+			synchronized (InMemoryDatastore.this) {
+				seenVersions.putIfAbsent(key, versionOf(key));
+				return InMemoryDatastore.this.read(key);
+			}
+		}
+
+		private void see(Key key) {
+			synchronized (InMemoryDatastore.this) {
+				seenVersions.putIfAbsent(key, versionOf(key));
+			}
+		}
+
+		/**
+		 * This commit method applies writes unless seen entity changed.
+		 */
+		private void commit() {
+			simulate(Operation.COMMIT);
+			synchronized (InMemoryDatastore.this) {
+				for (Map.Entry<Key, Long> seen : seenVersions.entrySet()) {
+					if (versionOf(seen.getKey()) != seen.getValue())
+						throw aborted("Transaction conflicts with write of " + seen.getKey());
+				}
+				for (Map.Entry<Key, Entity> write : writes.entrySet()) {
+					if (write.getValue() == null)
+						remove(write.getKey());
+					else
+						store(write.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * This InMemoryDatastore constructor creates data store without simulated
+	 * latency and failures.
+	 */
+	public InMemoryDatastore() {
+		this(InMemoryDatastoreConfig.defaults());
+	}
+
+	/**
+	 * This InMemoryDatastore constructor creates data store simulating latency
+	 * and failures as per passed config.
+	 *
+	 * @param InMemoryDatastoreConfig config - Simulation options.
+	 */
+	public InMemoryDatastore(InMemoryDatastoreConfig config) {
+		this.config = config;
+		this.random = config.getSeed() != null ? new Random(config.getSeed()) : new Random();
+		for (Operation operation : Operation.values()) {
+			callCounts.put(operation, new AtomicLong());
+		}
+	}
+
+	@Override
+	public DatastoreOptions getOptions() {
+		return options;
+	}
+
+	@Override
+	public KeyFactory newKeyFactory() {
+		return new KeyFactory(PROJECT_ID);
+	}
+
+	/**
+	 * This size method returns number of stored entities of passed kind.
+	 *
+	 * @param String kind - Data store kind.
+	 * @return int
+	 */
+	public synchronized int size(String kind) {
+		TreeMap<Key, Entity> entities = kinds.get(kind);
+		return entities == null ? 0 : entities.size();
+	}
+
+	/**
+	 * This clear method removes all stored entities.
+	 */
+	public synchronized void clear() {
+		for (TreeMap<Key, Entity> entities : kinds.values()) {
+			for (Key key : entities.keySet()) {
+				versions.put(key, ++version);
+			}
+		}
+		kinds.clear();
+	}
+
+	/**
+	 * This getCallCount method returns number of calls of passed operation,
+	 * including failed ones, so tests can check how many calls cache or batching
+	 * saved.
+	 *
+	 * @param Operation operation - Simulated operation.
+	 * @return long
+	 */
+	public long getCallCount(Operation operation) {
+		return callCounts.get(operation).get();
+	}
+
+	@Override
+	public Entity get(Key key, ReadOption... options) {
+		simulate(Operation.LOOKUP);
+		synchronized (this) {
+			return read(key);
+		}
+	}
+
+	@Override
+	public Entity get(Key key) {
+		return get(key, new ReadOption[0]);
+	}
+
+	@Override
+	public Iterator<Entity> get(Iterable<Key> keys, ReadOption... options) {
+		return fetch(keys, options).iterator();
+	}
+
+	@Override
+	public Iterator<Entity> get(Key... keys) {
+		return fetch(keys).iterator();
+	}
+
+	@Override
+	public List<Entity> fetch(Iterable<Key> keys, ReadOption... options) {
+		simulate(Operation.LOOKUP);
+		List<Entity> entities = new ArrayList<>();
+		synchronized (this) {
+			for (Key key : keys) {
+				entities.add(read(key));
+			}
+		}
+		return entities;
+	}
+
+	@Override
+	public List<Entity> fetch(Key... keys) {
+		return fetch(Arrays.asList(keys));
+	}
+
+	@Override
+	public <T> QueryResults<T> run(Query<T> query) {
+		return run(query, new ReadOption[0]);
+	}
+
+	@Override
+	public <T> QueryResults<T> run(Query<T> query, ReadOption... options) {
+		if (!(query instanceof StructuredQuery))
+			throw new UnsupportedOperationException("InMemoryDatastore supports structured queries only");
+		simulate(Operation.QUERY);
+		StructuredQuery<T> structuredQuery = (StructuredQuery<T>) query;
+		List<Entity> entities = new ArrayList<>();
+		synchronized (this) {
+			if (structuredQuery.getKind() != null) {
+				TreeMap<Key, Entity> stored = kinds.get(structuredQuery.getKind());
+				if (stored != null)
+					entities.addAll(stored.values());
+			} else {
+				for (TreeMap<Key, Entity> stored : kinds.values()) {
+					entities.addAll(stored.values());
+				}
+				entities.sort((first, second) -> ValueOrder.KEY_ORDER.compare(first.getKey(), second.getKey()));
+			}
+		}
+		return QueryEvaluator.run(structuredQuery, entities, config.getMaxSkippedResults());
+	}
+
+	@Override
+	public Entity add(FullEntity<?> entity) {
+		return add(new FullEntity<?>[] { entity }).get(0);
+	}
+
+	@Override
+	public List<Entity> add(FullEntity<?>... entities) {
+		simulate(Operation.COMMIT);
+		List<Entity> added = new ArrayList<>(entities.length);
+		for (FullEntity<?> entity : entities) {
+			added.add(complete(entity));
+		}
+		synchronized (this) {
+			for (Entity entity : added) {
+				if (read(entity.getKey()) != null)
+					throw alreadyExists(entity.getKey());
+			}
+			int applied = partialBatch(added.size());
+			for (int i = 0; i < applied; i++) {
+				store(added.get(i));
+			}
+			failPartialBatch(applied, added.size());
+		}
+		return added;
+	}
+
+	@Override
+	public void update(Entity... entities) {
+		simulate(Operation.COMMIT);
+		synchronized (this) {
+			for (Entity entity : entities) {
+				if (read(entity.getKey()) == null)
+					throw notFound(entity.getKey());
+			}
+			int applied = partialBatch(entities.length);
+			for (int i = 0; i < applied; i++) {
+				store(entities[i]);
+			}
+			failPartialBatch(applied, entities.length);
+		}
+	}
+
+	@Override
+	public Entity put(FullEntity<?> entity) {
+		return put(new FullEntity<?>[] { entity }).get(0);
+	}
+
+	@Override
+	public List<Entity> put(FullEntity<?>... entities) {
+		simulate(Operation.COMMIT);
+		List<Entity> written = new ArrayList<>(entities.length);
+		for (FullEntity<?> entity : entities) {
+			written.add(complete(entity));
+		}
+		synchronized (this) {
+			int applied = partialBatch(written.size());
+			for (int i = 0; i < applied; i++) {
+				store(written.get(i));
+			}
+			failPartialBatch(applied, written.size());
+		}
+		return written;
+	}
+
+	@Override
+	public void delete(Key... keys) {
+		simulate(Operation.COMMIT);
+		synchronized (this) {
+			int applied = partialBatch(keys.length);
+			for (int i = 0; i < applied; i++) {
+				remove(keys[i]);
+			}
+			failPartialBatch(applied, keys.length);
+		}
+	}
+
+	@Override
+	public Key allocateId(IncompleteKey key) {
+		return allocateId(new IncompleteKey[] { key }).get(0);
+	}
+
+	@Override
+	public List<Key> allocateId(IncompleteKey... keys) {
+		simulate(Operation.ALLOCATE_IDS);
+		List<Key> allocated = new ArrayList<>(keys.length);
+		for (IncompleteKey key : keys) {
+			allocated.add(Key.newBuilder(key, nextId.getAndIncrement()).build());
+		}
+		return allocated;
+	}
+
+	@Override
+	public List<Key> reserveIds(Key... keys) {
+		simulate(Operation.ALLOCATE_IDS);
+		for (Key key : keys) {
+			if (key.hasId())
+				nextId.accumulateAndGet(key.getId() + 1, Math::max);
+		}
+		return Arrays.asList(keys);
+	}
+
+	/**
+	 * This runInTransaction method runs callable and applies its writes when it
+	 * returns. Writes are dropped when callable throws, callable is run again
+	 * when commit is aborted.
+	 */
+	@Override
+	public <T> T runInTransaction(TransactionCallable<T> callable) {
+		for (int attempt = 1;; attempt++) {
+			TransactionView transaction = new TransactionView();
+			try {
+				T result = callable.run(transaction);
+				transaction.commit();
+				return result;
+			} catch (DatastoreException e) {
+				if (e.getCode() != ABORTED || attempt >= MAX_TRANSACTION_ATTEMPTS)
+					throw e;
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new DatastoreException(UNKNOWN, e.getMessage(), null, e);
+			}
+		}
+	}
+
+	@Override
+	public <T> T runInTransaction(TransactionCallable<T> callable, TransactionOptions options) {
+		return runInTransaction(callable);
+	}
+
+	@Override
+	public Transaction newTransaction() {
+		throw new UnsupportedOperationException("InMemoryDatastore supports runInTransaction only");
+	}
+
+	@Override
+	public Transaction newTransaction(TransactionOptions options) {
+		return newTransaction();
+	}
+
+	@Override
+	public Batch newBatch() {
+		throw new UnsupportedOperationException("InMemoryDatastore does not support batches");
+	}
+
+	/**
+	 * This simulate method counts call, waits for its latency and fails it as
+	 * per config.
+	 */
+	private void simulate(Operation operation) {
+		callCounts.get(operation).incrementAndGet();
+		long latencyNanos;
+		boolean unavailable;
+		boolean contention;
+		synchronized (random) {
+			latencyNanos = config.getLatency(operation).sampleNanos(random);
+			unavailable = random.nextDouble() < config.getUnavailableRate();
+			contention = operation == Operation.COMMIT && random.nextDouble() < config.getContentionRate();
+		}
+		if (latencyNanos > 0)
+			LockSupport.parkNanos(latencyNanos);
+		if (unavailable)
+			throw new DatastoreException(UNAVAILABLE, "Simulated unavailability", "UNAVAILABLE");
+		if (contention)
+			throw aborted("Simulated contention");
+	}
+
+	/**
+	 * This partialBatch method returns number of mutations of write which are
+	 * applied, fewer than passed count when write fails partially.
+	 */
+	private int partialBatch(int count) {
+		if (count < 2)
+			return count;
+		synchronized (random) {
+			if (random.nextDouble() < config.getPartialBatchFailureRate())
+				return random.nextInt(count);
+		}
+		return count;
+	}
+
+	private static void failPartialBatch(int applied, int count) {
+		if (applied < count)
+			throw new DatastoreException(UNAVAILABLE,
+					"Simulated partial failure, " + applied + " of " + count + " mutations applied", "UNAVAILABLE");
+	}
+
+	private Entity read(Key key) {
+		TreeMap<Key, Entity> entities = kinds.get(key.getKind());
+		return entities == null ? null : entities.get(key);
+	}
+
+	private long versionOf(Key key) {
+		Long keyVersion = versions.get(key);
+		return keyVersion == null ? 0 : keyVersion;
+	}
+
+	private void store(Entity entity) {
+		if (entity.getKey().hasId())
+			nextId.accumulateAndGet(entity.getKey().getId() + 1, Math::max);
+		kinds.computeIfAbsent(entity.getKey().getKind(), kind -> new TreeMap<>(ValueOrder.KEY_ORDER))
+				.put(entity.getKey(), entity);
+		versions.put(entity.getKey(), ++version);
+	}
+
+	private void remove(Key key) {
+		TreeMap<Key, Entity> entities = kinds.get(key.getKind());
+		if (entities != null && entities.remove(key) != null)
+			versions.put(key, ++version);
+	}
+
+	private Entity complete(FullEntity<?> entity) {
+		if (entity.getKey() instanceof Key)
+			return entity instanceof Entity ? (Entity) entity : Entity.newBuilder((Key) entity.getKey(), entity).build();
+		if (entity.getKey() == null)
+			throw new DatastoreException(INVALID_ARGUMENT, "Entity must have key", "INVALID_ARGUMENT");
+		return Entity.newBuilder(Key.newBuilder(entity.getKey(), nextId.getAndIncrement()).build(), entity).build();
+	}
+
+	private static DatastoreException alreadyExists(Key key) {
+		return new DatastoreException(ALREADY_EXISTS, "Entity already exists : " + key, "ALREADY_EXISTS");
+	}
+
+	private static DatastoreException notFound(Key key) {
+		return new DatastoreException(NOT_FOUND, "No entity to update : " + key, "NOT_FOUND");
+	}
+
+	private static DatastoreException aborted(String message) {
+		return new DatastoreException(ABORTED, message, "ABORTED");
+	}
+}
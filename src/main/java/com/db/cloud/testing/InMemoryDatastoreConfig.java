@@ -0,0 +1,160 @@
+package com.db.cloud.testing;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * This class InMemoryDatastoreConfig holds simulated latency and failure
+ * rates of InMemoryDatastore. Config must not be changed after it is passed
+ * to data store.
+ */
+public class InMemoryDatastoreConfig {
+
+	/**
+	 * This Operation enum groups data store calls which share latency and call
+	 * count. Commit covers add, update, put, delete and transaction commit.
+	 */
+	public enum Operation {
+		LOOKUP, QUERY, COMMIT, ALLOCATE_IDS
+	}
+
+	private final Map<Operation, LatencyDistribution> latencies = new EnumMap<>(Operation.class);
+	private double unavailableRate;
+	private double contentionRate;
+	private double partialBatchFailureRate;
+	private Long seed;
+	private int maxSkippedResults;
+
+	/**
+	 * This defaults method returns config without latency and failures.
+	 *
+	 * @return InMemoryDatastoreConfig
+	 */
+	public static InMemoryDatastoreConfig defaults() {
+		return new InMemoryDatastoreConfig();
+	}
+
+	public LatencyDistribution getLatency(Operation operation) {
+		LatencyDistribution latency = latencies.get(operation);
+		return latency != null ? latency : LatencyDistribution.none();
+	}
+
+	/**
+	 * This setLatency method sets latency of calls of passed operation.
+	 *
+	 * @param Operation           operation - Simulated operation.
+	 * @param LatencyDistribution latency - Latency of one call.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setLatency(Operation operation, LatencyDistribution latency) {
+		if (operation == null || latency == null)
+			throw new IllegalArgumentException("operation and latency must not be null");
+		latencies.put(operation, latency);
+		return this;
+	}
+
+	/**
+	 * This setLatency method sets latency of calls of all operations.
+	 *
+	 * @param LatencyDistribution latency - Latency of one call.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setLatency(LatencyDistribution latency) {
+		for (Operation operation : Operation.values()) {
+			setLatency(operation, latency);
+		}
+		return this;
+	}
+
+	public double getUnavailableRate() {
+		return unavailableRate;
+	}
+
+	/**
+	 * This setUnavailableRate method sets share of calls which fail with
+	 * retryable UNAVAILABLE error before doing anything.
+	 *
+	 * @param double unavailableRate - Rate between 0 and 1.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setUnavailableRate(double unavailableRate) {
+		this.unavailableRate = rate(unavailableRate, "unavailableRate");
+		return this;
+	}
+
+	public double getContentionRate() {
+		return contentionRate;
+	}
+
+	/**
+	 * This setContentionRate method sets share of commits which fail with
+	 * ABORTED error as if other transaction wrote same entity group. Conflicts
+	 * of concurrent transactions fail same way without this setting.
+	 *
+	 * @param double contentionRate - Rate between 0 and 1.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setContentionRate(double contentionRate) {
+		this.contentionRate = rate(contentionRate, "contentionRate");
+		return this;
+	}
+
+	public double getPartialBatchFailureRate() {
+		return partialBatchFailureRate;
+	}
+
+	/**
+	 * This setPartialBatchFailureRate method sets share of non transactional
+	 * writes of several entities which apply only some of them and then fail
+	 * with UNAVAILABLE error, as data store may do outside transaction.
+	 *
+	 * @param double partialBatchFailureRate - Rate between 0 and 1.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setPartialBatchFailureRate(double partialBatchFailureRate) {
+		this.partialBatchFailureRate = rate(partialBatchFailureRate, "partialBatchFailureRate");
+		return this;
+	}
+
+	public Long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * This setSeed method sets seed of random source used for latencies and
+	 * failures, so single threaded run repeats same way.
+	 *
+	 * @param Long seed - Random seed or null for random one.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setSeed(Long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	public int getMaxSkippedResults() {
+		return maxSkippedResults;
+	}
+
+	/**
+	 * This setMaxSkippedResults method sets number of results query may skip by
+	 * offset in one batch. Like data store, query which would skip more
+	 * returns no results, reports NOT_FINISHED and its cursor after continues
+	 * after skipped results.
+	 *
+	 * @param int maxSkippedResults - Skipped results per batch, 0 for no limit.
+	 * @return InMemoryDatastoreConfig
+	 */
+	public InMemoryDatastoreConfig setMaxSkippedResults(int maxSkippedResults) {
+		if (maxSkippedResults < 0)
+			throw new IllegalArgumentException("maxSkippedResults must not be negative");
+		this.maxSkippedResults = maxSkippedResults;
+		return this;
+	}
+
+	private static double rate(double rate, String name) {
+		if (rate < 0 || rate > 1)
+			throw new IllegalArgumentException(name + " must be between 0 and 1");
+		return rate;
+	}
+}
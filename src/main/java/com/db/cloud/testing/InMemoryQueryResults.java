@@ -0,0 +1,70 @@
+package com.db.cloud.testing;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.QueryResults;
+import com.google.datastore.v1.QueryResultBatch;
+
+/**
+ * This class InMemoryQueryResults returns results of InMemoryDatastore query
+ * which were all evaluated when query was run. Cursor after is cursor after
+ * last returned result, or after skipped results before first one is read.
+ * @param <T> Result type, like entity or key.
+ */
+class InMemoryQueryResults<T> implements QueryResults<T> {
+
+	private final Class<?> resultClass;
+	private final List<Entity> ordered;
+	private final int end;
+	private final int skippedResults;
+	private final QueryResultBatch.MoreResultsType moreResults;
+	private final Function<Entity, T> mapper;
+	private int position;
+
+	InMemoryQueryResults(Class<?> resultClass, List<Entity> ordered, int first, int end, int skippedResults,
+			QueryResultBatch.MoreResultsType moreResults, Function<Entity, T> mapper) {
+		this.resultClass = resultClass;
+		this.ordered = ordered;
+		this.position = first;
+		this.end = end;
+		this.skippedResults = skippedResults;
+		this.moreResults = moreResults;
+		this.mapper = mapper;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return position < end;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		return mapper.apply(ordered.get(position++));
+	}
+
+	@Override
+	public Class<?> getResultClass() {
+		return resultClass;
+	}
+
+	@Override
+	public Cursor getCursorAfter() {
+		return QueryEvaluator.cursor(ordered, position);
+	}
+
+	@Override
+	public int getSkippedResults() {
+		return skippedResults;
+	}
+
+	@Override
+	public QueryResultBatch.MoreResultsType getMoreResults() {
+		return moreResults;
+	}
+}
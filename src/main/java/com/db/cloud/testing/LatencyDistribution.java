@@ -0,0 +1,70 @@
+package com.db.cloud.testing;
+
+import java.util.Random;
+
+/**
+ * This interface LatencyDistribution gives simulated latency of one
+ * InMemoryDatastore call.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+	/**
+	 * This sampleNanos method returns latency of one call.
+	 *
+	 * @param Random random - Random source of data store.
+	 * @return long - Latency in nanoseconds
+	 */
+	long sampleNanos(Random random);
+
+	/**
+	 * This none method returns distribution without latency.
+	 *
+	 * @return LatencyDistribution
+	 */
+	static LatencyDistribution none() {
+		return random -> 0;
+	}
+
+	/**
+	 * This fixed method returns same latency for every call.
+	 *
+	 * @param double millis - Latency in milliseconds.
+	 * @return LatencyDistribution
+	 */
+	static LatencyDistribution fixed(double millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("millis must not be negative");
+		long nanos = (long) (millis * 1e6);
+		return random -> nanos;
+	}
+
+	/**
+	 * This uniform method returns latency evenly spread between passed bounds.
+	 *
+	 * @param double minMillis - Smallest latency in milliseconds.
+	 * @param double maxMillis - Largest latency in milliseconds.
+	 * @return LatencyDistribution
+	 */
+	static LatencyDistribution uniform(double minMillis, double maxMillis) {
+		if (minMillis < 0 || maxMillis < minMillis)
+			throw new IllegalArgumentException("bounds must satisfy 0 <= minMillis <= maxMillis");
+		return random -> (long) ((minMillis + random.nextDouble() * (maxMillis - minMillis)) * 1e6);
+	}
+
+	/**
+	 * This logNormal method returns long tailed latency with passed median and
+	 * 99th percentile, shaped like latency of remote service.
+	 *
+	 * @param double medianMillis - Median latency in milliseconds.
+	 * @param double p99Millis - 99th percentile latency in milliseconds.
+	 * @return LatencyDistribution
+	 */
+	static LatencyDistribution logNormal(double medianMillis, double p99Millis) {
+		if (medianMillis <= 0 || p99Millis < medianMillis)
+			throw new IllegalArgumentException("bounds must satisfy 0 < medianMillis <= p99Millis");
+		// 2.326 is 99th percentile of standard normal distribution
+		double sigma = Math.log(p99Millis / medianMillis) / 2.326;
+		return random -> (long) (medianMillis * Math.exp(sigma * random.nextGaussian()) * 1e6);
+	}
+}
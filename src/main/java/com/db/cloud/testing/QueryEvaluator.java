@@ -0,0 +1,245 @@
+package com.db.cloud.testing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import com.db.cloud.scan.KeyRange;
+import com.db.cloud.scan.KeyRangePartitioner;
+import com.db.cloud.util.FilterIntrospector;
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyQuery;
+import com.google.cloud.datastore.KeyValue;
+import com.google.cloud.datastore.ListValue;
+import com.google.cloud.datastore.LongValue;
+import com.google.cloud.datastore.PathElement;
+import com.google.cloud.datastore.StructuredQuery;
+import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+import com.google.cloud.datastore.StructuredQuery.OrderBy;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+import com.google.cloud.datastore.Value;
+import com.google.datastore.v1.QueryResultBatch;
+
+/**
+ * This utility class QueryEvaluator runs structured query over entities of
+ * kind as data store indexes would : only indexed values match filters and
+ * orders, entity missing order property is left out, list property matches
+ * when any element matches and ties are ordered by key. Cursor holds position
+ * in ordered results and key before it, so it stays at same entity when
+ * entities before it are added or removed.
+ */
+final class QueryEvaluator {
+
+	private QueryEvaluator() {
+	}
+
+	/**
+	 * This run method returns results of query over passed entities, which are
+	 * all entities of query kind in key order. Offset above max skipped results
+	 * ends batch after skipped results, max skipped results 0 skips any offset.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> InMemoryQueryResults<T> run(StructuredQuery<T> query, Collection<Entity> entities,
+			int maxSkippedResults) {
+		// keys only query is projection of __key__
+		if ((!(query instanceof KeyQuery) && !query.getProjection().isEmpty()) || !query.getDistinctOn().isEmpty())
+			throw new UnsupportedOperationException("InMemoryDatastore does not support projection queries");
+		List<Entity> ordered = evaluate(query, entities);
+		int size = ordered.size();
+		int start = query.getStartCursor() != null ? position(query.getStartCursor(), ordered) : 0;
+		int bound = query.getEndCursor() != null ? Math.max(start, position(query.getEndCursor(), ordered)) : size;
+		int skipped = Math.min(query.getOffset(), bound - start);
+		int first;
+		int end;
+		QueryResultBatch.MoreResultsType moreResults;
+		if (maxSkippedResults > 0 && skipped > maxSkippedResults) {
+			skipped = maxSkippedResults;
+			first = start + skipped;
+			end = first;
+			moreResults = QueryResultBatch.MoreResultsType.NOT_FINISHED;
+		} else {
+			first = start + skipped;
+			end = query.getLimit() != null ? (int) Math.min(bound, (long) first + query.getLimit()) : bound;
+			moreResults = end < bound ? QueryResultBatch.MoreResultsType.MORE_RESULTS_AFTER_LIMIT
+					: bound < size ? QueryResultBatch.MoreResultsType.MORE_RESULTS_AFTER_CURSOR
+							: QueryResultBatch.MoreResultsType.NO_MORE_RESULTS;
+		}
+		if (query instanceof KeyQuery)
+			return (InMemoryQueryResults<T>) new InMemoryQueryResults<>(Key.class, ordered, first, end, skipped,
+					moreResults, (Function<Entity, Key>) Entity::getKey);
+		return (InMemoryQueryResults<T>) new InMemoryQueryResults<>(Entity.class, ordered, first, end, skipped,
+				moreResults, Function.<Entity>identity());
+	}
+
+	/**
+	 * This cursor method returns cursor at passed position of ordered results.
+	 */
+	static Cursor cursor(List<Entity> ordered, int position) {
+		String previous = position > 0 ? ordered.get(position - 1).getKey().toUrlSafe() : "";
+		return Cursor.copyFrom((position + ":" + previous).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static int position(Cursor cursor, List<Entity> ordered) {
+		String value;
+		int separator;
+		int position;
+		try {
+			value = new String(Base64.getUrlDecoder().decode(cursor.toUrlSafe()), StandardCharsets.UTF_8);
+			separator = value.indexOf(':');
+			position = Integer.parseInt(value.substring(0, separator));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Cursor was not created by InMemoryDatastore : " + cursor, e);
+		}
+		if (separator < value.length() - 1) {
+			Key previous = Key.fromUrlSafe(value.substring(separator + 1));
+			for (int i = 0; i < ordered.size(); i++) {
+				if (ordered.get(i).getKey().equals(previous))
+					return i + 1;
+			}
+		}
+		return Math.min(position, ordered.size());
+	}
+
+	private static List<Entity> evaluate(StructuredQuery<?> query, Collection<Entity> entities) {
+		Filter filter = query.getFilter();
+		List<Entity> matches = new ArrayList<>();
+		for (Entity entity : entities) {
+			if (filter == null || matches(entity, filter))
+				matches.add(entity);
+		}
+		List<OrderBy> orders = query.getOrderBy();
+		if (orders.isEmpty())
+			return matches;
+		matches.removeIf(entity -> {
+			for (OrderBy order : orders) {
+				if (sortValue(entity, order) == null)
+					return true;
+			}
+			return false;
+		});
+		Comparator<Entity> comparator = null;
+		for (OrderBy order : orders) {
+			Comparator<Entity> next = (first, second) -> {
+				int result = ValueOrder.compare(sortValue(first, order), sortValue(second, order));
+				return order.getDirection() == OrderBy.Direction.DESCENDING ? -result : result;
+			};
+			comparator = comparator == null ? next : comparator.thenComparing(next);
+		}
+		// sort is stable, so entities of equal values stay in key order
+		Collections.sort(matches, comparator);
+		return matches;
+	}
+
+	private static boolean matches(Entity entity, Filter filter) {
+		if (filter instanceof CompositeFilter) {
+			CompositeFilter compositeFilter = (CompositeFilter) filter;
+			if (!"AND".equals(FilterIntrospector.getOperator(compositeFilter)))
+				throw new UnsupportedOperationException("InMemoryDatastore supports AND composite filters only");
+			for (Filter subFilter : FilterIntrospector.getFilters(compositeFilter)) {
+				if (!matches(entity, subFilter))
+					return false;
+			}
+			return true;
+		}
+		PropertyFilter propertyFilter = (PropertyFilter) filter;
+		String operator = FilterIntrospector.getOperator(propertyFilter);
+		Value<?> value = FilterIntrospector.getValue(propertyFilter);
+		if ("HAS_ANCESTOR".equals(operator))
+			return isAncestor(((KeyValue) value).get(), entity.getKey());
+		for (Value<?> indexed : indexedValues(entity, FilterIntrospector.getProperty(propertyFilter))) {
+			if (ValueOrder.rank(indexed) == ValueOrder.rank(value)
+					&& test(operator, ValueOrder.compare(indexed, value)))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean test(String operator, int comparison) {
+		switch (operator) {
+		case "EQUAL":
+			return comparison == 0;
+		case "LESS_THAN":
+			return comparison < 0;
+		case "LESS_THAN_OR_EQUAL":
+			return comparison <= 0;
+		case "GREATER_THAN":
+			return comparison > 0;
+		case "GREATER_THAN_OR_EQUAL":
+			return comparison >= 0;
+		default:
+			throw new UnsupportedOperationException("InMemoryDatastore does not support operator " + operator);
+		}
+	}
+
+	/**
+	 * This sortValue method returns value entity is ordered by, smallest element
+	 * of list for ascending order and largest for descending, or null when
+	 * entity has no indexed value of property.
+	 */
+	private static Value<?> sortValue(Entity entity, OrderBy order) {
+		Value<?> sortValue = null;
+		boolean descending = order.getDirection() == OrderBy.Direction.DESCENDING;
+		for (Value<?> value : indexedValues(entity, order.getProperty())) {
+			int result = sortValue == null ? 0 : ValueOrder.compare(value, sortValue);
+			if (sortValue == null || (descending ? result > 0 : result < 0))
+				sortValue = value;
+		}
+		return sortValue;
+	}
+
+	/**
+	 * This indexedValues method returns values of property which data store
+	 * would index, including key and scatter pseudo properties.
+	 */
+	private static List<Value<?>> indexedValues(Entity entity, String property) {
+		List<Value<?>> values = new ArrayList<>();
+		if (KeyRange.KEY_PROPERTY.equals(property)) {
+			values.add(KeyValue.of(entity.getKey()));
+			return values;
+		}
+		if (KeyRangePartitioner.SCATTER_PROPERTY.equals(property)) {
+			values.add(LongValue.of(scatter(entity.getKey())));
+			return values;
+		}
+		if (!entity.contains(property))
+			return values;
+		Value<?> value = entity.getValue(property);
+		if (value instanceof ListValue) {
+			for (Value<?> element : ((ListValue) value).get()) {
+				if (!element.excludeFromIndexes())
+					values.add(element);
+			}
+		} else if (!value.excludeFromIndexes()) {
+			values.add(value);
+		}
+		return values;
+	}
+
+	private static long scatter(Key key) {
+		long hash = key.hashCode() * 0x9e3779b97f4a7c15L;
+		return hash ^ (hash >>> 32);
+	}
+
+	private static boolean isAncestor(Key ancestor, Key key) {
+		if (!ancestor.getNamespace().equals(key.getNamespace()))
+			return false;
+		List<PathElement> ancestorPath = path(ancestor);
+		List<PathElement> keyPath = path(key);
+		return keyPath.size() >= ancestorPath.size() && keyPath.subList(0, ancestorPath.size()).equals(ancestorPath);
+	}
+
+	private static List<PathElement> path(Key key) {
+		List<PathElement> path = new ArrayList<>(key.getAncestors());
+		path.add(key.hasId() ? PathElement.of(key.getKind(), key.getId())
+				: PathElement.of(key.getKind(), key.getName()));
+		return path;
+	}
+}
@@ -0,0 +1,114 @@
+package com.db.cloud.testing;
+
+import java.util.Comparator;
+
+import com.db.cloud.scan.KeyRangePartitioner;
+import com.google.cloud.Timestamp;
+import com.google.cloud.datastore.BlobValue;
+import com.google.cloud.datastore.BooleanValue;
+import com.google.cloud.datastore.DoubleValue;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyValue;
+import com.google.cloud.datastore.LatLng;
+import com.google.cloud.datastore.LatLngValue;
+import com.google.cloud.datastore.LongValue;
+import com.google.cloud.datastore.NullValue;
+import com.google.cloud.datastore.StringValue;
+import com.google.cloud.datastore.TimestampValue;
+import com.google.cloud.datastore.Value;
+import com.google.protobuf.ByteString;
+
+/**
+ * This utility class ValueOrder orders data store values as data store
+ * indexes do : by type first, null, integers and timestamps, booleans, byte
+ * strings, strings, doubles, geo points and keys, then by value within type.
+ * Entity values are not indexed and compare equal.
+ */
+final class ValueOrder {
+
+	/**
+	 * This KEY_ORDER comparator orders keys by namespace and then in data store
+	 * key order.
+	 */
+	static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::getNamespace)
+			.thenComparing(KeyRangePartitioner.KEY_ORDER);
+
+	private ValueOrder() {
+	}
+
+	/**
+	 * This rank method returns position of value type in index order.
+	 */
+	static int rank(Value<?> value) {
+		if (value instanceof NullValue)
+			return 0;
+		if (value instanceof LongValue || value instanceof TimestampValue)
+			return 1;
+		if (value instanceof BooleanValue)
+			return 2;
+		if (value instanceof BlobValue)
+			return 3;
+		if (value instanceof StringValue)
+			return 4;
+		if (value instanceof DoubleValue)
+			return 5;
+		if (value instanceof LatLngValue)
+			return 6;
+		if (value instanceof KeyValue)
+			return 7;
+		return 8;
+	}
+
+	/**
+	 * This compare method compares values in index order.
+	 */
+	static int compare(Value<?> first, Value<?> second) {
+		int rank = rank(first);
+		int result = Integer.compare(rank, rank(second));
+		if (result != 0)
+			return result;
+		switch (rank) {
+		case 1:
+			return Long.compare(integer(first), integer(second));
+		case 2:
+			return Boolean.compare(((BooleanValue) first).get(), ((BooleanValue) second).get());
+		case 3:
+			return compareBytes(ByteString.copyFrom(((BlobValue) first).get().toByteArray()),
+					ByteString.copyFrom(((BlobValue) second).get().toByteArray()));
+		case 4:
+			return compareBytes(ByteString.copyFromUtf8(((StringValue) first).get()),
+					ByteString.copyFromUtf8(((StringValue) second).get()));
+		case 5:
+			return Double.compare(((DoubleValue) first).get(), ((DoubleValue) second).get());
+		case 6:
+			LatLng firstPoint = ((LatLngValue) first).get();
+			LatLng secondPoint = ((LatLngValue) second).get();
+			result = Double.compare(firstPoint.getLatitude(), secondPoint.getLatitude());
+			return result != 0 ? result : Double.compare(firstPoint.getLongitude(), secondPoint.getLongitude());
+		case 7:
+			return KEY_ORDER.compare(((KeyValue) first).get(), ((KeyValue) second).get());
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * This integer method returns integer value, timestamp as microseconds.
+	 */
+	private static long integer(Value<?> value) {
+		if (value instanceof LongValue)
+			return ((LongValue) value).get();
+		Timestamp timestamp = ((TimestampValue) value).get();
+		return timestamp.getSeconds() * 1000000L + timestamp.getNanos() / 1000;
+	}
+
+	private static int compareBytes(ByteString first, ByteString second) {
+		int length = Math.min(first.size(), second.size());
+		for (int i = 0; i < length; i++) {
+			int result = Integer.compare(first.byteAt(i) & 0xff, second.byteAt(i) & 0xff);
+			if (result != 0)
+				return result;
+		}
+		return Integer.compare(first.size(), second.size());
+	}
+}
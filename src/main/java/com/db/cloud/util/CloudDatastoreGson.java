@@ -0,0 +1,140 @@
+package com.db.cloud.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * This utility class CloudDatastoreGson holds one thread safe Gson
+ * configuration shared by all DAOs and entity mappers. Json property codecs
+ * resolve their TypeAdapter once and convert through it, so no TypeToken is
+ * built and no adapter is looked up per entity. Conversion produces same json
+ * as Gson toJson and fromJson methods.
+ */
+public final class CloudDatastoreGson {
+
+	/**
+	 * This gson instance is shared by all json property codecs.
+	 */
+	private static final Gson GSON = new Gson();
+
+	/**
+	 * This runtimeAdapters cache holds adapter per runtime class of converted
+	 * value.
+	 */
+	private static final ClassValue<TypeAdapter<Object>> RUNTIME_ADAPTERS = new ClassValue<TypeAdapter<Object>>() {
+		@Override
+		protected TypeAdapter<Object> computeValue(Class<?> type) {
+			return adapterFor(type);
+		}
+	};
+
+	private CloudDatastoreGson() {
+	}
+
+	/**
+	 * This getGson method returns shared gson instance.
+	 *
+	 * @return Gson
+	 */
+	public static Gson getGson() {
+		return GSON;
+	}
+
+	/**
+	 * This adapterFor method returns gson adapter of passed type. Callers are
+	 * expected to resolve adapter once and keep it.
+	 *
+	 * @param Type type - Java type converted by adapter.
+	 * @return TypeAdapter<Object>
+	 */
+	@SuppressWarnings("unchecked")
+	public static TypeAdapter<Object> adapterFor(Type type) {
+		return (TypeAdapter<Object>) GSON.getAdapter(TypeToken.get(type));
+	}
+
+	/**
+	 * This runtimeAdapter method returns cached gson adapter of passed runtime
+	 * class.
+	 *
+	 * @param Class<?> type - Runtime class of converted value.
+	 * @return TypeAdapter<Object>
+	 */
+	public static TypeAdapter<Object> runtimeAdapter(Class<?> type) {
+		return RUNTIME_ADAPTERS.get(type);
+	}
+
+	/**
+	 * This toJson method converts value in to json string through passed
+	 * adapter.
+	 *
+	 * @param        TypeAdapter<Object> adapter - Resolved adapter.
+	 * @param Object value - Value to convert.
+	 * @return String - Json string.
+	 */
+	public static String toJson(TypeAdapter<Object> adapter, Object value) {
+		StringWriter out = new StringWriter();
+		try {
+			JsonWriter writer = GSON.newJsonWriter(out);
+			writer.setLenient(true);
+			adapter.write(writer, value);
+			writer.flush();
+		} catch (IOException e) {
+			throw new JsonIOException(e);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * This toJson method converts value in to json string by its runtime class.
+	 *
+	 * @param Object value - Value to convert.
+	 * @return String - Json string.
+	 */
+	public static String toJson(Object value) {
+		if (value == null)
+			return GSON.toJson(null);
+		return toJson(runtimeAdapter(value.getClass()), value);
+	}
+
+	/**
+	 * This fromJson method converts json string in to object through passed
+	 * adapter. Empty string is converted in to null.
+	 *
+	 * @param        TypeAdapter<?> adapter - Resolved adapter.
+	 * @param String json - Json string.
+	 * @return Object - Converted object.
+	 */
+	public static Object fromJson(TypeAdapter<?> adapter, String json) {
+		if (json == null)
+			return null;
+		JsonReader reader = GSON.newJsonReader(new StringReader(json));
+		reader.setLenient(true);
+		try {
+			try {
+				reader.peek();
+			} catch (EOFException e) {
+				return null;
+			}
+			Object result = adapter.read(reader);
+			if (reader.peek() != JsonToken.END_DOCUMENT)
+				throw new JsonIOException("JSON document was not fully consumed.");
+			return result;
+		} catch (IllegalStateException e) {
+			throw new JsonSyntaxException(e);
+		} catch (IOException e) {
+			throw new JsonSyntaxException(e);
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.db.cloud.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.db.cloud.converter.CloudDatastoreTypeConverter;
+import com.db.cloud.marker.MarkerModel;
+import com.db.cloud.util.PropertyMapping.ReadCodec;
+import com.db.cloud.util.PropertyMapping.WriteCodec;
+import com.google.cloud.datastore.BaseEntity;
+import com.google.cloud.datastore.NullValue;
+import com.google.cloud.datastore.ProjectionEntity;
+import com.google.cloud.datastore.Value;
+import com.google.gson.TypeAdapter;
+
+/**
+ * This class EntityValueCodec converts single data store entity value in to
+ * model property value and vice versa as per property codec. It is used by
+ * CloudDatastoreRefUtil and by entity mappers generated at compile time, so
+ * both produce same data store representation. Json columns are converted
+ * through shared gson configuration of CloudDatastoreGson.
+ */
+public class EntityValueCodec {
+
+	/**
+	 * This converterUtil instance used for converting different java and cloud
+	 * data store data types
+	 */
+	private final CloudDatastoreTypeConverter converterUtil;
+
+	/**
+	 * This adapter converts list of custom objects in to json string.
+	 */
+	private static final TypeAdapter<Object> MARKER_MODEL_LIST_ADAPTER = CloudDatastoreGson
+			.adapterFor(PropertyMapping.MARKER_MODEL_LIST_TYPE);
+
+	/**
+	 * This EntityValueCodec constructor initialize instance variable.
+	 */
+	public EntityValueCodec() {
+		this.converterUtil = new CloudDatastoreTypeConverter();
+	}
+
+	/**
+	 * This read method gets cloud data store entity column value converted as
+	 * per passed codecs. Projection entity holds timestamp as microseconds and
+	 * single element of list property, both are converted to model type.
+	 *
+	 * @param        BaseEntity<?> entity - Cloud data store entity.
+	 * @param String dataStoreColumName - Cloud data store column name.
+	 * @param        ReadCodec readCodec - Codec of model property type.
+	 * @param        ReadCodec jsonReadCodec - Codec for json string column or
+	 *               null.
+	 * @param        TypeAdapter<?> jsonReadAdapter - Resolved adapter of json
+	 *               conversion target type or null.
+	 * @param String typeName - Model property type name used in error message.
+	 * @return Object - returns model property value or null.
+	 */
+	public Object read(BaseEntity<?> entity, String dataStoreColumName, ReadCodec readCodec,
+			ReadCodec jsonReadCodec, TypeAdapter<?> jsonReadAdapter, String typeName) {
+		if (!entity.contains(dataStoreColumName))
+			return null;
+		Value<?> dataStoreValue = entity.getValue(dataStoreColumName);
+		if (dataStoreValue instanceof NullValue)
+			return null;
+		Object result = null;
+		switch (dataStoreValue.getType()) {
+		case LONG:
+			if (readCodec == ReadCodec.LONG)
+				result = dataStoreValue.get();
+			else if (readCodec == ReadCodec.INTEGER)
+				result = converterUtil.longToIntegerObject((Long) dataStoreValue.get());
+			else if (readCodec == ReadCodec.DATE && entity instanceof ProjectionEntity)
+				result = converterUtil.cloudTimestampToJavaDate(entity.getTimestamp(dataStoreColumName));
+			else if (readCodec == ReadCodec.LONG_LIST && entity instanceof ProjectionEntity)
+				result = singletonList(dataStoreValue.get());
+			break;
+		case DOUBLE:
+			if (readCodec == ReadCodec.DOUBLE)
+				result = dataStoreValue.get();
+			break;
+		case STRING:
+			if (readCodec == ReadCodec.STRING)
+				result = dataStoreValue.get();
+			else if (jsonReadCodec != null)
+				result = jsonReadAdapter != null
+						? CloudDatastoreGson.fromJson(jsonReadAdapter, (String) dataStoreValue.get())
+						: null;
+			else if (readCodec == ReadCodec.STRING_LIST && entity instanceof ProjectionEntity)
+				result = singletonList(dataStoreValue.get());
+			else
+				System.err.println("STRING Error : New Type " + typeName);
+			break;
+		case LIST:
+			if (readCodec == ReadCodec.STRING_LIST)
+				result = converterUtil.<String>cloudListToJavaList(entity.getList(dataStoreColumName));
+			else if (readCodec == ReadCodec.LONG_LIST)
+				result = converterUtil.<Long>cloudListToJavaList(entity.getList(dataStoreColumName));
+			break;
+		case NULL:
+			result = null;
+			break;
+		case BOOLEAN:
+			if (readCodec == ReadCodec.BOOLEAN)
+				result = dataStoreValue.get();
+			break;
+		case TIMESTAMP:
+			if (readCodec == ReadCodec.DATE)
+				result = converterUtil.cloudTimestampToJavaDate(entity.getTimestamp(dataStoreColumName));
+			break;
+		default:
+			System.out.println("IN SWITCH DEFAULT Error : New Type " + typeName + ", " + dataStoreValue.getType());
+		}
+		return result;
+	}
+
+	/**
+	 * This write method sets model property value in cloud data store entity
+	 * builder as per passed codec. Null value is stored as null column.
+	 *
+	 * @param        BaseEntity.Builder builder - This Entity builder is used to set
+	 *               values in data store.
+	 * @param String name - Name of the data store table column name.
+	 * @param        WriteCodec writeCodec - Codec of model property.
+	 * @param Object value - Sets value in Entity buider.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void write(BaseEntity.Builder builder, String name, WriteCodec writeCodec, Object value) {
+		if (value == null) {
+			builder.setNull(name);
+			return;
+		}
+		switch (writeCodec) {
+		case STRING:
+			builder.set(name, (java.lang.String) value);
+			break;
+		case DATE:
+			builder.set(name, converterUtil.javaDateToCloudTimestamp((java.util.Date) value));
+			break;
+		case LONG:
+			builder.set(name, (java.lang.Long) value);
+			break;
+		case INTEGER:
+			builder.set(name, converterUtil.integerToLongObject((java.lang.Integer) value));
+			break;
+		case BOOLEAN:
+			builder.set(name, (java.lang.Boolean) value);
+			break;
+		case DOUBLE:
+			builder.set(name, (java.lang.Double) value);
+			break;
+		case JSON:
+			builder.set(name, CloudDatastoreGson.toJson(value));
+			break;
+		case JSON_MARKER_LIST:
+			builder.set(name, CloudDatastoreGson.toJson(MARKER_MODEL_LIST_ADAPTER, value));
+			break;
+		case STRING_LIST:
+			setBuilderList(builder, name, converterUtil.<String>javaCollectionToCloudList((Collection<String>) value));
+			break;
+		case LONG_LIST:
+			setBuilderList(builder, name, converterUtil.<Long>javaCollectionToCloudList((Collection<Long>) value));
+			break;
+		case JSON_MARKER_OBJECT:
+			if (value instanceof MarkerModel)
+				builder.set(name, CloudDatastoreGson.toJson(value));
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * This singletonList method returns modifiable list of one element.
+	 */
+	private List<Object> singletonList(Object element) {
+		List<Object> list = new ArrayList<>(1);
+		list.add(element);
+		return list;
+	}
+
+	/**
+	 * This setBuilderList method sets converted data store list in builder or
+	 * null if list is empty.
+	 *
+	 * @param        BaseEntity.Builder builder - Datastore entity builder objects
+	 *               for setting values in entity.
+	 * @param String name - Datastore entity column name which needs to be set.
+	 * @param        List<? extends Value<?>> cloudList - Converted data store
+	 *               list.
+	 */
+	@SuppressWarnings("rawtypes")
+	private void setBuilderList(BaseEntity.Builder builder, String name, List<? extends Value<?>> cloudList) {
+		if (cloudList == null)
+			builder.setNull(name);
+		else
+			builder.set(name, cloudList);
+	}
+}
@@ -0,0 +1,100 @@
+package com.db.cloud.util;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.google.cloud.StringEnumValue;
+import com.google.cloud.datastore.StructuredQuery.CompositeFilter;
+import com.google.cloud.datastore.StructuredQuery.Filter;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+import com.google.cloud.datastore.Value;
+
+/**
+ * This utility class FilterIntrospector reads parts of query filters which
+ * data store client keeps private : sub filters of CompositeFilter and
+ * property, operator and value of PropertyFilter. Fields are looked up once by
+ * reflection.
+ */
+public final class FilterIntrospector {
+
+	private static final Field COMPOSITE_FILTERS = field(CompositeFilter.class, "filters");
+	private static final Field COMPOSITE_OPERATOR = field(CompositeFilter.class, "operator");
+	private static final Field PROPERTY = field(PropertyFilter.class, "property");
+	private static final Field PROPERTY_OPERATOR = field(PropertyFilter.class, "operator");
+	private static final Field PROPERTY_VALUE = field(PropertyFilter.class, "value");
+
+	private FilterIntrospector() {
+	}
+
+	/**
+	 * This getFilters method returns sub filters of composite filter.
+	 *
+	 * @param CompositeFilter filter - Composite filter.
+	 * @return List<Filter>
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<Filter> getFilters(CompositeFilter filter) {
+		return new ArrayList<>((List<Filter>) read(COMPOSITE_FILTERS, filter));
+	}
+
+	/**
+	 * This getOperator method returns operator of composite filter, like AND.
+	 *
+	 * @param CompositeFilter filter - Composite filter.
+	 * @return String
+	 */
+	public static String getOperator(CompositeFilter filter) {
+		return ((StringEnumValue) read(COMPOSITE_OPERATOR, filter)).name();
+	}
+
+	/**
+	 * This getProperty method returns property name of property filter.
+	 *
+	 * @param PropertyFilter filter - Property filter.
+	 * @return String
+	 */
+	public static String getProperty(PropertyFilter filter) {
+		return (String) read(PROPERTY, filter);
+	}
+
+	/**
+	 * This getOperator method returns operator of property filter, like EQUAL,
+	 * LESS_THAN or HAS_ANCESTOR.
+	 *
+	 * @param PropertyFilter filter - Property filter.
+	 * @return String
+	 */
+	public static String getOperator(PropertyFilter filter) {
+		return ((StringEnumValue) read(PROPERTY_OPERATOR, filter)).name();
+	}
+
+	/**
+	 * This getValue method returns value compared by property filter.
+	 *
+	 * @param PropertyFilter filter - Property filter.
+	 * @return Value<?>
+	 */
+	public static Value<?> getValue(PropertyFilter filter) {
+		return (Value<?>) read(PROPERTY_VALUE, filter);
+	}
+
+	private static Field field(Class<?> type, String name) {
+		try {
+			Field field = type.getDeclaredField(name);
+			field.setAccessible(true);
+			return field;
+		} catch (NoSuchFieldException | RuntimeException e) {
+			throw new CloudDatastoreDAOException("FILTER FIELD NOT ACCESSIBLE : " + type.getName() + "." + name, e);
+		}
+	}
+
+	private static Object read(Field field, Filter filter) {
+		try {
+			return field.get(filter);
+		} catch (IllegalAccessException e) {
+			throw new CloudDatastoreDAOException("FILTER FIELD NOT ACCESSIBLE : " + field, e);
+		}
+	}
+}
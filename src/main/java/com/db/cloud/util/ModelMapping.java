@@ -0,0 +1,163 @@
+package com.db.cloud.util;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+
+/**
+ * This class ModelMapping is mapping plan of one model class. It is computed
+ * once per model class and cached in ClassValue, so converting entity to model
+ * and model to entity becomes loop over precomputed property slots.
+ */
+public final class ModelMapping {
+
+	/**
+	 * This mappings cache holds mapping plan per model class.
+	 */
+	private static final ClassValue<ModelMapping> MAPPINGS = new ClassValue<ModelMapping>() {
+		@Override
+		protected ModelMapping computeValue(Class<?> modelClassType) {
+			return new ModelMapping(modelClassType);
+		}
+	};
+
+	private final Class<?> modelClassType;
+	private final PropertyMapping[] properties;
+	private final PropertyMapping[] readProperties;
+	private final PropertyMapping[] writeProperties;
+	private final Method idGetter;
+	private final Function<Object, Object> idAccessor;
+	private final Supplier<Object> instantiator;
+
+	private ModelMapping(Class<?> modelClassType) {
+		this.modelClassType = modelClassType;
+		BeanInfo info;
+		try {
+			info = Introspector.getBeanInfo(modelClassType, Object.class);
+		} catch (IntrospectionException e) {
+			throw new CloudDatastoreDAOException(e.getMessage(), e);
+		}
+		List<PropertyMapping> all = new ArrayList<>();
+		List<PropertyMapping> reads = new ArrayList<>();
+		List<PropertyMapping> writes = new ArrayList<>();
+		for (PropertyDescriptor pd : info.getPropertyDescriptors()) {
+			if (pd.getName().equals("class"))
+				continue;
+			PropertyMapping property = new PropertyMapping(pd);
+			all.add(property);
+			if (property.isReadable())
+				reads.add(property);
+			if (property.isWritable())
+				writes.add(property);
+		}
+		this.properties = all.toArray(new PropertyMapping[all.size()]);
+		this.readProperties = reads.toArray(new PropertyMapping[reads.size()]);
+		this.writeProperties = writes.toArray(new PropertyMapping[writes.size()]);
+
+		Method getId = null;
+		try {
+			getId = modelClassType.getMethod("getId");
+		} catch (NoSuchMethodException | SecurityException e) {
+			getId = null;
+		}
+		this.idGetter = getId;
+		this.idAccessor = getId != null ? PropertyAccessors.getter(getId) : null;
+		this.instantiator = PropertyAccessors.instantiator(modelClassType);
+	}
+
+	/**
+	 * This of method returns cached mapping plan of passed model class,
+	 * computing it on first use.
+	 *
+	 * @param Class<?> modelClassType - Model class type.
+	 * @return ModelMapping - Mapping plan of model class.
+	 */
+	public static ModelMapping of(Class<?> modelClassType) {
+		return MAPPINGS.get(modelClassType);
+	}
+
+	public Class<?> getModelClassType() {
+		return modelClassType;
+	}
+
+	/**
+	 * This getProperties method returns all model properties in bean
+	 * introspection order.
+	 *
+	 * @return PropertyMapping[]
+	 */
+	public PropertyMapping[] getProperties() {
+		return properties;
+	}
+
+	/**
+	 * This getReadProperties method returns properties which are set from data
+	 * store entity.
+	 *
+	 * @return PropertyMapping[]
+	 */
+	public PropertyMapping[] getReadProperties() {
+		return readProperties;
+	}
+
+	/**
+	 * This getWriteProperties method returns properties which are written in to
+	 * data store entity.
+	 *
+	 * @return PropertyMapping[]
+	 */
+	public PropertyMapping[] getWriteProperties() {
+		return writeProperties;
+	}
+
+	/**
+	 * This getIdGetter method returns public getId method of model or null if
+	 * model has no such method.
+	 *
+	 * @return Method
+	 */
+	public Method getIdGetter() {
+		return idGetter;
+	}
+
+	/**
+	 * This getId method reads key of passed model through its getId method.
+	 *
+	 * @param Object bean - Model object.
+	 * @return Object - Key value or null if model has no getId method.
+	 */
+	public Object getId(Object bean) {
+		return idAccessor != null ? idAccessor.apply(bean) : null;
+	}
+
+	/**
+	 * This newInstance method creates empty model object.
+	 *
+	 * @return Object - New model object.
+	 */
+	public Object newInstance() {
+		return instantiator.get();
+	}
+
+	/**
+	 * This findProperty method returns mapping of passed property name or null.
+	 *
+	 * @param String name - Model property name.
+	 * @return PropertyMapping
+	 */
+	public PropertyMapping findProperty(String name) {
+		for (PropertyMapping property : properties) {
+			if (property.getName().equals(name))
+				return property;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,172 @@
+package com.db.cloud.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.db.cloud.exception.CloudDatastoreDAOException;
+
+/**
+ * This utility class PropertyAccessors binds model getters, setters and no
+ * argument constructor to functional accessors generated by LambdaMetafactory,
+ * so JIT can inline property reads and writes. When accessor can't be generated
+ * (non public model, model not visible from this class loader etc.) it falls
+ * back to reflection.
+ */
+final class PropertyAccessors {
+
+	private static final MethodType GETTER_FACTORY = MethodType.methodType(Function.class);
+	private static final MethodType GETTER_ERASED = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_FACTORY = MethodType.methodType(BiConsumer.class);
+	private static final MethodType SETTER_ERASED = MethodType.methodType(void.class, Object.class, Object.class);
+	private static final MethodType SUPPLIER_FACTORY = MethodType.methodType(Supplier.class);
+	private static final MethodType SUPPLIER_ERASED = MethodType.methodType(Object.class);
+
+	private PropertyAccessors() {
+	}
+
+	/**
+	 * This getter method returns functional accessor for passed getter method.
+	 *
+	 * @param Method getter - Model getter method.
+	 * @return Function<Object, Object> - Accessor reading property value.
+	 */
+	@SuppressWarnings("unchecked")
+	static Function<Object, Object> getter(Method getter) {
+		if (canGenerate(getter.getDeclaringClass(), getter.getModifiers())) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodHandle handle = lookup.unreflect(getter);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "apply", GETTER_FACTORY, GETTER_ERASED, handle,
+						MethodType.methodType(box(getter.getReturnType()), getter.getDeclaringClass()));
+				return (Function<Object, Object>) site.getTarget().invoke();
+			} catch (Throwable e) {
+				// fall back to reflection
+			}
+		}
+		return bean -> invoke(getter, bean);
+	}
+
+	/**
+	 * This setter method returns functional accessor for passed setter method.
+	 *
+	 * @param Method setter - Model setter method.
+	 * @return BiConsumer<Object, Object> - Accessor writing property value.
+	 */
+	@SuppressWarnings("unchecked")
+	static BiConsumer<Object, Object> setter(Method setter) {
+		if (canGenerate(setter.getDeclaringClass(), setter.getModifiers()) && setter.getReturnType() == void.class) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodHandle handle = lookup.unreflect(setter);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "accept", SETTER_FACTORY, SETTER_ERASED, handle,
+						MethodType.methodType(void.class, setter.getDeclaringClass(),
+								box(setter.getParameterTypes()[0])));
+				return (BiConsumer<Object, Object>) site.getTarget().invoke();
+			} catch (Throwable e) {
+				// fall back to reflection
+			}
+		}
+		return (bean, value) -> invoke(setter, bean, value);
+	}
+
+	/**
+	 * This instantiator method returns functional accessor creating new model
+	 * object through public no argument constructor.
+	 *
+	 * @param Class<?> modelClassType - Model class type.
+	 * @return Supplier<Object> - Model factory.
+	 */
+	@SuppressWarnings("unchecked")
+	static Supplier<Object> instantiator(Class<?> modelClassType) {
+		Constructor<?> constructor;
+		try {
+			constructor = modelClassType.getConstructor();
+		} catch (NoSuchMethodException | SecurityException e) {
+			return () -> {
+				throw new CloudDatastoreDAOException(modelClassType.getName() + " has no public no argument constructor",
+						e);
+			};
+		}
+		if (!Modifier.isAbstract(modelClassType.getModifiers())
+				&& canGenerate(modelClassType, constructor.getModifiers())) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodHandle handle = lookup.unreflectConstructor(constructor);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_FACTORY, SUPPLIER_ERASED, handle,
+						MethodType.methodType(modelClassType));
+				return (Supplier<Object>) site.getTarget().invoke();
+			} catch (Throwable e) {
+				// fall back to reflection
+			}
+		}
+		return () -> {
+			try {
+				return constructor.newInstance();
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+				throw new CloudDatastoreDAOException(e.getMessage(), e);
+			}
+		};
+	}
+
+	/**
+	 * This canGenerate method checks that generated accessor in this package can
+	 * link against passed model class.
+	 */
+	private static boolean canGenerate(Class<?> declaringClass, int memberModifiers) {
+		if (!Modifier.isPublic(memberModifiers))
+			return false;
+		for (Class<?> type = declaringClass; type != null; type = type.getEnclosingClass()) {
+			if (!Modifier.isPublic(type.getModifiers()))
+				return false;
+		}
+		try {
+			return Class.forName(declaringClass.getName(), false,
+					PropertyAccessors.class.getClassLoader()) == declaringClass;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static Object invoke(Method method, Object bean, Object... args) {
+		try {
+			return method.invoke(bean, args);
+		} catch (IllegalAccessException e) {
+			throw new CloudDatastoreDAOException(e.getMessage(), e);
+		} catch (InvocationTargetException e) {
+			throw new CloudDatastoreDAOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(),
+					e.getCause() != null ? e.getCause() : e);
+		}
+	}
+
+	private static Class<?> box(Class<?> type) {
+		if (!type.isPrimitive())
+			return type;
+		if (type == int.class)
+			return Integer.class;
+		if (type == long.class)
+			return Long.class;
+		if (type == double.class)
+			return Double.class;
+		if (type == boolean.class)
+			return Boolean.class;
+		if (type == float.class)
+			return Float.class;
+		if (type == short.class)
+			return Short.class;
+		if (type == byte.class)
+			return Byte.class;
+		if (type == char.class)
+			return Character.class;
+		return Void.class;
+	}
+}
@@ -0,0 +1,297 @@
+package com.db.cloud.util;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.db.cloud.constant.JavaClassType;
+import com.db.cloud.custom.annotation.CloudInsertIgnore;
+import com.db.cloud.custom.annotation.JsonStringToObject;
+import com.db.cloud.custom.annotation.JsonToListCustomObject;
+import com.db.cloud.custom.annotation.JsonToListObject;
+import com.db.cloud.custom.annotation.JsonToMapObject;
+import com.db.cloud.custom.annotation.ListCustomObjectToJson;
+import com.db.cloud.custom.annotation.ListObjectToJson;
+import com.db.cloud.custom.annotation.MapObjectToJson;
+import com.db.cloud.custom.annotation.ObjectToJsonString;
+import com.db.cloud.marker.MarkerModel;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * This class PropertyMapping holds precomputed mapping slot of one model
+ * property. Codec chosen from property type and custom annotations, accessors
+ * generic types and json adapters are resolved once when model mapping is built, so entity
+ * conversion does not repeat reflection lookups. Getter and setter are bound to
+ * generated functional accessors, see PropertyAccessors.
+ */
+public final class PropertyMapping {
+
+	/**
+	 * This ReadCodec describes how data store value is converted in to model
+	 * property value.
+	 */
+	public enum ReadCodec {
+		ID, LONG, INTEGER, DOUBLE, STRING, BOOLEAN, DATE, STRING_LIST, LONG_LIST, VALUE_LIST, JSON_LIST, JSON_OBJECT,
+		JSON_MAP, NONE
+	}
+
+	/**
+	 * This WriteCodec describes how model property value is converted in to data
+	 * store value.
+	 */
+	public enum WriteCodec {
+		STRING, DATE, LONG, INTEGER, BOOLEAN, DOUBLE, JSON, JSON_MARKER_LIST, STRING_LIST, LONG_LIST, JSON_MARKER_OBJECT,
+		NONE
+	}
+
+	/**
+	 * This type is used for converting list of custom objects in to json string.
+	 */
+	static final Type MARKER_MODEL_LIST_TYPE = new TypeToken<List<MarkerModel>>() {
+	}.getType();
+
+	private final String name;
+	private final Class<?> type;
+	private final Method getter;
+	private final Method setter;
+	private final Function<Object, Object> getterAccessor;
+	private final BiConsumer<Object, Object> setterAccessor;
+	private final boolean id;
+	private final boolean readable;
+	private final boolean writable;
+	private final ReadCodec readCodec;
+	private final ReadCodec jsonReadCodec;
+	private final Type jsonReadType;
+	private final TypeAdapter<Object> jsonReadAdapter;
+	private final WriteCodec writeCodec;
+
+	/**
+	 * This PropertyMapping constructor resolves codecs and generic types of
+	 * passed property descriptor.
+	 *
+	 * @param PropertyDescriptor pd - Model property descriptor.
+	 */
+	PropertyMapping(PropertyDescriptor pd) {
+		this.name = pd.getName();
+		this.type = pd.getPropertyType();
+		this.getter = pd.getReadMethod();
+		this.setter = pd.getWriteMethod();
+		this.getterAccessor = getter != null ? PropertyAccessors.getter(getter) : null;
+		this.setterAccessor = setter != null ? PropertyAccessors.setter(setter) : null;
+		this.id = "id".equals(name);
+		this.readable = setter != null && !isAnnotated(setter, CloudInsertIgnore.class);
+		this.writable = getter != null && !isAnnotated(getter, CloudInsertIgnore.class);
+
+		String typeName = type != null ? type.getName() : "";
+		this.readCodec = resolveReadCodec(typeName);
+		this.jsonReadCodec = resolveJsonReadCodec(typeName);
+		this.jsonReadType = resolveJsonReadType();
+		this.jsonReadAdapter = jsonReadType != null ? CloudDatastoreGson.adapterFor(jsonReadType) : null;
+		this.writeCodec = resolveWriteCodec(typeName);
+	}
+
+	private ReadCodec resolveReadCodec(String typeName) {
+		if (id)
+			return ReadCodec.ID;
+		switch (typeName) {
+		case JavaClassType.LONG_TYPE:
+			return ReadCodec.LONG;
+		case JavaClassType.INTEGER_TYPE:
+			return ReadCodec.INTEGER;
+		case JavaClassType.DOUBLE_TYPE:
+			return ReadCodec.DOUBLE;
+		case JavaClassType.STRING_TYPE:
+			return ReadCodec.STRING;
+		case JavaClassType.BOOLEAN_TYPE:
+			return ReadCodec.BOOLEAN;
+		case JavaClassType.JAVA_UTIL_DATE:
+			return ReadCodec.DATE;
+		case JavaClassType.LIST_TYPE:
+		case JavaClassType.COLLECTION_TYPE:
+			Class<?> element = setter != null ? firstTypeArgument(setter.getGenericParameterTypes()) : null;
+			if (element != null && JavaClassType.STRING_TYPE.equals(element.getName()))
+				return ReadCodec.STRING_LIST;
+			if (element != null && JavaClassType.LONG_TYPE.equals(element.getName()))
+				return ReadCodec.LONG_LIST;
+			return ReadCodec.VALUE_LIST;
+		default:
+			return ReadCodec.NONE;
+		}
+	}
+
+	private ReadCodec resolveJsonReadCodec(String typeName) {
+		if (setter == null || JavaClassType.STRING_TYPE.equals(typeName))
+			return null;
+		if (isAnnotated(setter, JsonToListObject.class) || isAnnotated(setter, JsonToListCustomObject.class))
+			return ReadCodec.JSON_LIST;
+		if (isAnnotated(setter, JsonStringToObject.class))
+			return ReadCodec.JSON_OBJECT;
+		if (isAnnotated(setter, JsonToMapObject.class))
+			return ReadCodec.JSON_MAP;
+		return null;
+	}
+
+	private Type resolveJsonReadType() {
+		if (jsonReadCodec == null)
+			return null;
+		switch (jsonReadCodec) {
+		case JSON_LIST:
+			Class<?> element = firstTypeArgument(setter.getGenericParameterTypes());
+			return element != null ? TypeToken.getParameterized(List.class, element).getType() : null;
+		case JSON_OBJECT:
+			return type;
+		case JSON_MAP:
+			Type[] arguments = typeArguments(setter.getGenericParameterTypes());
+			if (arguments == null || arguments.length < 2)
+				return null;
+			if (arguments[0] == String.class && arguments[1] == String.class)
+				return new TypeToken<Map<String, String>>() {
+				}.getType();
+			if (arguments[0] == Long.class && arguments[1] == Long.class)
+				return new TypeToken<Map<Long, Long>>() {
+				}.getType();
+			return null;
+		default:
+			return null;
+		}
+	}
+
+	private WriteCodec resolveWriteCodec(String typeName) {
+		if (getter == null)
+			return WriteCodec.NONE;
+		switch (typeName) {
+		case JavaClassType.STRING_TYPE:
+			return WriteCodec.STRING;
+		case JavaClassType.JAVA_UTIL_DATE:
+			return WriteCodec.DATE;
+		case JavaClassType.LONG_TYPE:
+			return WriteCodec.LONG;
+		case JavaClassType.INTEGER_TYPE:
+			return WriteCodec.INTEGER;
+		case JavaClassType.BOOLEAN_TYPE:
+			return WriteCodec.BOOLEAN;
+		case JavaClassType.DOUBLE_TYPE:
+			return WriteCodec.DOUBLE;
+		case JavaClassType.COLLECTION_TYPE:
+		case JavaClassType.LIST_TYPE:
+			if (isAnnotated(getter, ListObjectToJson.class))
+				return WriteCodec.JSON;
+			if (isAnnotated(getter, ListCustomObjectToJson.class))
+				return WriteCodec.JSON_MARKER_LIST;
+			Class<?> element = firstTypeArgument(new Type[] { getter.getGenericReturnType() });
+			if (element != null && JavaClassType.STRING_TYPE.equals(element.getName()))
+				return WriteCodec.STRING_LIST;
+			if (element != null && JavaClassType.LONG_TYPE.equals(element.getName()))
+				return WriteCodec.LONG_LIST;
+			return WriteCodec.NONE;
+		case JavaClassType.MAP_TYPE:
+			if (isAnnotated(getter, MapObjectToJson.class))
+				return WriteCodec.JSON;
+		default:
+			if (isAnnotated(getter, ObjectToJsonString.class))
+				return WriteCodec.JSON_MARKER_OBJECT;
+			return WriteCodec.NONE;
+		}
+	}
+
+	private static boolean isAnnotated(Method method, Class<? extends Annotation> annotation) {
+		Annotation[] annotations = method.getAnnotationsByType(annotation);
+		return annotations != null && annotations.length > 0;
+	}
+
+	private static Type[] typeArguments(Type[] genericTypes) {
+		for (Type genericType : genericTypes) {
+			if (genericType instanceof ParameterizedType)
+				return ((ParameterizedType) genericType).getActualTypeArguments();
+		}
+		return null;
+	}
+
+	private static Class<?> firstTypeArgument(Type[] genericTypes) {
+		Type[] arguments = typeArguments(genericTypes);
+		if (arguments == null || arguments.length == 0 || !(arguments[arguments.length - 1] instanceof Class))
+			return null;
+		return (Class<?>) arguments[arguments.length - 1];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public Method getGetter() {
+		return getter;
+	}
+
+	public Method getSetter() {
+		return setter;
+	}
+
+	/**
+	 * This get method reads property value from passed model object.
+	 *
+	 * @param Object bean - Model object.
+	 * @return Object - Property value.
+	 */
+	public Object get(Object bean) {
+		return getterAccessor.apply(bean);
+	}
+
+	/**
+	 * This set method writes passed value in to model object property.
+	 *
+	 * @param Object bean - Model object.
+	 * @param Object value - Property value.
+	 */
+	public void set(Object bean, Object value) {
+		setterAccessor.accept(bean, value);
+	}
+
+	public boolean isId() {
+		return id;
+	}
+
+	public boolean isReadable() {
+		return readable;
+	}
+
+	public boolean isWritable() {
+		return writable;
+	}
+
+	public ReadCodec getReadCodec() {
+		return readCodec;
+	}
+
+	public ReadCodec getJsonReadCodec() {
+		return jsonReadCodec;
+	}
+
+	public Type getJsonReadType() {
+		return jsonReadType;
+	}
+
+	/**
+	 * This getJsonReadAdapter method returns gson adapter of json read type
+	 * resolved once for this property.
+	 *
+	 * @return TypeAdapter<Object>
+	 */
+	public TypeAdapter<Object> getJsonReadAdapter() {
+		return jsonReadAdapter;
+	}
+
+	public WriteCodec getWriteCodec() {
+		return writeCodec;
+	}
+}
@@ -0,0 +1,110 @@
+package com.db.cloud.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * This class EntityCacheTest checks load tokens, admission of new keys to full
+ * cache and hits from many threads.
+ */
+public class EntityCacheTest {
+
+	@Test
+	public void loadedValueAndMissingKeyAreCached() {
+		EntityCache cache = cache(10);
+		put(cache, 1L, "one");
+		put(cache, 2L, null);
+		assertEquals("one", cache.get(1L));
+		assertSame(EntityCache.ABSENT, cache.get(2L));
+		assertNull(cache.get(3L));
+		assertEquals(1, cache.stats().getNegativeHitCount());
+	}
+
+	@Test
+	public void invalidationAfterTokenDropsLoadedValue() {
+		EntityCache cache = cache(10);
+		long token = cache.loadToken(1L);
+		cache.invalidate(1L);
+		cache.put(1L, "stale", token);
+		assertNull(cache.get(1L));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void fullCacheEvictsUnreadEntryForMoreFrequentKey() {
+		EntityCache cache = cache(2);
+		put(cache, 1L, "one");
+		put(cache, 2L, "two");
+		cache.get(1L);
+		assertNull(cache.get(3L));
+		put(cache, 3L, "three");
+
+		assertEquals(2, cache.size());
+		assertEquals("one", cache.get(1L));
+		assertEquals("three", cache.get(3L));
+		assertNull(cache.get(2L));
+		assertEquals(1, cache.stats().getEvictionCount());
+	}
+
+	@Test
+	public void scannedKeyDoesNotReplacePopularEntries() {
+		EntityCache cache = cache(2);
+		put(cache, 1L, "one");
+		put(cache, 2L, "two");
+		for (int i = 0; i < 5; i++) {
+			cache.get(1L);
+			cache.get(2L);
+		}
+		assertNull(cache.get(3L));
+		put(cache, 3L, "three");
+
+		assertEquals(1, cache.stats().getRejectionCount());
+		assertEquals("one", cache.get(1L));
+		assertEquals("two", cache.get(2L));
+		assertEquals(2, cache.size());
+	}
+
+	@Test(timeout = 20000)
+	public void concurrentHitsAreAllCounted() throws Exception {
+		EntityCache cache = cache(100);
+		for (long id = 0; id < 100; id++) {
+			put(cache, id, "value-" + id);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> readers = new ArrayList<>();
+			for (int thread = 0; thread < 8; thread++) {
+				readers.add(executor.submit(() -> {
+					for (long i = 0; i < 10000; i++) {
+						assertEquals("value-" + i % 100, cache.get(i % 100));
+					}
+				}));
+			}
+			for (Future<?> reader : readers) {
+				reader.get(15, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(80000, cache.stats().getHitCount());
+		assertEquals(100, cache.size());
+	}
+
+	private static EntityCache cache(int maximumSize) {
+		return new EntityCache(EntityCacheConfig.defaults().setMaximumSize(maximumSize));
+	}
+
+	private static void put(EntityCache cache, Long id, Object value) {
+		cache.put(id, value, cache.loadToken(id));
+	}
+}
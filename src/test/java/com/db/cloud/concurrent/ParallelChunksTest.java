@@ -0,0 +1,119 @@
+package com.db.cloud.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class ParallelChunksTest checks ordering, failures and that callers
+ * running on saturated executor do not wait for helpers which never start.
+ */
+public class ParallelChunksTest {
+
+	private final ExecutorService executor = CloudDatastoreExecutors.newBoundedExecutor("parallel-chunks-test", 2,
+			64);
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void resultsAreInChunkOrder() {
+		List<Integer> results = ParallelChunks.invokeAll(chunks(50, 0), executor, 4);
+		assertEquals(50, results.size());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(Integer.valueOf(i), results.get(i));
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void callersOnSaturatedExecutorComplete() throws Exception {
+		// every thread of executor runs caller, so no helper can start
+		List<Future<List<Integer>>> callers = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			callers.add(executor.submit(() -> ParallelChunks.invokeAll(chunks(20, 2), executor, 8)));
+		}
+		for (Future<List<Integer>> caller : callers) {
+			assertEquals(20, caller.get(15, TimeUnit.SECONDS).size());
+		}
+	}
+
+	@Test
+	public void rejectingExecutorRunsChunksOnCaller() {
+		Executor rejecting = task -> {
+			throw new RejectedExecutionException("full");
+		};
+		assertEquals(10, ParallelChunks.invokeAll(chunks(10, 0), rejecting, 4).size());
+	}
+
+	@Test
+	public void firstFailureIsThrownAfterAllChunksRan() {
+		AtomicInteger ran = new AtomicInteger();
+		List<Supplier<Integer>> chunks = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			int index = i;
+			chunks.add(() -> {
+				ran.incrementAndGet();
+				if (index == 3 || index == 7)
+					throw new IllegalStateException("chunk " + index);
+				return index;
+			});
+		}
+		try {
+			ParallelChunks.invokeAll(chunks, executor, 4);
+			fail("chunk failure was not thrown");
+		} catch (IllegalStateException e) {
+			assertEquals("chunk 3", e.getMessage());
+		}
+		assertEquals(10, ran.get());
+	}
+
+	@Test(timeout = 10000)
+	public void errorOfHelperChunkIsThrown() {
+		List<Supplier<Integer>> chunks = chunks(10, 1);
+		chunks.set(9, () -> {
+			throw new AssertionError("chunk 9");
+		});
+		try {
+			ParallelChunks.invokeAll(chunks, executor, 4);
+			fail("chunk error was not thrown");
+		} catch (AssertionError e) {
+			assertEquals("chunk 9", e.getMessage());
+		}
+	}
+
+	private static List<Supplier<Integer>> chunks(int count, long sleepMillis) {
+		List<Supplier<Integer>> chunks = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			int index = i;
+			chunks.add(() -> {
+				sleep(sleepMillis);
+				return index;
+			});
+		}
+		return chunks;
+	}
+
+	private static void sleep(long millis) {
+		if (millis == 0)
+			return;
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.db.cloud.count;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.db.cloud.testing.InMemoryClientProvider;
+import com.db.cloud.testing.InMemoryDatastore;
+import com.db.cloud.testing.InMemoryDatastoreConfig;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.KeyFactory;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+
+/**
+ * This class EntityCounterTest checks exact count, which pages through
+ * batches of skipped results.
+ */
+public class EntityCounterTest {
+
+	private static final String KIND = "Item";
+
+	@Test
+	public void countAddsSkippedResultsOfEveryBatch() {
+		InMemoryClientProvider provider = provider(7, 50);
+		EntityCounter counter = new EntityCounter(provider, KIND);
+
+		assertEquals(50, counter.count(null));
+		// 50 entities skipped 7 per batch take 8 queries
+		assertEquals(8, provider.getInMemoryDatastore().getCallCount(InMemoryDatastoreConfig.Operation.QUERY));
+	}
+
+	@Test
+	public void runnerRunsEveryQuery() {
+		InMemoryClientProvider provider = provider(7, 50);
+		AtomicInteger runs = new AtomicInteger();
+		EntityCounter counter = new EntityCounter(provider, KIND, new EntityCounter.QueryRunner() {
+			@Override
+			public <E> QueryResults<E> run(Query<E> query) {
+				runs.incrementAndGet();
+				return provider.getDatastore().run(query);
+			}
+		});
+
+		assertEquals(50, counter.count(null));
+		assertEquals(8, runs.get());
+		// statistics query and exact count
+		assertEquals(50, counter.countApproximate());
+		assertEquals(17, runs.get());
+	}
+
+	@Test
+	public void countOfMultipleOfBatchSizeEndsAfterLastBatch() {
+		InMemoryClientProvider provider = provider(10, 30);
+		assertEquals(30, new EntityCounter(provider, KIND).count(null));
+	}
+
+	@Test
+	public void countAppliesFilters() {
+		InMemoryClientProvider provider = provider(4, 50);
+		EntityCounter counter = new EntityCounter(provider, KIND);
+
+		assertEquals(10, counter.count(PropertyFilter.eq("group", 3)));
+		assertEquals(5, counter.count(PropertyFilter.eq("group", 3), PropertyFilter.ge("id", 25)));
+	}
+
+	@Test
+	public void countOfEmptyKindIsZero() {
+		assertEquals(0, new EntityCounter(provider(5, 0), KIND).count(null));
+	}
+
+	@Test
+	public void countApproximateFallsBackToExactCountWithoutStatistics() {
+		assertEquals(12, new EntityCounter(provider(5, 12), KIND).countApproximate());
+	}
+
+	private static InMemoryClientProvider provider(int maxSkippedResults, int entities) {
+		InMemoryDatastore datastore = new InMemoryDatastore(
+				InMemoryDatastoreConfig.defaults().setMaxSkippedResults(maxSkippedResults));
+		KeyFactory keyFactory = datastore.newKeyFactory().setKind(KIND);
+		for (long id = 0; id < entities; id++) {
+			datastore.put(Entity.newBuilder(keyFactory.newKey(id + 1)).set("group", id % 5).set("id", id).build());
+		}
+		return new InMemoryClientProvider(datastore);
+	}
+}
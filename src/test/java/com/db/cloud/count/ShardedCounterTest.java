@@ -0,0 +1,55 @@
+package com.db.cloud.count;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.db.cloud.testing.InMemoryClientProvider;
+
+/**
+ * This class ShardedCounterTest checks summing of shards, fetching through
+ * passed fetcher and applying committed deltas to cached value.
+ */
+public class ShardedCounterTest {
+
+	private final InMemoryClientProvider provider = new InMemoryClientProvider();
+	private final AtomicInteger fetches = new AtomicInteger();
+	private final ShardedCounter counter = new ShardedCounter(provider, "orders",
+			ShardedCounterConfig.defaults().setShards(4).setCacheTtlMillis(60000), keys -> {
+				fetches.incrementAndGet();
+				return provider.getDatastore().fetch(keys);
+			});
+
+	@Test
+	public void deltaIsAppliedToValueReadBeforeTransaction() {
+		increment(3);
+		assertEquals(3, counter.get());
+		long start = System.nanoTime();
+		increment(2);
+		counter.committed(2, start);
+
+		assertEquals(5, counter.get());
+		assertEquals(1, fetches.get());
+	}
+
+	@Test
+	public void valueReadDuringTransactionIsDroppedNotCountedTwice() {
+		long start = System.nanoTime();
+		increment(2);
+		// value read after transaction started already holds its delta
+		assertEquals(2, counter.get());
+		counter.committed(2, start);
+
+		assertEquals(2, counter.get());
+		assertEquals(2, fetches.get());
+	}
+
+	private void increment(long delta) {
+		provider.getDatastore().runInTransaction(transaction -> {
+			counter.increment(transaction, delta);
+			return null;
+		});
+	}
+}
@@ -0,0 +1,52 @@
+package com.db.cloud.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.db.cloud.concurrent.CloudDatastoreExecutors;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.testing.InMemoryClientProvider;
+
+/**
+ * This class CloudDatastoreAsyncDAOImplTest checks asynchronous bulk
+ * operations which run on same executor as chunks of their DAO.
+ */
+public class CloudDatastoreAsyncDAOImplTest {
+
+	private final ExecutorService executor = CloudDatastoreExecutors.newBoundedExecutor("async-dao-test", 4, 256);
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test(timeout = 60000)
+	public void bulkUpsertsSaturatingSharedExecutorComplete() throws Exception {
+		TestItemDAO dao = new TestItemDAO(new InMemoryClientProvider(),
+				CloudDatastoreDAOOptions.defaults().setExecutor(executor).setMutationChunkSize(50).setParallelism(8));
+		CloudDatastoreAsyncDAOImpl<TestItem> asyncDao = new CloudDatastoreAsyncDAOImpl<>(dao, executor);
+
+		List<CompletableFuture<BulkResult>> results = new ArrayList<>();
+		for (int call = 0; call < 16; call++) {
+			TestItem[] items = new TestItem[500];
+			for (int i = 0; i < items.length; i++) {
+				items[i] = new TestItem("item-" + call + "-" + i, i);
+				items[i].setId(call * 1000L + i + 1);
+			}
+			results.add(asyncDao.bulkUpsertAsync(items));
+		}
+		for (CompletableFuture<BulkResult> result : results) {
+			BulkResult bulkResult = result.get(50, TimeUnit.SECONDS);
+			assertEquals(500, bulkResult.getSuccessCount());
+		}
+		assertEquals(16 * 500, dao.countEntities());
+	}
+}
@@ -0,0 +1,145 @@
+package com.db.cloud.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.db.cloud.count.ShardedCounterConfig;
+import com.db.cloud.exception.BulkWriteException;
+import com.db.cloud.limit.AdaptiveConcurrencyLimiter;
+import com.db.cloud.limit.ConcurrencyLimitConfig;
+import com.db.cloud.limit.KindConcurrencyLimit;
+import com.db.cloud.metrics.DatastoreRpc;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.testing.InMemoryClientProvider;
+import com.db.cloud.testing.InMemoryDatastoreConfig;
+import com.db.cloud.testing.InMemoryDatastoreConfig.Operation;
+import com.google.cloud.datastore.DatastoreException;
+
+/**
+ * This class CloudDatastoreDAOImplTest checks outcome of array add and update
+ * whose chunks fail partly or fully, of bulk write whose model can not be
+ * converted and concurrency limit of count queries.
+ */
+public class CloudDatastoreDAOImplTest {
+
+	private TestItemDAO dao;
+
+	@Before
+	public void setUp() {
+		dao = new TestItemDAO(new InMemoryClientProvider(),
+				CloudDatastoreDAOOptions.defaults().setMutationChunkSize(5).setParallelism(2));
+	}
+
+	@Test
+	public void partlyFailedAddThrowsResultWithAddedKeys() {
+		dao.add(items(13, 1));
+		try {
+			dao.add(items(1, 20));
+			fail("failed chunk was not thrown");
+		} catch (BulkWriteException e) {
+			BulkResult result = e.getResult();
+			assertEquals(BulkWriteException.ERROR_CODE, e.getErrorCode());
+			assertTrue(e.getCause() instanceof DatastoreException);
+			assertEquals(15, result.getSuccessCount());
+			assertEquals(5, result.getFailureCount());
+			for (int i = 0; i < 20; i++) {
+				// items 11 to 15 share chunk with existing item 13
+				assertEquals(i >= 10 && i < 15, result.getFailure(i) != null);
+				assertEquals(i >= 10 && i < 15 ? null : Long.valueOf(i + 1), result.getId(i));
+			}
+		}
+		assertEquals(16, dao.countEntities());
+	}
+
+	@Test
+	public void fullyFailedAddThrowsDatastoreFailure() {
+		dao.add(items(3, 1));
+		try {
+			dao.add(items(1, 5));
+			fail("failed chunk was not thrown");
+		} catch (DatastoreException e) {
+			assertEquals("ALREADY_EXISTS", e.getReason());
+		}
+		assertEquals(1, dao.countEntities());
+	}
+
+	@Test
+	public void partlyFailedUpdateThrowsResultWithUpdatedKeys() {
+		dao.add(items(1, 10));
+		try {
+			dao.update(items(1, 12));
+			fail("failed chunk was not thrown");
+		} catch (BulkWriteException e) {
+			assertEquals(10, e.getResult().getSuccessCount());
+			assertEquals(2, e.getResult().getFailureCount());
+		}
+	}
+
+	@Test
+	public void modelFailingConversionIsReportedAsItsFailure() {
+		dao.add(items(1, 6));
+		TestItem[] items = items(1, 6);
+		items[2].setId(null);
+		BulkResult result = dao.bulkUpdate(items);
+		assertEquals(5, result.getSuccessCount());
+		assertEquals(1, result.getFailureCount());
+		assertTrue(result.getFailure(2) != null);
+		assertNull(result.getId(2));
+	}
+
+	@Test
+	public void countTakesLimitSlotForEveryQuery() {
+		InMemoryClientProvider provider = new InMemoryClientProvider(
+				InMemoryDatastoreConfig.defaults().setMaxSkippedResults(7));
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(ConcurrencyLimitConfig.defaults());
+		TestItemDAO limited = new TestItemDAO(provider,
+				CloudDatastoreDAOOptions.defaults().setConcurrencyLimiter(limiter));
+		limited.add(items(1, 50));
+		KindConcurrencyLimit limit = limiter.forKind("TestItem");
+		long calls = limit.getCallCount();
+
+		assertEquals(50, limited.count());
+		// 50 entities skipped 7 per query take 8 queries
+		assertEquals(8, limit.getCallCount() - calls);
+		assertEquals(0, limit.getLatencyMillis(DatastoreRpc.QUERY), 0);
+	}
+
+	@Test
+	public void countedBulkAddCommitsGroupsOfItemsWithOneAllocation() {
+		InMemoryClientProvider provider = new InMemoryClientProvider();
+		TestItemDAO counted = new TestItemDAO(provider, CloudDatastoreDAOOptions.defaults().setParallelism(1)
+				.setShardedCounters(ShardedCounterConfig.defaults().setTransactionItems(10)));
+		TestItem[] items = items(1, 95);
+		for (TestItem item : items) {
+			item.setId(null);
+		}
+
+		BulkResult result = counted.bulkAdd(items);
+		assertEquals(95, result.getSuccessCount());
+		assertEquals(10, provider.getInMemoryDatastore().getCallCount(Operation.ALLOCATE_IDS));
+		assertEquals(10, provider.getInMemoryDatastore().getCallCount(Operation.COMMIT));
+		assertEquals(95, counted.getCounter("TestItem"));
+
+		counted.bulkDelete(new Long[] { result.getId(0), result.getId(1), 12345L });
+		assertEquals(93, counted.getCounter("TestItem"));
+		assertEquals(93, counted.countEntities());
+	}
+
+	/**
+	 * This items method returns count items with keys from firstId upwards.
+	 */
+	private static TestItem[] items(long firstId, int count) {
+		TestItem[] items = new TestItem[count];
+		for (int i = 0; i < count; i++) {
+			long id = firstId + i;
+			items[i] = new TestItem("item-" + id, (int) id);
+			items[i].setId(id);
+		}
+		return items;
+	}
+}
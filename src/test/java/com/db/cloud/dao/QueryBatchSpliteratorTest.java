@@ -0,0 +1,73 @@
+package com.db.cloud.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+import com.google.cloud.datastore.Cursor;
+
+/**
+ * This class QueryBatchSpliteratorTest checks that batches are read once and
+ * in order, also when executor never starts prefetch of next batch.
+ */
+public class QueryBatchSpliteratorTest {
+
+	@Test(timeout = 10000)
+	public void prefetchQueuedOnSaturatedExecutorIsReadByCaller() {
+		List<Runnable> queued = new ArrayList<>();
+		Executor saturated = queued::add;
+		AtomicInteger reads = new AtomicInteger();
+
+		assertEquals(numbers(25), read(25, 10, saturated, reads));
+		assertEquals(3, reads.get());
+		assertEquals(2, queued.size());
+
+		// queued prefetches run late find their batch already read
+		queued.forEach(Runnable::run);
+		assertEquals(3, reads.get());
+	}
+
+	@Test
+	public void prefetchRunOnExecutorIsNotReadAgain() {
+		AtomicInteger reads = new AtomicInteger();
+		assertEquals(numbers(20), read(20, 10, Runnable::run, reads));
+		// last full batch is followed by one empty batch
+		assertEquals(3, reads.get());
+	}
+
+	/**
+	 * This read method streams all of count numbers read by batches of passed
+	 * size.
+	 */
+	private static List<Integer> read(int count, int batchSize, Executor executor, AtomicInteger reads) {
+		QueryBatchSpliterator<Integer, Integer> spliterator = new QueryBatchSpliterator<>((cursor, size) -> {
+			reads.incrementAndGet();
+			int start = cursor == null ? 0
+					: Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor.toUrlSafe())));
+			List<Integer> results = new ArrayList<>();
+			for (int i = start; i < Math.min(count, start + size); i++) {
+				results.add(i);
+			}
+			return new QueryBatchSpliterator.Batch<>(results,
+					Cursor.copyFrom(String.valueOf(start + results.size()).getBytes()));
+		}, null, batchSize, Function.identity(), executor);
+		return StreamSupport.stream(spliterator, false).collect(Collectors.toList());
+	}
+
+	private static List<Integer> numbers(int count) {
+		List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			numbers.add(i);
+		}
+		return numbers;
+	}
+}
@@ -0,0 +1,43 @@
+package com.db.cloud.dao;
+
+/**
+ * This class TestItem is model stored by DAO tests.
+ */
+public class TestItem {
+
+	private Long id;
+	private String name;
+	private Integer qty;
+
+	public TestItem() {
+	}
+
+	public TestItem(String name, Integer qty) {
+		this.name = name;
+		this.qty = qty;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getQty() {
+		return qty;
+	}
+
+	public void setQty(Integer qty) {
+		this.qty = qty;
+	}
+}
@@ -0,0 +1,13 @@
+package com.db.cloud.dao;
+
+import com.db.cloud.client.CloudDatastoreClientProvider;
+
+/**
+ * This class TestItemDAO is DAO of TestItem used by tests.
+ */
+public class TestItemDAO extends CloudDatastoreDAOImpl<TestItem> {
+
+	public TestItemDAO(CloudDatastoreClientProvider clientProvider, CloudDatastoreDAOOptions options) {
+		super(TestItem.class, clientProvider, options);
+	}
+}
@@ -0,0 +1,63 @@
+package com.db.cloud.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.db.cloud.dao.CloudDatastoreDAOOptions;
+import com.db.cloud.dao.TestItem;
+import com.db.cloud.dao.TestItemDAO;
+import com.db.cloud.exception.CloudDatastoreDAOException;
+import com.db.cloud.model.BulkResult;
+import com.db.cloud.testing.InMemoryClientProvider;
+
+/**
+ * This class NdjsonImporterTest checks that lines are imported and that
+ * failed stage ends import instead of leaving reader blocked on full queue.
+ */
+public class NdjsonImporterTest {
+
+	private static final ImportConfig CONFIG = ImportConfig.defaults().setBatchSize(10).setDecoderThreads(2)
+			.setWriterThreads(2).setQueueCapacity(4);
+
+	@Test(timeout = 20000)
+	public void linesAreUpsertedInBatches() {
+		TestItemDAO dao = new TestItemDAO(new InMemoryClientProvider(), CloudDatastoreDAOOptions.defaults());
+		ImportResult result = new NdjsonImporter<>(dao, TestItem.class, CONFIG).importStream(lines(500), 0);
+		assertEquals(500, result.getImported());
+		assertEquals(0, result.getFailed());
+		assertEquals(500, dao.countEntities());
+	}
+
+	@Test(timeout = 20000)
+	public void errorOfWriterEndsImport() {
+		AssertionError error = new AssertionError("writer died");
+		TestItemDAO dao = new TestItemDAO(new InMemoryClientProvider(), CloudDatastoreDAOOptions.defaults()) {
+			@Override
+			public BulkResult bulkUpsert(TestItem[] t) {
+				throw error;
+			}
+		};
+		try {
+			new NdjsonImporter<>(dao, TestItem.class, CONFIG).importStream(lines(5000), 0);
+			fail("writer error was not thrown");
+		} catch (CloudDatastoreDAOException e) {
+			assertSame(error, e.getCause());
+		}
+	}
+
+	private static InputStream lines(int count) {
+		StringBuilder lines = new StringBuilder();
+		for (int i = 1; i <= count; i++) {
+			lines.append("{\"id\":").append(i).append(",\"name\":\"item-").append(i).append("\",\"qty\":").append(i)
+					.append("}\n");
+		}
+		return new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,203 @@
+package com.db.cloud.limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.db.cloud.exception.ConcurrencyLimitExceededException;
+import com.db.cloud.metrics.DatastoreRpc;
+import com.google.cloud.datastore.DatastoreException;
+
+/**
+ * This class KindConcurrencyLimitTest checks acquiring, queueing, timeout,
+ * rejection and latency averages per call type of KindConcurrencyLimit.
+ */
+public class KindConcurrencyLimitTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void callsWithinLimitRunAtOnce() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(2));
+		assertEquals("done", limit.call(() -> "done"));
+		assertEquals(0, limit.getInFlight());
+		assertEquals(1, limit.getCallCount());
+	}
+
+	@Test
+	public void queuedCallIsRejectedAfterMaxWait() throws Exception {
+		KindConcurrencyLimit limit = limit(
+				ConcurrencyLimitConfig.defaults().setInitialLimit(1).setMaxQueueSize(1).setMaxWaitMillis(50));
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> holder = hold(limit, release);
+
+		long start = System.nanoTime();
+		try {
+			limit.call(() -> "late");
+			fail("call over limit was not rejected");
+		} catch (ConcurrencyLimitExceededException e) {
+			assertEquals("Item", e.getKind());
+			assertEquals(1, e.getLimit());
+		}
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(45));
+		assertEquals(1, limit.getRejectedCount());
+		release.countDown();
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	public void callArrivingAtFullQueueIsRejectedAtOnce() throws Exception {
+		KindConcurrencyLimit limit = limit(
+				ConcurrencyLimitConfig.defaults().setInitialLimit(1).setMaxQueueSize(1).setMaxWaitMillis(10000));
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> holder = hold(limit, release);
+		Future<String> queued = executor.submit(() -> limit.call(() -> "queued"));
+		awaitQueued(limit, 1);
+
+		long start = System.nanoTime();
+		try {
+			limit.call(() -> "rejected");
+			fail("call at full queue was not rejected");
+		} catch (ConcurrencyLimitExceededException e) {
+			assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+		}
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(0, limit.getQueued());
+	}
+
+	@Test
+	public void queuedCallRunsWhenSlotIsReleased() throws Exception {
+		KindConcurrencyLimit limit = limit(
+				ConcurrencyLimitConfig.defaults().setInitialLimit(1).setMaxQueueSize(4).setMaxWaitMillis(10000));
+		CountDownLatch release = new CountDownLatch(1);
+		Future<?> holder = hold(limit, release);
+		Future<String> queued = executor.submit(() -> limit.call(() -> "queued"));
+		awaitQueued(limit, 1);
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+		holder.get(5, TimeUnit.SECONDS);
+		assertEquals(0, limit.getRejectedCount());
+	}
+
+	@Test
+	public void failedCallReleasesSlot() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(1).setMaxQueueSize(0));
+		try {
+			limit.call(() -> {
+				throw new IllegalStateException("failed");
+			});
+			fail("failure was not thrown");
+		} catch (IllegalStateException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertEquals(0, limit.getInFlight());
+		assertEquals("next", limit.call(() -> "next"));
+		assertEquals(0, limit.getDecreaseCount());
+	}
+
+	@Test
+	public void overloadErrorReducesLimit() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(10).setBackoffRatio(0.5));
+		try {
+			limit.call(() -> {
+				throw new DatastoreException(14, "unavailable", "UNAVAILABLE");
+			});
+			fail("failure was not thrown");
+		} catch (DatastoreException e) {
+			assertEquals(14, e.getCode());
+		}
+		assertEquals(5, limit.getLimit());
+		assertEquals(1, limit.getDecreaseCount());
+	}
+
+	@Test
+	public void slowCallsOfOtherTypeDoNotReduceLimit() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(10));
+		for (int i = 0; i < 30; i++) {
+			limit.call(DatastoreRpc.LOOKUP, () -> sleep(1));
+		}
+		for (int i = 0; i < 15; i++) {
+			limit.call(DatastoreRpc.QUERY, () -> sleep(20));
+		}
+		assertEquals(0, limit.getDecreaseCount());
+		assertTrue(limit.getLatencyMillis(DatastoreRpc.QUERY) > 5 * limit.getLatencyMillis(DatastoreRpc.LOOKUP));
+	}
+
+	@Test
+	public void slowerCallsOfSameTypeReduceLimit() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(10));
+		for (int i = 0; i < 30; i++) {
+			limit.call(DatastoreRpc.QUERY, () -> sleep(1));
+		}
+		for (int i = 0; i < 15 && limit.getDecreaseCount() == 0; i++) {
+			limit.call(DatastoreRpc.QUERY, () -> sleep(20));
+		}
+		assertEquals(1, limit.getDecreaseCount());
+		assertEquals(9, limit.getLimit());
+	}
+
+	@Test
+	public void unsampledCallIsNotAveraged() {
+		KindConcurrencyLimit limit = limit(ConcurrencyLimitConfig.defaults().setInitialLimit(10));
+		limit.call(() -> sleep(5));
+		assertEquals(0, limit.getLatencyMillis(DatastoreRpc.QUERY), 0);
+		assertEquals(1, limit.getCallCount());
+	}
+
+	private static KindConcurrencyLimit limit(ConcurrencyLimitConfig config) {
+		return new AdaptiveConcurrencyLimiter(config).forKind("Item");
+	}
+
+	/**
+	 * This hold method takes one slot on other thread until release is counted
+	 * down.
+	 */
+	private Future<?> hold(KindConcurrencyLimit limit, CountDownLatch release) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		Future<?> holder = executor.submit(() -> limit.call(() -> {
+			started.countDown();
+			try {
+				return release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		}));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return holder;
+	}
+
+	private static boolean sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return true;
+	}
+
+	private static void awaitQueued(KindConcurrencyLimit limit, int queued) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (limit.getQueued() < queued) {
+			if (System.nanoTime() > deadline)
+				fail("call was not queued");
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.db.cloud.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * This class LatencyHistogramTest checks bucket bounds and percentiles of
+ * LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void everyValueFallsInBucketWhoseRangeHoldsIt() {
+		long[] values = { 0, 1, 31, 32, 33, 63, 64, 65, 127, 128, 1000, 123456789L, 1L << 40, (1L << 40) - 1,
+				Long.MAX_VALUE - 1, Long.MAX_VALUE };
+		for (long value : values) {
+			assertBucketHolds(value);
+		}
+		for (long value = 0; value < 100000; value++) {
+			assertBucketHolds(value);
+		}
+	}
+
+	@Test
+	public void bucketsAreContiguousAndWithinThreePercent() {
+		long previousHighest = -1;
+		for (int bucket = 0; bucket <= LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+			long lowest = previousHighest + 1;
+			long highest = LatencyHistogram.highestValue(bucket);
+			assertEquals(bucket, LatencyHistogram.bucket(lowest));
+			assertEquals(bucket, LatencyHistogram.bucket(highest));
+			assertTrue("bucket " + bucket + " too wide", (double) (highest - lowest) / Math.max(1, lowest) <= 1.0 / 32);
+			previousHighest = highest;
+		}
+		assertEquals(Long.MAX_VALUE, previousHighest);
+	}
+
+	@Test
+	public void percentilesAreWithinBucketPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1; value <= 10000; value++) {
+			histogram.record(value * 1000);
+		}
+		assertEquals(10000, histogram.getCount());
+		assertEquals(10000000, histogram.getMax());
+		assertEquals(5000500, histogram.getMean(), 0.001);
+		assertWithin(5000000, histogram.getValueAtPercentile(50));
+		assertWithin(9900000, histogram.getValueAtPercentile(99));
+		assertWithin(1000, histogram.getValueAtPercentile(0));
+		assertEquals(10000000, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void negativeValueIsRecordedAsZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		assertEquals(1, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void emptyAndResetHistogramReportZero() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals(0, histogram.getMean(), 0);
+		histogram.record(12345);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void percentileAboveHundredIsRejected() {
+		new LatencyHistogram().getValueAtPercentile(100.1);
+	}
+
+	private static void assertBucketHolds(long value) {
+		int bucket = LatencyHistogram.bucket(value);
+		long lowest = bucket == 0 ? 0 : LatencyHistogram.highestValue(bucket - 1) + 1;
+		assertTrue(value + " below bucket " + bucket, lowest <= value);
+		assertTrue(value + " above bucket " + bucket, value <= LatencyHistogram.highestValue(bucket));
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue(actual + " not within 1/32 of " + expected,
+				actual >= expected && actual <= expected + expected / 32);
+	}
+}
@@ -0,0 +1,176 @@
+package com.db.cloud.testing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.cloud.datastore.Cursor;
+import com.google.cloud.datastore.Entity;
+import com.google.cloud.datastore.EntityQuery;
+import com.google.cloud.datastore.Key;
+import com.google.cloud.datastore.KeyFactory;
+import com.google.cloud.datastore.Query;
+import com.google.cloud.datastore.QueryResults;
+import com.google.cloud.datastore.StructuredQuery.OrderBy;
+import com.google.cloud.datastore.StructuredQuery.PropertyFilter;
+import com.google.datastore.v1.QueryResultBatch.MoreResultsType;
+
+/**
+ * This class QueryEvaluatorTest checks cursors, offset and limit of queries
+ * run by InMemoryDatastore.
+ */
+public class QueryEvaluatorTest {
+
+	private static final String KIND = "Item";
+
+	private InMemoryDatastore datastore;
+	private KeyFactory keyFactory;
+
+	@Before
+	public void setUp() {
+		datastore = new InMemoryDatastore();
+		keyFactory = datastore.newKeyFactory().setKind(KIND);
+		for (long id = 1; id <= 20; id++) {
+			datastore.put(Entity.newBuilder(keyFactory.newKey(id)).set("qty", id % 5).build());
+		}
+	}
+
+	@Test
+	public void limitAndCursorPageThroughAllResultsInOrder() {
+		List<Long> ids = new ArrayList<>();
+		Cursor cursor = null;
+		int pages = 0;
+		while (true) {
+			QueryResults<Entity> results = datastore.run(Query.newEntityQueryBuilder().setKind(KIND)
+					.setOrderBy(OrderBy.asc("qty")).setStartCursor(cursor).setLimit(6).build());
+			int read = 0;
+			while (results.hasNext()) {
+				ids.add(results.next().getKey().getId());
+				read++;
+			}
+			pages++;
+			cursor = results.getCursorAfter();
+			if (results.getMoreResults() == MoreResultsType.NO_MORE_RESULTS || read == 0)
+				break;
+		}
+		assertEquals(20, ids.size());
+		// ordered by qty, ties in key order
+		assertEquals(Long.valueOf(5), ids.get(0));
+		assertEquals(Long.valueOf(10), ids.get(1));
+		assertEquals(Long.valueOf(19), ids.get(19));
+		assertTrue(pages >= 4);
+	}
+
+	@Test
+	public void limitReportsMoreResultsAfterLimit() {
+		QueryResults<Entity> results = datastore.run(Query.newEntityQueryBuilder().setKind(KIND).setLimit(5).build());
+		assertEquals(5, count(results));
+		assertEquals(MoreResultsType.MORE_RESULTS_AFTER_LIMIT, results.getMoreResults());
+
+		results = datastore.run(Query.newEntityQueryBuilder().setKind(KIND).setLimit(50).build());
+		assertEquals(20, count(results));
+		assertEquals(MoreResultsType.NO_MORE_RESULTS, results.getMoreResults());
+	}
+
+	@Test
+	public void offsetSkipsResultsBeforeLimit() {
+		QueryResults<Entity> results = datastore
+				.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(7).setLimit(3).build());
+		assertEquals(7, results.getSkippedResults());
+		assertEquals(8, nextId(results));
+		assertEquals(9, nextId(results));
+		assertEquals(10, nextId(results));
+		assertFalse(results.hasNext());
+	}
+
+	@Test
+	public void offsetBeyondResultsSkipsRemainingOnly() {
+		QueryResults<Key> results = datastore.run(
+				Query.newKeyQueryBuilder().setKind(KIND).setFilter(PropertyFilter.eq("qty", 2)).setOffset(10).build());
+		assertEquals(4, results.getSkippedResults());
+		assertFalse(results.hasNext());
+		assertEquals(MoreResultsType.NO_MORE_RESULTS, results.getMoreResults());
+	}
+
+	@Test
+	public void cursorBeforeFirstResultContinuesAfterSkippedResults() {
+		QueryResults<Entity> skipped = datastore
+				.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(4).setLimit(0).build());
+		QueryResults<Entity> results = datastore.run(Query.newEntityQueryBuilder().setKind(KIND)
+				.setStartCursor(skipped.getCursorAfter()).setLimit(1).build());
+		assertEquals(5, nextId(results));
+	}
+
+	@Test
+	public void cursorStaysAtEntityWhenEntitiesBeforeItChange() {
+		QueryResults<Entity> first = datastore.run(Query.newEntityQueryBuilder().setKind(KIND).setLimit(10).build());
+		assertEquals(10, count(first));
+		Cursor cursor = first.getCursorAfter();
+		datastore.delete(keyFactory.newKey(2), keyFactory.newKey(3));
+
+		QueryResults<Entity> next = datastore
+				.run(Query.newEntityQueryBuilder().setKind(KIND).setStartCursor(cursor).setLimit(1).build());
+		assertEquals(11, nextId(next));
+	}
+
+	@Test
+	public void endCursorBoundsResults() {
+		QueryResults<Entity> first = datastore.run(Query.newEntityQueryBuilder().setKind(KIND).setLimit(12).build());
+		count(first);
+		QueryResults<Entity> results = datastore.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(10)
+				.setEndCursor(first.getCursorAfter()).build());
+		assertEquals(11, nextId(results));
+		assertEquals(12, nextId(results));
+		assertFalse(results.hasNext());
+		assertEquals(MoreResultsType.MORE_RESULTS_AFTER_CURSOR, results.getMoreResults());
+	}
+
+	@Test
+	public void orderLeavesOutEntitiesMissingOrderProperty() {
+		datastore.put(Entity.newBuilder(keyFactory.newKey(100)).set("name", "unordered").build());
+		EntityQuery query = Query.newEntityQueryBuilder().setKind(KIND).setOrderBy(OrderBy.desc("qty")).build();
+		assertEquals(20, count(datastore.run(query)));
+		assertEquals(21, count(datastore.run(Query.newEntityQueryBuilder().setKind(KIND).build())));
+	}
+
+	@Test
+	public void offsetAboveMaxSkippedResultsEndsBatchAfterSkippedResults() {
+		InMemoryDatastore capped = new InMemoryDatastore(InMemoryDatastoreConfig.defaults().setMaxSkippedResults(6));
+		for (long id = 1; id <= 20; id++) {
+			capped.put(Entity.newBuilder(capped.newKeyFactory().setKind(KIND).newKey(id)).build());
+		}
+		QueryResults<Entity> results = capped.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(15).build());
+		assertEquals(6, results.getSkippedResults());
+		assertFalse(results.hasNext());
+		assertEquals(MoreResultsType.NOT_FINISHED, results.getMoreResults());
+
+		results = capped.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(9)
+				.setStartCursor(results.getCursorAfter()).build());
+		assertEquals(6, results.getSkippedResults());
+		assertEquals(MoreResultsType.NOT_FINISHED, results.getMoreResults());
+
+		results = capped.run(Query.newEntityQueryBuilder().setKind(KIND).setOffset(3)
+				.setStartCursor(results.getCursorAfter()).build());
+		assertEquals(3, results.getSkippedResults());
+		assertEquals(16, nextId(results));
+	}
+
+	private static long nextId(QueryResults<Entity> results) {
+		return results.next().getKey().getId();
+	}
+
+	private static int count(QueryResults<?> results) {
+		int count = 0;
+		while (results.hasNext()) {
+			results.next();
+			count++;
+		}
+		return count;
+	}
+}